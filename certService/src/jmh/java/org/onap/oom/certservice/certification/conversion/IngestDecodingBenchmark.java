@@ -0,0 +1,106 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.conversion;
+
+import java.security.PrivateKey;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.onap.oom.certservice.certification.UpdateRequestTypeDetector;
+import org.onap.oom.certservice.certification.X509CertificateParser;
+import org.onap.oom.certservice.certification.exception.CertificateDecryptionException;
+import org.onap.oom.certservice.certification.exception.DecryptionException;
+import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decoding of certificate request fields, from Base64 down to the models sent to the CA, measured without the
+ * CA round trip. {@code createCsrModel} and {@code createCertificateModel} are the whole decoding of
+ * initialization and update requests, the other benchmarks their single steps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IngestDecodingBenchmark {
+
+    private final PemObjectFactory pemObjectFactory = new PemObjectFactory();
+    private final Pkcs10CertificationRequestFactory certificationRequestFactory =
+        new Pkcs10CertificationRequestFactory();
+    private final StringBase64ToPrivateKeyConverter privateKeyConverter = new StringBase64ToPrivateKeyConverter();
+    private final CsrModelFactory csrModelFactory = new CsrModelFactory();
+    private final OldCertificateModelFactory oldCertificateModelFactory = createOldCertificateModelFactory();
+    private final UpdateRequestTypeDetector updateRequestTypeDetector = new UpdateRequestTypeDetector();
+
+    static OldCertificateModelFactory createOldCertificateModelFactory() {
+        return new OldCertificateModelFactory(new PemStringToCertificateConverter(), new X509CertificateParser());
+    }
+
+    @Benchmark
+    public Optional<String> decodeBase64(IngestFixtures fixtures) {
+        return fixtures.encodedCsr.asString();
+    }
+
+    @Benchmark
+    public Optional<PemObject> createPemObject(IngestFixtures fixtures) {
+        return pemObjectFactory.createPemObject(fixtures.csrPem);
+    }
+
+    @Benchmark
+    public Optional<PKCS10CertificationRequest> createPkcs10CertificationRequest(IngestFixtures fixtures) {
+        return certificationRequestFactory.createPkcs10CertificationRequest(fixtures.csrPemObject);
+    }
+
+    @Benchmark
+    public PrivateKey convertPrivateKey(IngestFixtures fixtures) throws KeyDecryptionException {
+        return privateKeyConverter.convert(fixtures.encodedPrivateKey);
+    }
+
+    @Benchmark
+    public CsrModel buildCsrModel(IngestFixtures fixtures) throws DecryptionException {
+        return new CsrModel.CsrModelBuilder(fixtures.csr, fixtures.csrModel.getPrivateKey()).build();
+    }
+
+    @Benchmark
+    public CsrModel createCsrModel(IngestFixtures fixtures) throws DecryptionException {
+        return csrModelFactory.createCsrModel(fixtures.encodedCsr, fixtures.encodedPrivateKey);
+    }
+
+    @Benchmark
+    public OldCertificateModel createCertificateModel(IngestFixtures fixtures)
+        throws CertificateDecryptionException {
+        return oldCertificateModelFactory.createCertificateModel(fixtures.encodedCertificateChain,
+            fixtures.encodedPrivateKeyString);
+    }
+
+    @Benchmark
+    public boolean detectKeyUpdate(IngestFixtures fixtures) {
+        return updateRequestTypeDetector.isKur(fixtures.csrModel.getCertificateData(),
+            fixtures.oldCertificateModel.getCertificateData());
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.conversion;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link IngestDecodingBenchmark} run by as many threads as there are processors, as when many clients send
+ * requests at once. Throughput which does not scale with the thread count compared to the single threaded run
+ * points to contention, e.g. in JCA provider and factory lookups done for every request.
+ */
+@Threads(Threads.MAX)
+public class IngestDecodingContendedBenchmark extends IngestDecodingBenchmark {
+}
@@ -0,0 +1,141 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.conversion;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.onap.oom.certservice.certification.exception.DecryptionException;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Request fields as sent by certService client: Base64 encoded PEM of a PKCS#10 CSR, of its PKCS#8 private key
+ * and, for certificate update, of the certificate chain to be renewed. The CSR carries the given number of
+ * DNS SANs and a key of the given size.
+ */
+@State(Scope.Benchmark)
+public class IngestFixtures {
+
+    private static final X500Name SUBJECT =
+        new X500Name("CN=onap.org,OU=ONAP,O=Linux-Foundation,L=San-Francisco,ST=California,C=US");
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    @Param({"1", "10", "100"})
+    public int sanCount;
+
+    @Param({"2048", "4096"})
+    public int keySize;
+
+    String csrPem;
+    StringBase64 encodedCsr;
+    PemObject csrPemObject;
+    PKCS10CertificationRequest csr;
+    StringBase64 encodedPrivateKey;
+    String encodedPrivateKeyString;
+    StringBase64 encodedCertificateChain;
+    CsrModel csrModel;
+    OldCertificateModel oldCertificateModel;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException, OperatorCreationException, IOException,
+        DecryptionException {
+        Security.addProvider(new BouncyCastleProvider());
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(keySize);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        final ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(keyPair.getPrivate());
+        final GeneralNames sans = createSans();
+
+        final ExtensionsGenerator extensionsGenerator = new ExtensionsGenerator();
+        extensionsGenerator.addExtension(Extension.subjectAlternativeName, false, sans);
+        csr = new JcaPKCS10CertificationRequestBuilder(SUBJECT, keyPair.getPublic())
+            .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensionsGenerator.generate())
+            .build(signer);
+        csrPem = toPem(new PemObject("CERTIFICATE REQUEST", csr.getEncoded()));
+        csrPemObject = new PemObjectFactory().createPemObject(csrPem).orElseThrow();
+        encodedCsr = new StringBase64(encode(csrPem));
+
+        encodedPrivateKeyString = encode(toPem(new PemObject("PRIVATE KEY", keyPair.getPrivate().getEncoded())));
+        encodedPrivateKey = new StringBase64(encodedPrivateKeyString);
+
+        final Instant now = Instant.now();
+        final JcaX509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(SUBJECT,
+            BigInteger.ONE, Date.from(now), Date.from(now.plus(Duration.ofDays(365))), SUBJECT, keyPair.getPublic());
+        certificateBuilder.addExtension(Extension.subjectAlternativeName, false, sans);
+        final String certificatePem =
+            toPem(new PemObject("CERTIFICATE", certificateBuilder.build(signer).getEncoded()));
+        // the issuing CA certificate follows in the chain, it is not needed for the update
+        encodedCertificateChain = new StringBase64(encode(certificatePem + certificatePem));
+
+        csrModel = new CsrModel.CsrModelBuilder(csr, keyPair.getPrivate()).build();
+        oldCertificateModel = IngestDecodingBenchmark.createOldCertificateModelFactory()
+            .createCertificateModel(encodedCertificateChain, encodedPrivateKeyString);
+    }
+
+    private GeneralNames createSans() {
+        final GeneralName[] names = new GeneralName[sanCount];
+        for (int i = 0; i < sanCount; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "service-" + i + ".onap.org");
+        }
+        return new GeneralNames(names);
+    }
+
+    private static String toPem(PemObject pemObject) throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        try (JcaPEMWriter pemWriter = new JcaPEMWriter(stringWriter)) {
+            pemWriter.writeObject(pemObject);
+        }
+        return stringWriter.toString();
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.cert.CertPathValidator;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Cost of JCA engine lookups under contention, with as many threads as concurrent requests at peak. Each
+ * {@code lookup*} benchmark gets the engine with {@code getInstance}, as every request did before, and each
+ * {@code reused*} one takes it from {@link JcaEngines}. Apart from the certificate path validator, which only
+ * measures acquiring the engine, the engine is then used the way a request uses it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(64)
+public class JcaEnginesBenchmark {
+
+    private static final String SHA256_WITH_RSA = PKCSObjectIdentifiers.sha256WithRSAEncryption.getId();
+    private static final int KEY_SIZE = 2048;
+
+    private byte[] encodedCertificate;
+    private byte[] encodedPublicKey;
+    private PublicKey publicKey;
+    private byte[] signedBytes;
+    private byte[] signatureBytes;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException, OperatorCreationException, IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(KEY_SIZE);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        final X500Name name = new X500Name("CN=benchmark.onap.org");
+        final Date now = new Date();
+        encodedCertificate = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, now,
+            new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)), name, keyPair.getPublic())
+            .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate()))
+            .getEncoded();
+        publicKey = keyPair.getPublic();
+        encodedPublicKey = publicKey.getEncoded();
+        signedBytes = encodedCertificate;
+        final Signature signature = Signature.getInstance(SHA256_WITH_RSA);
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signedBytes);
+        signatureBytes = signature.sign();
+    }
+
+    @Benchmark
+    public Certificate lookupCertificateFactory() throws GeneralSecurityException {
+        return CertificateFactory.getInstance("X.509", BouncyCastleProvider.PROVIDER_NAME)
+            .generateCertificate(new ByteArrayInputStream(encodedCertificate));
+    }
+
+    @Benchmark
+    public Certificate reusedCertificateFactory() throws GeneralSecurityException {
+        return JcaEngines.getX509CertificateFactory()
+            .generateCertificate(new ByteArrayInputStream(encodedCertificate));
+    }
+
+    @Benchmark
+    public PublicKey lookupKeyFactory() throws GeneralSecurityException {
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+    }
+
+    @Benchmark
+    public PublicKey reusedKeyFactory() throws GeneralSecurityException {
+        return JcaEngines.getRsaKeyFactory().generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+    }
+
+    @Benchmark
+    public boolean lookupSignature() throws GeneralSecurityException {
+        return verify(Signature.getInstance(SHA256_WITH_RSA, BouncyCastleProvider.PROVIDER_NAME));
+    }
+
+    @Benchmark
+    public boolean reusedSignature() throws GeneralSecurityException {
+        return verify(JcaEngines.getSignature(SHA256_WITH_RSA));
+    }
+
+    @Benchmark
+    public CertPathValidator lookupCertPathValidator() throws GeneralSecurityException {
+        return CertPathValidator.getInstance("PKIX", BouncyCastleProvider.PROVIDER_NAME);
+    }
+
+    @Benchmark
+    public CertPathValidator reusedCertPathValidator() throws GeneralSecurityException {
+        return JcaEngines.getPkixCertPathValidator();
+    }
+
+    private boolean verify(Signature signature) throws GeneralSecurityException {
+        signature.initVerify(publicKey);
+        signature.update(signedBytes);
+        return signature.verify(signatureBytes);
+    }
+}
@@ -0,0 +1,195 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.CertOrEncCert;
+import org.bouncycastle.asn1.cmp.CertRepMessage;
+import org.bouncycastle.asn1.cmp.CertResponse;
+import org.bouncycastle.asn1.cmp.CertifiedKeyPair;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.cmp.PKIStatus;
+import org.bouncycastle.asn1.cmp.PKIStatusInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedProtection;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PkiMessageProtection;
+
+/**
+ * Messages the CMP core benchmarks work on. Certificates are issued on the fly by a three level PKI (root CA,
+ * intermediate CA, end entity) with 2048 bit RSA keys, as the certificates in test resources have expired and
+ * would fail chain verification long before reaching the interesting part of it.
+ */
+final class CmpBenchmarkFixtures {
+
+    static final String IAK = "mypassword";
+    static final String SENDER_KID = "benchmark";
+    static final X500Name ROOT_DN = new X500Name("CN=Root CA,O=Linux-Foundation,C=US");
+    static final X500Name ISSUER_DN = new X500Name("CN=ManagementCA,O=Linux-Foundation,C=US");
+    static final X500Name SUBJECT_DN =
+        new X500Name("CN=onap.org,OU=ONAP,O=Linux-Foundation,L=San-Francisco,ST=California,C=US");
+    static final GeneralName[] SANS = {
+        new GeneralName(GeneralName.dNSName, "onap.org"),
+        new GeneralName(GeneralName.dNSName, "www.onap.org"),
+        new GeneralName(GeneralName.iPAddress, "127.0.0.1")
+    };
+
+    private static final int CERT_REQ_ID = 1;
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+    private static final int KEY_SIZE = 2048;
+    private static final Duration VALIDITY = Duration.ofDays(365);
+
+    private CmpBenchmarkFixtures() {
+    }
+
+    static KeyPair generateKeyPair() throws GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(KEY_SIZE);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    /**
+     * Creates request of given type for a certificate of {@link #SUBJECT_DN} with {@link #SANS}.
+     */
+    static CreateCertRequest createRequest(int requestType, KeyPair keyPair, PkiMessageProtection protection,
+        CMPCertificate[] extraCerts) {
+        final Instant now = Instant.now();
+        final CreateCertRequest request = new CreateCertRequest();
+        request.setIssuerDn(ISSUER_DN);
+        request.setSubjects(List.of(CertRequestSubject.from(
+            new CsrModel(null, SUBJECT_DN, keyPair.getPrivate(), keyPair.getPublic(), SANS))));
+        request.setNotBefore(Date.from(now));
+        request.setNotAfter(Date.from(now.plus(Duration.ofDays(365))));
+        request.setSenderKid(SENDER_KID);
+        request.setCmpRequestType(requestType);
+        request.setProtection(protection);
+        request.setExtraCerts(extraCerts);
+        request.setCaName("benchmark");
+        return request;
+    }
+
+    /**
+     * Returns bytes of a resource from test resources, e.g. a response recorded from EJBCA.
+     */
+    static byte[] readResource(String name) {
+        try (InputStream inputStream = CmpBenchmarkFixtures.class.getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing resource " + name);
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Issued certificates of a three level PKI and initialization response delivering them.
+     */
+    static final class IssuedCertificate {
+
+        final KeyPair leafKeyPair;
+        final X509Certificate leafCertificate;
+        final X509Certificate issuerCertificate;
+        final X509Certificate rootCertificate;
+        final byte[] responseBytes;
+
+        IssuedCertificate() throws GeneralSecurityException, OperatorCreationException, IOException,
+            CmpClientException {
+            final KeyPair rootKeyPair = generateKeyPair();
+            final KeyPair issuerKeyPair = generateKeyPair();
+            leafKeyPair = generateKeyPair();
+            rootCertificate = issue(ROOT_DN, ROOT_DN, rootKeyPair.getPublic(), rootKeyPair.getPrivate(), true);
+            issuerCertificate =
+                issue(ROOT_DN, ISSUER_DN, issuerKeyPair.getPublic(), rootKeyPair.getPrivate(), true);
+            leafCertificate =
+                issue(ISSUER_DN, SUBJECT_DN, leafKeyPair.getPublic(), issuerKeyPair.getPrivate(), false);
+            responseBytes = createInitializationResponse().getEncoded();
+        }
+
+        /**
+         * Initialization response as sent by EJBCA: the certificate in the response, the chain in extraCerts,
+         * the root CA also in caPubs, protected with password based MAC.
+         */
+        private PKIMessage createInitializationResponse() throws GeneralSecurityException, CmpClientException {
+            final CMPCertificate leaf = toCmpCertificate(leafCertificate);
+            final CMPCertificate issuer = toCmpCertificate(issuerCertificate);
+            final CMPCertificate root = toCmpCertificate(rootCertificate);
+            final CertResponse certResponse = new CertResponse(new ASN1Integer(CERT_REQ_ID),
+                new PKIStatusInfo(PKIStatus.granted), new CertifiedKeyPair(new CertOrEncCert(leaf)), null);
+            final CertRepMessage certRepMessage =
+                new CertRepMessage(new CMPCertificate[]{root}, new CertResponse[]{certResponse});
+            final PasswordBasedProtection protection =
+                new PasswordBasedProtection(IAK,
+                    new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+            final PKIHeader header =
+                CmpUtil.generatePkiHeader(ISSUER_DN, SUBJECT_DN, protection.getAlgorithmIdentifier(), SENDER_KID);
+            final PKIBody body = new PKIBody(PKIBody.TYPE_INIT_REP, certRepMessage);
+            return new PKIMessage(header, body, protection.generatePkiMessageProtection(header, body),
+                new CMPCertificate[]{issuer, root});
+        }
+    }
+
+    private static X509Certificate issue(X500Name issuer, X500Name subject, PublicKey publicKey,
+        PrivateKey signingKey, boolean ca) throws GeneralSecurityException, OperatorCreationException, IOException {
+        final Instant now = Instant.now();
+        final JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer,
+            BigInteger.valueOf(now.toEpochMilli()), Date.from(now.minus(Duration.ofDays(1))),
+            Date.from(now.plus(VALIDITY)), subject, publicKey);
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        final X509CertificateHolder holder = builder.build(
+            new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(signingKey));
+        return new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+            .getCertificate(holder);
+    }
+
+    private static CMPCertificate toCmpCertificate(X509Certificate certificate) throws GeneralSecurityException {
+        return CMPCertificate.getInstance(certificate.getEncoded());
+    }
+}
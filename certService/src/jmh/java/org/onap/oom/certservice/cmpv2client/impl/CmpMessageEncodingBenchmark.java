@@ -0,0 +1,126 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.IAK;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.apache.http.nio.ContentEncoder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedProtection;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PkiMessageProtection;
+import org.onap.oom.certservice.cmpv2client.impl.protections.SignatureProtection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Protecting a CMPv2 request and encoding it for sending. {@code encodeTwice} encodes header and body for the
+ * protection and then the whole message into a byte array, {@code encodeOnce} reuses encoding of header and body
+ * in {@link ProtectedPkiMessage} and hands the message over to the connection as {@link DerEncodedEntity} does
+ * for the asynchronous client. Run with {@code -prof gc} to compare allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CmpMessageEncodingBenchmark {
+
+    @Param({"password", "signature"})
+    public String protectionType;
+
+    private final DiscardingContentEncoder contentEncoder = new DiscardingContentEncoder();
+    private PkiMessageProtection protection;
+    private PKIHeader header;
+    private PKIBody body;
+    private CMPCertificate[] extraCerts;
+
+    @Setup
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        final CmpBenchmarkFixtures.IssuedCertificate oldCertificate = new CmpBenchmarkFixtures.IssuedCertificate();
+        if ("signature".equals(protectionType)) {
+            protection = new SignatureProtection(oldCertificate.leafKeyPair.getPrivate());
+            extraCerts = new CMPCertificate[]{CMPCertificate.getInstance(oldCertificate.leafCertificate.getEncoded())};
+        } else {
+            protection =
+                new PasswordBasedProtection(IAK, new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+        }
+        final int requestType = extraCerts == null ? PKIBody.TYPE_INIT_REQ : PKIBody.TYPE_KEY_UPDATE_REQ;
+        final PKIMessage message = CmpBenchmarkFixtures.createRequest(requestType,
+            CmpBenchmarkFixtures.generateKeyPair(), protection, extraCerts).generateCertReq();
+        header = message.getHeader();
+        body = message.getBody();
+    }
+
+    @Benchmark
+    public byte[] encodeTwice() throws CmpClientException, IOException {
+        final DERBitString messageProtection = protection.generatePkiMessageProtection(header, body);
+        return new PKIMessage(header, body, messageProtection, extraCerts).getEncoded();
+    }
+
+    @Benchmark
+    public DerEncodedEntity encodeOnce() throws CmpClientException, IOException {
+        final byte[] protectedBytes = CmpUtil.generateProtectedBytes(header, body);
+        final DERBitString messageProtection = protection.generatePkiMessageProtection(protectedBytes);
+        final DerEncodedEntity entity = new DerEncodedEntity(
+            new ProtectedPkiMessage(header, body, messageProtection, extraCerts, protectedBytes));
+        entity.produceContent(contentEncoder, null);
+        return entity;
+    }
+
+    /**
+     * Encoder of a connection accepting all content at once.
+     */
+    private static final class DiscardingContentEncoder implements ContentEncoder {
+
+        @Override
+        public int write(ByteBuffer src) {
+            final int length = src.remaining();
+            src.position(src.limit());
+            return length;
+        }
+
+        @Override
+        public void complete() {
+            // nothing is sent
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.IAK;
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.ISSUER_DN;
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.SANS;
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.SUBJECT_DN;
+
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.crmf.CertRequest;
+import org.bouncycastle.asn1.crmf.CertTemplateBuilder;
+import org.bouncycastle.asn1.crmf.ProofOfPossession;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedProtection;
+import org.onap.oom.certservice.cmpv2client.impl.protections.SignatureProtection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building of CMPv2 requests: the whole {@link CreateCertRequest#generateCertReq()} of an initialization request
+ * (password based MAC) and a key update request (signature with the old key), and its parts measured alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CmpRequestBenchmark {
+
+    private CreateCertRequest initializationRequest;
+    private CreateCertRequest keyUpdateRequest;
+    private PasswordBasedProtection passwordBasedProtection;
+    private SignatureProtection signatureProtection;
+    private KeyPair keyPair;
+    private CertRequest certRequest;
+    private PKIHeader header;
+    private PKIBody body;
+
+    @Setup
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        final CmpBenchmarkFixtures.IssuedCertificate oldCertificate = new CmpBenchmarkFixtures.IssuedCertificate();
+        keyPair = CmpBenchmarkFixtures.generateKeyPair();
+        passwordBasedProtection =
+            new PasswordBasedProtection(IAK, new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+        signatureProtection = new SignatureProtection(oldCertificate.leafKeyPair.getPrivate());
+
+        initializationRequest =
+            CmpBenchmarkFixtures.createRequest(PKIBody.TYPE_INIT_REQ, keyPair, passwordBasedProtection, null);
+        keyUpdateRequest = CmpBenchmarkFixtures.createRequest(PKIBody.TYPE_KEY_UPDATE_REQ, keyPair,
+            signatureProtection,
+            new CMPCertificate[]{CMPCertificate.getInstance(oldCertificate.leafCertificate.getEncoded())});
+
+        certRequest = new CertRequest(1, new CertTemplateBuilder()
+            .setIssuer(ISSUER_DN)
+            .setSubject(SUBJECT_DN)
+            .setExtensions(CmpMessageHelper.generateExtension(SANS))
+            .setPublicKey(SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()))
+            .build(), null);
+        final PKIMessage message = initializationRequest.generateCertReq();
+        header = message.getHeader();
+        body = message.getBody();
+    }
+
+    @Benchmark
+    public PKIMessage generateInitializationRequest() throws CmpClientException {
+        return initializationRequest.generateCertReq();
+    }
+
+    @Benchmark
+    public PKIMessage generateKeyUpdateRequest() throws CmpClientException {
+        return keyUpdateRequest.generateCertReq();
+    }
+
+    @Benchmark
+    public ProofOfPossession generateProofOfPossession() throws CmpClientException {
+        return CmpMessageHelper.generateProofOfPossession(certRequest, keyPair);
+    }
+
+    @Benchmark
+    public Extensions generateExtension() throws CmpClientException {
+        return CmpMessageHelper.generateExtension(SANS);
+    }
+
+    @Benchmark
+    public byte[] generateProtectedBytes() throws CmpClientException {
+        return CmpUtil.generateProtectedBytes(header, body);
+    }
+
+    @Benchmark
+    public DERBitString passwordBasedProtection() throws CmpClientException {
+        return passwordBasedProtection.generatePkiMessageProtection(header, body);
+    }
+
+    @Benchmark
+    public DERBitString signatureProtection() throws CmpClientException {
+        return signatureProtection.generatePkiMessageProtection(header, body);
+    }
+}
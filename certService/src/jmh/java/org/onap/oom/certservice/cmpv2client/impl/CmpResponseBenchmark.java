@@ -0,0 +1,107 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.onap.oom.certservice.cmpv2client.impl.CmpBenchmarkFixtures.IAK;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.cmp.CertRepMessage;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+import org.onap.oom.certservice.cmpv2client.validation.CmpCertificationValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Processing of CMPv2 responses: parsing, protection check and verification of the returned certificate chain.
+ * {@code parseRecordedResponse} parses a response recorded from EJBCA, the others work on an initialization
+ * response with a certificate chain which is valid now, see {@link CmpBenchmarkFixtures}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CmpResponseBenchmark {
+
+    private static final String RECORDED_RESPONSE = "/ReturnedSuccessPKIMessageWithCertificateFile";
+
+    private final CmpCertificationValidator validator =
+        new CmpCertificationValidator(new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+    private final VerifiedChainLinkCache verifiedLinks =
+        new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
+    private byte[] recordedResponseBytes;
+    private byte[] responseBytes;
+    private PKIMessage response;
+    private CertRepMessage certRepMessage;
+    private X509Certificate leafCertificate;
+    private PublicKey subjectPublicKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        final CmpBenchmarkFixtures.IssuedCertificate issuedCertificate =
+            new CmpBenchmarkFixtures.IssuedCertificate();
+        recordedResponseBytes = CmpBenchmarkFixtures.readResource(RECORDED_RESPONSE);
+        responseBytes = issuedCertificate.responseBytes;
+        response = PKIMessage.getInstance(responseBytes);
+        certRepMessage = (CertRepMessage) response.getBody().getContent();
+        leafCertificate = issuedCertificate.leafCertificate;
+        subjectPublicKey = issuedCertificate.leafKeyPair.getPublic();
+        // fail fast instead of measuring exception paths
+        checkCmpResponse();
+        verifyCertificateChain();
+    }
+
+    @Benchmark
+    public PKIMessage parseRecordedResponse() {
+        return PKIMessage.getInstance(recordedResponseBytes);
+    }
+
+    @Benchmark
+    public PKIMessage parseResponse() {
+        return PKIMessage.getInstance(responseBytes);
+    }
+
+    @Benchmark
+    public PKIMessage checkCmpResponse() throws CmpClientException {
+        validator.checkCmpResponse(response, subjectPublicKey, IAK);
+        return response;
+    }
+
+    @Benchmark
+    public Cmpv2CertificationModel verifyCertificateChain()
+        throws CertificateParsingException, IOException, CmpClientException {
+        return CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(response, certRepMessage, leafCertificate,
+            verifiedLinks);
+    }
+}
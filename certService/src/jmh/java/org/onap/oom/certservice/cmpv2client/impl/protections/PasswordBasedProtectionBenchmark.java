@@ -0,0 +1,88 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl.protections;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.asn1.cmp.PBMParameter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-message cost of password-based protection. {@code deriveKeyPerMessage} repeats the one-way function
+ * iterations for every message, {@code cachedBaseKey} is what {@link PasswordBasedProtection} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordBasedProtectionBenchmark {
+
+    private static final int PROTECTED_BYTES_LENGTH = 1500;
+
+    private PasswordBasedProtection protection;
+    private PBMParameter pbmParameter;
+    private byte[] protectedBytes;
+
+    @Setup
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        protection = new PasswordBasedProtection("mypassword",
+            new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+        pbmParameter = PBMParameter.getInstance(protection.getAlgorithmIdentifier().getParameters());
+        protectedBytes = new byte[PROTECTED_BYTES_LENGTH];
+        new SecureRandom().nextBytes(protectedBytes);
+    }
+
+    @Benchmark
+    public byte[] cachedBaseKey() throws GeneralSecurityException {
+        return protection.generateProtectionBytes(protectedBytes);
+    }
+
+    @Benchmark
+    public byte[] deriveKeyPerMessage() throws GeneralSecurityException {
+        final byte[] raSecret = "mypassword".getBytes();
+        final byte[] salt = pbmParameter.getSalt().getOctets();
+        byte[] baseKey = new byte[raSecret.length + salt.length];
+        System.arraycopy(raSecret, 0, baseKey, 0, raSecret.length);
+        System.arraycopy(salt, 0, baseKey, raSecret.length, salt.length);
+        final MessageDigest digest = MessageDigest.getInstance(
+            pbmParameter.getOwf().getAlgorithm().getId(), BouncyCastleProvider.PROVIDER_NAME);
+        for (int i = 0; i < pbmParameter.getIterationCount().intValueExact(); i++) {
+            baseKey = digest.digest(baseKey);
+            digest.reset();
+        }
+        final String macOid = pbmParameter.getMac().getAlgorithm().getId();
+        final Mac mac = Mac.getInstance(macOid, BouncyCastleProvider.PROVIDER_NAME);
+        mac.init(new SecretKeySpec(baseKey, macOid));
+        return mac.doFinal(protectedBytes);
+    }
+}
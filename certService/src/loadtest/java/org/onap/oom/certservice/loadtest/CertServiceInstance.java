@@ -0,0 +1,143 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.onap.oom.certservice.CertServiceApplication;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * certService started in the load test JVM, with mutual TLS on a random port and a single CMPv2 server in its
+ * configuration. TLS key and trust stores are issued by the test CA into the working directory, so the test
+ * does not depend on certificates kept in the repository, which expire.
+ */
+final class CertServiceInstance implements AutoCloseable {
+
+    private static final char[] STORE_PASSWORD = "secret".toCharArray();
+    private static final X500Name SERVER_SUBJECT = new X500Name("CN=localhost,OU=ONAP,O=Linux-Foundation,C=US");
+    private static final X500Name CLIENT_SUBJECT = new X500Name("CN=loadtest,OU=ONAP,O=Linux-Foundation,C=US");
+
+    private final ConfigurableApplicationContext context;
+    private final SSLContext clientSslContext;
+
+    private CertServiceInstance(ConfigurableApplicationContext context, SSLContext clientSslContext) {
+        this.context = context;
+        this.clientSslContext = clientSslContext;
+    }
+
+    static CertServiceInstance start(Path workDirectory, CertificateAuthority certificateAuthority, String caName, String caUrl, String iak,
+        ThreadMode threadMode) throws GeneralSecurityException, OperatorCreationException, IOException {
+        final Path configDirectory = Files.createDirectories(workDirectory.resolve("config"));
+        writeCmpServersConfig(configDirectory.resolve("cmpServers.json"), certificateAuthority, caName, caUrl,
+            iak);
+
+        final Path serverKeyStore = workDirectory.resolve("certServiceServer-keystore.p12");
+        final Path clientKeyStore = workDirectory.resolve("certServiceClient-keystore.p12");
+        final Path trustStore = workDirectory.resolve("truststore.p12");
+        TlsStores.writeKeyStore(serverKeyStore, certificateAuthority, SERVER_SUBJECT, new GeneralNames(new GeneralName[]{
+            new GeneralName(GeneralName.dNSName, "localhost"),
+            new GeneralName(GeneralName.iPAddress, "127.0.0.1")}), STORE_PASSWORD);
+        TlsStores.writeKeyStore(clientKeyStore, certificateAuthority, CLIENT_SUBJECT,
+            new GeneralNames(new GeneralName(GeneralName.dNSName, "loadtest")), STORE_PASSWORD);
+        TlsStores.writeTrustStore(trustStore, certificateAuthority, STORE_PASSWORD);
+
+        final String password = new String(STORE_PASSWORD);
+        // test resources shadow main application.properties, so settings needed by the headers are repeated here
+        final ConfigurableApplicationContext context = new SpringApplication(CertServiceApplication.class).run(
+            "--server.port=0",
+            "--server.max-http-header-size=16384",
+            "--server.ssl.key-store=" + serverKeyStore,
+            "--server.ssl.key-store-type=PKCS12",
+            "--server.ssl.key-store-password=" + password,
+            "--server.ssl.trust-store=" + trustStore,
+            "--server.ssl.trust-store-type=PKCS12",
+            "--server.ssl.trust-store-password=" + password,
+            "--app.config.path=" + configDirectory,
+            "--app.config.watch.enabled=false",
+            "--app.virtual-threads.enabled=" + threadMode.isVirtualThreads());
+        return new CertServiceInstance(context, createSslContext(clientKeyStore, trustStore));
+    }
+
+    URI getBaseUri() {
+        final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("https://localhost:" + port + "/");
+    }
+
+    /**
+     * Returns TLS context of a client trusted by the instance.
+     */
+    SSLContext getClientSslContext() {
+        return clientSslContext;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static void writeCmpServersConfig(Path path, CertificateAuthority certificateAuthority, String caName, String caUrl, String iak)
+        throws IOException {
+        final JsonObject authentication = new JsonObject();
+        authentication.addProperty("iak", iak);
+        authentication.addProperty("rv", iak);
+        final JsonObject server = new JsonObject();
+        server.addProperty("caName", caName);
+        server.addProperty("url", caUrl);
+        server.addProperty("issuerDN", certificateAuthority.getIssuingDn().toString());
+        server.add("authentication", authentication);
+        final JsonArray servers = new JsonArray();
+        servers.add(server);
+        final JsonObject config = new JsonObject();
+        config.add("cmpv2Servers", servers);
+        Files.writeString(path, new GsonBuilder().setPrettyPrinting().create().toJson(config));
+    }
+
+    private static SSLContext createSslContext(Path keyStorePath, Path trustStorePath)
+        throws GeneralSecurityException, IOException {
+        final KeyManagerFactory keyManagerFactory =
+            KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(KeyStore.getInstance(keyStorePath.toFile(), STORE_PASSWORD), STORE_PASSWORD);
+        final TrustManagerFactory trustManagerFactory =
+            TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(KeyStore.getInstance(trustStorePath.toFile(), STORE_PASSWORD));
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+}
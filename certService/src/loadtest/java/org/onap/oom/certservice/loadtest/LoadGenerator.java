@@ -0,0 +1,119 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Closed loop load: every worker sends its next request as soon as the previous one is answered, picking the
+ * request type at random according to the mix. Requests started during the warm-up are not measured.
+ */
+final class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final String caName;
+    private final RequestFixtures fixtures;
+    private final LoadTestSettings settings;
+    private final Scenario[] weightedScenarios;
+    private final Map<Scenario, ScenarioStatistics> statistics = new EnumMap<>(Scenario.class);
+
+    LoadGenerator(HttpClient httpClient, URI baseUri, String caName, RequestFixtures fixtures,
+        LoadTestSettings settings) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.caName = caName;
+        this.fixtures = fixtures;
+        this.settings = settings;
+        final List<Scenario> scenarios = new ArrayList<>();
+        settings.getMix().forEach((scenario, weight) -> {
+            statistics.put(scenario, new ScenarioStatistics());
+            for (int i = 0; i < weight; i++) {
+                scenarios.add(scenario);
+            }
+        });
+        this.weightedScenarios = scenarios.toArray(new Scenario[0]);
+    }
+
+    /**
+     * Runs the load and returns statistics of each request type.
+     */
+    Map<Scenario, ScenarioStatistics> run() throws InterruptedException {
+        final long measurementStart = System.nanoTime() + settings.getWarmup().toNanos();
+        final long end = measurementStart + settings.getDuration().toNanos();
+        final ExecutorService workers = Executors.newFixedThreadPool(settings.getConcurrency());
+        for (int i = 0; i < settings.getConcurrency(); i++) {
+            workers.execute(() -> sendRequests(measurementStart, end));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.getWarmup().plus(settings.getDuration()).plus(REQUEST_TIMEOUT)
+            .toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        return statistics;
+    }
+
+    private void sendRequests(long measurementStart, long end) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            final Scenario scenario = weightedScenarios[random.nextInt(weightedScenarios.length)];
+            final HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(scenario.getPath(caName)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+            fixtures.getHeaders(scenario, random.nextInt(settings.getSubjects())).forEach(request::header);
+            final long start = System.nanoTime();
+            final int status = send(request.build());
+            if (start >= measurementStart) {
+                statistics.get(scenario).record(System.nanoTime() - start, status);
+            }
+        }
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            LOGGER.debug("Request to certService failed", e);
+            return ScenarioStatistics.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ScenarioStatistics.NO_RESPONSE;
+        }
+    }
+}
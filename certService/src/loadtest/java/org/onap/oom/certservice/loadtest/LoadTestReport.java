@@ -0,0 +1,135 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Machine readable result of a load test: settings and, for each thread mode it was run with, throughput, error
+ * rate and latency percentiles of each request type and of all requests together, and number of requests which
+ * reached the stub CA. When both thread modes were run, totals of virtual threads are compared to platform ones.
+ */
+final class LoadTestReport {
+
+    private final JsonObject json = new JsonObject();
+    private final JsonObject runs = new JsonObject();
+    private final Map<ThreadMode, ScenarioStatistics> totals = new EnumMap<>(ThreadMode.class);
+    private final double seconds;
+
+    LoadTestReport(LoadTestSettings settings) {
+        this.seconds = settings.getDuration().toMillis() / 1000.0;
+        json.addProperty("timestamp", Instant.now().toString());
+        json.addProperty("javaVersion", Runtime.version().toString());
+        final JsonObject settingsJson = new JsonObject();
+        settings.asMap().forEach(settingsJson::addProperty);
+        json.add("settings", settingsJson);
+        json.add("runs", runs);
+    }
+
+    void addRun(ThreadMode threadMode, Map<Scenario, ScenarioStatistics> statistics, long caRequests,
+        long caInjectedErrors) {
+        final JsonObject run = new JsonObject();
+        // on JRE older than 21 certService falls back to platform threads, so such run measures nothing new
+        run.addProperty("virtualThreadsSupported", threadMode.isSupported());
+
+        final ScenarioStatistics total = new ScenarioStatistics();
+        final JsonObject scenarios = new JsonObject();
+        statistics.forEach((scenario, scenarioStatistics) -> {
+            scenarios.add(scenario.getName(), toJson(scenarioStatistics, seconds));
+            total.add(scenarioStatistics);
+        });
+        run.add("scenarios", scenarios);
+        run.add("total", toJson(total, seconds));
+
+        final JsonObject ca = new JsonObject();
+        ca.addProperty("requests", caRequests);
+        ca.addProperty("injectedErrors", caInjectedErrors);
+        run.add("ca", ca);
+        runs.add(threadMode.getName(), run);
+
+        totals.put(threadMode, total);
+        if (totals.containsKey(ThreadMode.PLATFORM) && totals.containsKey(ThreadMode.VIRTUAL)) {
+            json.add("virtualToPlatform", compare(totals.get(ThreadMode.VIRTUAL), totals.get(ThreadMode.PLATFORM)));
+        }
+    }
+
+    void write(Path path) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        Files.writeString(path, toString());
+    }
+
+    @Override
+    public String toString() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    /**
+     * Returns ratios of throughput and latency percentiles of the measured run to the baseline one. Throughput ratio
+     * above 1 means the measured run served more requests, latency ratios above 1 mean it answered them slower.
+     */
+    private static JsonObject compare(ScenarioStatistics measured, ScenarioStatistics baseline) {
+        final JsonObject comparison = new JsonObject();
+        comparison.addProperty("throughputRatio", ratio(measured.getRequests(), baseline.getRequests()));
+        comparison.addProperty("errorRateDifference", errorRate(measured) - errorRate(baseline));
+        comparison.addProperty("p50LatencyRatio", ratio(measured.getLatencyMillis(50), baseline.getLatencyMillis(50)));
+        comparison.addProperty("p99LatencyRatio", ratio(measured.getLatencyMillis(99), baseline.getLatencyMillis(99)));
+        return comparison;
+    }
+
+    private static double ratio(double measured, double baseline) {
+        return baseline == 0 ? 0 : measured / baseline;
+    }
+
+    private static double errorRate(ScenarioStatistics statistics) {
+        final long requests = statistics.getRequests();
+        return requests == 0 ? 0 : (double) statistics.getErrors() / requests;
+    }
+
+    private static JsonObject toJson(ScenarioStatistics statistics, double seconds) {
+        final JsonObject scenario = new JsonObject();
+        final long requests = statistics.getRequests();
+        scenario.addProperty("requests", requests);
+        scenario.addProperty("errors", statistics.getErrors());
+        scenario.addProperty("errorRate", errorRate(statistics));
+        scenario.addProperty("throughputPerSecond", requests / seconds);
+        final JsonObject latency = new JsonObject();
+        latency.addProperty("mean", statistics.getMeanLatencyMillis());
+        latency.addProperty("p50", statistics.getLatencyMillis(50));
+        latency.addProperty("p95", statistics.getLatencyMillis(95));
+        latency.addProperty("p99", statistics.getLatencyMillis(99));
+        latency.addProperty("max", statistics.getMaxLatencyMillis());
+        scenario.add("latencyMs", latency);
+        final JsonObject statuses = new JsonObject();
+        statistics.getStatuses().forEach((status, count) -> statuses.addProperty(String.valueOf(status), count));
+        scenario.add("statuses", statuses);
+        return scenario;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Security;
+import java.time.Duration;
+import java.util.Map;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+import org.onap.oom.certservice.testca.Cmpv2Responder;
+import org.onap.oom.certservice.testca.Cmpv2TestServer;
+import org.onap.oom.certservice.testca.ResponderSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures throughput and latency of certService issuing certificates from the test CMPv2 CA. Starts
+ * {@link Cmpv2TestServer} and certService configured to use it, drives the certificate endpoints over mutual TLS
+ * with {@link LoadGenerator} and writes {@link LoadTestReport}. Takes {@code name=value} arguments, see
+ * {@link LoadTestSettings}. When several thread modes are given, the test is repeated for each of them.
+ */
+public final class LoadTestRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestRunner.class);
+    private static final String CA_NAME = "LoadTest";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.parse(args);
+        Security.addProvider(new BouncyCastleProvider());
+        final Path workDirectory = Files.createTempDirectory("certservice-loadtest");
+        final CertificateAuthority certificateAuthority = new CertificateAuthority(CA_NAME);
+        final RequestFixtures fixtures = new RequestFixtures(certificateAuthority, settings.getSubjects(),
+            settings.getKeySize(), settings.getSans());
+
+        final LoadTestReport report = new LoadTestReport(settings);
+        for (ThreadMode threadMode : settings.getThreadModes()) {
+            if (!threadMode.isSupported()) {
+                LOGGER.warn("JRE {} has no virtual threads, {} run uses platform threads", Runtime.version(),
+                    threadMode.getName());
+            }
+            run(settings, Files.createDirectories(workDirectory.resolve(threadMode.getName())), certificateAuthority,
+                fixtures, threadMode, report);
+        }
+        report.write(settings.getReport());
+        System.out.println(report);
+        LOGGER.info("Load test report written to {}", settings.getReport().toAbsolutePath());
+    }
+
+    /**
+     * Runs the test against fresh test CA and certService, so that runs in different thread modes do not share
+     * connections, caches nor counters.
+     */
+    private static void run(LoadTestSettings settings, Path workDirectory, CertificateAuthority certificateAuthority,
+        RequestFixtures fixtures, ThreadMode threadMode, LoadTestReport report) throws Exception {
+        final ResponderSettings caSettings = settings.getCaSettings();
+        try (Cmpv2TestServer ca = new Cmpv2TestServer(new Cmpv2Responder(certificateAuthority, caSettings))) {
+            ca.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (CertServiceInstance certService = CertServiceInstance.start(workDirectory, certificateAuthority,
+                CA_NAME, ca.getUrl(), caSettings.getIak(), threadMode)) {
+                final HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .sslContext(certService.getClientSslContext())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+                LOGGER.info("Sending requests to {} on {} threads with settings {}", certService.getBaseUri(),
+                    threadMode.getName(), settings.asMap());
+                final Map<Scenario, ScenarioStatistics> statistics =
+                    new LoadGenerator(httpClient, certService.getBaseUri(), CA_NAME, fixtures, settings).run();
+                report.addRun(threadMode, statistics, ca.getRequestCount(), ca.getInjectedErrorCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.onap.oom.certservice.testca.LatencyDistribution;
+import org.onap.oom.certservice.testca.ResponderSettings;
+import org.onap.oom.certservice.testca.ResponseProtection;
+
+/**
+ * Load test settings given as {@code name=value} arguments, see {@link #DEFAULTS} for names and defaults.
+ */
+final class LoadTestSettings {
+
+    static final Map<String, String> DEFAULTS = createDefaults();
+
+    private final Map<String, String> values;
+    private final Map<Scenario, Integer> mix;
+    private final List<ThreadMode> threadModes;
+
+    private LoadTestSettings(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(values);
+        this.mix = parseMix(values.get("mix"));
+        this.threadModes = parseThreadModes(values.get("threads"));
+        if (getConcurrency() < 1 || getSubjects() < 1 || getSans() < 1) {
+            throw new IllegalArgumentException("concurrency, subjects and sans must be positive");
+        }
+        getCaSettings();
+    }
+
+    static LoadTestSettings parse(String... args) {
+        final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            final String[] nameAndValue = arg.split("=", 2);
+            if (nameAndValue.length != 2 || !DEFAULTS.containsKey(nameAndValue[0])) {
+                throw new IllegalArgumentException(
+                    "Unknown argument " + arg + ", expected name=value with name one of " + DEFAULTS.keySet());
+            }
+            values.put(nameAndValue[0], nameAndValue[1]);
+        }
+        return new LoadTestSettings(values);
+    }
+
+    Map<String, String> asMap() {
+        return values;
+    }
+
+    int getConcurrency() {
+        return Integer.parseInt(values.get("concurrency"));
+    }
+
+    Duration getWarmup() {
+        return Duration.ofSeconds(Long.parseLong(values.get("warmup")));
+    }
+
+    Duration getDuration() {
+        return Duration.ofSeconds(Long.parseLong(values.get("duration")));
+    }
+
+    /**
+     * Returns weights of request types, e.g. {@code initialize=80,update=20}.
+     */
+    Map<Scenario, Integer> getMix() {
+        return mix;
+    }
+
+    int getSubjects() {
+        return Integer.parseInt(values.get("subjects"));
+    }
+
+    int getKeySize() {
+        return Integer.parseInt(values.get("key-size"));
+    }
+
+    int getSans() {
+        return Integer.parseInt(values.get("sans"));
+    }
+
+    /**
+     * Returns behaviour of the test CA, the ca-error-rate being the share of requests failed with HTTP 500.
+     */
+    ResponderSettings getCaSettings() {
+        return ResponderSettings.defaults()
+            .withProtection(ResponseProtection.fromName(values.get("ca-protection")))
+            .withLatency(LatencyDistribution.parse(values.get("ca-latency")))
+            .withHttpErrorRate(Double.parseDouble(values.get("ca-error-rate")))
+            .withRejectionRate(Double.parseDouble(values.get("ca-rejection-rate")));
+    }
+
+    /**
+     * Returns thread modes to run the test with one after another, e.g. {@code platform,virtual} to compare them.
+     */
+    List<ThreadMode> getThreadModes() {
+        return threadModes;
+    }
+
+    Path getReport() {
+        return Path.of(values.get("report"));
+    }
+
+    private static Map<Scenario, Integer> parseMix(String specification) {
+        final Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : specification.split(",")) {
+            final String[] scenarioAndWeight = entry.split("=", 2);
+            final int weight = Integer.parseInt(scenarioAndWeight[scenarioAndWeight.length - 1]);
+            if (scenarioAndWeight.length != 2 || weight < 0) {
+                throw new IllegalArgumentException("Invalid request mix: " + specification);
+            }
+            weights.put(Scenario.fromName(scenarioAndWeight[0]), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Request mix has no requests: " + specification);
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+
+    private static List<ThreadMode> parseThreadModes(String specification) {
+        final List<ThreadMode> modes = Arrays.stream(specification.split(","))
+            .map(ThreadMode::fromName)
+            .distinct()
+            .collect(Collectors.toUnmodifiableList());
+        if (modes.isEmpty()) {
+            throw new IllegalArgumentException("No thread mode given: " + specification);
+        }
+        return modes;
+    }
+
+    private static Map<String, String> createDefaults() {
+        final Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("concurrency", "16");
+        defaults.put("warmup", "10");
+        defaults.put("duration", "60");
+        defaults.put("mix", "initialize=80,update=20");
+        defaults.put("subjects", "32");
+        defaults.put("key-size", "2048");
+        defaults.put("sans", "3");
+        defaults.put("ca-latency", "lognormal:50,400");
+        defaults.put("ca-error-rate", "0");
+        defaults.put("ca-rejection-rate", "0");
+        defaults.put("ca-protection", "pbm");
+        defaults.put("threads", "platform");
+        defaults.put("report", "target/loadtest/report.json");
+        return Collections.unmodifiableMap(defaults);
+    }
+}
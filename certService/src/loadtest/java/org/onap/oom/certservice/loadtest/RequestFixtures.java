@@ -0,0 +1,119 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+/**
+ * Request headers of the load test, generated up front so that the client does not compete with certService for
+ * CPU. Every subject has its own key and an older certificate with the same subject and SANs, so its update is
+ * sent to the CA as key update request.
+ */
+final class RequestFixtures {
+
+    private final List<Map<String, String>> initializationHeaders = new ArrayList<>();
+    private final List<Map<String, String>> updateHeaders = new ArrayList<>();
+
+    RequestFixtures(CertificateAuthority certificateAuthority, int subjects, int keySize, int sans)
+        throws GeneralSecurityException, OperatorCreationException, IOException {
+        for (int i = 0; i < subjects; i++) {
+            final String hostName = "loadtest-" + i + ".onap.org";
+            final X500Name subject = new X500Name("CN=" + hostName + ",OU=ONAP,O=Linux-Foundation,C=US");
+            final GeneralNames subjectAltNames = createSans(hostName, sans);
+            final KeyPair keyPair = CertificateAuthority.generateKeyPair(keySize);
+            final String csr = encode(toPem(new PemObject("CERTIFICATE REQUEST",
+                createCsr(subject, subjectAltNames, keyPair).getEncoded())));
+            final String privateKey = encode(toPem(new PemObject("PRIVATE KEY", keyPair.getPrivate().getEncoded())));
+            initializationHeaders.add(Map.of("CSR", csr, "PK", privateKey));
+
+            final KeyPair oldKeyPair = CertificateAuthority.generateKeyPair(keySize);
+            final X509Certificate oldCertificate = certificateAuthority.issue(subject, oldKeyPair.getPublic(), new Extensions(
+                new Extension(Extension.subjectAlternativeName, false, subjectAltNames.getEncoded())));
+            final String oldCertificateChain =
+                encode(toPem(oldCertificate) + toPem(certificateAuthority.getIssuingCertificate()));
+            final String oldPrivateKey =
+                encode(toPem(new PemObject("PRIVATE KEY", oldKeyPair.getPrivate().getEncoded())));
+            updateHeaders.add(Map.of("CSR", csr, "PK", privateKey,
+                "OLD_CERT", oldCertificateChain, "OLD_PK", oldPrivateKey));
+        }
+    }
+
+    /**
+     * Returns headers of a request of the given type for the subject with the given number.
+     */
+    Map<String, String> getHeaders(Scenario scenario, int subject) {
+        final List<Map<String, String>> headers =
+            scenario == Scenario.UPDATE ? updateHeaders : initializationHeaders;
+        return headers.get(subject % headers.size());
+    }
+
+    private static GeneralNames createSans(String hostName, int count) {
+        final GeneralName[] names = new GeneralName[count];
+        names[0] = new GeneralName(GeneralName.dNSName, hostName);
+        for (int i = 1; i < count; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "alias-" + i + "." + hostName);
+        }
+        return new GeneralNames(names);
+    }
+
+    private static PKCS10CertificationRequest createCsr(X500Name subject, GeneralNames sans, KeyPair keyPair)
+        throws OperatorCreationException, IOException {
+        final Extensions extensions =
+            new Extensions(new Extension(Extension.subjectAlternativeName, false, sans.getEncoded()));
+        return new JcaPKCS10CertificationRequestBuilder(subject, keyPair.getPublic())
+            .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions)
+            .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate()));
+    }
+
+    private static String toPem(Object object) throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        try (JcaPEMWriter pemWriter = new JcaPEMWriter(stringWriter)) {
+            pemWriter.writeObject(object);
+        }
+        return stringWriter.toString();
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
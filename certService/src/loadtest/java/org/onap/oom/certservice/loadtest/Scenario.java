@@ -0,0 +1,54 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Type of request sent by the load test.
+ */
+enum Scenario {
+    INITIALIZE("initialize", "v1/certificate/"),
+    UPDATE("update", "v1/certificate-update/");
+
+    private final String name;
+    private final String path;
+
+    Scenario(String name, String path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    static Scenario fromName(String name) {
+        return Arrays.stream(values())
+            .filter(scenario -> scenario.name.equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown request type " + name));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getPath(String caName) {
+        return path + caName;
+    }
+}
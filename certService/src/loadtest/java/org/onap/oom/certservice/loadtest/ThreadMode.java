@@ -0,0 +1,63 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Threads handling HTTP requests in certService during a load test run, see {@code app.virtual-threads.enabled}.
+ */
+enum ThreadMode {
+    PLATFORM("platform", false),
+    VIRTUAL("virtual", true);
+
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    private final String name;
+    private final boolean virtualThreads;
+
+    ThreadMode(String name, boolean virtualThreads) {
+        this.name = name;
+        this.virtualThreads = virtualThreads;
+    }
+
+    static ThreadMode fromName(String name) {
+        return Arrays.stream(values())
+            .filter(mode -> mode.name.equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown thread mode " + name));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns false when certService falls back to platform threads, because the JRE has no virtual threads.
+     */
+    boolean isSupported() {
+        return !virtualThreads || Runtime.version().feature() >= VIRTUAL_THREADS_FEATURE_VERSION;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+/**
+ * PKCS#12 key and trust stores of certService and its client, issued by the test CA also serving CMPv2 requests.
+ */
+final class TlsStores {
+
+    private static final int KEY_SIZE = 2048;
+
+    private TlsStores() {
+    }
+
+    /**
+     * Writes key store with a new TLS key and its certificate chain, usable by both servers and clients.
+     */
+    static void writeKeyStore(Path path, CertificateAuthority certificateAuthority, X500Name subject,
+        GeneralNames sans, char[] password) throws GeneralSecurityException, OperatorCreationException, IOException {
+        final KeyPair keyPair = CertificateAuthority.generateKeyPair(KEY_SIZE);
+        final Extensions extensions = new Extensions(new Extension[]{
+            new Extension(Extension.subjectAlternativeName, false, sans.getEncoded()),
+            new Extension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(
+                new KeyPurposeId[]{KeyPurposeId.id_kp_serverAuth, KeyPurposeId.id_kp_clientAuth}).getEncoded())
+        });
+        final X509Certificate certificate = certificateAuthority.issue(subject, keyPair.getPublic(), extensions);
+        final KeyStore keyStore = createKeyStore();
+        keyStore.setKeyEntry("tls", keyPair.getPrivate(), password, new Certificate[]{certificate,
+            certificateAuthority.getIssuingCertificate(), certificateAuthority.getRootCertificate()});
+        store(keyStore, path, password);
+    }
+
+    /**
+     * Writes trust store containing the root CA.
+     */
+    static void writeTrustStore(Path path, CertificateAuthority certificateAuthority, char[] password)
+        throws GeneralSecurityException, IOException {
+        final KeyStore trustStore = createKeyStore();
+        trustStore.setCertificateEntry("root", certificateAuthority.getRootCertificate());
+        store(trustStore, path, password);
+    }
+
+    private static KeyStore createKeyStore() throws GeneralSecurityException, IOException {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        return keyStore;
+    }
+
+    private static void store(KeyStore keyStore, Path path, char[] password)
+        throws GeneralSecurityException, IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            keyStore.store(outputStream, password);
+        }
+    }
+}
@@ -20,8 +20,10 @@
 
 package org.onap.oom.certservice.api;
 
+import io.opentelemetry.api.trace.Span;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -31,25 +33,38 @@ import org.onap.oom.certservice.certification.CertificationResponseModelFactory;
 import org.onap.oom.certservice.certification.exception.CertificateDecryptionException;
 import org.onap.oom.certservice.certification.exception.DecryptionException;
 import org.onap.oom.certservice.certification.exception.ErrorResponseModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationRequestModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CertificateRequestModel;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
-import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @Tag(name = "CertificationService")
 public class CertificationController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CertificationController.class);
+    private static final String SERVICE_UNAVAILABLE_DESCRIPTION = "Request was not sent, because CMPv2 server is "
+            + "overloaded or not responding (concurrency limit reached or circuit breaker open), "
+            + "retry after time given in Retry-After header";
+    private static final String RETRY_AFTER_DESCRIPTION = "Number of seconds after which the request can be repeated";
 
     private final CertificationResponseModelFactory certificationResponseModelFactory;
 
@@ -64,7 +79,7 @@ public class CertificationController {
      * @param caName            the name of Certification Authority that will sign root certificate
      * @param encodedCsr        Certificate Sign Request encoded in Base64 form
      * @param encodedPrivateKey Private key for CSR, needed for PoP, encoded in Base64 form
-     * @return JSON containing trusted certificates and certificate chain
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
      */
     @GetMapping(value = "v1/certificate/{caName}", produces = "application/json")
     @ApiResponses(value = {
@@ -74,25 +89,30 @@ public class CertificationController {
             @ApiResponse(responseCode = "404", description = "CA not found for given name",
                     content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
             @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
                     content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
     })
     @Operation(
             summary = "Initialize certificate",
             description = "Web endpoint for requesting certificate initialization. Used by system components to gain certificate signed by CA.",
             tags = {"CertificationService"})
-    public ResponseEntity<CertificationResponseModel> signCertificate(
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> signCertificate(
             @Parameter(description = "Name of certification authority that will sign CSR.")
             @PathVariable String caName,
             @Parameter(description = "Certificate initialization request in form of PEM object encoded in Base64 (with header and footer).")
             @RequestHeader("CSR") String encodedCsr,
             @Parameter(description = "Private key in form of PEM object encoded in Base64 (with header and footer).")
             @RequestHeader("PK") String encodedPrivateKey
-    ) throws DecryptionException, CmpClientException {
+    ) throws DecryptionException {
         caName = replaceWhiteSpaceChars(caName);
+        Span.current().setAttribute(IssuanceTracing.CA_NAME, caName);
         LOGGER.info("Received certificate initialization request for CA named: {}", caName);
-        CertificationResponseModel certificationResponseModel = certificationResponseModelFactory
-                .provideCertificationModelFromInitialRequest(encodedCsr, encodedPrivateKey, caName);
-        return new ResponseEntity<>(certificationResponseModel, HttpStatus.OK);
+        return certificationResponseModelFactory
+                .provideCertificationModelFromInitialRequest(encodedCsr, encodedPrivateKey, caName)
+                .thenApply(certificationResponseModel -> new ResponseEntity<>(certificationResponseModel, HttpStatus.OK));
     }
 
     /**
@@ -103,7 +123,7 @@ public class CertificationController {
      * @param encodedPrivateKey     Private key for CSR, needed for PoP, encoded in Base64 form
      * @param encodedOldCert        Certificate (signed by Certification Authority) that should be renewed
      * @param encodedOldPrivateKey  Old private key corresponding with old certificate
-     * @return JSON containing trusted certificates and certificate chain
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
      */
     @GetMapping(value = "v1/certificate-update/{caName}", produces = "application/json")
     @ApiResponses(value = {
@@ -113,13 +133,17 @@ public class CertificationController {
             @ApiResponse(responseCode = "404", description = "CA not found for given name",
                     content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
             @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
                     content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
     })
     @Operation(
             summary = "Update certificate",
             description = "Web endpoint for updating certificate. Used by system components to update certificate signed by CA.",
             tags = {"CertificationService"})
-    public ResponseEntity<CertificationResponseModel> updateCertificate(
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> updateCertificate(
             @Parameter(description = "Name of certification authority that will update certificate.")
             @PathVariable String caName,
             @Parameter(description = "Certificate signing request in form of PEM object encoded in Base64 (with header and footer).")
@@ -131,8 +155,9 @@ public class CertificationController {
             @Parameter(description = "Old private key (corresponding with old certificate) "
                     + "in form of PEM object encoded in Base64 (with header and footer).")
             @RequestHeader("OLD_PK") String encodedOldPrivateKey
-    ) throws DecryptionException, CmpClientException {
+    ) throws DecryptionException {
         caName = replaceWhiteSpaceChars(caName);
+        Span.current().setAttribute(IssuanceTracing.CA_NAME, caName);
         LOGGER.info("Received certificate update request for CA named: {}", caName);
         CertificateUpdateModel certificateUpdateModel = new CertificateUpdateModel.CertificateUpdateModelBuilder()
                 .setEncodedCsr(encodedCsr)
@@ -141,9 +166,207 @@ public class CertificationController {
                 .setEncodedOldPrivateKey(encodedOldPrivateKey)
                 .setCaName(caName)
                 .build();
-        CertificationResponseModel certificationResponseModel = certificationResponseModelFactory
-                .provideCertificationModelFromUpdateRequest(certificateUpdateModel);
-        return new ResponseEntity<>(certificationResponseModel, HttpStatus.OK);
+        return certificationResponseModelFactory
+                .provideCertificationModelFromUpdateRequest(certificateUpdateModel)
+                .thenApply(certificationResponseModel -> new ResponseEntity<>(certificationResponseModel, HttpStatus.OK));
+    }
+
+    /**
+     * Request for signing certificate by given CA, with CSR and private key sent in JSON body.
+     *
+     * @param caName             the name of Certification Authority that will sign root certificate
+     * @param certificateRequest CSR and private key for it, both in DER form encoded in Base64
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
+     */
+    @PostMapping(value = "v2/certificate/{caName}", consumes = "application/json", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Certificate successfully signed"),
+            @ApiResponse(responseCode = "400", description = "Given CSR or/and PK is incorrect",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "404", description = "CA not found for given name",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
+    })
+    @Operation(
+            summary = "Initialize certificate",
+            description = "Web endpoint for requesting certificate initialization with CSR and private key in DER form.",
+            tags = {"CertificationService"})
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> signCertificate(
+            @Parameter(description = "Name of certification authority that will sign CSR.")
+            @PathVariable String caName,
+            @RequestBody CertificateRequestModel certificateRequest
+    ) throws DecryptionException {
+        caName = replaceWhiteSpaceChars(caName);
+        Span.current().setAttribute(IssuanceTracing.CA_NAME, caName);
+        LOGGER.info("Received certificate initialization request for CA named: {}", caName);
+        return certificationResponseModelFactory
+                .provideCertificationModelFromInitialRequest(certificateRequest, caName)
+                .thenApply(certificationResponseModel -> new ResponseEntity<>(certificationResponseModel, HttpStatus.OK));
+    }
+
+    /**
+     * Request for signing certificate by given CA, with CSR and private key sent as parts of multipart body.
+     *
+     * @param caName     the name of Certification Authority that will sign root certificate
+     * @param csr        Certificate Sign Request in DER form
+     * @param privateKey Private key for CSR, needed for PoP, in PKCS#8 DER form
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
+     */
+    @PostMapping(value = "v2/certificate/{caName}", consumes = "multipart/form-data", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Certificate successfully signed"),
+            @ApiResponse(responseCode = "400", description = "Given CSR or/and PK is incorrect",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "404", description = "CA not found for given name",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
+    })
+    @Operation(
+            summary = "Initialize certificate",
+            description = "Web endpoint for requesting certificate initialization with CSR and private key in DER form.",
+            tags = {"CertificationService"})
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> signCertificate(
+            @Parameter(description = "Name of certification authority that will sign CSR.")
+            @PathVariable String caName,
+            @Parameter(description = "Certificate initialization request in DER form.")
+            @RequestPart("csr") byte[] csr,
+            @Parameter(description = "Private key in PKCS#8 DER form.")
+            @RequestPart("pk") byte[] privateKey
+    ) throws DecryptionException {
+        return signCertificate(caName, new CertificateRequestModel(csr, privateKey));
+    }
+
+    /**
+     * Request for updating certificate by given CA, with CSR, keys and old certificate sent in JSON body.
+     *
+     * @param caName             the name of Certification Authority that will sign root certificate
+     * @param certificateRequest CSR, private key, old certificate and old private key, all in DER form encoded in
+     *                           Base64
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
+     */
+    @PostMapping(value = "v2/certificate-update/{caName}", consumes = "application/json", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Certificate successfully updated"),
+            @ApiResponse(responseCode = "400", description = "Given CSR, PK, old certificate or/and old PK is incorrect",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "404", description = "CA not found for given name",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
+    })
+    @Operation(
+            summary = "Update certificate",
+            description = "Web endpoint for updating certificate with CSR, keys and old certificate in DER form.",
+            tags = {"CertificationService"})
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> updateCertificate(
+            @Parameter(description = "Name of certification authority that will update certificate.")
+            @PathVariable String caName,
+            @RequestBody CertificateRequestModel certificateRequest
+    ) throws DecryptionException {
+        caName = replaceWhiteSpaceChars(caName);
+        Span.current().setAttribute(IssuanceTracing.CA_NAME, caName);
+        LOGGER.info("Received certificate update request for CA named: {}", caName);
+        return certificationResponseModelFactory
+                .provideCertificationModelFromUpdateRequest(certificateRequest, caName)
+                .thenApply(certificationResponseModel -> new ResponseEntity<>(certificationResponseModel, HttpStatus.OK));
+    }
+
+    /**
+     * Request for updating certificate by given CA, with CSR, keys and old certificate sent as parts of multipart
+     * body.
+     *
+     * @param caName        the name of Certification Authority that will sign root certificate
+     * @param csr           Certificate Sign Request in DER form
+     * @param privateKey    Private key for CSR, needed for PoP, in PKCS#8 DER form
+     * @param oldCert       Certificate (signed by Certification Authority) that should be renewed, in DER form
+     * @param oldPrivateKey Old private key corresponding with old certificate, in PKCS#8 DER form
+     * @return JSON containing trusted certificates and certificate chain, completed once CA responds
+     */
+    @PostMapping(value = "v2/certificate-update/{caName}", consumes = "multipart/form-data",
+            produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Certificate successfully updated"),
+            @ApiResponse(responseCode = "400", description = "Given CSR, PK, old certificate or/and old PK is incorrect",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "404", description = "CA not found for given name",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
+    })
+    @Operation(
+            summary = "Update certificate",
+            description = "Web endpoint for updating certificate with CSR, keys and old certificate in DER form.",
+            tags = {"CertificationService"})
+    public CompletableFuture<ResponseEntity<CertificationResponseModel>> updateCertificate(
+            @Parameter(description = "Name of certification authority that will update certificate.")
+            @PathVariable String caName,
+            @Parameter(description = "Certificate signing request in DER form.")
+            @RequestPart("csr") byte[] csr,
+            @Parameter(description = "Private key in PKCS#8 DER form.")
+            @RequestPart("pk") byte[] privateKey,
+            @Parameter(description = "Old certificate in DER form.")
+            @RequestPart("oldCert") byte[] oldCert,
+            @Parameter(description = "Old private key (corresponding with old certificate) in PKCS#8 DER form.")
+            @RequestPart("oldPk") byte[] oldPrivateKey
+    ) throws DecryptionException {
+        return updateCertificate(caName, new CertificateRequestModel(csr, privateKey, oldCert, oldPrivateKey));
+    }
+
+    /**
+     * Request for signing multiple certificates by given CA within a single CMPv2 message.
+     *
+     * @param caName       the name of Certification Authority that will sign certificates
+     * @param batchRequest list of CSR and private key pairs, both encoded in Base64 form
+     * @return JSON containing per-request results in the order of given requests, completed once CA responds
+     */
+    @PostMapping(value = "v2/certificates/{caName}:batch", consumes = "application/json", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, each result contains certificates or error message"),
+            @ApiResponse(responseCode = "400", description = "Batch is empty or exceeds maximum size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "404", description = "CA not found for given name",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "500", description = "Something went wrong during connection to CMPv2 server",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class))),
+            @ApiResponse(responseCode = "503", description = SERVICE_UNAVAILABLE_DESCRIPTION,
+                    headers = @Header(name = HttpHeaders.RETRY_AFTER, description = RETRY_AFTER_DESCRIPTION,
+                            schema = @Schema(type = "integer")),
+                    content = @Content(schema = @Schema(implementation = ErrorResponseModel.class)))
+    })
+    @Operation(
+            summary = "Initialize multiple certificates",
+            description = "Web endpoint for requesting initialization of multiple certificates in a single CMPv2 message.",
+            tags = {"CertificationService"})
+    public CompletableFuture<ResponseEntity<BatchCertificationResponseModel>> signCertificates(
+            @Parameter(description = "Name of certification authority that will sign CSRs.")
+            @PathVariable String caName,
+            @RequestBody BatchCertificationRequestModel batchRequest
+    ) {
+        caName = replaceWhiteSpaceChars(caName);
+        Span.current().setAttribute(IssuanceTracing.CA_NAME, caName);
+        LOGGER.info("Received batch certificate initialization request with {} items for CA named: {}",
+                batchRequest.getRequests().size(), caName);
+        return certificationResponseModelFactory
+                .provideCertificationModelsFromBatchRequest(batchRequest.getRequests(), caName)
+                .thenApply(batchResponseModel -> new ResponseEntity<>(batchResponseModel, HttpStatus.OK));
     }
 
     private String replaceWhiteSpaceChars(String text) {
@@ -0,0 +1,130 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.api;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records server span of every certificate request, continuing W3C trace context sent by the client in
+ * {@code traceparent} header. Certificate endpoints complete asynchronously, so the span is ended when
+ * the response is actually sent, not when the request thread leaves the controller.
+ */
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String[] TRACED_PATHS = {"/v1/", "/v2/"};
+    private static final TextMapGetter<HttpServletRequest> HEADER_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final IssuanceTracing issuanceTracing;
+
+    @Autowired
+    public TracingFilter(IssuanceTracing issuanceTracing) {
+        this.issuanceTracing = issuanceTracing;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String tracedPath : TRACED_PATHS) {
+            if (path.startsWith(tracedPath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+        final Span span = issuanceTracing.startServerSpan(request.getMethod(), request, HEADER_GETTER);
+        span.setAttribute(IssuanceTracing.HTTP_METHOD, request.getMethod());
+        try (Scope ignored = span.makeCurrent()) {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            IssuanceTracing.end(span, e);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    endServerSpan(span, request, response);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    // completion follows timeout, the span is ended then
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    // completion follows error, the span is ended then
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                    // async processing is started only once per request
+                }
+            });
+        } else {
+            endServerSpan(span, request, response);
+        }
+    }
+
+    private static void endServerSpan(Span span, HttpServletRequest request, HttpServletResponse response) {
+        final Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            span.updateName(request.getMethod() + " " + route);
+        }
+        span.setAttribute(IssuanceTracing.HTTP_STATUS_CODE, response.getStatus());
+        if (response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+}
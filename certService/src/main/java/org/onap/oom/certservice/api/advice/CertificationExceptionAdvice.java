@@ -27,11 +27,14 @@ import org.onap.oom.certservice.certification.exception.Cmpv2ClientAdapterExcept
 import org.onap.oom.certservice.certification.exception.Cmpv2ServerNotFoundException;
 import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.ErrorResponseModel;
+import org.onap.oom.certservice.certification.exception.InvalidBatchRequestException;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -78,6 +81,24 @@ public final class CertificationExceptionAdvice {
         );
     }
 
+    @ExceptionHandler(value = InvalidBatchRequestException.class)
+    public ResponseEntity<ErrorResponseModel> handle(InvalidBatchRequestException exception) {
+        LOGGER.error("Exception occurred validating batch request:", exception);
+        return getErrorResponseEntity(
+            exception.getMessage(),
+            HttpStatus.BAD_REQUEST
+        );
+    }
+
+    @ExceptionHandler(value = CmpRequestRejectedException.class)
+    public ResponseEntity<ErrorResponseModel> handle(CmpRequestRejectedException exception) {
+        LOGGER.warn("Request to CMPv2 server rejected: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+            .body(new ErrorResponseModel(
+                exception.getMessage() + ", retry after " + exception.getRetryAfterSeconds() + " s"));
+    }
+
     @ExceptionHandler(value = RuntimeException.class)
     public ResponseEntity<ErrorResponseModel> handle(RuntimeException exception) throws CmpClientException {
         throw new CmpClientException("Runtime exception occurred calling cmp client business logic", exception);
@@ -0,0 +1,77 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.api.configuration;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in mode running every HTTP request handled by the embedded Tomcat on its own virtual thread.
+ * CPU heavy CMPv2 crypto is not affected: it stays on the bounded crypto executor of the CMPv2 client.
+ * Virtual threads are looked up reflectively, so the service still builds for and runs on older JREs,
+ * where this mode falls back to the regular Tomcat thread pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    private final Optional<ExecutorService> virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadsTomcatCustomizer() {
+        return factory -> {
+            if (virtualThreadExecutor.isPresent()) {
+                LOGGER.info("HTTP requests will be handled on virtual threads");
+                factory.addProtocolHandlerCustomizers(
+                    protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor.get()));
+            } else {
+                LOGGER.warn("Virtual threads are not supported by JRE {}, using platform threads",
+                    Runtime.version());
+            }
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        virtualThreadExecutor.ifPresent(ExecutorService::shutdown);
+    }
+
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of(
+                (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.openssl.jcajce.JcaMiscPEMGenerator;
+import org.bouncycastle.util.io.pem.PemWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes certificates returned to clients in PEM format. CA certificates are the same in every response of a CA,
+ * so their PEM, together with its JSON-escaped form kept by {@link SerializedString}, is cached per CA and keyed
+ * by SHA-256 fingerprint of the certificate. Only the newly issued certificate is encoded for every response.
+ * Each CA keeps a bounded number of certificates, least recently used ones are evicted first, e.g. after the CA
+ * certificates were renewed.
+ */
+@Component
+public class CertificatePemCache {
+
+    public static final int DEFAULT_MAX_ENTRIES_PER_CA = 16;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificatePemCache.class);
+    private static final String METRIC_PREFIX = "certservice.pem.cache.";
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private final int maxEntriesPerCa;
+    private final ConcurrentMap<String, Map<ByteBuffer, SerializedString>> caches = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Autowired
+    public CertificatePemCache(MeterRegistry meterRegistry) {
+        this(DEFAULT_MAX_ENTRIES_PER_CA, meterRegistry);
+    }
+
+    CertificatePemCache(int maxEntriesPerCa, MeterRegistry meterRegistry) {
+        this.maxEntriesPerCa = maxEntriesPerCa;
+        FunctionCounter.builder(METRIC_PREFIX + "hits", hitCount, AtomicLong::get)
+            .description("CA certificates returned in already encoded PEM format")
+            .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + "misses", missCount, AtomicLong::get)
+            .description("CA certificates which required encoding to PEM format")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns PEM of a CA certificate sent by given CA, encoding it only when not cached yet.
+     *
+     * @return PEM of the certificate, or null when it could not be encoded
+     */
+    public SerializedString getCaCertificatePem(String caName, X509Certificate certificate) {
+        final ByteBuffer fingerprint = caName != null ? fingerprint(certificate) : null;
+        if (fingerprint == null) {
+            return encode(certificate);
+        }
+        final Map<ByteBuffer, SerializedString> cache = caches.computeIfAbsent(caName, ignored -> createCache());
+        synchronized (cache) {
+            final SerializedString pem = cache.get(fingerprint);
+            if (pem != null) {
+                hitCount.incrementAndGet();
+                return pem;
+            }
+        }
+        missCount.incrementAndGet();
+        final SerializedString pem = encode(certificate);
+        if (pem != null) {
+            synchronized (cache) {
+                cache.put(fingerprint, pem);
+            }
+        }
+        return pem;
+    }
+
+    /**
+     * Encodes certificate to PEM format without caching it, e.g. certificate issued for the request.
+     *
+     * @return PEM of the certificate, or null when it could not be encoded
+     */
+    public static SerializedString encode(X509Certificate certificate) {
+        final StringWriter stringWriter = new StringWriter();
+        try (PemWriter pemWriter = new PemWriter(stringWriter)) {
+            pemWriter.writeObject(new JcaMiscPEMGenerator(certificate));
+        } catch (IOException e) {
+            LOGGER.error("Exception occurred during convert of X509 certificate", e);
+            return null;
+        }
+        return new SerializedString(stringWriter.toString());
+    }
+
+    int size(String caName) {
+        final Map<ByteBuffer, SerializedString> cache = caches.get(caName);
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Map<ByteBuffer, SerializedString> createCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, SerializedString> eldest) {
+                return size() > maxEntriesPerCa;
+            }
+        };
+    }
+
+    private static ByteBuffer fingerprint(X509Certificate certificate) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(certificate.getEncoded()));
+        } catch (GeneralSecurityException e) {
+            LOGGER.warn("Could not compute fingerprint of certificate {}", certificate.getSubjectDN(), e);
+            return null;
+        }
+    }
+}
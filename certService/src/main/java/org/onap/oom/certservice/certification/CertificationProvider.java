@@ -20,75 +20,113 @@
 
 package org.onap.oom.certservice.certification;
 
-import org.bouncycastle.openssl.jcajce.JcaMiscPEMGenerator;
-import org.bouncycastle.util.io.pem.PemObjectGenerator;
-import org.bouncycastle.util.io.pem.PemWriter;
+import com.fasterxml.jackson.core.io.SerializedString;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.IssuanceStage;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.certification.model.BatchCertificationItemResponseModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
-import org.onap.oom.certservice.cmpv2client.api.CmpClient;
-import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.io.StringWriter;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class CertificationProvider {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(CertificationProvider.class);
-
-    private final CmpClient cmpClient;
+    private final AsyncCmpClient cmpClient;
+    private final IssuanceMetrics issuanceMetrics;
+    private final CertificatePemCache certificatePemCache;
 
     @Autowired
-    public CertificationProvider(CmpClient cmpClient) {
+    public CertificationProvider(AsyncCmpClient cmpClient, IssuanceMetrics issuanceMetrics,
+        CertificatePemCache certificatePemCache) {
         this.cmpClient = cmpClient;
+        this.issuanceMetrics = issuanceMetrics;
+        this.certificatePemCache = certificatePemCache;
+    }
+
+    public CompletableFuture<CertificationResponseModel> executeInitializationRequest(CsrModel csrModel,
+        Cmpv2Server server) {
+        return cmpClient.executeInitializationRequestAsync(csrModel, server)
+            .thenApply(certificates -> getCertificationResponseModel(certificates, server, RequestType.IR));
+    }
+
+    public CompletableFuture<CertificationResponseModel> executeKeyUpdateRequest(CsrModel csrModel,
+        Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel) {
+        return cmpClient.executeKeyUpdateRequestAsync(csrModel, cmpv2Server, oldCertificateModel)
+            .thenApply(certificates -> getCertificationResponseModel(certificates, cmpv2Server, RequestType.KUR));
     }
 
-    public CertificationResponseModel executeInitializationRequest(CsrModel csrModel, Cmpv2Server server)
-            throws CmpClientException {
-        Cmpv2CertificationModel certificates = cmpClient.executeInitializationRequest(csrModel, server);
-        return getCertificationResponseModel(certificates);
+    public CompletableFuture<CertificationResponseModel> executeCertificationRequest(CsrModel csrModel,
+        Cmpv2Server cmpv2Server) {
+        return cmpClient.executeCertificationRequestAsync(csrModel, cmpv2Server)
+            .thenApply(certificates -> getCertificationResponseModel(certificates, cmpv2Server, RequestType.CR));
     }
 
-    public CertificationResponseModel executeKeyUpdateRequest(CsrModel csrModel, Cmpv2Server cmpv2Server,
-        OldCertificateModel oldCertificateModel) throws CmpClientException {
-        Cmpv2CertificationModel certificates = cmpClient.executeKeyUpdateRequest(csrModel, cmpv2Server, oldCertificateModel);
-        return getCertificationResponseModel(certificates);
+    public CompletableFuture<List<BatchCertificationItemResponseModel>> executeInitializationBatchRequest(
+        List<CsrModel> csrModels, Cmpv2Server server) {
+        return cmpClient.executeInitializationBatchRequestAsync(csrModels, server)
+            .thenApply(results -> results.stream()
+                .map(result -> getBatchCertificationItemResponseModel(result, server))
+                .collect(Collectors.toList()));
     }
 
-    public CertificationResponseModel executeCertificationRequest(CsrModel csrModel, Cmpv2Server cmpv2Server) throws CmpClientException {
-        Cmpv2CertificationModel certificates = cmpClient.executeCertificationRequest(csrModel, cmpv2Server);
-        return getCertificationResponseModel(certificates);
+    private BatchCertificationItemResponseModel getBatchCertificationItemResponseModel(
+        Cmpv2BatchCertificationResult result, Cmpv2Server server) {
+        return result.getCertificationModel()
+            .map(certificates -> BatchCertificationItemResponseModel.success(
+                getCertificationResponseModel(certificates, server, RequestType.IR)))
+            .orElseGet(() -> BatchCertificationItemResponseModel.failure(
+                result.getFailureCause().map(CertificationProvider::getErrorMessage).orElse(null)));
     }
 
-    private List<String> convertFromX509CertificateListToPemList(List<X509Certificate> certificates) {
-        return certificates.stream().map(CertificationProvider::convertFromX509CertificateToPem).filter(cert -> !cert.isEmpty())
-                .collect(Collectors.toList());
+    private static String getErrorMessage(Exception failureCause) {
+        if (failureCause instanceof CmpServerException) {
+            return "CMPv2 server returned following error: " + failureCause.getMessage();
+        }
+        return failureCause.getMessage();
     }
 
-    private CertificationResponseModel getCertificationResponseModel(Cmpv2CertificationModel certificates) {
-        return new CertificationResponseModel(
-            convertFromX509CertificateListToPemList(certificates.getCertificateChain()),
-            convertFromX509CertificateListToPemList(certificates.getTrustedCertificates()));
+    private CertificationResponseModel getCertificationResponseModel(Cmpv2CertificationModel certificates,
+        Cmpv2Server server, RequestType requestType) {
+        return issuanceMetrics.timeStage(IssuanceStage.PEM, server.getCaName(), requestType,
+            () -> CertificationResponseModel.fromEncoded(
+                convertCertificateChainToPem(certificates.getCertificateChain(), server.getCaName()),
+                convertCaCertificatesToPem(certificates.getTrustedCertificates(), server.getCaName())));
     }
 
-    private static String convertFromX509CertificateToPem(X509Certificate certificate) {
-        StringWriter sw = new StringWriter();
-        try (PemWriter pw = new PemWriter(sw)) {
-            PemObjectGenerator gen = new JcaMiscPEMGenerator(certificate);
-            pw.writeObject(gen);
-        } catch (IOException e) {
-            LOGGER.error("Exception occurred during convert of X509 certificate", e);
+    private List<SerializedString> convertCertificateChainToPem(List<X509Certificate> certificateChain,
+        String caName) {
+        final List<SerializedString> pems = new ArrayList<>(certificateChain.size());
+        for (int i = 0; i < certificateChain.size(); i++) {
+            // only the first certificate is issued for this request, the following ones are CA certificates
+            final SerializedString pem = i == 0
+                ? CertificatePemCache.encode(certificateChain.get(i))
+                : certificatePemCache.getCaCertificatePem(caName, certificateChain.get(i));
+            if (pem != null) {
+                pems.add(pem);
+            }
         }
-        return sw.toString();
+        return pems;
+    }
+
+    private List<SerializedString> convertCaCertificatesToPem(List<X509Certificate> certificates, String caName) {
+        return certificates.stream()
+            .map(certificate -> certificatePemCache.getCaCertificatePem(caName, certificate))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 }
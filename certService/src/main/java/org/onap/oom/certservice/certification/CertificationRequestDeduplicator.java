@@ -0,0 +1,241 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.certification.model.CertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets identical certificate requests share a single call of {@link CertificationProvider}, so that a client
+ * repeating its request, e.g. init container of a crash looping pod, does not send it to the CA again while the
+ * first one is still in flight. Requests are identical when they are addressed to the same CA, have the same
+ * request type, the same CSR and private key and, for update requests, the same old certificate and old private
+ * key. They are compared by SHA-256 of all these encodings, so a request never gets a result of another request
+ * which was protected or authorized by different keys. Duplicates complete with the result of the request already
+ * running, failures included.
+ *
+ * <p>Optionally, successful results are cached for a short time, so that a duplicate arriving just after the
+ * first request completed is answered too. The cache is bounded, least recently used results are evicted first.
+ * Every request answered without calling the CA is recorded by {@link IssuanceMetrics}.
+ */
+@Component
+public class CertificationRequestDeduplicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificationRequestDeduplicator.class);
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final boolean enabled;
+    private final long resultTtlNanos;
+    private final IssuanceMetrics issuanceMetrics;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<RequestKey, CompletableFuture<CertificationResponseModel>> inFlight =
+        new ConcurrentHashMap<>();
+    private final Map<RequestKey, CachedResult> results;
+
+    @Autowired
+    public CertificationRequestDeduplicator(
+        @Value("${app.dedup.enabled:true}") boolean enabled,
+        @Value("${app.dedup.result-ttl-ms:0}") long resultTtlMs,
+        @Value("${app.dedup.result-cache-size:1000}") int resultCacheSize,
+        IssuanceMetrics issuanceMetrics) {
+        this(enabled, resultTtlMs, resultCacheSize, issuanceMetrics, System::nanoTime);
+    }
+
+    CertificationRequestDeduplicator(boolean enabled, long resultTtlMs, int resultCacheSize,
+        IssuanceMetrics issuanceMetrics, LongSupplier nanoClock) {
+        if (resultTtlMs < 0 || resultCacheSize < 0) {
+            throw new IllegalArgumentException("Result TTL and cache size must not be negative");
+        }
+        this.enabled = enabled;
+        this.resultTtlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtlMs);
+        this.issuanceMetrics = issuanceMetrics;
+        this.nanoClock = nanoClock;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestKey, CachedResult> eldest) {
+                return size() > resultCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns result of the identical request when it is in flight or cached, otherwise starts the request.
+     *
+     * @param oldCertificateModel certificate to be updated, {@code null} for initialization requests
+     * @param request starts the request, e.g. calls {@link CertificationProvider}
+     */
+    public CompletableFuture<CertificationResponseModel> execute(String caName, RequestType requestType,
+        CsrModel csrModel, OldCertificateModel oldCertificateModel,
+        Supplier<CompletableFuture<CertificationResponseModel>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        final RequestKey key = new RequestKey(caName, requestType, digest(csrModel, oldCertificateModel));
+        final CertificationResponseModel cachedResult = getCachedResult(key);
+        if (cachedResult != null) {
+            LOGGER.info("Answering {} request for CA {} with cached result of identical request", requestType,
+                caName);
+            issuanceMetrics.recordDeduplicatedRequest(caName, requestType, true);
+            return CompletableFuture.completedFuture(cachedResult);
+        }
+        final CompletableFuture<CertificationResponseModel> promise = new CompletableFuture<>();
+        final CompletableFuture<CertificationResponseModel> running = inFlight.putIfAbsent(key, promise);
+        if (running != null) {
+            LOGGER.info("Joining identical {} request for CA {} which is in flight", requestType, caName);
+            issuanceMetrics.recordDeduplicatedRequest(caName, requestType, false);
+            // each caller gets its own future, so that one of them cannot complete it for the others
+            return running.copy();
+        }
+        try {
+            request.get().whenComplete((result, error) -> {
+                if (error == null) {
+                    cacheResult(key, result);
+                }
+                inFlight.remove(key, promise);
+                if (error == null) {
+                    promise.complete(result);
+                } else {
+                    promise.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+        return promise.copy();
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private CertificationResponseModel getCachedResult(RequestKey key) {
+        if (resultTtlNanos == 0) {
+            return null;
+        }
+        synchronized (results) {
+            final CachedResult cachedResult = results.get(key);
+            if (cachedResult == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - cachedResult.cachedAt >= resultTtlNanos) {
+                results.remove(key);
+                return null;
+            }
+            return cachedResult.result;
+        }
+    }
+
+    private void cacheResult(RequestKey key, CertificationResponseModel result) {
+        if (resultTtlNanos == 0) {
+            return;
+        }
+        synchronized (results) {
+            results.put(key, new CachedResult(result, nanoClock.getAsLong()));
+        }
+    }
+
+    private static byte[] digest(CsrModel csrModel, OldCertificateModel oldCertificateModel) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            update(messageDigest, csrModel.getCsr().getEncoded());
+            update(messageDigest, csrModel.getPrivateKey().getEncoded());
+            if (oldCertificateModel != null) {
+                update(messageDigest, oldCertificateModel.getOldCertificate().getEncoded());
+                update(messageDigest, oldCertificateModel.getOldPrivateKey().getEncoded());
+            }
+            return messageDigest.digest();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not compute digest of certificate request", e);
+        }
+    }
+
+    private static void update(MessageDigest messageDigest, byte[] part) {
+        // length prefix keeps boundaries of parts, so that different parts cannot produce the same input
+        messageDigest.update(ByteBuffer.allocate(Integer.BYTES).putInt(part.length).array());
+        messageDigest.update(part);
+    }
+
+    private static final class RequestKey {
+
+        private final String caName;
+        private final RequestType requestType;
+        private final byte[] requestDigest;
+
+        private RequestKey(String caName, RequestType requestType, byte[] requestDigest) {
+            this.caName = caName;
+            this.requestType = requestType;
+            this.requestDigest = requestDigest;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof RequestKey)) {
+                return false;
+            }
+            final RequestKey that = (RequestKey) other;
+            return Objects.equals(caName, that.caName) && requestType == that.requestType
+                && Arrays.equals(requestDigest, that.requestDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(caName, requestType) + Arrays.hashCode(requestDigest);
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final CertificationResponseModel result;
+        private final long cachedAt;
+
+        private CachedResult(CertificationResponseModel result, long cachedAt) {
+            this.result = result;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -20,87 +20,263 @@
 
 package org.onap.oom.certservice.certification;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
 import org.onap.oom.certservice.certification.configuration.Cmpv2ServerProvider;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
 import org.onap.oom.certservice.certification.conversion.CsrModelFactory;
 import org.onap.oom.certservice.certification.conversion.OldCertificateModelFactory;
 import org.onap.oom.certservice.certification.conversion.StringBase64;
+import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.DecryptionException;
+import org.onap.oom.certservice.certification.exception.InvalidBatchRequestException;
+import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics.StageAction;
+import org.onap.oom.certservice.certification.metrics.IssuanceStage;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.certification.model.BatchCertificationItemResponseModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CertificateRequestModel;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel;
+import org.onap.oom.certservice.certification.model.CertificationRequestItemModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
-import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class CertificationResponseModelFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CertificationResponseModelFactory.class);
+    private static final String INITIALIZATION_SPAN = "initialize certificate";
+    private static final String UPDATE_SPAN = "update certificate";
+    private static final String BATCH_SPAN = "initialize certificates batch";
 
     private final CsrModelFactory csrModelFactory;
     private final Cmpv2ServerProvider cmpv2ServerProvider;
     private final CertificationProvider certificationProvider;
+    private final CertificationRequestDeduplicator requestDeduplicator;
     private final OldCertificateModelFactory oldCertificateModelFactory;
     private final UpdateRequestTypeDetector updateRequestTypeDetector;
+    private final IssuanceMetrics issuanceMetrics;
+    private final IssuanceTracing issuanceTracing;
+    private final int maxBatchSize;
 
     @Autowired
     CertificationResponseModelFactory(
             CsrModelFactory csrModelFactory,
             Cmpv2ServerProvider cmpv2ServerProvider,
             CertificationProvider certificationProvider,
+            CertificationRequestDeduplicator requestDeduplicator,
             OldCertificateModelFactory oldCertificateModelFactory,
-            UpdateRequestTypeDetector updateRequestTypeDetector) {
+            UpdateRequestTypeDetector updateRequestTypeDetector,
+            IssuanceMetrics issuanceMetrics,
+            IssuanceTracing issuanceTracing,
+            @Value("${app.cmp.batch.max-size:200}") int maxBatchSize) {
         this.cmpv2ServerProvider = cmpv2ServerProvider;
         this.csrModelFactory = csrModelFactory;
         this.certificationProvider = certificationProvider;
+        this.requestDeduplicator = requestDeduplicator;
         this.oldCertificateModelFactory = oldCertificateModelFactory;
         this.updateRequestTypeDetector = updateRequestTypeDetector;
+        this.issuanceMetrics = issuanceMetrics;
+        this.issuanceTracing = issuanceTracing;
+        this.maxBatchSize = maxBatchSize;
     }
 
-    public CertificationResponseModel provideCertificationModelFromInitialRequest(String encodedCsr, String encodedPrivateKey, String caName)
-            throws DecryptionException, CmpClientException {
-        CsrModel csrModel = csrModelFactory.createCsrModel(
+    public CompletableFuture<CertificationResponseModel> provideCertificationModelFromInitialRequest(String encodedCsr,
+            String encodedPrivateKey, String caName) throws DecryptionException {
+        return provideCertificationModelFromInitialRequest(caName,
+            () -> csrModelFactory.createCsrModel(
                 new StringBase64(encodedCsr),
                 new StringBase64(encodedPrivateKey)
-        );
-        LOGGER.debug("Received CSR meta data: \n{}", csrModel);
+            ));
+    }
 
-        Cmpv2Server cmpv2Server = cmpv2ServerProvider.getCmpv2Server(caName);
-        LOGGER.debug("Found server for given CA name: \n{}", cmpv2Server);
+    /**
+     * Initializes certificate with CSR and private key given in DER form, see {@link CertificateRequestModel}.
+     */
+    public CompletableFuture<CertificationResponseModel> provideCertificationModelFromInitialRequest(
+        CertificateRequestModel certificateRequest, String caName) throws DecryptionException {
+        return provideCertificationModelFromInitialRequest(caName,
+            () -> csrModelFactory.createCsrModelFromDer(certificateRequest.getCsr(), certificateRequest.getPrivateKey()));
+    }
 
-        LOGGER.info("Sending initialization request for certification model for CA named: {}, and certificate signing request:\n{}",
-                caName, csrModel);
-        return certificationProvider.executeInitializationRequest(csrModel, cmpv2Server);
+    private CompletableFuture<CertificationResponseModel> provideCertificationModelFromInitialRequest(String caName,
+        StageAction<CsrModel, DecryptionException> csrDecoder) throws DecryptionException {
+        final long startTime = issuanceMetrics.start();
+        final Span span = issuanceTracing.startSpan(INITIALIZATION_SPAN, SpanKind.INTERNAL, caName, RequestType.IR);
+        try (Scope ignored = span.makeCurrent()) {
+            CsrModel csrModel = issuanceMetrics.timeStage(IssuanceStage.DECODE, caName, RequestType.IR, csrDecoder);
+            LOGGER.debug("Received CSR meta data: \n{}", csrModel);
+
+            Cmpv2Server cmpv2Server = cmpv2ServerProvider.getCmpv2Server(caName);
+            LOGGER.debug("Found server for given CA name: \n{}", cmpv2Server);
+
+            LOGGER.info("Sending initialization request for certification model for CA named: {}, and certificate signing request:\n{}",
+                    caName, csrModel);
+            return recordRequest(span, caName, RequestType.IR, startTime,
+                requestDeduplicator.execute(caName, RequestType.IR, csrModel, null,
+                    () -> certificationProvider.executeInitializationRequest(csrModel, cmpv2Server)));
+        } catch (DecryptionException | RuntimeException e) {
+            recordFailure(span, caName, RequestType.IR, startTime, e);
+            throw e;
+        }
     }
 
-    public CertificationResponseModel provideCertificationModelFromUpdateRequest(CertificateUpdateModel certificateUpdateModel)
-        throws DecryptionException, CmpClientException {
+    public CompletableFuture<CertificationResponseModel> provideCertificationModelFromUpdateRequest(
+        CertificateUpdateModel certificateUpdateModel) throws DecryptionException {
         LOGGER.debug("CSR: {}, old cert: {}, CA: {}", certificateUpdateModel.getEncodedCsr(),
                         certificateUpdateModel.getEncodedOldCert(), certificateUpdateModel.getCaName());
-        final CsrModel csrModel = csrModelFactory.createCsrModel(
-            new StringBase64(certificateUpdateModel.getEncodedCsr()),
-            new StringBase64(certificateUpdateModel.getEncodedPrivateKey())
-        );
-        final OldCertificateModel certificateModel = oldCertificateModelFactory.createCertificateModel(
-            new StringBase64(certificateUpdateModel.getEncodedOldCert()), certificateUpdateModel.getEncodedOldPrivateKey());
-
-        Cmpv2Server cmpv2Server = cmpv2ServerProvider.getCmpv2Server(certificateUpdateModel.getCaName());
-        LOGGER.debug("Found server for given CA name: \n{}", cmpv2Server);
-        LOGGER.info("Sending update request for certification model for CA named: {}, and certificate update request:\n{}",
-            certificateUpdateModel.getCaName(), csrModel);
-
-        if (updateRequestTypeDetector.isKur(csrModel.getCertificateData(), certificateModel.getCertificateData())) {
-            LOGGER.info(
-                "Certificate Signing Request and Old Certificate have the same parameters. Preparing Key Update Request");
-            return certificationProvider.executeKeyUpdateRequest(csrModel, cmpv2Server, certificateModel);
-        } else {
-            LOGGER.info(
-                "Certificate Signing Request and Old Certificate have different parameters. Preparing Certification Request");
-            return certificationProvider.executeCertificationRequest(csrModel, cmpv2Server);
+        return provideCertificationModelFromUpdateRequest(certificateUpdateModel.getCaName(),
+            () -> csrModelFactory.createCsrModel(
+                new StringBase64(certificateUpdateModel.getEncodedCsr()),
+                new StringBase64(certificateUpdateModel.getEncodedPrivateKey())
+            ),
+            () -> oldCertificateModelFactory.createCertificateModel(
+                new StringBase64(certificateUpdateModel.getEncodedOldCert()), certificateUpdateModel.getEncodedOldPrivateKey()));
+    }
+
+    /**
+     * Updates certificate with CSR, private key, old certificate and old private key given in DER form, see
+     * {@link CertificateRequestModel}.
+     */
+    public CompletableFuture<CertificationResponseModel> provideCertificationModelFromUpdateRequest(
+        CertificateRequestModel certificateRequest, String caName) throws DecryptionException {
+        return provideCertificationModelFromUpdateRequest(caName,
+            () -> csrModelFactory.createCsrModelFromDer(certificateRequest.getCsr(), certificateRequest.getPrivateKey()),
+            () -> oldCertificateModelFactory.createCertificateModelFromDer(
+                certificateRequest.getOldCertificate(), certificateRequest.getOldPrivateKey()));
+    }
+
+    private CompletableFuture<CertificationResponseModel> provideCertificationModelFromUpdateRequest(String caName,
+        StageAction<CsrModel, DecryptionException> csrDecoder,
+        StageAction<OldCertificateModel, DecryptionException> oldCertificateDecoder) throws DecryptionException {
+        final long startTime = issuanceMetrics.start();
+        final Span span = issuanceTracing.startSpan(UPDATE_SPAN, SpanKind.INTERNAL, caName, null);
+        // request type is known only after decoding, so decoding is recorded once the type is determined
+        RequestType requestType = null;
+        try (Scope ignored = span.makeCurrent()) {
+            final CsrModel csrModel = csrDecoder.run();
+            final OldCertificateModel certificateModel = oldCertificateDecoder.run();
+            final boolean isKur =
+                updateRequestTypeDetector.isKur(csrModel.getCertificateData(), certificateModel.getCertificateData());
+            requestType = isKur ? RequestType.KUR : RequestType.CR;
+            span.setAttribute(IssuanceTracing.REQUEST_TYPE, requestType.name());
+            issuanceMetrics.recordStage(IssuanceStage.DECODE, caName, requestType, startTime, null);
+
+            Cmpv2Server cmpv2Server = cmpv2ServerProvider.getCmpv2Server(caName);
+            LOGGER.debug("Found server for given CA name: \n{}", cmpv2Server);
+            LOGGER.info("Sending update request for certification model for CA named: {}, and certificate update request:\n{}",
+                caName, csrModel);
+
+            if (isKur) {
+                LOGGER.info(
+                    "Certificate Signing Request and Old Certificate have the same parameters. Preparing Key Update Request");
+                return recordRequest(span, caName, requestType, startTime,
+                    requestDeduplicator.execute(caName, requestType, csrModel, certificateModel,
+                        () -> certificationProvider.executeKeyUpdateRequest(csrModel, cmpv2Server, certificateModel)));
+            } else {
+                LOGGER.info(
+                    "Certificate Signing Request and Old Certificate have different parameters. Preparing Certification Request");
+                return recordRequest(span, caName, requestType, startTime,
+                    requestDeduplicator.execute(caName, requestType, csrModel, certificateModel,
+                        () -> certificationProvider.executeCertificationRequest(csrModel, cmpv2Server)));
+            }
+        } catch (DecryptionException | RuntimeException e) {
+            if (requestType == null) {
+                issuanceMetrics.recordStage(IssuanceStage.DECODE, caName, null, startTime, e);
+            }
+            recordFailure(span, caName, requestType, startTime, e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<BatchCertificationResponseModel> provideCertificationModelsFromBatchRequest(
+        List<CertificationRequestItemModel> requests, String caName) {
+        if (requests.isEmpty() || requests.size() > maxBatchSize) {
+            throw new InvalidBatchRequestException(
+                String.format("Batch request must contain from 1 to %d certificate requests", maxBatchSize));
+        }
+        final long startTime = issuanceMetrics.start();
+        final Span span = issuanceTracing.startSpan(BATCH_SPAN, SpanKind.INTERNAL, caName, RequestType.IR);
+        try (Scope ignored = span.makeCurrent()) {
+            Cmpv2Server cmpv2Server = cmpv2ServerProvider.getCmpv2Server(caName);
+            LOGGER.debug("Found server for given CA name: \n{}", cmpv2Server);
+
+            List<BatchCertificationItemResponseModel> results = new ArrayList<>(requests.size());
+            List<CsrModel> csrModels = new ArrayList<>(requests.size());
+            for (CertificationRequestItemModel request : requests) {
+                try {
+                    csrModels.add(issuanceMetrics.timeStage(IssuanceStage.DECODE, caName, RequestType.IR,
+                        () -> csrModelFactory.createCsrModel(
+                            new StringBase64(request.getEncodedCsr()),
+                            new StringBase64(request.getEncodedPrivateKey()))));
+                    results.add(null);
+                } catch (DecryptionException e) {
+                    LOGGER.error("Exception occurred during decoding batch request item:", e);
+                    results.add(BatchCertificationItemResponseModel.failure(getDecryptionErrorMessage(e)));
+                }
+            }
+            if (csrModels.isEmpty()) {
+                return recordRequest(span, caName, RequestType.IR, startTime,
+                    CompletableFuture.completedFuture(new BatchCertificationResponseModel(results)));
+            }
+
+            LOGGER.info("Sending batch initialization request with {} certificate signing requests for CA named: {}",
+                csrModels.size(), caName);
+            return recordRequest(span, caName, RequestType.IR, startTime,
+                certificationProvider.executeInitializationBatchRequest(csrModels, cmpv2Server)
+                    .thenApply(caResults -> new BatchCertificationResponseModel(mergeResults(results, caResults))));
+        } catch (RuntimeException e) {
+            recordFailure(span, caName, RequestType.IR, startTime, e);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> recordRequest(Span span, String caName, RequestType requestType, long startTime,
+        CompletableFuture<T> result) {
+        return result.whenComplete((response, error) -> {
+            issuanceMetrics.recordRequest(caName, requestType, startTime, error);
+            IssuanceTracing.end(span, error);
+        });
+    }
+
+    private void recordFailure(Span span, String caName, RequestType requestType, long startTime, Exception error) {
+        issuanceMetrics.recordRequest(caName, requestType, startTime, error);
+        IssuanceTracing.end(span, error);
+    }
+
+    private static List<BatchCertificationItemResponseModel> mergeResults(
+        List<BatchCertificationItemResponseModel> decodingResults, List<BatchCertificationItemResponseModel> caResults) {
+        Iterator<BatchCertificationItemResponseModel> caResultsIterator = caResults.iterator();
+        List<BatchCertificationItemResponseModel> results = new ArrayList<>(decodingResults.size());
+        for (BatchCertificationItemResponseModel decodingResult : decodingResults) {
+            results.add(Objects.isNull(decodingResult) ? caResultsIterator.next() : decodingResult);
+        }
+        return results;
+    }
+
+    private static String getDecryptionErrorMessage(DecryptionException exception) {
+        if (exception instanceof CsrDecryptionException) {
+            return "Wrong certificate signing request (CSR) format";
+        }
+        if (exception instanceof KeyDecryptionException) {
+            return "Wrong key (PK) format";
         }
+        return exception.getMessage();
     }
 }
@@ -20,31 +20,252 @@
 
 package org.onap.oom.certservice.certification.configuration;
 
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.onap.oom.certservice.cmpv2client.api.CmpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.impl.AdaptiveConcurrencyLimiter;
+import org.onap.oom.certservice.cmpv2client.impl.CircuitBreakingCmpClient;
 import org.onap.oom.certservice.cmpv2client.impl.CmpClientImpl;
+import org.onap.oom.certservice.cmpv2client.impl.CmpRetryPolicy;
+import org.onap.oom.certservice.cmpv2client.impl.CoalescingCmpClient;
+import org.onap.oom.certservice.cmpv2client.impl.ConcurrencyLimitingCmpClient;
+import org.onap.oom.certservice.cmpv2client.impl.VerifiedChainLinkCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.validation.CmpCertificationValidator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.annotation.RequestScope;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class CmpClientConfig {
 
+    @Value("${app.cmp.http.pool.max-total:200}")
+    private int maxTotalConnections;
+
+    @Value("${app.cmp.http.pool.max-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${app.cmp.http.pool.max-idle-time-ms:60000}")
+    private long maxIdleTimeMs;
+
+    @Value("${app.cmp.http.keep-alive-ms:30000}")
+    private long defaultKeepAliveMs;
+
+    @Value("${app.cmp.http.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.cmp.http.connection-request-timeout-ms:10000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${app.cmp.http.socket-timeout-ms:60000}")
+    private int socketTimeoutMs;
+
+    @Value("${app.cmp.http.max-response-size:1048576}")
+    private int maxResponseSize;
+
+    @Value("${app.cmp.crypto.threads:0}")
+    private int cryptoThreads;
+
+    @Value("${app.cmp.cache.protection-mac.max-entries:64}")
+    private int protectionMacCacheSize;
+
+    @Value("${app.cmp.cache.verification-mac.max-entries:64}")
+    private int verificationMacCacheSize;
+
+    @Value("${app.cmp.cache.verified-chain-links.max-entries:256}")
+    private int verifiedChainLinkCacheSize;
+
+    @Value("${app.cmp.limit.initial:20}")
+    private int initialConcurrencyLimit;
+
+    @Value("${app.cmp.limit.min:1}")
+    private int minConcurrencyLimit;
+
+    @Value("${app.cmp.limit.max:50}")
+    private int maxConcurrencyLimit;
+
+    @Value("${app.cmp.limit.queue-size:50}")
+    private int concurrencyLimitQueueSize;
+
+    @Value("${app.cmp.limit.max-wait-ms:500}")
+    private long concurrencyLimitMaxWaitMs;
+
+    @Value("${app.cmp.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${app.cmp.retry.initial-backoff-ms:200}")
+    private long retryInitialBackoffMs;
+
+    @Value("${app.cmp.retry.max-backoff-ms:2000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${app.cmp.retry.deadline-ms:20000}")
+    private long retryDeadlineMs;
+
     @Bean
-    CmpClient cmpClient(CloseableHttpClient closeableHttpClient) {
-        return new CmpClientImpl(closeableHttpClient);
+    CmpClientImpl cmpClient(CloseableHttpAsyncClient cmpHttpAsyncClient,
+        ThreadPoolTaskExecutor cmpCryptoExecutor, IssuanceMetrics issuanceMetrics, IssuanceTracing issuanceTracing,
+        CmpCertificationValidator cmpCertificationValidator,
+        @Qualifier("cmpProtectionMacCache") PasswordBasedMacCache cmpProtectionMacCache,
+        VerifiedChainLinkCache cmpVerifiedChainLinkCache) {
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(retryMaxAttempts, retryInitialBackoffMs, retryMaxBackoffMs,
+                retryDeadlineMs);
+        return new CmpClientImpl(cmpHttpAsyncClient, cmpCryptoExecutor, retryPolicy,
+                issuanceMetrics, issuanceTracing, maxResponseSize, cmpCertificationValidator, cmpProtectionMacCache,
+                cmpVerifiedChainLinkCache);
     }
 
     @Bean
-    @RequestScope
-    CloseableHttpClient closeableHttpClient(HttpClientBuilder httpClientBuilder) {
-        return httpClientBuilder.build();
+    CmpCertificationValidator cmpCertificationValidator(
+            @Qualifier("cmpVerificationMacCache") PasswordBasedMacCache cmpVerificationMacCache) {
+        return new CmpCertificationValidator(cmpVerificationMacCache);
     }
 
     @Bean
-    HttpClientBuilder httpClientBuilder() {
-        return HttpClientBuilder.create();
+    PasswordBasedMacCache cmpProtectionMacCache() {
+        return new PasswordBasedMacCache(protectionMacCacheSize);
+    }
+
+    @Bean
+    PasswordBasedMacCache cmpVerificationMacCache() {
+        return new PasswordBasedMacCache(verificationMacCacheSize);
+    }
+
+    @Bean
+    VerifiedChainLinkCache cmpVerifiedChainLinkCache() {
+        return new VerifiedChainLinkCache(verifiedChainLinkCacheSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "app.cmp.limit.enabled", havingValue = "true")
+    ConcurrencyLimitingCmpClient concurrencyLimitingCmpClient(CmpClientImpl cmpClient, MeterRegistry meterRegistry) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cmp-limit-");
+        threadFactory.setDaemon(true);
+        AdaptiveConcurrencyLimiter.Settings settings = new AdaptiveConcurrencyLimiter.Settings(
+                initialConcurrencyLimit, minConcurrencyLimit, maxConcurrencyLimit, concurrencyLimitQueueSize,
+                concurrencyLimitMaxWaitMs);
+        return new ConcurrencyLimitingCmpClient(cmpClient, Executors.newSingleThreadScheduledExecutor(threadFactory),
+                settings, meterRegistry);
+    }
+
+    @Bean
+    CircuitBreakingCmpClient circuitBreakingCmpClient(CmpClientImpl cmpClient,
+            Optional<ConcurrencyLimitingCmpClient> concurrencyLimitingCmpClient, MeterRegistry meterRegistry) {
+        // without the limiter requests are bounded only by the connection pool
+        AsyncCmpClient delegate = concurrencyLimitingCmpClient.isPresent()
+                ? concurrencyLimitingCmpClient.get() : cmpClient;
+        return new CircuitBreakingCmpClient(delegate, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @Primary
+    CoalescingCmpClient coalescingCmpClient(CircuitBreakingCmpClient circuitBreakingCmpClient,
+            MeterRegistry meterRegistry, IssuanceTracing issuanceTracing) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cmp-batching-");
+        threadFactory.setDaemon(true);
+        return new CoalescingCmpClient(circuitBreakingCmpClient,
+                Executors.newSingleThreadScheduledExecutor(threadFactory), meterRegistry, issuanceTracing);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    CmpIdleConnectionEvictor cmpIdleConnectionEvictor(PoolingNHttpClientConnectionManager cmpAsyncConnectionManager) {
+        // HttpAsyncClient never evicts idle connections of its pool by itself
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cmp-idle-evictor-");
+        threadFactory.setDaemon(true);
+        CmpIdleConnectionEvictor evictor = new CmpIdleConnectionEvictor(cmpAsyncConnectionManager,
+                Executors.newSingleThreadScheduledExecutor(threadFactory), maxIdleTimeMs);
+        evictor.start();
+        return evictor;
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpAsyncClient cmpHttpAsyncClient(PoolingNHttpClientConnectionManager cmpAsyncConnectionManager) {
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(cmpAsyncConnectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .setDefaultRequestConfig(requestConfig())
+                .build();
+        httpAsyncClient.start();
+        return httpAsyncClient;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    PoolingNHttpClientConnectionManager cmpAsyncConnectionManager() throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSoTimeout(socketTimeoutMs)
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxTotalConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor cmpCryptoExecutor() {
+        int threads = cryptoThreads > 0
+                ? cryptoThreads
+                : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("cmp-crypto-");
+        return executor;
+    }
+
+    @Bean
+    CmpConnectionPoolMetrics cmpConnectionPoolMetrics(PoolingNHttpClientConnectionManager cmpAsyncConnectionManager) {
+        return new CmpConnectionPoolMetrics(cmpAsyncConnectionManager);
+    }
+
+    @Bean
+    PasswordBasedMacCacheMetrics protectionMacCacheMetrics(
+            @Qualifier("cmpProtectionMacCache") PasswordBasedMacCache cmpProtectionMacCache) {
+        return new PasswordBasedMacCacheMetrics(cmpProtectionMacCache, "protection");
+    }
+
+    @Bean
+    PasswordBasedMacCacheMetrics verificationMacCacheMetrics(
+            @Qualifier("cmpVerificationMacCache") PasswordBasedMacCache cmpVerificationMacCache) {
+        return new PasswordBasedMacCacheMetrics(cmpVerificationMacCache, "verification");
+    }
+
+    @Bean
+    VerifiedChainLinkCacheMetrics verifiedChainLinkCacheMetrics(VerifiedChainLinkCache cmpVerifiedChainLinkCache) {
+        return new VerifiedChainLinkCacheMetrics(cmpVerifiedChainLinkCache);
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs)
+                .build();
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long keepAliveFromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAliveFromServer > 0 ? keepAliveFromServer : defaultKeepAliveMs;
+        };
     }
 
 }
@@ -0,0 +1,60 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2020 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Exposes statistics of the connection pool shared by all CMPv2 servers.
+ */
+public class CmpConnectionPoolMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "certservice.cmp.http.pool.";
+
+    private final ConnPoolControl<HttpRoute> connectionManager;
+
+    public CmpConnectionPoolMetrics(ConnPoolControl<HttpRoute> connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerGauge(registry, "leased", "Connections currently in use", PoolStats::getLeased);
+        registerGauge(registry, "available", "Idle connections kept alive in the pool", PoolStats::getAvailable);
+        registerGauge(registry, "pending", "Requests waiting for a connection", PoolStats::getPending);
+        registerGauge(registry, "max", "Maximum number of connections in the pool", PoolStats::getMax);
+    }
+
+    private void registerGauge(MeterRegistry registry, String name, String description,
+        ToDoubleFunction<PoolStats> statistic) {
+        Gauge.builder(METRIC_PREFIX + name, connectionManager,
+            manager -> statistic.applyAsDouble(manager.getTotalStats()))
+            .description(description)
+            .register(registry);
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically closes expired connections and connections idle for longer than given time in the connection pool of
+ * CMPv2 servers, which HttpAsyncClient does not do by itself.
+ */
+public class CmpIdleConnectionEvictor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CmpIdleConnectionEvictor.class);
+
+    private final NHttpClientConnectionManager connectionManager;
+    private final ScheduledExecutorService scheduler;
+    private final long maxIdleTimeMs;
+
+    public CmpIdleConnectionEvictor(NHttpClientConnectionManager connectionManager, ScheduledExecutorService scheduler,
+        long maxIdleTimeMs) {
+        if (maxIdleTimeMs <= 0) {
+            throw new IllegalArgumentException("Maximum idle time of connections must be positive");
+        }
+        this.connectionManager = connectionManager;
+        this.scheduler = scheduler;
+        this.maxIdleTimeMs = maxIdleTimeMs;
+    }
+
+    /**
+     * Starts checking the pool every maximum idle time, so connections are closed after being idle for at most twice
+     * as long.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::evict, maxIdleTimeMs, maxIdleTimeMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void evict() {
+        // an exception would cancel further runs of the scheduled task
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(maxIdleTimeMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not close idle connections to CMPv2 servers", e);
+        }
+    }
+}
@@ -20,9 +20,13 @@
 
 package org.onap.oom.certservice.certification.configuration;
 
-import java.io.File;
-import java.util.Collections;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
 import org.slf4j.Logger;
@@ -38,19 +42,31 @@ public class CmpServersConfig {
     private static final String INIT_CONFIGURATION = "Loading initial configuration";
     private static final String RELOADING_CONFIGURATION = "Reloading configuration";
     private static final String LOADING_SUCCESS_MESSAGE = "CMP Servers configuration successfully loaded from file {}";
+    private static final String LOADING_FAILURE_MESSAGE =
+            "CMP Servers configuration from file {} rejected, keeping previously loaded configuration";
     private static final String CMP_SERVERS_CONFIG_FILENAME = "cmpServers.json";
+    private static final String RELOAD_TIME_METRIC = "certservice.config.reload";
+    private static final String LOADED_SERVERS_METRIC = "certservice.config.cmp.servers";
+    private static final String RESULT_TAG = "result";
 
     private final String configPath;
     private final CmpServersConfigLoader cmpServersConfigLoader;
+    private final Timer successfulReloadTimer;
+    private final Timer failedReloadTimer;
 
-    private List<Cmpv2Server> cmpServers;
-    private volatile boolean isReady;
+    private volatile CmpServersSnapshot snapshot;
 
     @Autowired
     public CmpServersConfig(@Value("${app.config.path}") String configPath,
-                            CmpServersConfigLoader cmpServersConfigLoader) {
+                            CmpServersConfigLoader cmpServersConfigLoader,
+                            MeterRegistry meterRegistry) {
         this.cmpServersConfigLoader = cmpServersConfigLoader;
         this.configPath = configPath;
+        this.successfulReloadTimer = createReloadTimer(meterRegistry, "success");
+        this.failedReloadTimer = createReloadTimer(meterRegistry, "failure");
+        Gauge.builder(LOADED_SERVERS_METRIC, this, config -> config.getSnapshot().size())
+                .description("Number of CMPv2 servers in the configuration currently in use")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -68,20 +84,55 @@ public class CmpServersConfig {
         loadConfiguration();
     }
 
-
+    /**
+     * Parses and validates the configuration file and only then replaces the configuration in use. When the new
+     * file is rejected, the last successfully loaded configuration keeps being served.
+     */
     synchronized void loadConfiguration() throws CmpServersConfigLoadingException {
-        isReady = false;
-        String configFilePath = configPath + File.separator + CMP_SERVERS_CONFIG_FILENAME;
-        this.cmpServers = Collections.unmodifiableList(cmpServersConfigLoader.load(configFilePath));
-        LOGGER.info(LOADING_SUCCESS_MESSAGE, configFilePath);
-        isReady = true;
+        String configFilePath = getConfigFilePath().toString();
+        long startTime = System.nanoTime();
+        try {
+            this.snapshot = CmpServersSnapshot.of(cmpServersConfigLoader.load(configFilePath));
+            successfulReloadTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            LOGGER.info(LOADING_SUCCESS_MESSAGE, configFilePath);
+        } catch (CmpServersConfigLoadingException e) {
+            failedReloadTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (snapshot != null) {
+                LOGGER.warn(LOADING_FAILURE_MESSAGE, configFilePath);
+            }
+            throw e;
+        }
+    }
+
+    Path getConfigFilePath() {
+        return Paths.get(configPath, CMP_SERVERS_CONFIG_FILENAME);
     }
 
     public List<Cmpv2Server> getCmpServers() {
-        return cmpServers;
+        CmpServersSnapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getServers() : null;
+    }
+
+    /**
+     * Returns the most recently loaded configuration. Reading it does not take the lock guarding reloads.
+     */
+    public CmpServersSnapshot getSnapshot() {
+        CmpServersSnapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot : CmpServersSnapshot.EMPTY;
     }
 
+    /**
+     * Service is ready once any configuration has been loaded. Failed reloads do not affect readiness, as the
+     * previous configuration is still used.
+     */
     public boolean isReady() {
-        return isReady;
+        return snapshot != null;
+    }
+
+    private static Timer createReloadTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder(RELOAD_TIME_METRIC)
+                .description("Time of loading and validating CMP servers configuration file")
+                .tag(RESULT_TAG, result)
+                .register(meterRegistry);
     }
 }
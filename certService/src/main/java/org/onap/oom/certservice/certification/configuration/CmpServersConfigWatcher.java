@@ -0,0 +1,207 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads CMP servers configuration when the configuration file changes.
+ *
+ * <p>The directory containing the file is watched rather than the file itself. Kubernetes mounts ConfigMap
+ * entries as symlinks to a timestamped directory and publishes a new version by swapping the {@code ..data}
+ * symlink, so no event is ever reported for the configuration file. Any event in the directory triggers
+ * a check whether the resolved file differs from the one loaded before.
+ */
+@Component
+public class CmpServersConfigWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CmpServersConfigWatcher.class);
+    private static final String WATCHING_MESSAGE = "Watching {} for CMP Servers configuration changes";
+    private static final String CHANGE_DETECTED_MESSAGE = "CMP Servers configuration file {} changed";
+    private static final String WATCH_FAILED_MESSAGE =
+            "Could not watch CMP Servers configuration directory {}, configuration can be reloaded only on demand";
+
+    private final CmpServersConfig cmpServersConfig;
+    private final boolean enabled;
+    private final long debounceMs;
+
+    private WatchService watchService;
+    private ExecutorService executor;
+    private FileFingerprint lastFingerprint;
+
+    @Autowired
+    public CmpServersConfigWatcher(CmpServersConfig cmpServersConfig,
+                                   @Value("${app.config.watch.enabled:true}") boolean enabled,
+                                   @Value("${app.config.watch.debounce-ms:500}") long debounceMs) {
+        this.cmpServersConfig = cmpServersConfig;
+        this.enabled = enabled;
+        this.debounceMs = debounceMs;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        Path configDirectory = cmpServersConfig.getConfigFilePath().getParent();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            configDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            LOGGER.warn(WATCH_FAILED_MESSAGE, configDirectory, e);
+            stop();
+            return;
+        }
+        lastFingerprint = FileFingerprint.of(cmpServersConfig.getConfigFilePath());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("config-watcher-");
+        threadFactory.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(threadFactory);
+        executor.execute(this::watch);
+        LOGGER.info(WATCHING_MESSAGE, configDirectory);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close configuration watch service", e);
+            }
+        }
+    }
+
+    /**
+     * Reloads configuration if the configuration file was replaced or modified since the last check.
+     * Returns whether reload was attempted.
+     */
+    boolean reloadIfChanged() {
+        Path configFilePath = cmpServersConfig.getConfigFilePath();
+        FileFingerprint fingerprint = FileFingerprint.of(configFilePath);
+        if (fingerprint == null || fingerprint.equals(lastFingerprint)) {
+            return false;
+        }
+        lastFingerprint = fingerprint;
+        LOGGER.info(CHANGE_DETECTED_MESSAGE, configFilePath);
+        try {
+            cmpServersConfig.reloadConfiguration();
+        } catch (CmpServersConfigLoadingException e) {
+            LOGGER.error(e.getMessage(), e.getCause());
+        }
+        return true;
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                drainEvents(key);
+                // editors and ConfigMap updates produce bursts of events, wait until the directory settles
+                WatchKey nextKey;
+                while ((nextKey = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    drainEvents(nextKey);
+                }
+                reloadIfChanged();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Configuration watch service closed");
+        }
+    }
+
+    private static void drainEvents(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    /**
+     * Identifies version of the configuration file by the file it resolves to, its size and modification time.
+     * Missing file has no fingerprint, so deleting it keeps the configuration in use.
+     */
+    private static final class FileFingerprint {
+
+        private final Path realPath;
+        private final long size;
+        private final FileTime lastModifiedTime;
+
+        private FileFingerprint(Path realPath, long size, FileTime lastModifiedTime) {
+            this.realPath = realPath;
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+        }
+
+        static FileFingerprint of(Path path) {
+            try {
+                Path realPath = path.toRealPath();
+                return new FileFingerprint(realPath, Files.size(realPath), Files.getLastModifiedTime(realPath));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileFingerprint that = (FileFingerprint) o;
+            return size == that.size
+                    && realPath.equals(that.realPath)
+                    && lastModifiedTime.equals(that.lastModifiedTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(realPath, size, lastModifiedTime);
+        }
+    }
+
+}
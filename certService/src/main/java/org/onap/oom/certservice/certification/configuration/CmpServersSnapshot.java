@@ -0,0 +1,75 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+
+/**
+ * Immutable view of the CMP servers configuration loaded from a single file. Servers are indexed by CA name,
+ * so a snapshot can be shared between request threads and replaced as a whole when configuration is reloaded.
+ *
+ * <p>Only what the file holds is replaced on reload. Parameters of password based protection (salt, iteration
+ * count and the resulting protection {@link org.bouncycastle.asn1.x509.AlgorithmIdentifier}) are not part of the
+ * snapshot: they are chosen once per process by
+ * {@link org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedProtection} and are kept across reloads,
+ * while changed IAK values of the servers take effect with the next request.
+ */
+public final class CmpServersSnapshot {
+
+    public static final CmpServersSnapshot EMPTY = new CmpServersSnapshot(Collections.emptyList());
+
+    private final List<Cmpv2Server> servers;
+    private final Map<String, Cmpv2Server> serversByCaName;
+
+    private CmpServersSnapshot(List<Cmpv2Server> servers) {
+        this.servers = Collections.unmodifiableList(servers);
+        this.serversByCaName = Collections.unmodifiableMap(indexByCaName(servers));
+    }
+
+    public static CmpServersSnapshot of(List<Cmpv2Server> servers) {
+        return new CmpServersSnapshot(List.copyOf(servers));
+    }
+
+    public List<Cmpv2Server> getServers() {
+        return servers;
+    }
+
+    public Optional<Cmpv2Server> findServer(String caName) {
+        return Optional.ofNullable(caName).map(serversByCaName::get);
+    }
+
+    public int size() {
+        return servers.size();
+    }
+
+    private static Map<String, Cmpv2Server> indexByCaName(List<Cmpv2Server> servers) {
+        Map<String, Cmpv2Server> index = new HashMap<>(servers.size() * 2);
+        // the first entry wins for duplicated CA names, as the previous linear lookup did
+        servers.forEach(server -> index.putIfAbsent(server.getCaName(), server));
+        return index;
+    }
+
+}
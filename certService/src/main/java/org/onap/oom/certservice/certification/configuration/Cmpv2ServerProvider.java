@@ -36,7 +36,7 @@ public class Cmpv2ServerProvider {
     }
 
     public Cmpv2Server getCmpv2Server(String caName) {
-        return cmpServersConfig.getCmpServers().stream().filter(server -> server.getCaName().equals(caName)).findFirst()
+        return cmpServersConfig.getSnapshot().findServer(caName)
                        .orElseThrow(() -> new Cmpv2ServerNotFoundException("No server found for given CA name"));
     }
 
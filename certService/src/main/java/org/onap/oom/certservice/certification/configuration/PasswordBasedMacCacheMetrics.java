@@ -0,0 +1,63 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+
+/**
+ * Exposes hit and miss counts of a password-based MAC key cache, tagged with the usage of the cache
+ * (protection of requests or verification of responses).
+ */
+public class PasswordBasedMacCacheMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "certservice.cmp.pbm.cache.";
+
+    private static final String USAGE_TAG = "usage";
+
+    private final PasswordBasedMacCache cache;
+    private final String usage;
+
+    public PasswordBasedMacCacheMetrics(PasswordBasedMacCache cache, String usage) {
+        this.cache = cache;
+        this.usage = usage;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerCounter(registry, "hits", "Messages protected or verified with already derived base key",
+            PasswordBasedMacCache::getHitCount);
+        registerCounter(registry, "misses", "Messages which required base key derivation",
+            PasswordBasedMacCache::getMissCount);
+    }
+
+    private void registerCounter(MeterRegistry registry, String name, String description,
+        ToDoubleFunction<PasswordBasedMacCache> statistic) {
+        FunctionCounter.builder(METRIC_PREFIX + name, cache, statistic)
+            .description(description)
+            .tag(USAGE_TAG, usage)
+            .register(registry);
+    }
+
+}
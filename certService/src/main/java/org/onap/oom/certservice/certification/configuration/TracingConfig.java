@@ -0,0 +1,88 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.nio.file.Path;
+import org.onap.oom.certservice.certification.tracing.FileSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures tracing of certificate requests. W3C trace context received from clients is always passed on to
+ * CMPv2 servers; spans are recorded only when an exporter is configured.
+ */
+@Configuration
+public class TracingConfig {
+
+    static final String NO_EXPORTER = "none";
+    static final String FILE_EXPORTER = "file";
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+    private static final String CERT_SERVICE_NAME = "oom-certservice";
+
+    @Value("${app.tracing.exporter:none}")
+    private String exporter;
+
+    @Value("${app.tracing.file:var/log/onap/oom/certservice/spans.json}")
+    private String spansFile;
+
+    @Value("${app.tracing.sampling-ratio:1.0}")
+    private double samplingRatio;
+
+    @Bean(destroyMethod = "close")
+    SdkTracerProvider sdkTracerProvider() {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, CERT_SERVICE_NAME))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(samplingRatio)));
+        if (FILE_EXPORTER.equals(exporter)) {
+            builder.addSpanProcessor(BatchSpanProcessor.builder(new FileSpanExporter(Path.of(spansFile))).build());
+        } else if (!NO_EXPORTER.equals(exporter)) {
+            throw new IllegalArgumentException(
+                    String.format("Unknown tracing exporter %s, expected %s or %s", exporter, NO_EXPORTER,
+                            FILE_EXPORTER));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    OpenTelemetry openTelemetry(SdkTracerProvider sdkTracerProvider) {
+        ContextPropagators propagators = ContextPropagators.create(W3CTraceContextPropagator.getInstance());
+        if (NO_EXPORTER.equals(exporter)) {
+            return OpenTelemetry.propagating(propagators);
+        }
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(sdkTracerProvider)
+                .setPropagators(propagators)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.onap.oom.certservice.cmpv2client.impl.VerifiedChainLinkCache;
+
+/**
+ * Exposes how often links between CA certificates of CMPv2 responses were found already verified.
+ */
+public class VerifiedChainLinkCacheMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "certservice.cmp.chain.cache.";
+
+    private final VerifiedChainLinkCache cache;
+
+    public VerifiedChainLinkCacheMetrics(VerifiedChainLinkCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + "hits", cache, VerifiedChainLinkCache::getHitCount)
+            .description("Links of CA certificate chains found already verified")
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "misses", cache, VerifiedChainLinkCache::getMissCount)
+            .description("Links of CA certificate chains which required verification")
+            .register(registry);
+    }
+
+}
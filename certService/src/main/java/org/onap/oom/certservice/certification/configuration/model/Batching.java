@@ -0,0 +1,73 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration.model;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+public class Batching {
+
+    private static final int DEFAULT_MAX_SIZE = 16;
+    private static final long DEFAULT_WINDOW_MS = 10;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long MAX_WINDOW_MS = 1000;
+
+    private boolean enabled;
+    @Min(1)
+    @Max(MAX_BATCH_SIZE)
+    private int maxSize = DEFAULT_MAX_SIZE;
+    @Min(1)
+    @Max(MAX_WINDOW_MS)
+    private long windowMs = DEFAULT_WINDOW_MS;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public String toString() {
+        return "Batching{"
+                + "enabled=" + enabled
+                + ", maxSize=" + maxSize
+                + ", windowMs=" + windowMs
+                + '}';
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration.model;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+public class CircuitBreaker {
+
+    private static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    private static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+    private static final long DEFAULT_SLOW_CALL_DURATION_MS = 10000;
+    private static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_CALLS = 10;
+    private static final long DEFAULT_OPEN_STATE_MS = 30000;
+    private static final int DEFAULT_HALF_OPEN_CALLS = 3;
+    private static final int MAX_PERCENTAGE = 100;
+    private static final int MAX_WINDOW_SIZE = 1000;
+    private static final int MAX_HALF_OPEN_CALLS = 100;
+
+    private boolean enabled;
+    @Min(1)
+    @Max(MAX_PERCENTAGE)
+    private int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    @Min(1)
+    @Max(MAX_PERCENTAGE)
+    private int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    @Min(1)
+    private long slowCallDurationMs = DEFAULT_SLOW_CALL_DURATION_MS;
+    @Min(1)
+    @Max(MAX_WINDOW_SIZE)
+    private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+    @Min(1)
+    @Max(MAX_WINDOW_SIZE)
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    @Min(1)
+    private long openStateMs = DEFAULT_OPEN_STATE_MS;
+    @Min(1)
+    @Max(MAX_HALF_OPEN_CALLS)
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMs() {
+        return slowCallDurationMs;
+    }
+
+    public void setSlowCallDurationMs(long slowCallDurationMs) {
+        this.slowCallDurationMs = slowCallDurationMs;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public long getOpenStateMs() {
+        return openStateMs;
+    }
+
+    public void setOpenStateMs(long openStateMs) {
+        this.openStateMs = openStateMs;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{"
+                + "enabled=" + enabled
+                + ", failureRateThreshold=" + failureRateThreshold
+                + ", slowCallRateThreshold=" + slowCallRateThreshold
+                + ", slowCallDurationMs=" + slowCallDurationMs
+                + ", slidingWindowSize=" + slidingWindowSize
+                + ", minimumCalls=" + minimumCalls
+                + ", openStateMs=" + openStateMs
+                + ", halfOpenCalls=" + halfOpenCalls
+                + '}';
+    }
+}
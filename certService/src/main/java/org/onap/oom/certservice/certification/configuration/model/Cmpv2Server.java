@@ -43,6 +43,12 @@ public class Cmpv2Server {
     private X500Name issuerDN;
     @Cmpv2Url
     private String url;
+    @Valid
+    private Batching batching;
+    @Valid
+    private CircuitBreaker circuitBreaker;
+    @Valid
+    private Hedging hedging;
 
     public Authentication getAuthentication() {
         return authentication;
@@ -76,6 +82,42 @@ public class Cmpv2Server {
         this.url = url;
     }
 
+    public Batching getBatching() {
+        return batching;
+    }
+
+    public void setBatching(Batching batching) {
+        this.batching = batching;
+    }
+
+    public boolean isBatchingEnabled() {
+        return batching != null && batching.isEnabled();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreaker != null && circuitBreaker.isEnabled();
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedging != null && hedging.isEnabled();
+    }
+
     @Override
     public String toString() {
         return "Cmpv2Server{"
@@ -83,6 +125,9 @@ public class Cmpv2Server {
                 + ", caName='" + caName + '\''
                 + ", issuerDN='" + issuerDN + '\''
                 + ", url='" + url + '\''
+                + ", batching=" + batching
+                + ", circuitBreaker=" + circuitBreaker
+                + ", hedging=" + hedging
                 + '}';
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration.model;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import org.onap.oom.certservice.certification.configuration.validation.constraints.Cmpv2Url;
+
+public class Hedging {
+
+    private static final int DEFAULT_LATENCY_PERCENTILE = 95;
+    private static final long DEFAULT_MIN_DELAY_MS = 100;
+    private static final int MIN_LATENCY_PERCENTILE = 50;
+    private static final int MAX_LATENCY_PERCENTILE = 99;
+
+    private boolean enabled;
+    @Cmpv2Url
+    private String alternateUrl;
+    @Min(MIN_LATENCY_PERCENTILE)
+    @Max(MAX_LATENCY_PERCENTILE)
+    private int latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+    @Min(1)
+    private long minDelayMs = DEFAULT_MIN_DELAY_MS;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getAlternateUrl() {
+        return alternateUrl;
+    }
+
+    public void setAlternateUrl(String alternateUrl) {
+        this.alternateUrl = alternateUrl;
+    }
+
+    public int getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    public void setLatencyPercentile(int latencyPercentile) {
+        this.latencyPercentile = latencyPercentile;
+    }
+
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public void setMinDelayMs(long minDelayMs) {
+        this.minDelayMs = minDelayMs;
+    }
+
+    @Override
+    public String toString() {
+        return "Hedging{"
+                + "enabled=" + enabled
+                + ", alternateUrl='" + alternateUrl + '\''
+                + ", latencyPercentile=" + latencyPercentile
+                + ", minDelayMs=" + minDelayMs
+                + '}';
+    }
+}
@@ -27,6 +27,7 @@ import org.onap.oom.certservice.certification.model.CsrModel;
 import org.springframework.stereotype.Service;
 
 import java.security.PrivateKey;
+import java.util.Optional;
 
 
 @Service
@@ -46,6 +47,20 @@ public class CsrModelFactory {
         return new CsrModel.CsrModelBuilder(decodedCsr, javaPrivateKey).build();
     }
 
+    /**
+     * Creates CSR model of PKCS#10 CSR and PKCS#8 private key given in DER form.
+     */
+    public CsrModel createCsrModelFromDer(byte[] csr, byte[] privateKey)
+            throws DecryptionException {
+        PKCS10CertificationRequest decodedCsr = Optional.ofNullable(csr)
+                .flatMap(certificationRequestFactory::createPkcs10CertificationRequest)
+                .orElseThrow(
+                        () -> new CsrDecryptionException("Incorrect CSR, decryption failed")
+                );
+        PrivateKey javaPrivateKey = stringBase64ToPrivateKeyConverter.convert(privateKey);
+        return new CsrModel.CsrModelBuilder(decodedCsr, javaPrivateKey).build();
+    }
+
     private PKCS10CertificationRequest decodeCsr(StringBase64 csr)
             throws CsrDecryptionException {
         return csr.asString()
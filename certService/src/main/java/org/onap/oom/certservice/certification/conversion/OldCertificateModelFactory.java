@@ -23,8 +23,11 @@ package org.onap.oom.certservice.certification.conversion;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.Certificate;
 import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
 import org.onap.oom.certservice.certification.X509CertificateParser;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.certification.exception.CertificateDecryptionException;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 import org.onap.oom.certservice.certification.exception.StringToCertificateConversionException;
@@ -32,8 +35,10 @@ import org.onap.oom.certservice.certification.model.OldCertificateModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.security.PrivateKey;
 import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 
@@ -62,11 +67,8 @@ public class OldCertificateModelFactory {
             .orElseThrow(() -> new CertificateDecryptionException("Incorrect certificate, decryption failed"));
         try {
             final X509Certificate x509Certificate = pemStringToCertificateConverter.convert(certificateString);
-            final X500Name subjectData = x509CertificateParser.getSubject(x509Certificate);
-            final GeneralName[] sans = x509CertificateParser.getSans(x509Certificate);
-            final Certificate certificate = new JcaX509CertificateHolder(x509Certificate).toASN1Structure();
             final PrivateKey oldPrivateKey = stringBase64ToPrivateKeyConverter.convert(new StringBase64(encodedOldPrivateKey));
-            return new OldCertificateModel(certificate, subjectData, sans, oldPrivateKey);
+            return createCertificateModel(x509Certificate, oldPrivateKey);
         } catch (StringToCertificateConversionException e) {
             throw new CertificateDecryptionException("Cannot convert certificate", e);
         } catch (CertificateParsingException e) {
@@ -76,6 +78,37 @@ public class OldCertificateModelFactory {
         }
     }
 
+    /**
+     * Creates model of a single X.509 certificate and its PKCS#8 private key, both given in DER form.
+     */
+    public OldCertificateModel createCertificateModelFromDer(byte[] encodedCertificate, byte[] encodedOldPrivateKey)
+        throws CertificateDecryptionException {
+        if (encodedCertificate == null || encodedCertificate.length == 0) {
+            throw new CertificateDecryptionException("Incorrect certificate, decryption failed");
+        }
+        try {
+            final X509Certificate x509Certificate = new JcaX509CertificateConverter()
+                .setProvider(JcaEngines.getBouncyCastleProvider())
+                .getCertificate(new X509CertificateHolder(encodedCertificate));
+            final PrivateKey oldPrivateKey = stringBase64ToPrivateKeyConverter.convert(encodedOldPrivateKey);
+            return createCertificateModel(x509Certificate, oldPrivateKey);
+        } catch (IOException e) {
+            throw new CertificateDecryptionException("Cannot convert certificate", e);
+        } catch (CertificateParsingException e) {
+            throw new CertificateDecryptionException("Cannot read Subject Alternative Names from certificate");
+        } catch (KeyDecryptionException | CertificateException e) {
+            throw new CertificateDecryptionException("Cannot convert certificate or key", e);
+        }
+    }
+
+    private OldCertificateModel createCertificateModel(X509Certificate x509Certificate, PrivateKey oldPrivateKey)
+        throws CertificateParsingException, CertificateEncodingException {
+        final X500Name subjectData = x509CertificateParser.getSubject(x509Certificate);
+        final GeneralName[] sans = x509CertificateParser.getSans(x509Certificate);
+        final Certificate certificate = new JcaX509CertificateHolder(x509Certificate).toASN1Structure();
+        return new OldCertificateModel(certificate, subjectData, sans, oldPrivateKey);
+    }
+
     private String getFirstCertificateFromCertificateChain(String certificateChain) {
         if (doesNotContainCertificates(certificateChain)) {
             return null;
@@ -27,8 +27,8 @@ import java.security.cert.X509Certificate;
 import java.util.Optional;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMParser;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.certification.exception.StringToCertificateConversionException;
 import org.springframework.stereotype.Service;
 
@@ -41,7 +41,7 @@ public class PemStringToCertificateConverter {
                 .orElseThrow(
                     () -> new StringToCertificateConversionException("The certificate could not be converted correctly."));
             return new JcaX509CertificateConverter()
-                .setProvider(new BouncyCastleProvider())
+                .setProvider(JcaEngines.getBouncyCastleProvider())
                 .getCertificate(certHolder);
         } catch (IOException | CertificateException e) {
             throw new StringToCertificateConversionException("Exception occurred during certificate conversion.", e);
@@ -34,9 +34,13 @@ public class Pkcs10CertificationRequestFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(Pkcs10CertificationRequestFactory.class);
 
     public Optional<PKCS10CertificationRequest> createPkcs10CertificationRequest(PemObject pemObject) {
+        LOGGER.debug("Creating certification request from pem object");
+        return createPkcs10CertificationRequest(pemObject.getContent());
+    }
+
+    public Optional<PKCS10CertificationRequest> createPkcs10CertificationRequest(byte[] encodedCsr) {
         try {
-            LOGGER.debug("Creating certification request from pem object");
-            return Optional.of(new PKCS10CertificationRequest(pemObject.getContent()));
+            return Optional.of(new PKCS10CertificationRequest(encodedCsr));
         } catch (DecoderException | IOException e) {
             LOGGER.error("Exception occurred during creation of certification request:", e);
             return Optional.empty();
@@ -21,6 +21,7 @@
 package org.onap.oom.certservice.certification.conversion;
 
 import org.bouncycastle.util.io.pem.PemObject;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 
 import java.security.KeyFactory;
@@ -35,9 +36,19 @@ public class StringBase64ToPrivateKeyConverter {
 
     public PrivateKey convert(StringBase64 privateKey) throws KeyDecryptionException {
         PemObject decodedPrivateKey = createDecodedPrivateKey(privateKey);
+        return convert(decodedPrivateKey.getContent());
+    }
+
+    /**
+     * Converts private key given in PKCS#8 DER form, without PEM header and footer.
+     */
+    public PrivateKey convert(byte[] encodedPrivateKey) throws KeyDecryptionException {
+        if (encodedPrivateKey == null || encodedPrivateKey.length == 0) {
+            throw new KeyDecryptionException("Incorrect Key, decryption failed");
+        }
         try {
-            KeyFactory factory = KeyFactory.getInstance("RSA");
-            PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(decodedPrivateKey.getContent());
+            KeyFactory factory = JcaEngines.getRsaKeyFactory();
+            PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(encodedPrivateKey);
             return factory.generatePrivate(keySpec);
         } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
             throw new KeyDecryptionException("Converting Private Key failed", e.getCause());
@@ -0,0 +1,123 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.crypto;
+
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Provider;
+import java.security.Signature;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.HashMap;
+import java.util.Map;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+/**
+ * Per-thread instances of JCA engines used for every certificate request. Looking engines up with
+ * {@code getInstance} goes through synchronized provider lookups and allocates a new engine each time, which
+ * under many concurrent requests costs more than the operation itself. Engines are not thread-safe, so every
+ * thread keeps its own instance; they are created lazily with the same algorithms and providers as before.
+ *
+ * <p>Engines are reset by the caller: {@link Signature} has to be initialized before each use, which discards
+ * the state of a previous, possibly failed, use.
+ */
+public final class JcaEngines {
+
+    private static final String X509_CERTIFICATE_TYPE = "X.509";
+    private static final String RSA_ALGORITHM = "RSA";
+    private static final String PKIX_ALGORITHM = "PKIX";
+
+    private static final Provider BOUNCY_CASTLE_PROVIDER = new BouncyCastleProvider();
+
+    private static final ThreadLocal<CertificateFactory> X509_CERTIFICATE_FACTORY = new ThreadLocal<>();
+    private static final ThreadLocal<KeyFactory> RSA_KEY_FACTORY = new ThreadLocal<>();
+    private static final ThreadLocal<CertPathValidator> PKIX_CERT_PATH_VALIDATOR = new ThreadLocal<>();
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(HashMap::new);
+
+    private JcaEngines() {
+    }
+
+    /**
+     * Returns BouncyCastle provider instance shared by the application, for APIs which take a provider object.
+     * Creating the provider registers all of its algorithms, so it should not be created per call.
+     */
+    public static Provider getBouncyCastleProvider() {
+        return BOUNCY_CASTLE_PROVIDER;
+    }
+
+    /**
+     * Returns X.509 certificate factory of the registered BouncyCastle provider.
+     */
+    public static CertificateFactory getX509CertificateFactory()
+        throws CertificateException, NoSuchProviderException {
+        CertificateFactory certificateFactory = X509_CERTIFICATE_FACTORY.get();
+        if (certificateFactory == null) {
+            certificateFactory =
+                CertificateFactory.getInstance(X509_CERTIFICATE_TYPE, BouncyCastleProvider.PROVIDER_NAME);
+            X509_CERTIFICATE_FACTORY.set(certificateFactory);
+        }
+        return certificateFactory;
+    }
+
+    /**
+     * Returns RSA key factory of the most preferred provider.
+     */
+    public static KeyFactory getRsaKeyFactory() throws NoSuchAlgorithmException {
+        KeyFactory keyFactory = RSA_KEY_FACTORY.get();
+        if (keyFactory == null) {
+            keyFactory = KeyFactory.getInstance(RSA_ALGORITHM);
+            RSA_KEY_FACTORY.set(keyFactory);
+        }
+        return keyFactory;
+    }
+
+    /**
+     * Returns PKIX certificate path validator of the registered BouncyCastle provider.
+     */
+    public static CertPathValidator getPkixCertPathValidator() throws NoSuchAlgorithmException,
+        NoSuchProviderException {
+        CertPathValidator certPathValidator = PKIX_CERT_PATH_VALIDATOR.get();
+        if (certPathValidator == null) {
+            certPathValidator = CertPathValidator.getInstance(PKIX_ALGORITHM, BouncyCastleProvider.PROVIDER_NAME);
+            PKIX_CERT_PATH_VALIDATOR.set(certPathValidator);
+        }
+        return certPathValidator;
+    }
+
+    /**
+     * Returns signature engine of the registered BouncyCastle provider. It has to be initialized for signing or
+     * verification before use.
+     *
+     * @param algorithm name or OID of signature algorithm, e.g. sha256WithRSAEncryption OID
+     */
+    public static Signature getSignature(String algorithm) throws NoSuchAlgorithmException,
+        NoSuchProviderException {
+        final Map<String, Signature> signatures = SIGNATURES.get();
+        Signature signature = signatures.get(algorithm);
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
+            signatures.put(algorithm, signature);
+        }
+        return signature;
+    }
+}
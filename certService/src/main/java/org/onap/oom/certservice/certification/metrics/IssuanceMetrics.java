@@ -0,0 +1,172 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times certificate issuance, both as a whole and stage by stage, per CA and request type. Timers publish
+ * percentile histograms, so percentiles can be aggregated across instances by the monitoring system.
+ *
+ * <p>Meters:
+ * <ul>
+ *     <li>{@code certservice.issuance.stage} - duration of a single stage, tagged with {@code stage},
+ *     {@code caName}, {@code requestType} and {@code outcome} (success or failure)</li>
+ *     <li>{@code certservice.issuance.request} - duration of the whole request, tagged with {@code caName},
+ *     {@code requestType}, {@code outcome} and {@code error}, the simple class name of the exception the request
+ *     failed with, or none</li>
+ *     <li>{@code certservice.issuance.deduplicated} - requests answered without calling the CA, because an
+ *     identical request was in flight or its result was cached, tagged with {@code caName}, {@code requestType}
+ *     and {@code source} (in_flight or cache)</li>
+ * </ul>
+ */
+@Component
+public final class IssuanceMetrics {
+
+    private static final String STAGE_METRIC = "certservice.issuance.stage";
+    private static final String REQUEST_METRIC = "certservice.issuance.request";
+    private static final String DEDUPLICATED_METRIC = "certservice.issuance.deduplicated";
+    private static final String UNKNOWN = "unknown";
+    private static final String NO_ERROR = "none";
+    private static final Duration MIN_EXPECTED_DURATION = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofMinutes(2);
+
+    /**
+     * Instance which does not publish meters anywhere.
+     */
+    public static final IssuanceMetrics NOOP = new IssuanceMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public IssuanceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns start time to be passed to {@link #recordStage} or {@link #recordRequest}.
+     */
+    public long start() {
+        return meterRegistry.config().clock().monotonicTime();
+    }
+
+    /**
+     * Runs the action as given stage and records its duration.
+     */
+    public <T, E extends Exception> T timeStage(IssuanceStage stage, String caName, RequestType requestType,
+        StageAction<T, E> action) throws E {
+        final long startTime = start();
+        try {
+            final T result = action.run();
+            recordStage(stage, caName, requestType, startTime, null);
+            return result;
+        } catch (Exception e) {
+            recordStage(stage, caName, requestType, startTime, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records duration of a stage which started at given time and has just completed.
+     *
+     * @param error exception the stage failed with, null when it succeeded
+     */
+    public void recordStage(IssuanceStage stage, String caName, RequestType requestType, long startTime,
+        Throwable error) {
+        timer(STAGE_METRIC, "Duration of a certificate issuance stage")
+            .tag("stage", stage.getTagValue())
+            .tag("caName", Objects.toString(caName, UNKNOWN))
+            .tag("requestType", getTagValue(requestType))
+            .tag("outcome", error == null ? "success" : "failure")
+            .register(meterRegistry)
+            .record(elapsedSince(startTime), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records duration and outcome of a certificate request which started at given time and has just completed.
+     *
+     * @param requestType type of the request, null when it failed before the type was known
+     * @param error       exception the request failed with, null when it succeeded
+     */
+    public void recordRequest(String caName, RequestType requestType, long startTime, Throwable error) {
+        final Throwable cause = unwrap(error);
+        timer(REQUEST_METRIC, "Duration of a certificate request")
+            .tag("caName", Objects.toString(caName, UNKNOWN))
+            .tag("requestType", getTagValue(requestType))
+            .tag("outcome", cause == null ? "success" : "failure")
+            .tag("error", cause == null ? NO_ERROR : cause.getClass().getSimpleName())
+            .register(meterRegistry)
+            .record(elapsedSince(startTime), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a request answered with the result of an identical request instead of calling the CA.
+     *
+     * @param cached true when the result was cached, false when the identical request was still in flight
+     */
+    public void recordDeduplicatedRequest(String caName, RequestType requestType, boolean cached) {
+        Counter.builder(DEDUPLICATED_METRIC)
+            .description("Certificate requests answered without calling the CA")
+            .tag("caName", Objects.toString(caName, UNKNOWN))
+            .tag("requestType", getTagValue(requestType))
+            .tag("source", cached ? "cache" : "in_flight")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED_DURATION)
+            .maximumExpectedValue(MAX_EXPECTED_DURATION);
+    }
+
+    private long elapsedSince(long startTime) {
+        return start() - startTime;
+    }
+
+    private static String getTagValue(RequestType requestType) {
+        return requestType == null ? UNKNOWN : requestType.getTagValue();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Stage of certificate issuance, possibly throwing a checked exception.
+     */
+    @FunctionalInterface
+    public interface StageAction<T, E extends Exception> {
+
+        T run() throws E;
+    }
+}
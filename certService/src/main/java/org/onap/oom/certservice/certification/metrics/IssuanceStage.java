@@ -0,0 +1,48 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.metrics;
+
+import java.util.Locale;
+
+/**
+ * Stages of certificate issuance which are timed separately.
+ */
+public enum IssuanceStage {
+    /** Decoding CSR, private keys and old certificate received from the client, for update requests also
+     * choosing between key update and certification request. */
+    DECODE,
+    /** Building PKIMessage, including proof of possession and protection. */
+    BUILD,
+    /** Generating protection of PKIMessage, a part of {@link #BUILD}. */
+    PROTECT,
+    /** Sending PKIMessage to the CA and receiving its response, measured for every attempt. */
+    EXCHANGE,
+    /** Verifying protection of the CA response. */
+    VALIDATE,
+    /** Verifying certificate chain returned by the CA. */
+    CHAIN,
+    /** Converting returned certificates to PEM. */
+    PEM;
+
+    String getTagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
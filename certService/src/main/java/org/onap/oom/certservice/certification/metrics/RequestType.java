@@ -0,0 +1,54 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.metrics;
+
+import java.util.Locale;
+import org.bouncycastle.asn1.cmp.PKIBody;
+
+/**
+ * Type of CMPv2 request a certificate is issued with: initialization (IR), certification (CR) or key update
+ * (KUR) request.
+ */
+public enum RequestType {
+    IR, CR, KUR;
+
+    /**
+     * Returns request type of a PKIMessage body type, e.g. {@link PKIBody#TYPE_INIT_REQ}.
+     *
+     * @throws IllegalArgumentException when the body type is not a certificate request
+     */
+    public static RequestType fromPkiBodyType(int pkiBodyType) {
+        switch (pkiBodyType) {
+            case PKIBody.TYPE_INIT_REQ:
+                return IR;
+            case PKIBody.TYPE_CERT_REQ:
+                return CR;
+            case PKIBody.TYPE_KEY_UPDATE_REQ:
+                return KUR;
+            default:
+                throw new IllegalArgumentException("Not a certificate request body type: " + pkiBodyType);
+        }
+    }
+
+    String getTagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Collections;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class BatchCertificationItemResponseModel {
+
+    private final List<String> certificateChain;
+    private final List<String> trustedCertificates;
+    private final String errorMessage;
+
+    private BatchCertificationItemResponseModel(List<String> certificateChain, List<String> trustedCertificates,
+        String errorMessage) {
+        this.certificateChain = certificateChain;
+        this.trustedCertificates = trustedCertificates;
+        this.errorMessage = errorMessage;
+    }
+
+    public static BatchCertificationItemResponseModel success(CertificationResponseModel certificationResponseModel) {
+        return new BatchCertificationItemResponseModel(certificationResponseModel.getCertificateChain(),
+            certificationResponseModel.getTrustedCertificates(), null);
+    }
+
+    public static BatchCertificationItemResponseModel failure(String errorMessage) {
+        return new BatchCertificationItemResponseModel(null, null, errorMessage);
+    }
+
+    public List<String> getCertificateChain() {
+        return certificateChain == null ? null : Collections.unmodifiableList(certificateChain);
+    }
+
+    public List<String> getTrustedCertificates() {
+        return trustedCertificates == null ? null : Collections.unmodifiableList(trustedCertificates);
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Collections;
+import java.util.List;
+
+public final class BatchCertificationRequestModel {
+
+    private final List<CertificationRequestItemModel> requests;
+
+    @JsonCreator
+    public BatchCertificationRequestModel(@JsonProperty("requests") List<CertificationRequestItemModel> requests) {
+        this.requests = requests == null ? Collections.emptyList() : requests;
+    }
+
+    public List<CertificationRequestItemModel> getRequests() {
+        return Collections.unmodifiableList(requests);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Certificate request sent in request body: PKCS#10 CSR and PKCS#8 private key, for update requests also the old
+ * X.509 certificate and its private key, all in DER form. In JSON each of them is a single Base64 string.
+ */
+public final class CertificateRequestModel {
+
+    private final byte[] csr;
+    private final byte[] privateKey;
+    private final byte[] oldCertificate;
+    private final byte[] oldPrivateKey;
+
+    @JsonCreator
+    public CertificateRequestModel(@JsonProperty("csr") byte[] csr, @JsonProperty("pk") byte[] privateKey,
+        @JsonProperty("oldCert") byte[] oldCertificate, @JsonProperty("oldPk") byte[] oldPrivateKey) {
+        this.csr = csr;
+        this.privateKey = privateKey;
+        this.oldCertificate = oldCertificate;
+        this.oldPrivateKey = oldPrivateKey;
+    }
+
+    public CertificateRequestModel(byte[] csr, byte[] privateKey) {
+        this(csr, privateKey, null, null);
+    }
+
+    @JsonProperty("csr")
+    public byte[] getCsr() {
+        return csr;
+    }
+
+    @JsonProperty("pk")
+    public byte[] getPrivateKey() {
+        return privateKey;
+    }
+
+    @JsonProperty("oldCert")
+    public byte[] getOldCertificate() {
+        return oldCertificate;
+    }
+
+    @JsonProperty("oldPk")
+    public byte[] getOldPrivateKey() {
+        return oldPrivateKey;
+    }
+
+}
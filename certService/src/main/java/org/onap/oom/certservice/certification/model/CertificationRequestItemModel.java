@@ -0,0 +1,48 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public final class CertificationRequestItemModel {
+
+    private final String encodedCsr;
+    private final String encodedPrivateKey;
+
+    @JsonCreator
+    public CertificationRequestItemModel(@JsonProperty("csr") String encodedCsr,
+        @JsonProperty("pk") String encodedPrivateKey) {
+        this.encodedCsr = encodedCsr;
+        this.encodedPrivateKey = encodedPrivateKey;
+    }
+
+    @JsonProperty("csr")
+    public String getEncodedCsr() {
+        return encodedCsr;
+    }
+
+    @JsonProperty("pk")
+    public String getEncodedPrivateKey() {
+        return encodedPrivateKey;
+    }
+
+}
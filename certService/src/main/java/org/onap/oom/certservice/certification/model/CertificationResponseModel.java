@@ -20,25 +20,87 @@
 
 package org.onap.oom.certservice.certification.model;
 
-import java.util.Collections;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Certificate chain and trusted certificates in PEM format. Certificates are kept as {@link SerializedString},
+ * which remembers its JSON-escaped form, so certificates of a CA shared by many responses are escaped once.
+ */
+@JsonSerialize(using = CertificationResponseModel.Serializer.class)
 public class CertificationResponseModel {
 
-    private final List<String> certificateChain;
-    private final List<String> trustedCertificates;
+    private final List<SerializedString> certificateChain;
+    private final List<SerializedString> trustedCertificates;
 
     public CertificationResponseModel(List<String> certificateChain, List<String> trustedCertificates) {
-        this.certificateChain = certificateChain;
-        this.trustedCertificates = trustedCertificates;
+        this(wrap(certificateChain), wrap(trustedCertificates));
+    }
+
+    private CertificationResponseModel(Collection<SerializedString> certificateChain,
+        Collection<SerializedString> trustedCertificates) {
+        this.certificateChain = List.copyOf(certificateChain);
+        this.trustedCertificates = List.copyOf(trustedCertificates);
+    }
+
+    /**
+     * Creates model of already encoded certificates, e.g. reused by several responses.
+     */
+    public static CertificationResponseModel fromEncoded(List<SerializedString> certificateChain,
+        List<SerializedString> trustedCertificates) {
+        return new CertificationResponseModel(certificateChain, trustedCertificates);
     }
 
     public List<String> getCertificateChain() {
-        return Collections.unmodifiableList(certificateChain);
+        return unwrap(certificateChain);
     }
 
     public List<String> getTrustedCertificates() {
-        return Collections.unmodifiableList(trustedCertificates);
+        return unwrap(trustedCertificates);
+    }
+
+    private static List<SerializedString> wrap(List<String> certificates) {
+        return certificates.stream().map(SerializedString::new).collect(Collectors.toUnmodifiableList());
     }
 
+    private static List<String> unwrap(List<SerializedString> certificates) {
+        return certificates.stream().map(SerializedString::getValue).collect(Collectors.toUnmodifiableList());
+    }
+
+    static final class Serializer extends StdSerializer<CertificationResponseModel> {
+
+        private static final SerializableString CERTIFICATE_CHAIN = new SerializedString("certificateChain");
+        private static final SerializableString TRUSTED_CERTIFICATES = new SerializedString("trustedCertificates");
+
+        Serializer() {
+            super(CertificationResponseModel.class);
+        }
+
+        @Override
+        public void serialize(CertificationResponseModel model, JsonGenerator generator,
+            SerializerProvider provider) throws IOException {
+            generator.writeStartObject(model);
+            writeCertificates(generator, CERTIFICATE_CHAIN, model.certificateChain);
+            writeCertificates(generator, TRUSTED_CERTIFICATES, model.trustedCertificates);
+            generator.writeEndObject();
+        }
+
+        private static void writeCertificates(JsonGenerator generator, SerializableString name,
+            List<SerializedString> certificates) throws IOException {
+            generator.writeFieldName(name);
+            generator.writeStartArray();
+            for (SerializedString certificate : certificates) {
+                generator.writeString(certificate);
+            }
+            generator.writeEndArray();
+        }
+    }
 }
@@ -27,6 +27,7 @@ import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.GeneralNames;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.bouncycastle.util.io.pem.PemObject;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.DecryptionException;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
@@ -142,7 +143,7 @@ public class CsrModel {
         private PublicKey convertingPemPublicKeyToJavaSecurityPublicKey(PemObject publicKey)
             throws KeyDecryptionException {
             try {
-                KeyFactory factory = KeyFactory.getInstance("RSA");
+                KeyFactory factory = JcaEngines.getRsaKeyFactory();
                 X509EncodedKeySpec keySpec = new X509EncodedKeySpec(publicKey.getContent());
                 return factory.generatePublic(keySpec);
             } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
@@ -0,0 +1,126 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates OpenTelemetry spans of certificate issuance and propagates trace context, so a request of a client
+ * can be followed down to the CMPv2 exchanges it caused. Spans are tagged with CA name and CMPv2 request type,
+ * client spans of exchanges also with transactionID and HTTP status of the response.
+ */
+@Component
+public final class IssuanceTracing {
+
+    public static final AttributeKey<String> CA_NAME = AttributeKey.stringKey("certservice.ca_name");
+    public static final AttributeKey<String> REQUEST_TYPE = AttributeKey.stringKey("cmp.request_type");
+    public static final AttributeKey<String> TRANSACTION_ID = AttributeKey.stringKey("cmp.transaction_id");
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+    public static final AttributeKey<String> HTTP_URL = AttributeKey.stringKey("http.url");
+    public static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey("http.status_code");
+
+    private static final String INSTRUMENTATION_NAME = "org.onap.oom.certservice";
+
+    /**
+     * Instance which neither records spans nor propagates trace context.
+     */
+    public static final IssuanceTracing NOOP = new IssuanceTracing(OpenTelemetry.noop());
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    @Autowired
+    public IssuanceTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    /**
+     * Starts span as a child of the current span, tagged with given CA name and request type when known.
+     */
+    public Span startSpan(String name, SpanKind kind, String caName, RequestType requestType) {
+        final SpanBuilder spanBuilder = tracer.spanBuilder(name).setSpanKind(kind);
+        if (caName != null) {
+            spanBuilder.setAttribute(CA_NAME, caName);
+        }
+        if (requestType != null) {
+            spanBuilder.setAttribute(REQUEST_TYPE, requestType.name());
+        }
+        return spanBuilder.startSpan();
+    }
+
+    /**
+     * Starts span of work done on behalf of several traces, e.g. a CMPv2 message carrying requests of several
+     * clients. The span starts a new trace linked to the given ones.
+     */
+    public Span startLinkedSpan(String name, String caName, List<SpanContext> links) {
+        final SpanBuilder spanBuilder = tracer.spanBuilder(name).setSpanKind(SpanKind.INTERNAL).setNoParent();
+        if (caName != null) {
+            spanBuilder.setAttribute(CA_NAME, caName);
+        }
+        links.stream().filter(SpanContext::isValid).forEach(spanBuilder::addLink);
+        return spanBuilder.startSpan();
+    }
+
+    /**
+     * Starts server span continuing the trace given by the caller, or a new trace when the caller sent none.
+     */
+    public <C> Span startServerSpan(String name, C carrier, TextMapGetter<C> getter) {
+        final Context parent = propagator.extract(Context.root(), carrier, getter);
+        return tracer.spanBuilder(name).setSpanKind(SpanKind.SERVER).setParent(parent).startSpan();
+    }
+
+    /**
+     * Writes the current trace context to outgoing request headers.
+     */
+    public <C> void inject(C carrier, TextMapSetter<C> setter) {
+        propagator.inject(Context.current(), carrier, setter);
+    }
+
+    /**
+     * Ends the span, marking it as failed when an error is given.
+     */
+    public static void end(Span span, Throwable error) {
+        if (error != null) {
+            final Throwable cause =
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            span.recordException(cause);
+            span.setStatus(StatusCode.ERROR, cause.getClass().getSimpleName());
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+
+/**
+ * CmpV2Client Interface for obtaining X.509 Digital Certificates in a Public Key Infrastructure (PKI), making use
+ * of Certificate Management Protocol (CMPv2) operating on newest version: cmp2000(2). Requests are sent without
+ * occupying the calling thread for the round trip to the CMPv2 server.
+ *
+ * <p>Returned futures never throw on invocation: any failure (invalid input, connection problem,
+ * rejected or malformed response) completes the future exceptionally, e.g. with
+ * {@link org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException}.
+ */
+public interface AsyncCmpClient {
+
+  /**
+   * Requests for a External Root CA Certificate to be created for the passed public keyPair wrapped
+   * in a CSRMeta with common details, accepts self-signed certificate. Basic Authentication using
+   * IAK/RV, Verification of the signature (proof-of-possession) on the request is performed and the
+   * future fails if verification fails or issue encountered in fetching certificate from CA.
+   *
+   * @param csrModel  Certificate Signing Request Model. Must not be {@code null}.
+   * @param server    CMPv2 server. Must not be {@code null}.
+   * @return future of model for certification containing certificate chain and trusted certificates
+   */
+  CompletableFuture<Cmpv2CertificationModel> executeInitializationRequestAsync(
+      CsrModel csrModel,
+      Cmpv2Server server);
+
+  /**
+   * Requests for a External Root CA Certificate to be updated for the passed keyPair wrapped
+   * in a CSRMeta with common details. Authentication using End Entity Certificate. Old certificate and old privateKey
+   * are wrapped in CertificateUpdateModel.class.
+   *
+   * @param csrModel  Certificate Signing Request Model. Must not be {@code null}.
+   * @param cmpv2Server    CMPv2 server. Must not be {@code null}.
+   * @param oldCertificateModel    Model with key update parameters {@code null}.
+   * @return future of model for certification containing certificate chain and trusted certificates
+   */
+  CompletableFuture<Cmpv2CertificationModel> executeKeyUpdateRequestAsync(CsrModel csrModel,
+      Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel);
+
+  /**
+   * Requests for an additional External Root CA Certificate to be created for the passed keyPair wrapped
+   * in a CSRMeta with common details. Basic Authentication using IAK/RV, Verification of the signature
+   * (proof-of-possession) on the request is performed and the future fails if verification fails
+   * or issue encountered in fetching certificate from CA.
+   *
+   * @param csrModel  Certificate Signing Request Model. Must not be {@code null}.
+   * @param cmpv2Server    CMPv2 server. Must not be {@code null}.
+   * @return future of model for certification containing certificate chain and trusted certificates
+   */
+  CompletableFuture<Cmpv2CertificationModel> executeCertificationRequestAsync(CsrModel csrModel,
+      Cmpv2Server cmpv2Server);
+
+  /**
+   * Requests certificates for all passed CSRs with a single initialization request: one PKIMessage
+   * carrying one CertReqMsg per CSR, protected once using IAK/RV and sent in one round trip.
+   * Responses are matched to requests by certReqId.
+   *
+   * <p>The future completes exceptionally only when the whole batch failed (e.g. connection problem,
+   * error message or invalid protection of the response). Invalid CSRs, which are not sent, and certificates
+   * rejected or missing in otherwise valid response are reported as failed results.
+   *
+   * @param csrModels Certificate Signing Request Models. Must not be {@code null} nor empty.
+   * @param server    CMPv2 server. Must not be {@code null}.
+   * @return future of results, in the same order as passed CSRs
+   */
+  CompletableFuture<List<Cmpv2BatchCertificationResult>> executeInitializationBatchRequestAsync(
+      List<CsrModel> csrModels,
+      Cmpv2Server server);
+}
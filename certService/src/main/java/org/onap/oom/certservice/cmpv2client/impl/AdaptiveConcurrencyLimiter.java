@@ -0,0 +1,243 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+
+/**
+ * Limits number of concurrent requests sent to a single CA. The limit follows the latency of the CA: it grows
+ * while response times stay close to their long-term average and shrinks when they rise above it (gradient
+ * algorithm) or when requests fail without response. Requests above the limit wait in a short queue and are
+ * rejected when the queue is full or the wait exceeds its maximum time.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double LONG_RTT_SMOOTHING = 0.01;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double DROP_BACKOFF_RATIO = 0.9;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Settings settings;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier nanoClock;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(Settings settings, ScheduledExecutorService scheduler) {
+        this(settings, scheduler, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(Settings settings, ScheduledExecutorService scheduler, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.scheduler = scheduler;
+        this.nanoClock = nanoClock;
+        this.limit = settings.initialLimit;
+    }
+
+    /**
+     * Returns future completed with a permit as soon as the request may be sent. The permit must be released
+     * once the request is completed. Future fails with {@link CmpRequestRejectedException} when the request was
+     * not admitted.
+     */
+    public CompletableFuture<Permit> acquire() {
+        final Waiter waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                return CompletableFuture.completedFuture(admit());
+            }
+            if (waiters.size() >= settings.maxQueueSize) {
+                return CompletableFuture.failedFuture(reject());
+            }
+            waiter = new Waiter();
+            waiters.addLast(waiter);
+            waiter.timeoutTask = scheduler.schedule(() -> expire(waiter), settings.maxWaitMs, TimeUnit.MILLISECONDS);
+        }
+        return waiter.permit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private Permit admit() {
+        inFlight++;
+        return new Permit(inFlight);
+    }
+
+    private CmpRequestRejectedException reject() {
+        rejectedCount.incrementAndGet();
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(longRttNanos / NANOS_PER_SECOND));
+        return new CmpRequestRejectedException("Too many concurrent requests to CMPv2 server", retryAfterSeconds);
+    }
+
+    private void expire(Waiter waiter) {
+        final CmpRequestRejectedException rejection;
+        synchronized (this) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+            rejection = reject();
+        }
+        waiter.permit.completeExceptionally(rejection);
+    }
+
+    private void release(Permit permit, long rttNanos, boolean dropped) {
+        final Deque<Waiter> admitted = new ArrayDeque<>();
+        final Deque<Permit> permits = new ArrayDeque<>();
+        synchronized (this) {
+            inFlight--;
+            if (dropped) {
+                limit = Math.max(settings.minLimit, limit * DROP_BACKOFF_RATIO);
+            } else if (rttNanos > 0) {
+                updateLimit(rttNanos, permit.inFlightOnStart);
+            }
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.pollFirst();
+                waiter.timeoutTask.cancel(false);
+                admitted.addLast(waiter);
+                permits.addLast(admit());
+            }
+        }
+        while (!admitted.isEmpty()) {
+            admitted.pollFirst().permit.complete(permits.pollFirst());
+        }
+    }
+
+    private void updateLimit(long rttNanos, int inFlightOnStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_SMOOTHING) + rttNanos * LONG_RTT_SMOOTHING;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && inFlightOnStart < limit / 2) {
+            // CA is not the bottleneck, growing the limit would not be backed by any measurement
+            return;
+        }
+        newLimit = limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+        limit = Math.max(settings.minLimit, Math.min(settings.maxLimit, newLimit));
+    }
+
+    /**
+     * Admission to send a single request.
+     */
+    public final class Permit {
+
+        private final long startTime = nanoClock.getAsLong();
+        private final int inFlightOnStart;
+        private boolean released;
+
+        private Permit(int inFlightOnStart) {
+            this.inFlightOnStart = inFlightOnStart;
+        }
+
+        /**
+         * Releases the permit, using response time as a latency sample.
+         */
+        public void onSuccess() {
+            release(nanoClock.getAsLong() - startTime, false);
+        }
+
+        /**
+         * Releases the permit of request which failed without response, e.g. timed out, reducing the limit.
+         */
+        public void onDropped() {
+            release(0, true);
+        }
+
+        /**
+         * Releases the permit without affecting the limit, e.g. when the request was never sent.
+         */
+        public void onIgnored() {
+            release(0, false);
+        }
+
+        private void release(long rttNanos, boolean dropped) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            AdaptiveConcurrencyLimiter.this.release(this, rttNanos, dropped);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final CompletableFuture<Permit> permit = new CompletableFuture<>();
+        private ScheduledFuture<?> timeoutTask;
+    }
+
+    /**
+     * Limiter settings, shared by limiters of all CAs.
+     */
+    public static final class Settings {
+
+        private final int initialLimit;
+        private final int minLimit;
+        private final int maxLimit;
+        private final int maxQueueSize;
+        private final long maxWaitMs;
+
+        public Settings(int initialLimit, int minLimit, int maxLimit, int maxQueueSize, long maxWaitMs) {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(
+                    "Concurrency limits must satisfy 1 <= min <= initial <= max");
+            }
+            if (maxQueueSize < 0 || maxWaitMs < 0) {
+                throw new IllegalArgumentException("Queue size and wait time must not be negative");
+            }
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.maxQueueSize = maxQueueSize;
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+}
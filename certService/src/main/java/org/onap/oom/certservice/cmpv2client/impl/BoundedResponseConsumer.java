@@ -0,0 +1,100 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.ByteArrayBuffer;
+
+/**
+ * Collects response of the asynchronous client in memory, as the default consumer of HttpAsyncClient does, but
+ * only up to the maximum size: a response declaring larger Content-Length is rejected before its content is
+ * received, and any other response as soon as its content exceeds the maximum. The collected content is handed
+ * over as the response entity, to be parsed by {@link CmpResponseReader}.
+ */
+final class BoundedResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final int maxResponseSize;
+    private HttpResponse response;
+    private ContentType contentType;
+    private ByteArrayBuffer content;
+    private ByteBuffer chunk;
+
+    BoundedResponseConsumer(int maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        final long contentLength = entity.getContentLength();
+        if (contentLength > maxResponseSize) {
+            throw new ContentTooLongException(
+                "Response has %d bytes, more than maximum of %d bytes", contentLength, maxResponseSize);
+        }
+        this.contentType = contentType;
+        this.content = new ByteArrayBuffer(contentLength >= 0 ? (int) contentLength : CHUNK_SIZE);
+        this.chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        int read;
+        while ((read = decoder.read(chunk)) > 0) {
+            if (content.length() + read > maxResponseSize) {
+                throw new ContentTooLongException(
+                    "Response is larger than maximum of %d bytes", maxResponseSize);
+            }
+            content.append(chunk.array(), 0, read);
+            chunk.clear();
+        }
+    }
+
+    @Override
+    protected HttpResponse buildResult(HttpContext context) {
+        if (content != null) {
+            response.setEntity(new ByteArrayEntity(content.buffer(), 0, content.length(), contentType));
+        }
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        response = null;
+        content = null;
+        chunk = null;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.security.KeyPair;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.onap.oom.certservice.certification.model.CsrModel;
+
+/**
+ * Subject of a single CertReqMsg: the certificate to be issued and the key pair proving its possession.
+ */
+final class CertRequestSubject {
+
+    private final X500Name subjectDn;
+    private final GeneralName[] sansArray;
+    private final KeyPair keyPair;
+
+    private CertRequestSubject(X500Name subjectDn, GeneralName[] sansArray, KeyPair keyPair) {
+        this.subjectDn = subjectDn;
+        this.sansArray = sansArray;
+        this.keyPair = keyPair;
+    }
+
+    static CertRequestSubject from(CsrModel csrModel) {
+        return new CertRequestSubject(csrModel.getSubjectData(), csrModel.getSans(),
+            new KeyPair(csrModel.getPublicKey(), csrModel.getPrivateKey()));
+    }
+
+    X500Name getSubjectDn() {
+        return subjectDn;
+    }
+
+    GeneralName[] getSansArray() {
+        return sansArray;
+    }
+
+    KeyPair getKeyPair() {
+        return keyPair;
+    }
+}
@@ -0,0 +1,165 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AsyncCmpClient} refusing requests to CAs which recently failed to respond, see {@link CmpCircuitBreaker}.
+ * Only CAs with circuit breaker enabled in configuration are guarded. Refused requests fail with
+ * {@link CmpRequestRejectedException} without being sent.
+ */
+public class CircuitBreakingCmpClient implements AsyncCmpClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakingCmpClient.class);
+
+    private static final String STATE_METRIC = "certservice.cmp.circuit.state";
+    private static final String TRANSITIONS_METRIC = "certservice.cmp.circuit.transitions";
+    private static final String REJECTED_METRIC = "certservice.cmp.circuit.rejected";
+    private static final String CA_NAME_TAG = "caName";
+    private static final String STATE_TAG = "state";
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final AsyncCmpClient delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CmpCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakingCmpClient(AsyncCmpClient delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeInitializationRequestAsync(CsrModel csrModel,
+        Cmpv2Server server) {
+        return executeGuarded(server, () -> delegate.executeInitializationRequestAsync(csrModel, server));
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeKeyUpdateRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel) {
+        return executeGuarded(cmpv2Server,
+            () -> delegate.executeKeyUpdateRequestAsync(csrModel, cmpv2Server, oldCertificateModel));
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeCertificationRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server) {
+        return executeGuarded(cmpv2Server, () -> delegate.executeCertificationRequestAsync(csrModel, cmpv2Server));
+    }
+
+    @Override
+    public CompletableFuture<List<Cmpv2BatchCertificationResult>> executeInitializationBatchRequestAsync(
+        List<CsrModel> csrModels, Cmpv2Server server) {
+        return executeGuarded(server, () -> delegate.executeInitializationBatchRequestAsync(csrModels, server));
+    }
+
+    CmpCircuitBreaker getCircuitBreaker(Cmpv2Server server) {
+        return circuitBreakers.compute(server.getCaName(), (caName, circuitBreaker) -> {
+            // configuration reload brings new settings, they take effect with a fresh, closed circuit
+            if (circuitBreaker != null && circuitBreaker.getSettings() == server.getCircuitBreaker()) {
+                return circuitBreaker;
+            }
+            return createCircuitBreaker(server, circuitBreaker == null);
+        });
+    }
+
+    private <T> CompletableFuture<T> executeGuarded(Cmpv2Server server, Supplier<CompletableFuture<T>> request) {
+        if (!server.isCircuitBreakerEnabled()) {
+            return request.get();
+        }
+        final CmpCircuitBreaker circuitBreaker = getCircuitBreaker(server);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(reject(server.getCaName(), circuitBreaker));
+        }
+        final long startTime = System.nanoTime();
+        final CompletableFuture<T> result;
+        try {
+            result = request.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        return result.whenComplete((value, error) -> {
+            if (error != null && CmpFailureClassifier.isNotSent(error)) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onResult(System.nanoTime() - startTime,
+                    error != null && CmpFailureClassifier.isConnectionFailure(error));
+            }
+        });
+    }
+
+    private CmpRequestRejectedException reject(String caName, CmpCircuitBreaker circuitBreaker) {
+        Counter.builder(REJECTED_METRIC)
+            .description("Requests refused because circuit of CMPv2 server is open")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry)
+            .increment();
+        long retryAfterSeconds = Math.max(1,
+            (circuitBreaker.getRemainingOpenMillis() + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND);
+        return new CmpRequestRejectedException("CMPv2 server is not responding", retryAfterSeconds);
+    }
+
+    private CmpCircuitBreaker createCircuitBreaker(Cmpv2Server server, boolean registerStateGauge) {
+        final String caName = server.getCaName();
+        if (registerStateGauge) {
+            Gauge.builder(STATE_METRIC, circuitBreakers, breakers -> breakers.get(caName).getState().ordinal())
+                .description("State of circuit breaker of CMPv2 server: 0 - closed, 1 - open, 2 - half-open")
+                .tag(CA_NAME_TAG, caName)
+                .register(meterRegistry);
+        }
+        return new CmpCircuitBreaker(server.getCircuitBreaker(),
+            (previousState, newState) -> onTransition(caName, previousState, newState));
+    }
+
+    private void onTransition(String caName, CmpCircuitBreaker.State previousState,
+        CmpCircuitBreaker.State newState) {
+        if (newState == CmpCircuitBreaker.State.OPEN) {
+            LOG.warn("Circuit breaker of CA named: {} changed state from {} to {}", caName, previousState, newState);
+        } else {
+            LOG.info("Circuit breaker of CA named: {} changed state from {} to {}", caName, previousState, newState);
+        }
+        Counter.builder(TRANSITIONS_METRIC)
+            .description("State changes of circuit breaker of CMPv2 server")
+            .tag(CA_NAME_TAG, caName)
+            .tag(STATE_TAG, newState.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry)
+            .increment();
+    }
+}
@@ -0,0 +1,198 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import org.onap.oom.certservice.certification.configuration.model.CircuitBreaker;
+
+/**
+ * Circuit breaker guarding a single CA. While closed, outcomes of the last calls are kept in a sliding window;
+ * when the share of failed or slow calls reaches its threshold the circuit opens and calls are refused without
+ * contacting the CA. After the open period a limited number of probe calls is let through (half-open state):
+ * the circuit closes when all of them succeed and opens again on the first failed or slow one.
+ */
+public final class CmpCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final int PERCENT = 100;
+
+    private final CircuitBreaker settings;
+    private final BiConsumer<State, State> transitionListener;
+    private final LongSupplier nanoClock;
+    private final long slowCallDurationNanos;
+    private final long openStateNanos;
+    private final int minimumCalls;
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int recordedCalls;
+    private int nextIndex;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CmpCircuitBreaker(CircuitBreaker settings, BiConsumer<State, State> transitionListener) {
+        this(settings, transitionListener, System::nanoTime);
+    }
+
+    CmpCircuitBreaker(CircuitBreaker settings, BiConsumer<State, State> transitionListener, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.transitionListener = transitionListener;
+        this.nanoClock = nanoClock;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(settings.getSlowCallDurationMs());
+        this.openStateNanos = TimeUnit.MILLISECONDS.toNanos(settings.getOpenStateMs());
+        this.minimumCalls = Math.min(settings.getMinimumCalls(), settings.getSlidingWindowSize());
+        this.failedCalls = new boolean[settings.getSlidingWindowSize()];
+        this.slowCalls = new boolean[settings.getSlidingWindowSize()];
+    }
+
+    /**
+     * Returns whether a call to the CA may be made now. Every permitted call has to be reported with
+     * {@link #onResult(long, boolean)} or {@link #onIgnored()}.
+     */
+    public boolean tryAcquirePermission() {
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN) {
+                return tryAcquireHalfOpenPermit();
+            }
+            if (nanoClock.getAsLong() - openedAt < openStateNanos) {
+                return false;
+            }
+            changeState(State.HALF_OPEN);
+            tryAcquireHalfOpenPermit();
+        }
+        transitionListener.accept(State.OPEN, State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * Records outcome of a permitted call.
+     *
+     * @param durationNanos time the call took
+     * @param failed        whether the CA could not be reached or did not respond
+     */
+    public void onResult(long durationNanos, boolean failed) {
+        final State previousState;
+        final State currentState;
+        synchronized (this) {
+            previousState = state;
+            boolean slow = durationNanos >= slowCallDurationNanos;
+            if (state == State.CLOSED) {
+                record(failed, slow);
+                if (recordedCalls >= minimumCalls && isAboveThresholds()) {
+                    open();
+                }
+            } else if (state == State.HALF_OPEN) {
+                if (failed || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= settings.getHalfOpenCalls()) {
+                    changeState(State.CLOSED);
+                }
+            }
+            currentState = state;
+        }
+        if (previousState != currentState) {
+            transitionListener.accept(previousState, currentState);
+        }
+    }
+
+    /**
+     * Reports permitted call which has not reached the CA, so it says nothing about the CA state.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns time left until probe calls are let through, zero when the circuit is not open.
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remainingNanos = openStateNanos - (nanoClock.getAsLong() - openedAt);
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
+
+    CircuitBreaker getSettings() {
+        return settings;
+    }
+
+    private boolean tryAcquireHalfOpenPermit() {
+        if (halfOpenPermits >= settings.getHalfOpenCalls()) {
+            return false;
+        }
+        halfOpenPermits++;
+        return true;
+    }
+
+    private boolean isAboveThresholds() {
+        return failedCount * PERCENT >= settings.getFailureRateThreshold() * recordedCalls
+            || slowCount * PERCENT >= settings.getSlowCallRateThreshold() * recordedCalls;
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (recordedCalls == failedCalls.length) {
+            failedCount -= failedCalls[nextIndex] ? 1 : 0;
+            slowCount -= slowCalls[nextIndex] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextIndex] = failed;
+        slowCalls[nextIndex] = slow;
+        failedCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        nextIndex = (nextIndex + 1) % failedCalls.length;
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        changeState(State.OPEN);
+    }
+
+    private void changeState(State newState) {
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        recordedCalls = 0;
+        nextIndex = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+}
@@ -22,7 +22,11 @@
 
 package org.onap.oom.certservice.cmpv2client.impl;
 
-import org.apache.http.impl.client.CloseableHttpClient;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.bouncycastle.asn1.cmp.CMPCertificate;
 import org.bouncycastle.asn1.cmp.CertRepMessage;
 import org.bouncycastle.asn1.cmp.CertResponse;
@@ -31,45 +35,94 @@ import org.bouncycastle.asn1.cmp.PKIMessage;
 import org.bouncycastle.asn1.x509.Certificate;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.IssuanceStage;
+import org.onap.oom.certservice.certification.metrics.RequestType;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
-import org.onap.oom.certservice.cmpv2client.api.CmpClient;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
 import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedProtection;
 import org.onap.oom.certservice.cmpv2client.impl.protections.PkiMessageProtection;
 import org.onap.oom.certservice.cmpv2client.impl.protections.SignatureProtection;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
 import org.onap.oom.certservice.cmpv2client.validation.CmpCertificationValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.security.KeyPair;
 import java.security.Security;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.onap.oom.certservice.cmpv2client.impl.CmpResponseHelper.checkIfCmpResponseContainsError;
 import static org.onap.oom.certservice.cmpv2client.impl.CmpResponseHelper.getCertFromByteArray;
 import static org.onap.oom.certservice.cmpv2client.impl.CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore;
 
 /**
- * Implementation of the CmpClient Interface conforming to RFC4210 (Certificate Management Protocol
+ * Implementation of the AsyncCmpClient Interface conforming to RFC4210 (Certificate Management Protocol
  * (CMP)) and RFC4211 (Certificate Request Message Format (CRMF)) standards.
  */
-public class CmpClientImpl implements CmpClient {
+public class CmpClientImpl implements AsyncCmpClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(CmpClientImpl.class);
-    private final CloseableHttpClient httpClient;
+    private final CmpTransport cmpTransport;
+    private final Executor cryptoExecutor;
+    private final IssuanceMetrics issuanceMetrics;
+    private final IssuanceTracing issuanceTracing;
     private final CmpCertificationValidator validator;
+    private final PasswordBasedMacCache protectionMacCache;
+    private final VerifiedChainLinkCache verifiedChainLinkCache;
 
-    public CmpClientImpl(CloseableHttpClient httpClient) {
-        this.httpClient = httpClient;
-        this.validator = new CmpCertificationValidator();
+    /**
+     * Creates client sending requests with the given asynchronous HTTP client.
+     *
+     * @param httpAsyncClient        started client requests are sent with
+     * @param cryptoExecutor         bounded executor running CPU heavy part of requests: building
+     *                               and protecting the request (PoP signature, PBM) and verifying the response
+     *                               (protection, certificate path), so that neither request threads nor I/O
+     *                               dispatcher threads do it
+     * @param retryPolicy            policy of repeating requests which failed before reaching the CA,
+     *                               see {@link CmpTransport}
+     * @param issuanceMetrics        metrics of building, sending and verifying CMPv2 messages
+     * @param issuanceTracing        tracing recording spans of requests and passing trace context on to the CA
+     * @param maxResponseSize        maximum size in bytes of a response accepted from the CA
+     * @param validator              validator of requests and of protection of responses
+     * @param protectionMacCache     cache of base keys derived while protecting requests with password
+     * @param verifiedChainLinkCache cache of links between CA certificates already verified
+     */
+    public CmpClientImpl(CloseableHttpAsyncClient httpAsyncClient, Executor cryptoExecutor,
+        CmpRetryPolicy retryPolicy, IssuanceMetrics issuanceMetrics, IssuanceTracing issuanceTracing,
+        int maxResponseSize, CmpCertificationValidator validator, PasswordBasedMacCache protectionMacCache,
+        VerifiedChainLinkCache verifiedChainLinkCache) {
+        this.cmpTransport = new CmpTransport(
+            new Cmpv2AsyncHttpClient(httpAsyncClient, issuanceTracing, new CmpResponseReader(maxResponseSize)),
+            cryptoExecutor, retryPolicy, issuanceMetrics, System::nanoTime);
+        this.cryptoExecutor = cryptoExecutor;
+        this.issuanceMetrics = issuanceMetrics;
+        this.issuanceTracing = issuanceTracing;
+        this.validator = validator;
+        this.protectionMacCache = protectionMacCache;
+        this.verifiedChainLinkCache = verifiedChainLinkCache;
     }
 
     static {
@@ -77,46 +130,63 @@ public class CmpClientImpl implements CmpClient {
     }
 
     @Override
-    public Cmpv2CertificationModel executeInitializationRequest(
-            CsrModel csrModel,
-            Cmpv2Server server,
-            Date notBefore,
-            Date notAfter)
-            throws CmpClientException {
-
-        validator.validate(csrModel, server, httpClient, notBefore, notAfter);
-        final CreateCertRequest certRequest = getIakRvRequest(csrModel, server, notBefore, notAfter, PKIBody.TYPE_INIT_REQ);
-        return executeCmpRequest(csrModel, server, certRequest);
+    public CompletableFuture<Cmpv2CertificationModel> executeInitializationRequestAsync(CsrModel csrModel,
+        Cmpv2Server server) {
+        return executeCmpRequestAsync(server, RequestType.IR, () -> {
+            validator.validate(csrModel, server, null, null);
+            return getIakRvRequest(csrModel, server, null, null, PKIBody.TYPE_INIT_REQ);
+        }, respPkiMessage -> processResponse(csrModel, server, RequestType.IR, respPkiMessage));
     }
 
     @Override
-    public Cmpv2CertificationModel executeInitializationRequest(CsrModel csrModel, Cmpv2Server server)
-            throws CmpClientException {
-        return executeInitializationRequest(csrModel, server, null, null);
+    public CompletableFuture<Cmpv2CertificationModel> executeKeyUpdateRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel) {
+        return executeCmpRequestAsync(cmpv2Server, RequestType.KUR, () -> {
+            validator.validate(csrModel, cmpv2Server, null, null);
+            return getKeyUpdateRequest(csrModel, cmpv2Server, oldCertificateModel);
+        }, respPkiMessage -> processResponse(csrModel, cmpv2Server, RequestType.KUR, respPkiMessage));
     }
 
     @Override
-    public Cmpv2CertificationModel executeKeyUpdateRequest(CsrModel csrModel, Cmpv2Server cmpv2Server,
-        OldCertificateModel oldCertificateModel) throws CmpClientException {
-        validator.validate(csrModel, cmpv2Server, httpClient, null, null);
-
-        final PkiMessageProtection pkiMessageProtection = getSignatureProtection(oldCertificateModel);
-        final CreateCertRequest certRequest =
-            getCmpMessageBuilderWithCommonRequestValues(csrModel, cmpv2Server)
-                .with(CreateCertRequest::setCmpRequestType, PKIBody.TYPE_KEY_UPDATE_REQ)
-                .with(CreateCertRequest::setExtraCerts, getCmpCertificate(oldCertificateModel.getOldCertificate()))
-                .with(CreateCertRequest::setProtection, pkiMessageProtection)
-                .build();
-
-        return executeCmpRequest(csrModel, cmpv2Server, certRequest);
+    public CompletableFuture<Cmpv2CertificationModel> executeCertificationRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server) {
+        return executeCmpRequestAsync(cmpv2Server, RequestType.CR, () -> {
+            validator.validate(csrModel, cmpv2Server, null, null);
+            return getIakRvRequest(csrModel, cmpv2Server, null, null, PKIBody.TYPE_CERT_REQ);
+        }, respPkiMessage -> processResponse(csrModel, cmpv2Server, RequestType.CR, respPkiMessage));
     }
 
     @Override
-    public Cmpv2CertificationModel executeCertificationRequest(CsrModel csrModel, Cmpv2Server cmpv2Server) throws CmpClientException {
-
-        validator.validate(csrModel, cmpv2Server, httpClient, null, null);
-        final CreateCertRequest certRequest = getIakRvRequest(csrModel, cmpv2Server, null, null, PKIBody.TYPE_CERT_REQ);
-        return executeCmpRequest(csrModel, cmpv2Server, certRequest);
+    public CompletableFuture<List<Cmpv2BatchCertificationResult>> executeInitializationBatchRequestAsync(
+        List<CsrModel> csrModels, Cmpv2Server server) {
+        try {
+            CmpUtil.notNull(csrModels, "CsrModel Instances");
+            if (csrModels.isEmpty()) {
+                throw new IllegalArgumentException("Batch request must contain at least one CsrModel");
+            }
+            validator.validateServer(server);
+            // an invalid CSR fails only its own result, the remaining ones are still sent
+            final Cmpv2BatchCertificationResult[] results = new Cmpv2BatchCertificationResult[csrModels.size()];
+            final List<CsrModel> validCsrModels = new ArrayList<>(csrModels.size());
+            for (int i = 0; i < csrModels.size(); i++) {
+                try {
+                    validator.validateCsrModel(csrModels.get(i));
+                    validCsrModels.add(csrModels.get(i));
+                } catch (RuntimeException e) {
+                    LOG.warn("Certificate request {} of batch for CA named: {} is invalid", i, server.getCaName(), e);
+                    results[i] = Cmpv2BatchCertificationResult.failure(e);
+                }
+            }
+            if (validCsrModels.isEmpty()) {
+                return CompletableFuture.completedFuture(List.of(results));
+            }
+            final CreateCertRequest certRequest = getIakRvBatchRequest(validCsrModels, server);
+            return executeCmpRequestAsync(server, RequestType.IR, () -> certRequest,
+                respPkiMessage -> mergeBatchResults(results,
+                    processBatchResponse(server, certRequest.getCertReqIds(), respPkiMessage)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     private CreateCertRequest getIakRvRequest(
@@ -127,7 +197,7 @@ public class CmpClientImpl implements CmpClient {
         int requestType) {
 
         final String iak = server.getAuthentication().getIak();
-        final PkiMessageProtection pkiMessageProtection = new PasswordBasedProtection(iak);
+        final PkiMessageProtection pkiMessageProtection = new PasswordBasedProtection(iak, protectionMacCache);
         return getCmpMessageBuilderWithCommonRequestValues(csrModel, server)
             .with(CreateCertRequest::setNotBefore, notBefore)
             .with(CreateCertRequest::setNotAfter, notAfter)
@@ -137,21 +207,66 @@ public class CmpClientImpl implements CmpClient {
             .build();
     }
 
-    private Cmpv2CertificationModel executeCmpRequest(CsrModel csrModel, Cmpv2Server cmpv2Server,
-        CreateCertRequest certRequest) throws CmpClientException {
-        final PKIMessage pkiMessage = certRequest.generateCertReq();
-        Cmpv2HttpClient cmpv2HttpClient = new Cmpv2HttpClient(httpClient);
-        return retrieveCertificates(csrModel, cmpv2Server, pkiMessage, cmpv2HttpClient);
+    private CreateCertRequest getIakRvBatchRequest(List<CsrModel> csrModels, Cmpv2Server server) {
+        final List<CertRequestSubject> subjects = csrModels.stream()
+            .map(CertRequestSubject::from)
+            .collect(Collectors.toList());
+        return CmpMessageBuilder.of(CreateCertRequest::new)
+            .with(CreateCertRequest::setIssuerDn, server.getIssuerDN())
+            .with(CreateCertRequest::setCaName, server.getCaName())
+            .with(CreateCertRequest::setIssuanceMetrics, issuanceMetrics)
+            .with(CreateCertRequest::setSubjects, subjects)
+            .with(CreateCertRequest::setSenderKid, server.getAuthentication().getRv())
+            .with(CreateCertRequest::setCmpRequestType, PKIBody.TYPE_INIT_REQ)
+            .with(CreateCertRequest::setProtection,
+                new PasswordBasedProtection(server.getAuthentication().getIak(), protectionMacCache))
+            .build();
+    }
+
+    private CreateCertRequest getKeyUpdateRequest(CsrModel csrModel, Cmpv2Server cmpv2Server,
+        OldCertificateModel oldCertificateModel) {
+        final PkiMessageProtection pkiMessageProtection = getSignatureProtection(oldCertificateModel);
+        return getCmpMessageBuilderWithCommonRequestValues(csrModel, cmpv2Server)
+            .with(CreateCertRequest::setCmpRequestType, PKIBody.TYPE_KEY_UPDATE_REQ)
+            .with(CreateCertRequest::setExtraCerts, getCmpCertificate(oldCertificateModel.getOldCertificate()))
+            .with(CreateCertRequest::setProtection, pkiMessageProtection)
+            .build();
+    }
+
+    private <T> CompletableFuture<T> executeCmpRequestAsync(Cmpv2Server cmpv2Server, RequestType requestType,
+        Supplier<CreateCertRequest> certRequestSupplier, CmpResponseProcessor<T> responseProcessor) {
+        final Span span = startCmpRequestSpan(cmpv2Server, requestType);
+        final Context context = Context.current().with(span);
+        // crypto executor threads do not inherit trace context, so every stage is run within the request span
+        final Executor tracedExecutor = context.wrap(cryptoExecutor);
+        return CompletableFuture.supplyAsync(certRequestSupplier, tracedExecutor)
+            .thenCompose(certRequest -> {
+                try (Scope ignored = context.makeCurrent()) {
+                    return cmpTransport.send(cmpv2Server, certRequest);
+                }
+            })
+            .thenApplyAsync(respPkiMessage -> {
+                try {
+                    return responseProcessor.process(respPkiMessage);
+                } catch (CmpClientException e) {
+                    throw new CompletionException(e);
+                }
+            }, tracedExecutor)
+            .whenComplete((result, error) -> IssuanceTracing.end(span, error));
+    }
+
+    private Span startCmpRequestSpan(Cmpv2Server cmpv2Server, RequestType requestType) {
+        return issuanceTracing.startSpan("CMPv2 " + requestType, SpanKind.INTERNAL, cmpv2Server.getCaName(),
+            requestType);
     }
 
     private CmpMessageBuilder<CreateCertRequest> getCmpMessageBuilderWithCommonRequestValues(CsrModel csrModel,
         Cmpv2Server cmpv2Server) {
-        KeyPair keyPair = new KeyPair(csrModel.getPublicKey(), csrModel.getPrivateKey());
         return CmpMessageBuilder.of(CreateCertRequest::new)
             .with(CreateCertRequest::setIssuerDn, cmpv2Server.getIssuerDN())
-            .with(CreateCertRequest::setSubjectDn, csrModel.getSubjectData())
-            .with(CreateCertRequest::setSansArray, csrModel.getSans())
-            .with(CreateCertRequest::setSubjectKeyPair, keyPair);
+            .with(CreateCertRequest::setCaName, cmpv2Server.getCaName())
+            .with(CreateCertRequest::setIssuanceMetrics, issuanceMetrics)
+            .with(CreateCertRequest::setSubjects, List.of(CertRequestSubject.from(csrModel)));
     }
 
     private SignatureProtection getSignatureProtection(OldCertificateModel oldCertificateModel) {
@@ -163,16 +278,13 @@ public class CmpClientImpl implements CmpClient {
             return new CMPCertificate[]{cert};
     }
 
-    private Cmpv2CertificationModel retrieveCertificates(
-            CsrModel csrModel, Cmpv2Server server, PKIMessage pkiMessage, Cmpv2HttpClient cmpv2HttpClient)
-            throws CmpClientException {
-        final byte[] respBytes = cmpv2HttpClient.postRequest(pkiMessage, server.getUrl(), server.getCaName());
+    private Cmpv2CertificationModel processResponse(CsrModel csrModel, Cmpv2Server server, RequestType requestType,
+            PKIMessage respPkiMessage) throws CmpClientException {
         try {
-            final PKIMessage respPkiMessage = PKIMessage.getInstance(respBytes);
             LOG.info("Received response from Server");
             checkIfCmpResponseContainsError(respPkiMessage);
-            validator.checkCmpResponse(respPkiMessage, csrModel.getPublicKey(), server.getAuthentication().getIak());
-            return checkCmpCertRepMessage(respPkiMessage);
+            checkCmpResponse(respPkiMessage, csrModel, server, requestType);
+            return checkCmpCertRepMessage(respPkiMessage, server, requestType);
         } catch (IllegalArgumentException iae) {
             CmpClientException cmpClientException =
                     new CmpClientException(
@@ -182,8 +294,88 @@ public class CmpClientImpl implements CmpClient {
         }
     }
 
-    private Cmpv2CertificationModel checkCmpCertRepMessage(final PKIMessage respPkiMessage)
-        throws CmpClientException {
+    private List<Cmpv2BatchCertificationResult> processBatchResponse(Cmpv2Server server, List<Integer> certReqIds,
+        PKIMessage respPkiMessage) throws CmpClientException {
+        try {
+            LOG.info("Received batch response from Server");
+            checkIfCmpResponseContainsError(respPkiMessage);
+            checkCmpBatchResponse(respPkiMessage, server);
+            final CertRepMessage certRepMessage = getCertRepMessage(respPkiMessage);
+            final Map<Integer, CertResponse> certResponses = Stream.of(certRepMessage.getResponse())
+                .collect(Collectors.toMap(
+                    certResponse -> certResponse.getCertReqId().getValue().intValue(),
+                    Function.identity(),
+                    (first, duplicate) -> first));
+            return certReqIds.stream()
+                .map(certReqId -> createBatchCertificationResult(respPkiMessage, certRepMessage,
+                    certResponses.get(certReqId), server))
+                .collect(Collectors.toList());
+        } catch (IllegalArgumentException iae) {
+            LOG.error("Error encountered while processing batch response from CA server ", iae);
+            throw new CmpClientException("Error encountered while processing response from CA server ", iae);
+        }
+    }
+
+    private void checkCmpResponse(PKIMessage respPkiMessage, CsrModel csrModel, Cmpv2Server server,
+        RequestType requestType) throws CmpClientException {
+        issuanceMetrics.timeStage(IssuanceStage.VALIDATE, server.getCaName(), requestType, () -> {
+            validator.checkCmpResponse(respPkiMessage, csrModel.getPublicKey(), server.getAuthentication().getIak());
+            return null;
+        });
+    }
+
+    private void checkCmpBatchResponse(PKIMessage respPkiMessage, Cmpv2Server server) throws CmpClientException {
+        issuanceMetrics.timeStage(IssuanceStage.VALIDATE, server.getCaName(), RequestType.IR, () -> {
+            validator.checkCmpBatchResponse(respPkiMessage, server.getAuthentication().getIak());
+            return null;
+        });
+    }
+
+    private static List<Cmpv2BatchCertificationResult> mergeBatchResults(
+        Cmpv2BatchCertificationResult[] invalidRequestResults, List<Cmpv2BatchCertificationResult> sentRequestResults) {
+        final List<Cmpv2BatchCertificationResult> results = new ArrayList<>(invalidRequestResults.length);
+        final Iterator<Cmpv2BatchCertificationResult> sentResults = sentRequestResults.iterator();
+        for (Cmpv2BatchCertificationResult invalidRequestResult : invalidRequestResults) {
+            results.add(invalidRequestResult != null ? invalidRequestResult : sentResults.next());
+        }
+        return results;
+    }
+
+    private CertRepMessage getCertRepMessage(PKIMessage respPkiMessage) throws CmpClientException {
+        final PKIBody pkiBody = respPkiMessage.getBody();
+        if (Objects.nonNull(pkiBody) && pkiBody.getContent() instanceof CertRepMessage) {
+            return (CertRepMessage) pkiBody.getContent();
+        }
+        LOG.error("CMP response does not contain CertRepMessage");
+        throw new CmpClientException("CMP response does not contain CertRepMessage");
+    }
+
+    private Cmpv2BatchCertificationResult createBatchCertificationResult(PKIMessage respPkiMessage,
+        CertRepMessage certRepMessage, CertResponse certResponse, Cmpv2Server server) {
+        if (Objects.isNull(certResponse)) {
+            return Cmpv2BatchCertificationResult.failure(
+                new CmpClientException("CMPv2 server did not respond to certificate request"));
+        }
+        try {
+            validator.checkServerResponse(certResponse);
+            if (Objects.isNull(certResponse.getCertifiedKeyPair())) {
+                return Cmpv2BatchCertificationResult.failure(
+                    new CmpClientException("CMPv2 server did not return certificate"));
+            }
+            return Cmpv2BatchCertificationResult.success(
+                verifyReturnCertChainAndTrustStore(respPkiMessage, certRepMessage, certResponse, server,
+                    RequestType.IR));
+        } catch (CmpServerException | CmpClientException e) {
+            return Cmpv2BatchCertificationResult.failure(e);
+        } catch (IOException | CertificateParsingException e) {
+            LOG.error("Exception occurred while retrieving Certificates from batch response", e);
+            return Cmpv2BatchCertificationResult.failure(new CmpClientException(
+                "Exception occurred while retrieving Certificates from response", e));
+        }
+    }
+
+    private Cmpv2CertificationModel checkCmpCertRepMessage(final PKIMessage respPkiMessage, Cmpv2Server server,
+        RequestType requestType) throws CmpClientException {
         final PKIBody pkiBody = respPkiMessage.getBody();
         if (Objects.nonNull(pkiBody) && pkiBody.getContent() instanceof CertRepMessage) {
             final CertRepMessage certRepMessage = (CertRepMessage) pkiBody.getContent();
@@ -191,7 +383,8 @@ public class CmpClientImpl implements CmpClient {
                 try {
                     CertResponse certResponse = getCertificateResponseContainingNewCertificate(certRepMessage);
                     validator.checkServerResponse(certResponse);
-                    return verifyReturnCertChainAndTrustStore(respPkiMessage, certRepMessage, certResponse);
+                    return verifyReturnCertChainAndTrustStore(respPkiMessage, certRepMessage, certResponse, server,
+                        requestType);
                 } catch (IOException | CertificateParsingException ex) {
                     CmpClientException cmpClientException =
                         new CmpClientException(
@@ -207,16 +400,25 @@ public class CmpClientImpl implements CmpClient {
     }
 
     private Cmpv2CertificationModel verifyReturnCertChainAndTrustStore(
-        PKIMessage respPkiMessage, CertRepMessage certRepMessage, CertResponse certResponse)
-        throws CertificateParsingException, CmpClientException, IOException {
+        PKIMessage respPkiMessage, CertRepMessage certRepMessage, CertResponse certResponse, Cmpv2Server server,
+        RequestType requestType) throws CertificateParsingException, CmpClientException, IOException {
         LOG.info("Verifying certificates returned as part of CertResponse.");
         final CMPCertificate cmpCertificate =
             certResponse.getCertifiedKeyPair().getCertOrEncCert().getCertificate();
         final Optional<X509Certificate> leafCertificate =
             getCertFromByteArray(cmpCertificate.getEncoded(), X509Certificate.class);
         if (leafCertificate.isPresent()) {
-            return verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate.get());
+            final long startTime = issuanceMetrics.start();
+            try {
+                final Cmpv2CertificationModel certificationModel =
+                    verifyAndReturnCertChainAndTrustSTore(respPkiMessage, certRepMessage, leafCertificate.get(),
+                        verifiedChainLinkCache);
+                issuanceMetrics.recordStage(IssuanceStage.CHAIN, server.getCaName(), requestType, startTime, null);
+                return certificationModel;
+            } catch (CertificateParsingException | CmpClientException | IOException | RuntimeException e) {
+                issuanceMetrics.recordStage(IssuanceStage.CHAIN, server.getCaName(), requestType, startTime, e);
+                throw e;
+            }
         }
         return new Cmpv2CertificationModel(Collections.emptyList(), Collections.emptyList());
     }
@@ -225,4 +427,10 @@ public class CmpClientImpl implements CmpClient {
         CertRepMessage certRepMessage) {
         return certRepMessage.getResponse()[0];
     }
+
+    @FunctionalInterface
+    private interface CmpResponseProcessor<T> {
+
+        T process(PKIMessage respPkiMessage) throws CmpClientException;
+    }
 }
@@ -0,0 +1,82 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletionException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerUnavailableException;
+
+/**
+ * Tells apart failures of CMPv2 exchanges, for components adapting to the state of the CA.
+ */
+final class CmpFailureClassifier {
+
+    private CmpFailureClassifier() {
+    }
+
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Request was not sent to the CA at all, e.g. it was invalid or rejected locally.
+     */
+    static boolean isNotSent(Throwable error) {
+        final Throwable cause = unwrap(error);
+        return cause instanceof IllegalArgumentException || cause instanceof CmpRequestRejectedException;
+    }
+
+    /**
+     * CA could not be reached, did not respond in time or is reported unavailable by a gateway.
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = unwrap(error); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof CmpServerUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Request certainly has not been processed by the CA, so sending it again cannot issue a second
+     * certificate: connection was not established (including waiting for a pooled connection), or the CA
+     * answered with 502, 503 or 504 status. Read timeouts are not safe, the CA may still be processing
+     * the request.
+     */
+    static boolean isSafeToRetry(Throwable error) {
+        for (Throwable cause = unwrap(error); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                || cause instanceof ConnectTimeoutException
+                || cause instanceof NoRouteToHostException
+                || cause instanceof UnknownHostException
+                || cause instanceof CmpServerUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
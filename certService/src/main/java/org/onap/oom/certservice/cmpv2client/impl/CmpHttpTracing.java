@@ -0,0 +1,89 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.util.Objects;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.util.encoders.Hex;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+
+/**
+ * Client spans of HTTP exchanges with CMPv2 servers.
+ */
+final class CmpHttpTracing {
+
+    private static final String EXCHANGE_SPAN = "CMPv2 POST";
+    private static final String HTTP_POST = "POST";
+    private static final TextMapSetter<HttpRequest> HEADER_SETTER = (request, key, value) -> {
+        if (request != null) {
+            request.setHeader(key, value);
+        }
+    };
+
+    private CmpHttpTracing() {
+    }
+
+    /**
+     * Starts client span of sending the message, tagged with its request type and transactionID.
+     */
+    static Span startExchangeSpan(IssuanceTracing issuanceTracing, PKIMessage pkiMessage, String url,
+        String caName) {
+        final Span span = issuanceTracing.startSpan(EXCHANGE_SPAN, SpanKind.CLIENT, caName,
+            getRequestType(pkiMessage));
+        span.setAttribute(IssuanceTracing.HTTP_METHOD, HTTP_POST);
+        span.setAttribute(IssuanceTracing.HTTP_URL, url);
+        final ASN1OctetString transactionId = pkiMessage.getHeader().getTransactionID();
+        if (Objects.nonNull(transactionId)) {
+            span.setAttribute(IssuanceTracing.TRANSACTION_ID, Hex.toHexString(transactionId.getOctets()));
+        }
+        return span;
+    }
+
+    /**
+     * Adds trace context of the current span to the request, so the CA can continue the trace.
+     */
+    static void injectTraceContext(IssuanceTracing issuanceTracing, HttpRequest request) {
+        issuanceTracing.inject(request, HEADER_SETTER);
+    }
+
+    static void setStatusCode(Span span, int statusCode) {
+        span.setAttribute(IssuanceTracing.HTTP_STATUS_CODE, statusCode);
+        if (statusCode >= HttpStatus.SC_BAD_REQUEST) {
+            span.setStatus(StatusCode.ERROR);
+        }
+    }
+
+    private static RequestType getRequestType(PKIMessage pkiMessage) {
+        try {
+            return RequestType.fromPkiBodyType(pkiMessage.getBody().getType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -53,7 +53,7 @@ import org.bouncycastle.asn1.x509.GeneralNames;
 import org.bouncycastle.asn1.x509.KeyPurposeId;
 import org.bouncycastle.asn1.x509.KeyUsage;
 import org.bouncycastle.asn1.x509.Time;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -133,7 +133,7 @@ public final class CmpMessageHelper {
 
             byte[] popoProtectionBytes = byteArrayOutputStream.toByteArray();
             final String sigalg = PKCSObjectIdentifiers.sha256WithRSAEncryption.getId();
-            final Signature signature = Signature.getInstance(sigalg, BouncyCastleProvider.PROVIDER_NAME);
+            final Signature signature = JcaEngines.getSignature(sigalg);
             signature.initSign(keypair.getPrivate());
             signature.update(popoProtectionBytes);
             DERBitString bs = new DERBitString(signature.sign());
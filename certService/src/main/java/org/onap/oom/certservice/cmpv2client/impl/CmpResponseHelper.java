@@ -53,6 +53,7 @@ import org.bouncycastle.asn1.cmp.PKIBody;
 import org.bouncycastle.asn1.cmp.PKIMessage;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
@@ -91,16 +92,18 @@ public final class CmpResponseHelper {
      * @param respPkiMessage  PKIMessage that may contain extra certs used for certchain
      * @param certRepMessage  CertRepMessage that should contain rootCA for certchain
      * @param leafCertificate certificate returned from our original Cert Request
+     * @param verifiedLinks   links between CA certificates already verified, shared by all responses
      * @return model for certification containing certificate chain and trusted certificates
      * @throws CertificateParsingException thrown if error occurs while parsing certificate
      * @throws IOException                 thrown if IOException occurs while parsing certificate
      * @throws CmpClientException          thrown if error occurs during the verification of the certChain
      */
     static Cmpv2CertificationModel verifyAndReturnCertChainAndTrustSTore(
-        PKIMessage respPkiMessage, CertRepMessage certRepMessage, X509Certificate leafCertificate)
+        PKIMessage respPkiMessage, CertRepMessage certRepMessage, X509Certificate leafCertificate,
+        VerifiedChainLinkCache verifiedLinks)
         throws CertificateParsingException, IOException, CmpClientException {
         Map<X500Name, X509Certificate> certificates = mapAllCertificates(respPkiMessage, certRepMessage);
-        return extractCertificationModel(certificates, leafCertificate);
+        return extractCertificationModel(certificates, leafCertificate, verifiedLinks);
     }
 
     private static Map<X500Name, X509Certificate> mapAllCertificates(
@@ -137,7 +140,8 @@ public final class CmpResponseHelper {
     }
 
     private static Cmpv2CertificationModel extractCertificationModel(
-        Map<X500Name, X509Certificate> certificates, X509Certificate leafCertificate
+        Map<X500Name, X509Certificate> certificates, X509Certificate leafCertificate,
+        VerifiedChainLinkCache verifiedLinks
     )
         throws CmpClientException {
         List<X509Certificate> certificateChain = new ArrayList<>();
@@ -148,7 +152,8 @@ public final class CmpResponseHelper {
             certificates.remove(extractSubjectDn(nextCertificateInChain));
             previousCertificateInChain = nextCertificateInChain;
             nextCertificateInChain = certificates.get(extractIssuerDn(nextCertificateInChain));
-            verify(previousCertificateInChain, nextCertificateInChain, null);
+            verifyLink(previousCertificateInChain, nextCertificateInChain,
+                previousCertificateInChain == leafCertificate, verifiedLinks);
         }
         while (!isSelfSign(nextCertificateInChain));
         List<X509Certificate> trustedCertificates = new ArrayList<>(certificates.values());
@@ -156,6 +161,26 @@ public final class CmpResponseHelper {
         return new Cmpv2CertificationModel(certificateChain, trustedCertificates);
     }
 
+    /**
+     * Verifies that certificate was issued by given CA certificate. Links between CA certificates, which are the
+     * same in every response of a CA, are verified once and remembered until one of the certificates expires.
+     * The link of the leaf certificate, which is new in every response, is always verified.
+     */
+    private static void verifyLink(X509Certificate certificate, X509Certificate caCertificate, boolean isLeaf,
+        VerifiedChainLinkCache verifiedLinks) throws CmpClientException {
+        if (isLeaf || caCertificate == null) {
+            verify(certificate, caCertificate, null);
+            return;
+        }
+        if (verifiedLinks.isVerified(certificate, caCertificate, null)) {
+            LOG.debug("Certificate {} was already verified with certificate {}",
+                certificate.getSubjectDN().getName(), caCertificate.getSubjectDN().getName());
+            return;
+        }
+        verify(certificate, caCertificate, null);
+        verifiedLinks.markVerified(certificate, caCertificate);
+    }
+
     private static boolean isSelfSign(X509Certificate certificate) {
         return extractIssuerDn(certificate).equals(extractSubjectDn(certificate));
     }
@@ -239,8 +264,7 @@ public final class CmpResponseHelper {
             caCertChain.getSubjectDN().getName());
         CertPath cp = getCertPath(certificate);
         PKIXParameters params = getPkixParameters(caCertChain, date, pkixCertPathCheckers);
-        CertPathValidator cpv =
-            CertPathValidator.getInstance("PKIX", BouncyCastleProvider.PROVIDER_NAME);
+        CertPathValidator cpv = JcaEngines.getPkixCertPathValidator();
         PKIXCertPathValidatorResult result = (PKIXCertPathValidatorResult) cpv.validate(cp, params);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Certificate verify result:{} ", result);
@@ -264,8 +288,7 @@ public final class CmpResponseHelper {
         throws CertificateException, NoSuchProviderException {
         ArrayList<X509Certificate> certlist = new ArrayList<>();
         certlist.add(certificate);
-        return CertificateFactory.getInstance("X.509", BouncyCastleProvider.PROVIDER_NAME)
-            .generateCertPath(certlist);
+        return JcaEngines.getX509CertificateFactory().generateCertPath(certlist);
     }
 
     /**
@@ -280,6 +303,9 @@ public final class CmpResponseHelper {
         final String prov;
         prov = Objects.requireNonNullElse(provider, BouncyCastleProvider.PROVIDER_NAME);
         try {
+            if (BouncyCastleProvider.PROVIDER_NAME.equals(prov)) {
+                return JcaEngines.getX509CertificateFactory();
+            }
             return CertificateFactory.getInstance("X.509", prov);
         } catch (NoSuchProviderException nspe) {
             CmpClientException cmpClientException = new CmpClientException("NoSuchProvider: ", nspe);
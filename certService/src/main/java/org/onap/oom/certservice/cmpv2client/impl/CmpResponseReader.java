@@ -0,0 +1,158 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses PKIMessage straight from the content stream of a response, without copying it into a byte array first.
+ * Responses larger than the maximum size are rejected: by their Content-Length before reading anything, or by
+ * length of the ASN.1 structure before it is allocated. The asynchronous client receives the response with
+ * {@link #createResponseConsumer()}, which keeps in memory no more than the maximum size either.
+ */
+final class CmpResponseReader {
+
+    static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CmpResponseReader.class);
+
+    private final int maxResponseSize;
+
+    CmpResponseReader(int maxResponseSize) {
+        if (maxResponseSize <= 0) {
+            throw new IllegalArgumentException("Maximum response size must be positive: " + maxResponseSize);
+        }
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * Creates consumer receiving a response of the asynchronous client up to the maximum size.
+     */
+    HttpAsyncResponseConsumer<HttpResponse> createResponseConsumer() {
+        return new BoundedResponseConsumer(maxResponseSize);
+    }
+
+    /**
+     * Checks declared length of the response before its content is read.
+     *
+     * @throws CmpClientException when the response is declared larger than the maximum size
+     */
+    void checkContentLength(HttpEntity entity, String caName) throws CmpClientException {
+        final long contentLength = entity.getContentLength();
+        if (contentLength > maxResponseSize) {
+            LOG.error("Response of CA {} has {} bytes, more than maximum of {} bytes", caName, contentLength,
+                maxResponseSize);
+            throw new CmpClientException(String.format(
+                "Response of CA %s has %d bytes, more than maximum of %d bytes", caName, contentLength,
+                maxResponseSize));
+        }
+    }
+
+    /**
+     * Reads PKIMessage from the response, consuming its content.
+     *
+     * @throws CmpClientException when the response is too large, is not a single DER encoded PKIMessage,
+     *                            or its content could not be read
+     */
+    PKIMessage read(HttpEntity entity, String caName) throws CmpClientException {
+        if (entity == null) {
+            throw new CmpClientException(String.format("Response of CA %s has no content", caName));
+        }
+        checkContentLength(entity, caName);
+        try (InputStream content = entity.getContent()) {
+            if (content == null) {
+                throw new CmpClientException(String.format("Response of CA %s has no content", caName));
+            }
+            final ASN1InputStream asn1InputStream =
+                new ASN1InputStream(new BoundedInputStream(content, maxResponseSize), maxResponseSize);
+            final ASN1Primitive primitive = asn1InputStream.readObject();
+            if (primitive == null || asn1InputStream.read() != -1) {
+                throw new CmpClientException(
+                    String.format("Response of CA %s is not a single ASN.1 structure", caName));
+            }
+            return PKIMessage.getInstance(primitive);
+        } catch (IOException ioe) {
+            LOG.error("Error {} while reading response from CA {}", ioe.getMessage(), caName);
+            throw new CmpClientException(String.format("Error while reading response from CA %s", caName), ioe);
+        } catch (IllegalArgumentException iae) {
+            LOG.error("Error encountered while processing response from CA server ", iae);
+            throw new CmpClientException("Error encountered while processing response from CA server ", iae);
+        }
+    }
+
+    /**
+     * Fails reading once more than the maximum number of bytes has been read, so that neither a response without
+     * Content-Length nor one declaring a false length is read past the maximum size.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long maxSize;
+        private long count;
+
+        private BoundedInputStream(InputStream inputStream, long maxSize) {
+            super(inputStream);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            final int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long read) throws IOException {
+            count += read;
+            if (count > maxSize) {
+                throw new IOException("Response is larger than maximum of " + maxSize + " bytes");
+            }
+        }
+    }
+}
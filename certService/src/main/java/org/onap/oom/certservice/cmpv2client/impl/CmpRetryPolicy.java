@@ -0,0 +1,83 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Tells how many times and how often a CMPv2 exchange is repeated after a failure which guarantees the CA has
+ * not processed the request. Delays grow exponentially and are jittered, so that requests failed by the same
+ * outage do not come back to the CA at once. No attempt is started after the deadline counted from the first one.
+ */
+public final class CmpRetryPolicy {
+
+    public static final CmpRetryPolicy NO_RETRY = new CmpRetryPolicy(1, 0, 0, 0);
+
+    private static final int MAX_BACKOFF_EXPONENT = 30;
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long deadlineMs;
+    private final DoubleSupplier random;
+
+    public CmpRetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, long deadlineMs) {
+        this(maxAttempts, initialBackoffMs, maxBackoffMs, deadlineMs, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    CmpRetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, long deadlineMs,
+        DoubleSupplier random) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Number of attempts must be at least 1");
+        }
+        if (initialBackoffMs < 0 || maxBackoffMs < initialBackoffMs || deadlineMs < 0) {
+            throw new IllegalArgumentException(
+                "Retry delays must satisfy 0 <= initial backoff <= max backoff and deadline must not be negative");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.deadlineMs = deadlineMs;
+        this.random = random;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    /**
+     * Returns delay before the next attempt. The delay is drawn between half and full of the exponential
+     * backoff, which doubles with every failed attempt up to the maximum backoff.
+     *
+     * @param failedAttempts number of attempts made so far, starting from 1
+     */
+    public long getBackoffMillis(int failedAttempts) {
+        final int exponent = Math.min(Math.max(failedAttempts - 1, 0), MAX_BACKOFF_EXPONENT);
+        final long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << exponent);
+        final long halfBackoffMs = backoffMs / 2;
+        return halfBackoffMs + (long) (random.getAsDouble() * (backoffMs - halfBackoffMs));
+    }
+}
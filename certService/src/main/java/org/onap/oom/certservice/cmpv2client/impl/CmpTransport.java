@@ -0,0 +1,269 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.opentelemetry.context.Context;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.configuration.model.Hedging;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.IssuanceStage;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends CMPv2 requests asynchronously, repeating them according to {@link CmpRetryPolicy} and, when enabled for
+ * the CA, hedging them: if the CA does not respond within the configured percentile of its recent response times,
+ * the same request is sent to the alternate URL of the CA and the first successful response is used. The request
+ * still in flight when the other one succeeds is cancelled, which aborts its HTTP exchange.
+ *
+ * <p>Every message sent, whether retried or hedged, is generated anew, so it has its own transactionID and
+ * senderNonce. Messages are generated on the crypto executor, within the trace context the request was sent
+ * in. Generating and exchanging every message is timed
+ * separately in {@link IssuanceMetrics}.
+ */
+final class CmpTransport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CmpTransport.class);
+    private static final int LATENCY_SAMPLES = 100;
+    private static final int MIN_LATENCY_SAMPLES = 10;
+    private static final double PERCENT = 100.0;
+
+    private final Cmpv2AsyncHttpClient httpClient;
+    private final Executor cryptoExecutor;
+    private final CmpRetryPolicy retryPolicy;
+    private final IssuanceMetrics issuanceMetrics;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    CmpTransport(Cmpv2AsyncHttpClient httpClient, Executor cryptoExecutor, CmpRetryPolicy retryPolicy,
+        IssuanceMetrics issuanceMetrics, LongSupplier nanoClock) {
+        this.httpClient = httpClient;
+        this.cryptoExecutor = cryptoExecutor;
+        this.retryPolicy = retryPolicy;
+        this.issuanceMetrics = issuanceMetrics;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Sends request to the CA and returns future of the response message. Future fails with error of the last
+     * attempt when no attempt succeeded.
+     */
+    CompletableFuture<PKIMessage> send(Cmpv2Server server, CreateCertRequest certRequest) {
+        final CompletableFuture<PKIMessage> result = new CompletableFuture<>();
+        final long deadline = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(retryPolicy.getDeadlineMs());
+        final Executor executor = Context.current().wrap(cryptoExecutor);
+        sendAttempt(server, certRequest, 1, deadline, executor, result);
+        return result;
+    }
+
+    private void sendAttempt(Cmpv2Server server, CreateCertRequest certRequest, int attempt, long deadline,
+        Executor executor, CompletableFuture<PKIMessage> result) {
+        sendHedged(server, certRequest, executor).whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            final Throwable cause = CmpFailureClassifier.unwrap(error);
+            final long backoffMs = retryPolicy.getBackoffMillis(attempt);
+            if (attempt >= retryPolicy.getMaxAttempts()
+                || !CmpFailureClassifier.isSafeToRetry(cause)
+                || nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(backoffMs) >= deadline) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            LOG.warn("Request to CA {} failed: {}, retrying in {} ms (attempt {} of {})", server.getCaName(),
+                cause.getMessage(), backoffMs, attempt + 1, retryPolicy.getMaxAttempts());
+            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, executor)
+                .execute(() -> sendAttempt(server, certRequest, attempt + 1, deadline, executor, result));
+        });
+    }
+
+    private CompletableFuture<PKIMessage> sendHedged(Cmpv2Server server, CreateCertRequest certRequest,
+        Executor executor) {
+        final OptionalLong hedgeDelayMs = getHedgeDelayMillis(server);
+        if (hedgeDelayMs.isEmpty()) {
+            return post(server, server.getUrl(), certRequest, executor, null);
+        }
+        final HedgedRequest hedgedRequest = new HedgedRequest();
+        post(server, server.getUrl(), certRequest, executor, hedgedRequest).whenComplete(hedgedRequest::onComplete);
+        CompletableFuture.delayedExecutor(hedgeDelayMs.getAsLong(), TimeUnit.MILLISECONDS, executor)
+            .execute(() -> {
+                if (hedgedRequest.startHedge()) {
+                    LOG.info("CA {} did not respond within {} ms, sending hedged request to {}", server.getCaName(),
+                        hedgeDelayMs.getAsLong(), server.getHedging().getAlternateUrl());
+                    post(server, server.getHedging().getAlternateUrl(), certRequest, executor, hedgedRequest)
+                        .whenComplete(hedgedRequest::onComplete);
+                }
+            });
+        return hedgedRequest.result;
+    }
+
+    private CompletableFuture<PKIMessage> post(Cmpv2Server server, String url, CreateCertRequest certRequest,
+        Executor executor, HedgedRequest hedgedRequest) {
+        final CompletableFuture<PKIMessage> message =
+            CompletableFuture.supplyAsync(() -> generateMessage(server, certRequest), executor);
+        if (!server.isHedgingEnabled()) {
+            return message.thenCompose(pkiMessage -> exchange(server, url, certRequest, pkiMessage, hedgedRequest));
+        }
+        return message.thenCompose(pkiMessage -> {
+            final long startTime = nanoClock.getAsLong();
+            return exchange(server, url, certRequest, pkiMessage, hedgedRequest)
+                .thenApply(response -> {
+                    getLatencyWindow(server).record(nanoClock.getAsLong() - startTime);
+                    return response;
+                });
+        });
+    }
+
+    private CompletableFuture<PKIMessage> exchange(Cmpv2Server server, String url, CreateCertRequest certRequest,
+        PKIMessage pkiMessage, HedgedRequest hedgedRequest) {
+        final long startTime = issuanceMetrics.start();
+        final CompletableFuture<PKIMessage> exchange = httpClient.postRequest(pkiMessage, url, server.getCaName());
+        if (hedgedRequest != null) {
+            hedgedRequest.track(exchange);
+        }
+        return exchange.whenComplete((response, error) -> issuanceMetrics.recordStage(IssuanceStage.EXCHANGE,
+                server.getCaName(), certRequest.getRequestType(), startTime, error));
+    }
+
+    private OptionalLong getHedgeDelayMillis(Cmpv2Server server) {
+        if (!server.isHedgingEnabled()) {
+            return OptionalLong.empty();
+        }
+        final Hedging hedging = server.getHedging();
+        final OptionalLong percentileNanos = getLatencyWindow(server).getPercentile(hedging.getLatencyPercentile());
+        if (percentileNanos.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(
+            Math.max(hedging.getMinDelayMs(), TimeUnit.NANOSECONDS.toMillis(percentileNanos.getAsLong())));
+    }
+
+    private LatencyWindow getLatencyWindow(Cmpv2Server server) {
+        return latencies.computeIfAbsent(server.getCaName(), caName -> new LatencyWindow());
+    }
+
+    private PKIMessage generateMessage(Cmpv2Server server, CreateCertRequest certRequest) {
+        try {
+            return issuanceMetrics.timeStage(IssuanceStage.BUILD, server.getCaName(), certRequest.getRequestType(),
+                certRequest::generateCertReq);
+        } catch (CmpClientException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Request sent to the primary URL and possibly also to the alternate one. Completes with the first response,
+     * or with the first error once every sent request failed. Exchanges still in flight after the first response
+     * are cancelled.
+     */
+    private static final class HedgedRequest {
+
+        private final CompletableFuture<PKIMessage> result = new CompletableFuture<>();
+        private final List<CompletableFuture<PKIMessage>> exchanges = new ArrayList<>(2);
+        private int pending = 1;
+        private Throwable firstError;
+
+        synchronized boolean startHedge() {
+            if (result.isDone()) {
+                return false;
+            }
+            pending++;
+            return true;
+        }
+
+        void track(CompletableFuture<PKIMessage> exchange) {
+            synchronized (this) {
+                if (!result.isDone()) {
+                    exchanges.add(exchange);
+                    return;
+                }
+            }
+            exchange.cancel(true);
+        }
+
+        void onComplete(PKIMessage response, Throwable error) {
+            if (error == null) {
+                result.complete(response);
+                cancelExchanges();
+                return;
+            }
+            final Throwable failure;
+            synchronized (this) {
+                if (firstError == null) {
+                    firstError = error;
+                }
+                failure = --pending == 0 ? firstError : null;
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        private void cancelExchanges() {
+            final List<CompletableFuture<PKIMessage>> inFlight;
+            synchronized (this) {
+                inFlight = new ArrayList<>(exchanges);
+                exchanges.clear();
+            }
+            inFlight.forEach(exchange -> exchange.cancel(true));
+        }
+    }
+
+    /**
+     * Response times of the last successful requests to a single CA.
+     */
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int count;
+        private int nextIndex;
+
+        synchronized void record(long latencyNanos) {
+            samples[nextIndex] = latencyNanos;
+            nextIndex = (nextIndex + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized OptionalLong getPercentile(int percentile) {
+            if (count < MIN_LATENCY_SAMPLES) {
+                return OptionalLong.empty();
+            }
+            final long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile / PERCENT * count) - 1;
+            return OptionalLong.of(sorted[Math.max(0, index)]);
+        }
+    }
+}
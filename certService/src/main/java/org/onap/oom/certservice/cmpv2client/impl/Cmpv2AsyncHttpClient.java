@@ -0,0 +1,160 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.util.EntityUtils;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class Cmpv2AsyncHttpClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Cmpv2AsyncHttpClient.class);
+
+    private static final Set<Integer> UNAVAILABLE_STATUS_CODES = Set.of(
+            HttpStatus.SC_BAD_GATEWAY, HttpStatus.SC_SERVICE_UNAVAILABLE, HttpStatus.SC_GATEWAY_TIMEOUT);
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final IssuanceTracing issuanceTracing;
+    private final CmpResponseReader responseReader;
+
+    /**
+     * constructor for Cmpv2AsyncHttpClient
+     *
+     * @param httpAsyncClient started CloseableHttpAsyncClient used for sending/receiving requests.
+     * @param issuanceTracing tracing the requests are recorded and propagated with
+     * @param responseReader  reader parsing responses up to the maximum size
+     */
+    Cmpv2AsyncHttpClient(CloseableHttpAsyncClient httpAsyncClient, IssuanceTracing issuanceTracing,
+            CmpResponseReader responseReader) {
+        this.httpAsyncClient = httpAsyncClient;
+        this.issuanceTracing = issuanceTracing;
+        this.responseReader = responseReader;
+    }
+
+    /**
+     * Send Post Request to Server without blocking the calling thread.
+     *
+     * @param pkiMessage PKIMessage to send to server
+     * @param urlString  url for the server we're sending request
+     * @param caName     name of CA server
+     * @return future of PKIMessage received from CMPServer, completed exceptionally with
+     *     CmpClientException if problems with connecting, reading or parsing response occur, or with
+     *     CmpServerUnavailableException if the server answered with 502, 503 or 504 status. Cancelling the
+     *     future aborts the request.
+     */
+    CompletableFuture<PKIMessage> postRequest(
+            final PKIMessage pkiMessage, final String urlString, final String caName) {
+        final CompletableFuture<PKIMessage> result = new CompletableFuture<>();
+        final Span span = CmpHttpTracing.startExchangeSpan(issuanceTracing, pkiMessage, urlString, caName);
+        try (Scope ignored = span.makeCurrent()) {
+            final HttpPost postRequest = new HttpPost(urlString);
+            postRequest.setEntity(new DerEncodedEntity(pkiMessage));
+            CmpHttpTracing.injectTraceContext(issuanceTracing, postRequest);
+            final Future<HttpResponse> exchange = httpAsyncClient.execute(HttpAsyncMethods.create(postRequest),
+                    responseReader.createResponseConsumer(),
+                    new ResponseCallback(result, caName, span, responseReader));
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled() && exchange != null) {
+                    exchange.cancel(true);
+                }
+            });
+        } catch (IOException ioe) {
+            result.completeExceptionally(createConnectionException(ioe, caName));
+        }
+        result.whenComplete((response, error) -> IssuanceTracing.end(span, error));
+        return result;
+    }
+
+    private static CmpClientException createConnectionException(Exception exception, String caName) {
+        LOG.error("IOException error {}, while trying to connect CA {}", exception.getMessage(), caName);
+        return new CmpClientException(
+                String.format("IOException error while trying to connect CA %s", caName), exception);
+    }
+
+    private static final class ResponseCallback implements FutureCallback<HttpResponse> {
+
+        private final CompletableFuture<PKIMessage> result;
+        private final String caName;
+        private final Span span;
+        private final CmpResponseReader responseReader;
+
+        private ResponseCallback(CompletableFuture<PKIMessage> result, String caName, Span span,
+                CmpResponseReader responseReader) {
+            this.result = result;
+            this.caName = caName;
+            this.span = span;
+            this.responseReader = responseReader;
+        }
+
+        @Override
+        public void completed(HttpResponse response) {
+            try {
+                final int statusCode = response.getStatusLine().getStatusCode();
+                CmpHttpTracing.setStatusCode(span, statusCode);
+                if (UNAVAILABLE_STATUS_CODES.contains(statusCode)) {
+                    EntityUtils.consume(response.getEntity());
+                    LOG.error("CA {} is unavailable, HTTP status {}", caName, statusCode);
+                    result.completeExceptionally(new CmpServerUnavailableException(
+                            String.format("CA %s is unavailable, HTTP status %d", caName, statusCode), statusCode));
+                    return;
+                }
+                result.complete(responseReader.read(response.getEntity(), caName));
+            } catch (IOException ioe) {
+                result.completeExceptionally(createConnectionException(ioe, caName));
+            } catch (CmpClientException cmpClientException) {
+                result.completeExceptionally(cmpClientException);
+            }
+        }
+
+        @Override
+        public void failed(Exception exception) {
+            if (exception instanceof ContentTooLongException) {
+                LOG.error("Response of CA {} rejected: {}", caName, exception.getMessage());
+                result.completeExceptionally(new CmpClientException(
+                        String.format("Response of CA %s rejected: %s", caName, exception.getMessage()), exception));
+                return;
+            }
+            result.completeExceptionally(createConnectionException(exception, caName));
+        }
+
+        @Override
+        public void cancelled() {
+            result.completeExceptionally(
+                    new CmpClientException(String.format("Request to CA %s has been cancelled", caName)));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AsyncCmpClient} collecting concurrent initialization requests addressed to the same CA and sending
+ * them as a single multi-CertReqMsg PKIMessage. A batch is sent when its window elapses or when it reaches
+ * the maximum size, whichever comes first. Only CAs with batching enabled in configuration are affected,
+ * all other requests are passed to the delegate unchanged. A batch carrying several requests is traced as
+ * a new trace linked to the traces of all requests in it.
+ */
+public class CoalescingCmpClient implements AsyncCmpClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingCmpClient.class);
+
+    private static final String BATCH_SIZE_METRIC = "certservice.cmp.batching.size";
+    private static final String WAIT_TIME_METRIC = "certservice.cmp.batching.wait";
+    private static final String CA_NAME_TAG = "caName";
+
+    private final AsyncCmpClient delegate;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+    private final IssuanceTracing issuanceTracing;
+    private final Map<String, PendingBatch> pendingBatches = new HashMap<>();
+    private final ConcurrentMap<String, BatchMeters> batchMeters = new ConcurrentHashMap<>();
+
+    public CoalescingCmpClient(AsyncCmpClient delegate, ScheduledExecutorService scheduler,
+        MeterRegistry meterRegistry, IssuanceTracing issuanceTracing) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.issuanceTracing = issuanceTracing;
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeInitializationRequestAsync(CsrModel csrModel,
+        Cmpv2Server server) {
+        if (!server.isBatchingEnabled()) {
+            return delegate.executeInitializationRequestAsync(csrModel, server);
+        }
+        final PendingRequest request = new PendingRequest(csrModel);
+        final List<PendingBatch> readyBatches = new ArrayList<>(2);
+        synchronized (pendingBatches) {
+            PendingBatch batch = pendingBatches.get(server.getCaName());
+            if (batch != null && batch.server != server) {
+                readyBatches.add(takeBatch(batch));
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new PendingBatch(server);
+                pendingBatches.put(server.getCaName(), batch);
+                final PendingBatch scheduledBatch = batch;
+                batch.flushTask = scheduler.schedule(
+                    () -> flush(scheduledBatch), server.getBatching().getWindowMs(), TimeUnit.MILLISECONDS);
+            }
+            batch.requests.add(request);
+            if (batch.requests.size() >= server.getBatching().getMaxSize()) {
+                readyBatches.add(takeBatch(batch));
+            }
+        }
+        readyBatches.forEach(this::send);
+        return request.result;
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeKeyUpdateRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel) {
+        return delegate.executeKeyUpdateRequestAsync(csrModel, cmpv2Server, oldCertificateModel);
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeCertificationRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server) {
+        return delegate.executeCertificationRequestAsync(csrModel, cmpv2Server);
+    }
+
+    @Override
+    public CompletableFuture<List<Cmpv2BatchCertificationResult>> executeInitializationBatchRequestAsync(
+        List<CsrModel> csrModels, Cmpv2Server server) {
+        return delegate.executeInitializationBatchRequestAsync(csrModels, server);
+    }
+
+    /**
+     * Sends all pending batches immediately and stops the scheduler.
+     */
+    public void shutdown() {
+        final List<PendingBatch> remainingBatches;
+        synchronized (pendingBatches) {
+            remainingBatches = new ArrayList<>(pendingBatches.values());
+            remainingBatches.forEach(this::takeBatch);
+        }
+        remainingBatches.forEach(this::send);
+        scheduler.shutdown();
+    }
+
+    private void flush(PendingBatch batch) {
+        synchronized (pendingBatches) {
+            if (!pendingBatches.remove(batch.server.getCaName(), batch)) {
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private PendingBatch takeBatch(PendingBatch batch) {
+        pendingBatches.remove(batch.server.getCaName(), batch);
+        batch.flushTask.cancel(false);
+        return batch;
+    }
+
+    private void send(PendingBatch batch) {
+        final String caName = batch.server.getCaName();
+        final long sendTime = System.nanoTime();
+        final BatchMeters meters = batchMeters.computeIfAbsent(caName, this::createMeters);
+        batch.requests.forEach(
+            request -> meters.waitTimer.record(sendTime - request.enqueueTime, TimeUnit.NANOSECONDS));
+        meters.sizeSummary.record(batch.requests.size());
+
+        if (batch.requests.size() == 1) {
+            final PendingRequest request = batch.requests.get(0);
+            try (Scope ignored = request.context.makeCurrent()) {
+                delegate.executeInitializationRequestAsync(request.csrModel, batch.server)
+                    .whenComplete((model, error) -> complete(request, model, error));
+            }
+            return;
+        }
+        LOG.debug("Sending {} coalesced initialization requests to CA named: {}", batch.requests.size(), caName);
+        final List<CsrModel> csrModels = batch.requests.stream()
+            .map(request -> request.csrModel)
+            .collect(Collectors.toList());
+        final Span batchSpan = issuanceTracing.startLinkedSpan("CMPv2 batch", caName, batch.requests.stream()
+            .map(request -> Span.fromContext(request.context).getSpanContext())
+            .collect(Collectors.toList()));
+        final CompletableFuture<List<Cmpv2BatchCertificationResult>> batchResult;
+        try (Scope ignored = batchSpan.makeCurrent()) {
+            batchResult = delegate.executeInitializationBatchRequestAsync(csrModels, batch.server);
+        }
+        batchResult
+            .whenComplete((results, error) -> IssuanceTracing.end(batchSpan, error))
+            .whenComplete((results, error) -> {
+                for (int i = 0; i < batch.requests.size(); i++) {
+                    final PendingRequest request = batch.requests.get(i);
+                    if (error != null) {
+                        complete(request, null, error);
+                    } else {
+                        final Cmpv2BatchCertificationResult result = results.get(i);
+                        complete(request, result.getCertificationModel().orElse(null),
+                            result.getFailureCause().orElse(null));
+                    }
+                }
+            });
+    }
+
+    private BatchMeters createMeters(String caName) {
+        final Timer waitTimer = Timer.builder(WAIT_TIME_METRIC)
+            .description("Time added to certificate requests by waiting for a CMPv2 batch to fill")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        final DistributionSummary sizeSummary = DistributionSummary.builder(BATCH_SIZE_METRIC)
+            .description("Number of certificate requests sent in a single CMPv2 message")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        return new BatchMeters(waitTimer, sizeSummary);
+    }
+
+    private static void complete(PendingRequest request, Cmpv2CertificationModel model, Throwable error) {
+        if (error == null) {
+            request.result.complete(model);
+        } else {
+            request.result.completeExceptionally(
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }
+    }
+
+    private static final class PendingBatch {
+
+        private final Cmpv2Server server;
+        private final List<PendingRequest> requests = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+
+        private PendingBatch(Cmpv2Server server) {
+            this.server = server;
+        }
+    }
+
+    private static final class BatchMeters {
+
+        private final Timer waitTimer;
+        private final DistributionSummary sizeSummary;
+
+        private BatchMeters(Timer waitTimer, DistributionSummary sizeSummary) {
+            this.waitTimer = waitTimer;
+            this.sizeSummary = sizeSummary;
+        }
+    }
+
+    private static final class PendingRequest {
+
+        private final CsrModel csrModel;
+        private final long enqueueTime = System.nanoTime();
+        private final Context context = Context.current();
+        private final CompletableFuture<Cmpv2CertificationModel> result = new CompletableFuture<>();
+
+        private PendingRequest(CsrModel csrModel) {
+            this.csrModel = csrModel;
+        }
+    }
+}
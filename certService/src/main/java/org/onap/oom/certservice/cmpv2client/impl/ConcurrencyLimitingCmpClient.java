@@ -0,0 +1,150 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+
+/**
+ * {@link AsyncCmpClient} limiting number of concurrent CMPv2 exchanges with each CA, see
+ * {@link AdaptiveConcurrencyLimiter}. Requests which are not admitted fail with
+ * {@link org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException} without being sent.
+ */
+public class ConcurrencyLimitingCmpClient implements AsyncCmpClient {
+
+    private static final String METRIC_PREFIX = "certservice.cmp.limit.";
+    private static final String CA_NAME_TAG = "caName";
+
+    private final AsyncCmpClient delegate;
+    private final ScheduledExecutorService scheduler;
+    private final AdaptiveConcurrencyLimiter.Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitingCmpClient(AsyncCmpClient delegate, ScheduledExecutorService scheduler,
+        AdaptiveConcurrencyLimiter.Settings settings, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeInitializationRequestAsync(CsrModel csrModel,
+        Cmpv2Server server) {
+        return executeLimited(server, () -> delegate.executeInitializationRequestAsync(csrModel, server));
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeKeyUpdateRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server, OldCertificateModel oldCertificateModel) {
+        return executeLimited(cmpv2Server,
+            () -> delegate.executeKeyUpdateRequestAsync(csrModel, cmpv2Server, oldCertificateModel));
+    }
+
+    @Override
+    public CompletableFuture<Cmpv2CertificationModel> executeCertificationRequestAsync(CsrModel csrModel,
+        Cmpv2Server cmpv2Server) {
+        return executeLimited(cmpv2Server, () -> delegate.executeCertificationRequestAsync(csrModel, cmpv2Server));
+    }
+
+    @Override
+    public CompletableFuture<List<Cmpv2BatchCertificationResult>> executeInitializationBatchRequestAsync(
+        List<CsrModel> csrModels, Cmpv2Server server) {
+        return executeLimited(server, () -> delegate.executeInitializationBatchRequestAsync(csrModels, server));
+    }
+
+    /**
+     * Stops the scheduler expiring queued requests.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter(String caName) {
+        return limiters.computeIfAbsent(caName, this::createLimiter);
+    }
+
+    private <T> CompletableFuture<T> executeLimited(Cmpv2Server server, Supplier<CompletableFuture<T>> request) {
+        // queued requests are sent from the thread releasing a permit, which runs in another request's context
+        final Context context = Context.current();
+        return getLimiter(server.getCaName()).acquire()
+            .thenCompose(permit -> {
+                final CompletableFuture<T> result;
+                try (Scope ignored = context.makeCurrent()) {
+                    result = request.get();
+                } catch (RuntimeException e) {
+                    permit.onIgnored();
+                    throw e;
+                }
+                return result.whenComplete((value, error) -> release(permit, error));
+            });
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, Throwable error) {
+        if (error == null) {
+            permit.onSuccess();
+        } else if (CmpFailureClassifier.isNotSent(error)) {
+            permit.onIgnored();
+        } else if (CmpFailureClassifier.isConnectionFailure(error)) {
+            permit.onDropped();
+        } else {
+            // CA responded, even if with an error, so response time is still a valid sample
+            permit.onSuccess();
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String caName) {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings, scheduler);
+        Gauge.builder(METRIC_PREFIX + "limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current limit of concurrent requests to CMPv2 server")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Requests sent to CMPv2 server and not completed yet")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+            .description("Requests waiting for the concurrency limit")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + "rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+            .description("Requests rejected because of the concurrency limit")
+            .tag(CA_NAME_TAG, caName)
+            .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -34,17 +34,25 @@ import org.bouncycastle.asn1.crmf.CertTemplateBuilder;
 import org.bouncycastle.asn1.crmf.ProofOfPossession;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.IssuanceStage;
+import org.onap.oom.certservice.certification.metrics.RequestType;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.impl.protections.PkiMessageProtection;
 
-import java.security.KeyPair;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.onap.oom.certservice.cmpv2client.impl.CmpUtil.createRandomInt;
 import static org.onap.oom.certservice.cmpv2client.impl.CmpUtil.generatePkiHeader;
+import static org.onap.oom.certservice.cmpv2client.impl.CmpUtil.generateProtectedBytes;
 
 /**
  * Implementation of the CmpClient Interface conforming to RFC4210 (Certificate Management Protocol
@@ -54,16 +62,16 @@ class CreateCertRequest {
 
     private PkiMessageProtection pkiMessageProtection;
     private X500Name issuerDn;
-    private X500Name subjectDn;
-    private GeneralName[] sansArray;
-    private KeyPair subjectKeyPair;
+    private List<CertRequestSubject> subjects = Collections.emptyList();
+    private List<Integer> certReqIds = Collections.emptyList();
     private Date notBefore;
     private Date notAfter;
     private String senderKid;
     private int cmpRequestType;
     private CMPCertificate[] extraCerts;
+    private String caName;
+    private IssuanceMetrics issuanceMetrics = IssuanceMetrics.NOOP;
 
-    private final int certReqId = createRandomInt(Integer.MAX_VALUE);
     private final AlgorithmIdentifier signingAlgorithm = new DefaultSignatureAlgorithmIdentifierFinder()
             .find("SHA256withRSA");
 
@@ -71,16 +79,13 @@ class CreateCertRequest {
         this.issuerDn = issuerDn;
     }
 
-    public void setSubjectDn(X500Name subjectDn) {
-        this.subjectDn = subjectDn;
-    }
-
-    public void setSansArray(GeneralName[] sansArray) {
-        this.sansArray = sansArray;
-    }
-
-    public void setSubjectKeyPair(KeyPair subjectKeyPair) {
-        this.subjectKeyPair = subjectKeyPair;
+    /**
+     * Sets subjects of the request. Each subject is sent as separate CertReqMsg with its own certReqId,
+     * all of them in a single PKIMessage. The first subject is used as sender of the message.
+     */
+    public void setSubjects(List<CertRequestSubject> subjects) {
+        this.subjects = List.copyOf(subjects);
+        this.certReqIds = generateUniqueCertReqIds(subjects.size());
     }
 
     public void setNotBefore(Date notBefore) {
@@ -107,6 +112,29 @@ class CreateCertRequest {
         this.extraCerts = extraCert;
     }
 
+    public void setCaName(String caName) {
+        this.caName = caName;
+    }
+
+    public void setIssuanceMetrics(IssuanceMetrics issuanceMetrics) {
+        this.issuanceMetrics = issuanceMetrics;
+    }
+
+    public String getCaName() {
+        return caName;
+    }
+
+    public RequestType getRequestType() {
+        return RequestType.fromPkiBodyType(cmpRequestType);
+    }
+
+    /**
+     * Returns certReqIds assigned to subjects, in the order in which subjects were set.
+     */
+    public List<Integer> getCertReqIds() {
+        return certReqIds;
+    }
+
     /**
      * Method to create {@link PKIMessage} from {@link CertRequest},{@link ProofOfPossession}, {@link
      * CertReqMsg}, {@link CertReqMessages}, {@link PKIHeader} and {@link PKIBody}.
@@ -114,34 +142,59 @@ class CreateCertRequest {
      * @return {@link PKIMessage}
      */
     public PKIMessage generateCertReq() throws CmpClientException {
+        final CertReqMsg[] certReqMsgs = new CertReqMsg[subjects.size()];
+        for (int i = 0; i < subjects.size(); i++) {
+            certReqMsgs[i] = generateCertReqMsg(subjects.get(i), certReqIds.get(i));
+        }
+        final CertReqMessages certReqMessages = new CertReqMessages(certReqMsgs);
+
+        final PKIHeader pkiHeader =
+                generatePkiHeader(
+                        subjects.get(0).getSubjectDn(),
+                        issuerDn,
+                        pkiMessageProtection.getAlgorithmIdentifier(),
+                        senderKid);
+        final PKIBody pkiBody = new PKIBody(cmpRequestType, certReqMessages);
+
+        final byte[] protectedBytes = generateProtectedBytes(pkiHeader, pkiBody);
+        final DERBitString messageProtection = issuanceMetrics.timeStage(IssuanceStage.PROTECT, caName,
+                getRequestType(), () -> pkiMessageProtection.generatePkiMessageProtection(protectedBytes));
+        try {
+            return new ProtectedPkiMessage(pkiHeader, pkiBody, messageProtection, extraCerts, protectedBytes);
+        } catch (IOException ioe) {
+            throw new CmpClientException("IOException occurred while encoding PKIMessage", ioe);
+        }
+    }
+
+    private CertReqMsg generateCertReqMsg(CertRequestSubject subject, int certReqId) throws CmpClientException {
         final CertTemplateBuilder certTemplateBuilder =
                 new CertTemplateBuilder()
                         .setIssuer(issuerDn)
-                        .setSubject(subjectDn)
-                        .setExtensions(CmpMessageHelper.generateExtension(sansArray))
+                        .setSubject(subject.getSubjectDn())
+                        .setExtensions(CmpMessageHelper.generateExtension(subject.getSansArray()))
                         .setValidity(CmpMessageHelper.generateOptionalValidity(notBefore, notAfter))
                         .setVersion(2)
                         .setSerialNumber(new ASN1Integer(0L))
                         .setSigningAlg(signingAlgorithm)
                         .setPublicKey(
-                                SubjectPublicKeyInfo.getInstance(subjectKeyPair.getPublic().getEncoded()));
+                                SubjectPublicKeyInfo.getInstance(subject.getKeyPair().getPublic().getEncoded()));
 
         final CertRequest certRequest = new CertRequest(certReqId, certTemplateBuilder.build(), null);
         final ProofOfPossession proofOfPossession =
-                CmpMessageHelper.generateProofOfPossession(certRequest, subjectKeyPair);
-
-        final CertReqMsg certReqMsg = new CertReqMsg(certRequest, proofOfPossession, null);
-        final CertReqMessages certReqMessages = new CertReqMessages(certReqMsg);
+                CmpMessageHelper.generateProofOfPossession(certRequest, subject.getKeyPair());
 
-        final PKIHeader pkiHeader =
-                generatePkiHeader(
-                        subjectDn,
-                        issuerDn,
-                        pkiMessageProtection.getAlgorithmIdentifier(),
-                        senderKid);
-        final PKIBody pkiBody = new PKIBody(cmpRequestType, certReqMessages);
+        return new CertReqMsg(certRequest, proofOfPossession, null);
+    }
 
-        final DERBitString messageProtection = this.pkiMessageProtection.generatePkiMessageProtection(pkiHeader, pkiBody);
-        return new PKIMessage(pkiHeader, pkiBody, messageProtection, extraCerts);
+    private static List<Integer> generateUniqueCertReqIds(int count) {
+        final Set<Integer> certReqIds = new HashSet<>();
+        final List<Integer> orderedCertReqIds = new ArrayList<>(count);
+        while (orderedCertReqIds.size() < count) {
+            final int certReqId = createRandomInt(Integer.MAX_VALUE - CmpUtil.RANDOM_SEED);
+            if (certReqIds.add(certReqId)) {
+                orderedCertReqIds.add(certReqId);
+            }
+        }
+        return Collections.unmodifiableList(orderedCertReqIds);
     }
 }
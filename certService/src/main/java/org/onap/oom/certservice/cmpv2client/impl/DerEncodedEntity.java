@@ -0,0 +1,141 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Object;
+
+/**
+ * HTTP entity carrying DER encoding of an ASN.1 object, e.g. a PKIMessage, without encoding it into a byte array
+ * up front. The asynchronous client, which cannot block on the socket, gets it encoded once into a buffer of the
+ * exact size when the request is sent. Length of the encoding is counted beforehand, so the request still has
+ * Content-Length header.
+ *
+ * <p>Objects may provide their own DER encoding by overriding {@link ASN1Object#encodeTo(OutputStream, String)},
+ * as {@link ProtectedPkiMessage} does to reuse encoding of its protected part.
+ */
+final class DerEncodedEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    static final String CMP_MIMETYPE = "application/pkixcmp";
+
+    private final ASN1Object asn1Object;
+    private final long contentLength;
+    private ByteBuffer buffer;
+
+    DerEncodedEntity(ASN1Object asn1Object) throws IOException {
+        this.asn1Object = asn1Object;
+        final CountingOutputStream countingStream = new CountingOutputStream();
+        asn1Object.encodeTo(countingStream, ASN1Encoding.DER);
+        this.contentLength = countingStream.count;
+        setContentType(CMP_MIMETYPE);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.toIntExact(contentLength));
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        asn1Object.encodeTo(outputStream, ASN1Encoding.DER);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public synchronized void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(Math.toIntExact(contentLength));
+            asn1Object.encodeTo(new ByteBufferOutputStream(buffer), ASN1Encoding.DER);
+            buffer.flip();
+        }
+        encoder.write(buffer);
+        if (!buffer.hasRemaining()) {
+            encoder.complete();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.rewind();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.put(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+
+/**
+ * PKIMessage keeping DER encoding of its protected part, i.e. of the sequence of header and body the protection
+ * was computed over. DER encoding of the whole message is spliced from it: header and body are copied from the
+ * protected part, so only protection and extra certificates are encoded again.
+ */
+final class ProtectedPkiMessage extends PKIMessage {
+
+    private static final int SEQUENCE_TAG = 0x30;
+    private static final int LONG_LENGTH_FORM = 0x80;
+    private static final int PROTECTION_TAG_NO = 0;
+    private static final int EXTRA_CERTS_TAG_NO = 1;
+
+    private final byte[] protectedPart;
+    private final int protectedPartContentOffset;
+    private final byte[] trailer;
+    private final int contentLength;
+
+    /**
+     * Creates message of given protected part.
+     *
+     * @param protectedPart DER encoding of header and body, see {@link CmpUtil#generateProtectedBytes}
+     * @throws IOException when protection or extra certificates cannot be encoded
+     */
+    ProtectedPkiMessage(PKIHeader header, PKIBody body, DERBitString protection, CMPCertificate[] extraCerts,
+        byte[] protectedPart) throws IOException {
+        super(header, body, protection, extraCerts);
+        this.protectedPart = protectedPart;
+        this.protectedPartContentOffset = getContentOffset(protectedPart);
+        this.trailer = encodeTrailer(protection, extraCerts);
+        this.contentLength = protectedPart.length - protectedPartContentOffset + trailer.length;
+    }
+
+    /**
+     * Returns length of DER encoding of the message.
+     */
+    int getEncodedLength() {
+        return 1 + getLengthOfLength(contentLength) + contentLength;
+    }
+
+    @Override
+    public void encodeTo(OutputStream output, String encoding) throws IOException {
+        if (!ASN1Encoding.DER.equals(encoding)) {
+            super.encodeTo(output, encoding);
+            return;
+        }
+        output.write(SEQUENCE_TAG);
+        writeLength(output, contentLength);
+        output.write(protectedPart, protectedPartContentOffset, protectedPart.length - protectedPartContentOffset);
+        output.write(trailer);
+    }
+
+    @Override
+    public byte[] getEncoded(String encoding) throws IOException {
+        if (!ASN1Encoding.DER.equals(encoding)) {
+            return super.getEncoded(encoding);
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(getEncodedLength());
+        encodeTo(output, encoding);
+        return output.toByteArray();
+    }
+
+    private static byte[] encodeTrailer(DERBitString protection, CMPCertificate[] extraCerts) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (protection != null) {
+            new DERTaggedObject(true, PROTECTION_TAG_NO, protection).encodeTo(output, ASN1Encoding.DER);
+        }
+        if (extraCerts != null) {
+            new DERTaggedObject(true, EXTRA_CERTS_TAG_NO, new DERSequence(extraCerts))
+                .encodeTo(output, ASN1Encoding.DER);
+        }
+        return output.toByteArray();
+    }
+
+    private static int getContentOffset(byte[] encodedSequence) {
+        if (encodedSequence.length < 2 || encodedSequence[0] != SEQUENCE_TAG) {
+            throw new IllegalArgumentException("Protected part is not DER encoded sequence");
+        }
+        final int length = encodedSequence[1] & 0xff;
+        return length < LONG_LENGTH_FORM ? 2 : 2 + (length & ~LONG_LENGTH_FORM);
+    }
+
+    private static int getLengthOfLength(int length) {
+        if (length < LONG_LENGTH_FORM) {
+            return 1;
+        }
+        int size = 1;
+        for (int value = length >>> Byte.SIZE; value != 0; value >>>= Byte.SIZE) {
+            size++;
+        }
+        return 1 + size;
+    }
+
+    private static void writeLength(OutputStream output, int length) throws IOException {
+        final int lengthOfLength = getLengthOfLength(length);
+        if (lengthOfLength == 1) {
+            output.write(length);
+            return;
+        }
+        output.write(LONG_LENGTH_FORM | (lengthOfLength - 1));
+        for (int shift = (lengthOfLength - 2) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            output.write(length >>> shift);
+        }
+    }
+}
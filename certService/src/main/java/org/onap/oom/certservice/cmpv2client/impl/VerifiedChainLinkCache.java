@@ -0,0 +1,177 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers links of certificate chains which were already verified, i.e. that a certificate was signed by
+ * its issuer. CA certificates sent by a CMPv2 server are the same in every response, so only the link of the
+ * freshly issued certificate needs a full verification. Links are identified by SHA-256 fingerprints of both
+ * certificates and are only valid while both certificates are, so an expired link is verified again (and
+ * fails). The number of links is bounded, least recently used links are evicted first.
+ */
+public final class VerifiedChainLinkCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private final Map<LinkKey, Validity> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public VerifiedChainLinkCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LinkKey, Validity> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Checks whether certificate was already verified as issued by given issuer and both are valid at given date.
+     *
+     * @param date date to check validity at, or null to use current time
+     */
+    public boolean isVerified(X509Certificate certificate, X509Certificate issuer, Date date) {
+        final LinkKey key = LinkKey.of(certificate, issuer);
+        final Validity validity;
+        if (key != null) {
+            synchronized (entries) {
+                validity = entries.get(key);
+            }
+        } else {
+            validity = null;
+        }
+        if (validity != null && validity.includes(date != null ? date : new Date())) {
+            hitCount.incrementAndGet();
+            return true;
+        }
+        missCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Remembers that certificate was verified as issued by given issuer.
+     */
+    public void markVerified(X509Certificate certificate, X509Certificate issuer) {
+        final LinkKey key = LinkKey.of(certificate, issuer);
+        if (key == null) {
+            return;
+        }
+        final Validity validity = new Validity(
+            latest(certificate.getNotBefore(), issuer.getNotBefore()),
+            earliest(certificate.getNotAfter(), issuer.getNotAfter()));
+        synchronized (entries) {
+            entries.put(key, validity);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Date latest(Date first, Date second) {
+        return first.after(second) ? first : second;
+    }
+
+    private static Date earliest(Date first, Date second) {
+        return first.before(second) ? first : second;
+    }
+
+    private static final class Validity {
+
+        private final long notBefore;
+        private final long notAfter;
+
+        private Validity(Date notBefore, Date notAfter) {
+            this.notBefore = notBefore.getTime();
+            this.notAfter = notAfter.getTime();
+        }
+
+        private boolean includes(Date date) {
+            final long time = date.getTime();
+            return time >= notBefore && time <= notAfter;
+        }
+    }
+
+    private static final class LinkKey {
+
+        private final byte[] certificateFingerprint;
+        private final byte[] issuerFingerprint;
+
+        private LinkKey(byte[] certificateFingerprint, byte[] issuerFingerprint) {
+            this.certificateFingerprint = certificateFingerprint;
+            this.issuerFingerprint = issuerFingerprint;
+        }
+
+        /**
+         * Returns key of the link, or null when fingerprint of a certificate cannot be computed, in which case
+         * the link is neither looked up nor remembered.
+         */
+        private static LinkKey of(X509Certificate certificate, X509Certificate issuer) {
+            try {
+                final MessageDigest digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+                final byte[] certificateFingerprint = digest.digest(certificate.getEncoded());
+                return new LinkKey(certificateFingerprint, digest.digest(issuer.getEncoded()));
+            } catch (GeneralSecurityException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            LinkKey that = (LinkKey) obj;
+            return Arrays.equals(certificateFingerprint, that.certificateFingerprint)
+                && Arrays.equals(issuerFingerprint, that.issuerFingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(certificateFingerprint) + Arrays.hashCode(issuerFingerprint);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl.protections;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+/**
+ * Computes password-based MACs (RFC4211 section 4.4) reusing derived base keys. Deriving the base key
+ * runs the one-way function over the password and salt for every iteration, while these parameters
+ * rarely change, so keys are kept in a bounded LRU cache together with initialised {@link Mac} instances.
+ * Cache keys hold SHA-256 fingerprint of the password instead of the password itself.
+ */
+public final class PasswordBasedMacCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private final Map<CacheKey, MacPool> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public PasswordBasedMacCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, MacPool> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Computes MAC of given bytes with key derived from password, salt and iteration count of one-way function.
+     *
+     * @param password       initial authentication key
+     * @param salt           salt appended to the password before hashing
+     * @param iterationCount number of one-way function iterations
+     * @param owfOid         OID of one-way function
+     * @param macOid         OID of MAC algorithm
+     * @param bytes          bytes to protect
+     * @return MAC of given bytes
+     */
+    public byte[] computeMac(String password, byte[] salt, int iterationCount, String owfOid, String macOid,
+        byte[] bytes) throws GeneralSecurityException {
+        final byte[] raSecret = password != null ? password.getBytes() : new byte[0];
+        final MacPool macPool = getMacPool(new CacheKey(raSecret, salt, iterationCount, owfOid, macOid), raSecret);
+        final Mac mac = macPool.acquire();
+        try {
+            mac.update(bytes, 0, bytes.length);
+            return mac.doFinal();
+        } finally {
+            macPool.release(mac);
+        }
+    }
+
+    /**
+     * Checks in constant time whether given MAC matches MAC computed for given bytes.
+     *
+     * @return true if MACs are equal
+     * @see #computeMac(String, byte[], int, String, String, byte[])
+     */
+    public boolean verifyMac(String password, byte[] salt, int iterationCount, String owfOid, String macOid,
+        byte[] bytes, byte[] expectedMac) throws GeneralSecurityException {
+        return MessageDigest.isEqual(computeMac(password, salt, iterationCount, owfOid, macOid, bytes), expectedMac);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private MacPool getMacPool(CacheKey key, byte[] raSecret) throws GeneralSecurityException {
+        synchronized (entries) {
+            final MacPool macPool = entries.get(key);
+            if (macPool != null) {
+                hitCount.incrementAndGet();
+                return macPool;
+            }
+        }
+        missCount.incrementAndGet();
+        final MacPool macPool = new MacPool(
+            new SecretKeySpec(deriveBaseKey(raSecret, key), key.macOid), key.macOid);
+        synchronized (entries) {
+            return entries.computeIfAbsent(key, ignored -> macPool);
+        }
+    }
+
+    private static byte[] deriveBaseKey(byte[] raSecret, CacheKey key) throws GeneralSecurityException {
+        byte[] baseKey = new byte[raSecret.length + key.salt.length];
+        System.arraycopy(raSecret, 0, baseKey, 0, raSecret.length);
+        System.arraycopy(key.salt, 0, baseKey, raSecret.length, key.salt.length);
+        final MessageDigest digest = MessageDigest.getInstance(key.owfOid, BouncyCastleProvider.PROVIDER_NAME);
+        for (int i = 0; i < key.iterationCount; i++) {
+            baseKey = digest.digest(baseKey);
+            digest.reset();
+        }
+        return baseKey;
+    }
+
+    private static final class MacPool {
+
+        private final SecretKey secretKey;
+        private final String macOid;
+        private final Queue<Mac> idleMacs = new ConcurrentLinkedQueue<>();
+
+        private MacPool(SecretKey secretKey, String macOid) {
+            this.secretKey = secretKey;
+            this.macOid = macOid;
+        }
+
+        private Mac acquire() throws GeneralSecurityException {
+            final Mac idleMac = idleMacs.poll();
+            if (idleMac != null) {
+                return idleMac;
+            }
+            final Mac mac = Mac.getInstance(macOid, BouncyCastleProvider.PROVIDER_NAME);
+            mac.init(secretKey);
+            return mac;
+        }
+
+        private void release(Mac mac) {
+            mac.reset();
+            idleMacs.offer(mac);
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final byte[] passwordFingerprint;
+        private final byte[] salt;
+        private final int iterationCount;
+        private final String owfOid;
+        private final String macOid;
+
+        private CacheKey(byte[] raSecret, byte[] salt, int iterationCount, String owfOid, String macOid)
+            throws GeneralSecurityException {
+            this.passwordFingerprint = MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(raSecret);
+            this.salt = salt.clone();
+            this.iterationCount = iterationCount;
+            this.owfOid = owfOid;
+            this.macOid = macOid;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) obj;
+            return iterationCount == that.iterationCount
+                && Arrays.equals(passwordFingerprint, that.passwordFingerprint)
+                && Arrays.equals(salt, that.salt)
+                && Objects.equals(owfOid, that.owfOid)
+                && Objects.equals(macOid, that.macOid);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(passwordFingerprint), Arrays.hashCode(salt), iterationCount, owfOid,
+                macOid);
+        }
+    }
+}
@@ -25,15 +25,8 @@ import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.cmp.PBMParameter;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
-import javax.crypto.Mac;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 import java.security.GeneralSecurityException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
 
 import static org.onap.oom.certservice.cmpv2client.impl.CmpUtil.createRandomBytes;
 import static org.onap.oom.certservice.cmpv2client.impl.CmpUtil.createRandomInt;
@@ -51,50 +44,36 @@ public class PasswordBasedProtection extends PkiMessageProtection {
             new AlgorithmIdentifier(new ASN1ObjectIdentifier("1.3.6.1.5.5.8.1.2"));
     private static final ASN1ObjectIdentifier PASSWORD_BASED_MAC =
             new ASN1ObjectIdentifier("1.2.840.113533.7.66.13");
+    private static final AlgorithmIdentifier PROTECTION_ALGORITHM = createProtectionAlgorithm();
 
     private final String initAuthPassword;
+    private final PasswordBasedMacCache macCache;
 
-    public PasswordBasedProtection(String initAuthPassword) {
+    /**
+     * @param macCache cache of base keys derived from passwords, shared by protections of all requests
+     */
+    public PasswordBasedProtection(String initAuthPassword, PasswordBasedMacCache macCache) {
         this.initAuthPassword = initAuthPassword;
+        this.macCache = macCache;
     }
 
     @Override
     public AlgorithmIdentifier getAlgorithmIdentifier() {
-        ASN1Integer iteration = new ASN1Integer(ITERATIONS);
-        DEROctetString derSalt = new DEROctetString(SALT);
-
-        PBMParameter pp = new PBMParameter(derSalt, OWF_ALGORITHM, iteration, MAC_ALGORITHM);
-        return new AlgorithmIdentifier(PASSWORD_BASED_MAC, pp);
+        return PROTECTION_ALGORITHM;
     }
 
     @Override
     byte[] generateProtectionBytes(byte[] protectedBytes) throws GeneralSecurityException {
-        byte[] baseKey = generateBaseKey();
-        return generateMacBytes(baseKey, protectedBytes);
+        return macCache.computeMac(initAuthPassword, SALT, ITERATIONS, OWF_ALGORITHM.getAlgorithm().getId(),
+                MAC_ALGORITHM.getAlgorithm().getId(), protectedBytes);
     }
 
-    private byte[] generateBaseKey() throws NoSuchAlgorithmException, NoSuchProviderException {
-        byte[] raSecret = initAuthPassword.getBytes();
-        byte[] baseKey = new byte[raSecret.length + SALT.length];
-        System.arraycopy(raSecret, 0, baseKey, 0, raSecret.length);
-        System.arraycopy(SALT, 0, baseKey, raSecret.length, SALT.length);
-        MessageDigest dig =
-                MessageDigest.getInstance(
-                        OWF_ALGORITHM.getAlgorithm().getId(), BouncyCastleProvider.PROVIDER_NAME);
-        for (int i = 0; i < ITERATIONS; i++) {
-            baseKey = dig.digest(baseKey);
-            dig.reset();
-        }
-        return baseKey;
-    }
+    private static AlgorithmIdentifier createProtectionAlgorithm() {
+        ASN1Integer iteration = new ASN1Integer(ITERATIONS);
+        DEROctetString derSalt = new DEROctetString(SALT);
 
-    private byte[] generateMacBytes(byte[] baseKey, byte[] protectedBytes) throws GeneralSecurityException {
-        Mac mac = Mac.getInstance(MAC_ALGORITHM.getAlgorithm().getId(), BouncyCastleProvider.PROVIDER_NAME);
-        SecretKey key = new SecretKeySpec(baseKey, MAC_ALGORITHM.getAlgorithm().getId());
-        mac.init(key);
-        mac.reset();
-        mac.update(protectedBytes, 0, protectedBytes.length);
-        return mac.doFinal();
+        PBMParameter pp = new PBMParameter(derSalt, OWF_ALGORITHM, iteration, MAC_ALGORITHM);
+        return new AlgorithmIdentifier(PASSWORD_BASED_MAC, pp);
     }
 
 }
@@ -46,8 +46,17 @@ public abstract class PkiMessageProtection {
      * @return bytes representing protection wrapped into DERBitString object.
      */
     public DERBitString generatePkiMessageProtection(PKIHeader pkiHeader, PKIBody pkiBody) throws CmpClientException {
+        return generatePkiMessageProtection(generateProtectedBytes(pkiHeader, pkiBody));
+    }
+
+    /**
+     * Takes already encoded PKIHeader and PKIBody, see {@link
+     * org.onap.oom.certservice.cmpv2client.impl.CmpUtil#generateProtectedBytes}, and generates protection bytes.
+     *
+     * @return bytes representing protection wrapped into DERBitString object.
+     */
+    public DERBitString generatePkiMessageProtection(byte[] protectedBytes) throws CmpClientException {
         try {
-            byte[] protectedBytes = generateProtectedBytes(pkiHeader, pkiBody);
             byte[] protectionBytes = generateProtectionBytes(protectedBytes);
             return new DERBitString(protectionBytes);
         } catch (GeneralSecurityException ex) {
@@ -23,12 +23,12 @@ package org.onap.oom.certservice.cmpv2client.impl.protections;
 
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
 
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
 import java.security.Signature;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 
 /**
  * Implementation of signature PKIMessage protection
@@ -51,10 +51,7 @@ public class SignatureProtection extends PkiMessageProtection {
 
     @Override
     byte[] generateProtectionBytes(byte[] protectedBytes) throws GeneralSecurityException {
-        Signature signature =
-                Signature.getInstance(
-                        PKCSObjectIdentifiers.sha256WithRSAEncryption.getId(),
-                        BouncyCastleProvider.PROVIDER_NAME);
+        Signature signature = JcaEngines.getSignature(PKCSObjectIdentifiers.sha256WithRSAEncryption.getId());
         signature.initSign(oldPrivateKey);
         signature.update(protectedBytes, 0, protectedBytes.length);
         return signature.sign();
@@ -0,0 +1,58 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.model;
+
+import java.util.Optional;
+
+/**
+ * Outcome of a single certificate request sent as a part of a batch: either certification model or
+ * the reason why CMPv2 server did not issue the certificate.
+ */
+public final class Cmpv2BatchCertificationResult {
+
+    private final Cmpv2CertificationModel certificationModel;
+    private final Exception failureCause;
+
+    private Cmpv2BatchCertificationResult(Cmpv2CertificationModel certificationModel, Exception failureCause) {
+        this.certificationModel = certificationModel;
+        this.failureCause = failureCause;
+    }
+
+    public static Cmpv2BatchCertificationResult success(Cmpv2CertificationModel certificationModel) {
+        return new Cmpv2BatchCertificationResult(certificationModel, null);
+    }
+
+    public static Cmpv2BatchCertificationResult failure(Exception failureCause) {
+        return new Cmpv2BatchCertificationResult(null, failureCause);
+    }
+
+    public boolean isSuccessful() {
+        return certificationModel != null;
+    }
+
+    public Optional<Cmpv2CertificationModel> getCertificationModel() {
+        return Optional.ofNullable(certificationModel);
+    }
+
+    public Optional<Exception> getFailureCause() {
+        return Optional.ofNullable(failureCause);
+    }
+}
@@ -22,7 +22,6 @@
 package org.onap.oom.certservice.cmpv2client.validation;
 
 
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.cmp.CertResponse;
 import org.bouncycastle.asn1.cmp.PKIHeader;
@@ -34,6 +33,7 @@ import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
 import org.onap.oom.certservice.cmpv2client.impl.CmpUtil;
 import org.onap.oom.certservice.cmpv2client.impl.PkiStatus;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,18 +43,28 @@ import java.util.Objects;
 import java.util.Optional;
 
 import static org.onap.oom.certservice.cmpv2client.validation.CmpResponseValidationHelper.checkImplicitConfirm;
+import static org.onap.oom.certservice.cmpv2client.validation.CmpResponseValidationHelper.getProtectedBytes;
 import static org.onap.oom.certservice.cmpv2client.validation.CmpResponseValidationHelper.verifyPasswordBasedProtection;
 import static org.onap.oom.certservice.cmpv2client.validation.CmpResponseValidationHelper.verifySignature;
+import static org.onap.oom.certservice.cmpv2client.validation.CmpResponseValidationHelper.verifySignerSignature;
 
 public class CmpCertificationValidator {
     private static final String DEFAULT_CA_NAME = "Certification Authority";
     private static final ASN1ObjectIdentifier PASSWORD_BASED_MAC = new ASN1ObjectIdentifier("1.2.840.113533.7.66.13");
     private static final Logger LOG = LoggerFactory.getLogger(CmpCertificationValidator.class);
 
+    private final PasswordBasedMacCache macCache;
+
+    /**
+     * @param macCache cache of base keys derived while verifying password based protection of responses
+     */
+    public CmpCertificationValidator(PasswordBasedMacCache macCache) {
+        this.macCache = macCache;
+    }
+
     public void validate(
         final CsrModel csrModel,
         final Cmpv2Server server,
-        final CloseableHttpClient httpClient,
         final Date notBefore,
         final Date notAfter) {
 
@@ -62,29 +72,60 @@ public class CmpCertificationValidator {
         LOG.info(
             "Validate before creating Certificate Request for CA: {}", caName);
 
+        validateCsrModel(csrModel);
+        validateServer(server);
+
+        if (notBefore != null && notAfter != null && notBefore.compareTo(notAfter) > 0) {
+            throw new IllegalArgumentException("Before Date is set after the After Date");
+        }
+        LOG.info("Validation completed successfully.");
+    }
+
+    /**
+     * Validates single CSR, so that each CSR of a batch request can be rejected on its own.
+     */
+    public void validateCsrModel(final CsrModel csrModel) {
         CmpUtil.notNull(csrModel, "CsrModel Instance");
         CmpUtil.notNull(csrModel.getSubjectData(), "Subject DN");
         CmpUtil.notNull(csrModel.getPrivateKey(), "Subject private key");
         CmpUtil.notNull(csrModel.getPublicKey(), "Subject public key");
+    }
+
+    public void validateServer(final Cmpv2Server server) {
         CmpUtil.notNull(server.getIssuerDN(), "Issuer DN");
         CmpUtil.notNull(server.getUrl(), "External CA URL");
         CmpUtil.notNull(server.getAuthentication().getIak(), "IAK/RV Password");
-        CmpUtil.notNull(httpClient, "Closeable Http Client");
+    }
 
-        if (notBefore != null && notAfter != null && notBefore.compareTo(notAfter) > 0) {
-            throw new IllegalArgumentException("Before Date is set after the After Date");
+    public void checkCmpResponse(final PKIMessage respPkiMessage, final PublicKey publicKey, final String initAuthPassword)
+        throws CmpClientException {
+        final PKIHeader header = respPkiMessage.getHeader();
+        final AlgorithmIdentifier protectionAlgo = header.getProtectionAlg();
+        final byte[] protectedBytes = getProtectedBytes(respPkiMessage);
+        verifySignatureWithPublicKey(respPkiMessage, protectedBytes, publicKey);
+        if (isPasswordBasedMacAlgorithm(protectionAlgo)) {
+            LOG.info("CMP response is protected by Password Base Mac Algorithm. Attempt to verify protection");
+            verifyPasswordBasedMacProtection(respPkiMessage, protectedBytes, initAuthPassword, header,
+                protectionAlgo);
         }
-        LOG.info("Validation completed successfully.");
     }
 
-    public void checkCmpResponse(final PKIMessage respPkiMessage, final PublicKey publicKey, final String initAuthPassword)
+    /**
+     * Checks protection of response to a batch request, which is not bound to key of any of its CSRs: password
+     * based MAC is verified with the IAK and signature with key of the signer certificate sent in extraCerts.
+     */
+    public void checkCmpBatchResponse(final PKIMessage respPkiMessage, final String initAuthPassword)
         throws CmpClientException {
         final PKIHeader header = respPkiMessage.getHeader();
         final AlgorithmIdentifier protectionAlgo = header.getProtectionAlg();
-        verifySignatureWithPublicKey(respPkiMessage, publicKey);
+        final byte[] protectedBytes = getProtectedBytes(respPkiMessage);
         if (isPasswordBasedMacAlgorithm(protectionAlgo)) {
             LOG.info("CMP response is protected by Password Base Mac Algorithm. Attempt to verify protection");
-            verifyPasswordBasedMacProtection(respPkiMessage, initAuthPassword, header, protectionAlgo);
+            verifyPasswordBasedMacProtection(respPkiMessage, protectedBytes, initAuthPassword, header,
+                protectionAlgo);
+        } else {
+            LOG.debug("Verifying signature of the response with key of its signer.");
+            verifySignerSignature(respPkiMessage, protectedBytes);
         }
     }
 
@@ -106,11 +147,11 @@ public class CmpCertificationValidator {
         return PASSWORD_BASED_MAC.equals(protectionAlgo.getAlgorithm());
     }
 
-    private void verifySignatureWithPublicKey(PKIMessage respPkiMessage, PublicKey publicKey)
-        throws CmpClientException {
+    private void verifySignatureWithPublicKey(PKIMessage respPkiMessage, byte[] protectedBytes,
+        PublicKey publicKey) throws CmpClientException {
         if (Objects.nonNull(publicKey)) {
             LOG.debug("Verifying signature of the response.");
-            verifySignature(respPkiMessage, publicKey);
+            verifySignature(respPkiMessage, protectedBytes, publicKey);
         } else {
             LOG.error("Public Key is not available, therefore cannot verify signature");
             throw new CmpClientException(
@@ -118,11 +159,11 @@ public class CmpCertificationValidator {
         }
     }
 
-    private void verifyPasswordBasedMacProtection(PKIMessage respPkiMessage, String initAuthPassword,
-        PKIHeader header, AlgorithmIdentifier protectionAlgo)
+    private void verifyPasswordBasedMacProtection(PKIMessage respPkiMessage, byte[] protectedBytes,
+        String initAuthPassword, PKIHeader header, AlgorithmIdentifier protectionAlgo)
         throws CmpClientException {
         LOG.debug("Verifying PasswordBased Protection of the Response.");
-        verifyPasswordBasedProtection(respPkiMessage, initAuthPassword, protectionAlgo);
+        verifyPasswordBasedProtection(respPkiMessage, protectedBytes, initAuthPassword, protectionAlgo, macCache);
         checkImplicitConfirm(header);
     }
 
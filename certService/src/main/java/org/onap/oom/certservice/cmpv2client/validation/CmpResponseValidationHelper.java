@@ -21,22 +21,20 @@
 
 package org.onap.oom.certservice.cmpv2client.validation;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.util.Arrays;
 import java.util.Objects;
-import javax.crypto.Mac;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.DERBitString;
 import org.bouncycastle.asn1.ASN1BitString;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
 import org.bouncycastle.asn1.cmp.CMPObjectIdentifiers;
 import org.bouncycastle.asn1.cmp.InfoTypeAndValue;
 import org.bouncycastle.asn1.cmp.PBMParameter;
@@ -45,8 +43,10 @@ import org.bouncycastle.asn1.cmp.PKIMessage;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onap.oom.certservice.certification.crypto.JcaEngines;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.impl.CmpUtil;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,18 +61,16 @@ public final class CmpResponseValidationHelper {
      * Verifies the signature of the response message using our public key
      *
      * @param respPkiMessage PKIMessage we wish to verify signature for
+     * @param protBytes      protected part of the PKIMessage, see {@link #getProtectedBytes(PKIMessage)}
      * @param pk             public key used to verify signature.
      * @throws CmpClientException
      */
-    static void verifySignature(PKIMessage respPkiMessage, PublicKey pk)
+    static void verifySignature(PKIMessage respPkiMessage, byte[] protBytes, PublicKey pk)
             throws CmpClientException {
-        final byte[] protBytes = getProtectedBytes(respPkiMessage);
         final DERBitString derBitString = (DERBitString) respPkiMessage.getProtection();
         try {
             final Signature signature =
-                    Signature.getInstance(
-                            PKCSObjectIdentifiers.sha256WithRSAEncryption.getId(),
-                            BouncyCastleProvider.PROVIDER_NAME);
+                    JcaEngines.getSignature(PKCSObjectIdentifiers.sha256WithRSAEncryption.getId());
             signature.initVerify(pk);
             signature.update(protBytes);
             signature.verify(derBitString.getBytes());
@@ -87,36 +85,74 @@ public final class CmpResponseValidationHelper {
         }
     }
 
+    /**
+     * Verifies the signature of the response message using public key of its signer, whose certificate is
+     * the first one in extraCerts
+     *
+     * @param respPkiMessage PKIMessage we wish to verify signature for
+     * @param protBytes      protected part of the PKIMessage, see {@link #getProtectedBytes(PKIMessage)}
+     * @throws CmpClientException when certificate of the signer is missing or the signature is not valid
+     */
+    static void verifySignerSignature(PKIMessage respPkiMessage, byte[] protBytes) throws CmpClientException {
+        final CMPCertificate[] extraCerts = respPkiMessage.getExtraCerts();
+        if (Objects.isNull(extraCerts) || extraCerts.length == 0 || !extraCerts[0].isX509v3PKCert()) {
+            LOG.error("CMP response does not contain certificate of its signer");
+            throw new CmpClientException("CMP response does not contain certificate of its signer");
+        }
+        final boolean signatureValid;
+        try {
+            final PublicKey signerKey =
+                    BouncyCastleProvider.getPublicKey(extraCerts[0].getX509v3PKCert().getSubjectPublicKeyInfo());
+            final Signature signature =
+                    JcaEngines.getSignature(respPkiMessage.getHeader().getProtectionAlg().getAlgorithm().getId());
+            signature.initVerify(signerKey);
+            signature.update(protBytes);
+            signatureValid = signature.verify(respPkiMessage.getProtection().getBytes());
+        } catch (GeneralSecurityException | IOException e) {
+            LOG.error("Signature Verification failed", e);
+            throw new CmpClientException("Signature Verification failed", e);
+        }
+        if (!signatureValid) {
+            LOG.error("Signature of the response does not match certificate of its signer");
+            throw new CmpClientException("Signature of the response does not match certificate of its signer");
+        }
+    }
+
     /**
      * verify the password based protection within the response message
      *
      * @param respPkiMessage   PKIMessage we want to verify password based protection for
+     * @param protectedBytes   protected part of the PKIMessage, see {@link #getProtectedBytes(PKIMessage)}
      * @param initAuthPassword password used to decrypt protection
      * @param protectionAlgo   protection algorithm we can use to decrypt protection
+     * @param macCache         cache of base keys derived from passwords
      * @throws CmpClientException
      */
-    static void verifyPasswordBasedProtection(
-            PKIMessage respPkiMessage, String initAuthPassword, AlgorithmIdentifier protectionAlgo)
+    static void verifyPasswordBasedProtection(PKIMessage respPkiMessage, byte[] protectedBytes,
+            String initAuthPassword, AlgorithmIdentifier protectionAlgo, PasswordBasedMacCache macCache)
             throws CmpClientException {
-        final byte[] protectedBytes = getProtectedBytes(respPkiMessage);
         final PBMParameter pbmParamSeq = PBMParameter.getInstance(protectionAlgo.getParameters());
         if (Objects.nonNull(pbmParamSeq)) {
+            final int iterationCount = pbmParamSeq.getIterationCount().getPositiveValue().intValue();
+            final String owfOid = pbmParamSeq.getOwf().getAlgorithm().getId();
+            final String macOid = pbmParamSeq.getMac().getAlgorithm().getId();
+            LOG.debug("Iteration count is: {}, One Way Function type is: {}, Mac type is: {}",
+                    iterationCount, owfOid, macOid);
+            final boolean protectionValid;
             try {
-                byte[] basekey = getBaseKeyFromPbmParameters(pbmParamSeq, initAuthPassword);
-                final Mac mac = getMac(protectedBytes, pbmParamSeq, basekey);
-                final byte[] outBytes = mac.doFinal();
-                final byte[] protectionBytes = respPkiMessage.getProtection().getBytes();
-                if (!Arrays.equals(outBytes, protectionBytes)) {
-                    LOG.error("protectionBytes don't match passwordBasedProtection, authentication failed");
-                    throw new CmpClientException(
-                            "protectionBytes don't match passwordBasedProtection, authentication failed");
-                }
-            } catch (NoSuchProviderException | NoSuchAlgorithmException | InvalidKeyException ex) {
+                protectionValid = macCache.verifyMac(initAuthPassword, pbmParamSeq.getSalt().getOctets(),
+                        iterationCount, owfOid, macOid, protectedBytes, respPkiMessage.getProtection().getBytes());
+            } catch (GeneralSecurityException ex) {
                 CmpClientException cmpClientException =
                         new CmpClientException("Error while validating CMP response ", ex);
                 LOG.error("Error while validating CMP response ", ex);
                 throw cmpClientException;
             }
+            if (!protectionValid) {
+                LOG.error("protectionBytes don't match passwordBasedProtection, authentication failed");
+                throw new CmpClientException(
+                        "protectionBytes don't match passwordBasedProtection, authentication failed");
+            }
         }
     }
 
@@ -133,77 +169,18 @@ public final class CmpResponseValidationHelper {
         }
     }
 
-    /**
-     * Create a base key to use for verifying the PasswordBasedMac on a PKIMessage
-     *
-     * @param pbmParamSeq      parameters recieved in PKIMessage used with password
-     * @param initAuthPassword password used to decrypt the basekey
-     * @return bytes representing the basekey
-     * @throws CmpClientException thrown if algorithem exceptions occur for the message digest
-     */
-    private static byte[] getBaseKeyFromPbmParameters(
-            PBMParameter pbmParamSeq, String initAuthPassword) throws CmpClientException {
-        final int iterationCount = pbmParamSeq.getIterationCount().getPositiveValue().intValue();
-        LOG.info("Iteration count is: {}", iterationCount);
-        final AlgorithmIdentifier owfAlg = pbmParamSeq.getOwf();
-        LOG.info("One Way Function type is: {}", owfAlg.getAlgorithm().getId());
-        final byte[] salt = pbmParamSeq.getSalt().getOctets();
-        final byte[] raSecret = initAuthPassword != null ? initAuthPassword.getBytes() : new byte[0];
-        byte[] basekey = new byte[raSecret.length + salt.length];
-        System.arraycopy(raSecret, 0, basekey, 0, raSecret.length);
-        System.arraycopy(salt, 0, basekey, raSecret.length, salt.length);
-        try {
-            final MessageDigest messageDigest =
-                    MessageDigest.getInstance(
-                            owfAlg.getAlgorithm().getId(), BouncyCastleProvider.PROVIDER_NAME);
-            for (int i = 0; i < iterationCount; i++) {
-                basekey = messageDigest.digest(basekey);
-                messageDigest.reset();
-            }
-        } catch (NoSuchAlgorithmException | NoSuchProviderException ex) {
-            LOG.error("ProtectionBytes don't match passwordBasedProtection, authentication failed");
-            throw new CmpClientException(
-                    "ProtectionBytes don't match passwordBasedProtection, authentication failed", ex);
-        }
-        return basekey;
-    }
-
     private static ASN1ObjectIdentifier getImplicitConfirm(InfoTypeAndValue[] info) {
         return info[0].getInfoType();
     }
 
-    /**
-     * Get cryptographical Mac we can use to decrypt our PKIMessage
-     *
-     * @param protectedBytes Protected bytes representing the PKIMessage
-     * @param pbmParamSeq    Parameters used to decrypt PKIMessage, including mac algorithm used
-     * @param basekey        Key used alongside mac Oid to create secret key for decrypting PKIMessage
-     * @return Mac that's ready to return decrypted bytes
-     * @throws NoSuchAlgorithmException Possibly thrown trying to get mac instance
-     * @throws NoSuchProviderException  Possibly thrown trying to get mac instance
-     * @throws InvalidKeyException      Possibly thrown trying to initialize mac using secretkey
-     */
-    private static Mac getMac(byte[] protectedBytes, PBMParameter pbmParamSeq, byte[] basekey)
-            throws NoSuchAlgorithmException, NoSuchProviderException, InvalidKeyException {
-        final AlgorithmIdentifier macAlg = pbmParamSeq.getMac();
-        LOG.info("Mac type is: {}", macAlg.getAlgorithm().getId());
-        final String macOid = macAlg.getAlgorithm().getId();
-        final Mac mac = Mac.getInstance(macOid, BouncyCastleProvider.PROVIDER_NAME);
-        final SecretKey key = new SecretKeySpec(basekey, macOid);
-        mac.init(key);
-        mac.reset();
-        mac.update(protectedBytes, 0, protectedBytes.length);
-        return mac;
-    }
-
     /**
      * Converts the header and the body of a PKIMessage to an ASN1Encodable and returns the as a byte
-     * array
+     * array. It is done once per response, all protection checks share the result.
      *
      * @param msg PKIMessage to get protected bytes from
      * @return the PKIMessage's header and body in byte array
      */
-    private static byte[] getProtectedBytes(PKIMessage msg) throws CmpClientException {
+    static byte[] getProtectedBytes(PKIMessage msg) throws CmpClientException {
         return CmpUtil.generateProtectedBytes(msg.getHeader(), msg.getBody());
     }
 }
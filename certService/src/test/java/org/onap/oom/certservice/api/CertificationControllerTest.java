@@ -23,16 +23,24 @@ package org.onap.oom.certservice.api;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.onap.oom.certservice.certification.exception.CertificateDecryptionException;
+import org.onap.oom.certservice.certification.model.BatchCertificationItemResponseModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationRequestModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CertificateRequestModel;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel;
 import org.onap.oom.certservice.certification.CertificationResponseModelFactory;
 import org.onap.oom.certservice.certification.exception.Cmpv2ServerNotFoundException;
@@ -40,6 +48,7 @@ import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.DecryptionException;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel.CertificateUpdateModelBuilder;
+import org.onap.oom.certservice.certification.model.CertificationRequestItemModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.springframework.http.HttpStatus;
@@ -56,6 +65,10 @@ class CertificationControllerTest {
     private static final String TEST_WRONG_CA_NAME = "wrongTestCa";
     private static final String TEST_ENCODED_OLD_PK = "encodedOldPK";
     private static final String TEST_ENCODED_OLD_CERT = "encodedOldCert";
+    private static final byte[] TEST_DER_CSR = {0x30, 0x01, 0x01};
+    private static final byte[] TEST_DER_PK = {0x30, 0x01, 0x02};
+    private static final byte[] TEST_DER_OLD_CERT = {0x30, 0x01, 0x03};
+    private static final byte[] TEST_DER_OLD_PK = {0x30, 0x01, 0x04};
     private static final CertificateUpdateModel TEST_CERTIFICATE_UPDATE_MODEL = new CertificateUpdateModelBuilder()
         .setEncodedCsr(TEST_ENCODED_CSR)
         .setEncodedPrivateKey(TEST_ENCODED_PK)
@@ -84,11 +97,11 @@ class CertificationControllerTest {
         );
         when(certificationResponseModelFactory
             .provideCertificationModelFromInitialRequest(TEST_ENCODED_CSR, TEST_ENCODED_PK, TEST_CA_NAME))
-                .thenReturn(testCertificationResponseModel);
+                .thenReturn(CompletableFuture.completedFuture(testCertificationResponseModel));
 
         // When
         ResponseEntity<CertificationResponseModel> responseCertificationModel =
-                certificationController.signCertificate(TEST_CA_NAME, TEST_ENCODED_CSR, TEST_ENCODED_PK);
+                certificationController.signCertificate(TEST_CA_NAME, TEST_ENCODED_CSR, TEST_ENCODED_PK).join();
 
         // Then
         assertEquals(HttpStatus.OK, responseCertificationModel.getStatusCode());
@@ -169,12 +182,12 @@ class CertificationControllerTest {
                 Arrays.asList("CA_CERT", "EXTRA_CA_CERT")
         );
         when(certificationResponseModelFactory.provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL)).thenReturn(
-            testCertificationResponseModel);
+            CompletableFuture.completedFuture(testCertificationResponseModel));
 
         // When
         ResponseEntity<CertificationResponseModel> responseCertificationModel =
                 certificationController.updateCertificate(TEST_CA_NAME, TEST_ENCODED_CSR,
-                        TEST_ENCODED_PK, TEST_ENCODED_OLD_CERT, TEST_ENCODED_OLD_PK);
+                        TEST_ENCODED_PK, TEST_ENCODED_OLD_CERT, TEST_ENCODED_OLD_PK).join();
 
         // Then
         assertEquals(HttpStatus.OK, responseCertificationModel.getStatusCode());
@@ -202,4 +215,66 @@ class CertificationControllerTest {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    void shouldReturnBatchResultsForBatchRequest() {
+        // Given
+        List<CertificationRequestItemModel> requests = List.of(
+            new CertificationRequestItemModel(TEST_ENCODED_CSR, TEST_ENCODED_PK),
+            new CertificationRequestItemModel(TEST_WRONG_ENCODED_CSR, TEST_ENCODED_PK));
+        BatchCertificationResponseModel testBatchResponseModel = new BatchCertificationResponseModel(List.of(
+            BatchCertificationItemResponseModel.success(new CertificationResponseModel(
+                Arrays.asList("ENTITY_CERT", "INTERMEDIATE_CERT"), Arrays.asList("CA_CERT", "EXTRA_CA_CERT"))),
+            BatchCertificationItemResponseModel.failure("Wrong certificate signing request (CSR) format")));
+        when(certificationResponseModelFactory.provideCertificationModelsFromBatchRequest(requests, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(testBatchResponseModel));
+
+        // When
+        ResponseEntity<BatchCertificationResponseModel> response = certificationController
+            .signCertificates(TEST_CA_NAME, new BatchCertificationRequestModel(requests)).join();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(testBatchResponseModel);
+    }
+
+    @Test
+    void shouldReturnCertificateForCsrAndKeySentInRequestBody() throws DecryptionException {
+        // Given
+        CertificateRequestModel certificateRequest = new CertificateRequestModel(TEST_DER_CSR, TEST_DER_PK);
+        CertificationResponseModel testCertificationResponseModel = new CertificationResponseModel(
+            Arrays.asList("ENTITY_CERT", "INTERMEDIATE_CERT"), Arrays.asList("CA_CERT", "EXTRA_CA_CERT"));
+        when(certificationResponseModelFactory.provideCertificationModelFromInitialRequest(certificateRequest, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(testCertificationResponseModel));
+
+        // When
+        ResponseEntity<CertificationResponseModel> response =
+            certificationController.signCertificate(TEST_CA_NAME, certificateRequest).join();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(testCertificationResponseModel);
+    }
+
+    @Test
+    void shouldPassPartsOfMultipartUpdateRequestToFactory() throws DecryptionException {
+        // Given
+        CertificationResponseModel testCertificationResponseModel = new CertificationResponseModel(
+            Arrays.asList("ENTITY_CERT", "INTERMEDIATE_CERT"), Arrays.asList("CA_CERT", "EXTRA_CA_CERT"));
+        ArgumentCaptor<CertificateRequestModel> certificateRequest = ArgumentCaptor.forClass(CertificateRequestModel.class);
+        when(certificationResponseModelFactory
+            .provideCertificationModelFromUpdateRequest(certificateRequest.capture(), eq(TEST_CA_NAME)))
+            .thenReturn(CompletableFuture.completedFuture(testCertificationResponseModel));
+
+        // When
+        ResponseEntity<CertificationResponseModel> response = certificationController.updateCertificate(TEST_CA_NAME,
+            TEST_DER_CSR, TEST_DER_PK, TEST_DER_OLD_CERT, TEST_DER_OLD_PK).join();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(certificateRequest.getValue().getCsr()).isEqualTo(TEST_DER_CSR);
+        assertThat(certificateRequest.getValue().getPrivateKey()).isEqualTo(TEST_DER_PK);
+        assertThat(certificateRequest.getValue().getOldCertificate()).isEqualTo(TEST_DER_OLD_CERT);
+        assertThat(certificateRequest.getValue().getOldPrivateKey()).isEqualTo(TEST_DER_OLD_PK);
+    }
+
 }
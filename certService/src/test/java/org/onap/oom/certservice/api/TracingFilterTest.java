@@ -0,0 +1,132 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.List;
+import javax.servlet.AsyncContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class TracingFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final String CERTIFICATE_PATH = "/v1/certificate/TEST";
+    private static final String CERTIFICATE_ROUTE = "/v1/certificate/{caName}";
+
+    private InMemorySpanExporter spanExporter;
+    private TracingFilter tracingFilter;
+
+    @BeforeEach
+    void setUp() {
+        spanExporter = InMemorySpanExporter.create();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+            .build();
+        tracingFilter = new TracingFilter(new IssuanceTracing(OpenTelemetrySdk.builder()
+            .setTracerProvider(tracerProvider)
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build()));
+    }
+
+    @Test
+    void shouldRecordServerSpanContinuingTraceOfCaller() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", CERTIFICATE_PATH);
+        request.addHeader("traceparent", TRACEPARENT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] spanIdInChain = new String[1];
+
+        // When
+        tracingFilter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            spanIdInChain[0] = Span.current().getSpanContext().getSpanId();
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, CERTIFICATE_ROUTE);
+        });
+
+        // Then
+        SpanData span = getOnlyFinishedSpan();
+        assertThat(span.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(span.getSpanId()).isEqualTo(spanIdInChain[0]);
+        assertThat(span.getKind()).isEqualTo(SpanKind.SERVER);
+        assertThat(span.getName()).isEqualTo("GET " + CERTIFICATE_ROUTE);
+        assertThat(span.getAttributes().get(IssuanceTracing.HTTP_STATUS_CODE)).isEqualTo(200L);
+    }
+
+    @Test
+    void shouldEndSpanWhenAsyncRequestCompletes() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", CERTIFICATE_PATH);
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AsyncContext[] asyncContext = new AsyncContext[1];
+
+        // When
+        tracingFilter.doFilter(request, response,
+            (servletRequest, servletResponse) -> asyncContext[0] = servletRequest.startAsync());
+
+        // Then
+        assertThat(spanExporter.getFinishedSpanItems()).isEmpty();
+
+        // When
+        response.setStatus(503);
+        asyncContext[0].complete();
+
+        // Then
+        SpanData span = getOnlyFinishedSpan();
+        assertThat(span.getAttributes().get(IssuanceTracing.HTTP_STATUS_CODE)).isEqualTo(503L);
+        assertThat(span.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+    }
+
+    @Test
+    void shouldNotTraceRequestsOutsideOfCertificateApi() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+
+        // When
+        tracingFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(spanExporter.getFinishedSpanItems()).isEmpty();
+    }
+
+    private SpanData getOnlyFinishedSpan() {
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertThat(spans).hasSize(1);
+        return spans.get(0);
+    }
+}
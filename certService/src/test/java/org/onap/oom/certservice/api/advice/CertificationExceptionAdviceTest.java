@@ -32,9 +32,12 @@ import org.onap.oom.certservice.certification.exception.Cmpv2ClientAdapterExcept
 import org.onap.oom.certservice.certification.exception.Cmpv2ServerNotFoundException;
 import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.ErrorResponseModel;
+import org.onap.oom.certservice.certification.exception.InvalidBatchRequestException;
 import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -162,4 +165,34 @@ class CertificationExceptionAdviceTest {
         assertEquals(expectedMessage, response.getBody().getErrorMessage());
     }
 
+    @Test
+    void shouldReturnResponseEntityWithBadRequestWhenGivenInvalidBatchRequestException() {
+        // Given
+        String expectedMessage = "Batch request must contain from 1 to 200 certificate requests";
+        InvalidBatchRequestException exception = new InvalidBatchRequestException(expectedMessage);
+
+        // When
+        ResponseEntity<ErrorResponseModel> response = certificationExceptionAdvice.handle(exception);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(expectedMessage, response.getBody().getErrorMessage());
+    }
+
+    @Test
+    void shouldReturnResponseEntityWithServiceUnavailableAndRetryAfterWhenGivenCmpRequestRejectedException() {
+        // Given
+        CmpRequestRejectedException exception =
+            new CmpRequestRejectedException("Too many concurrent requests to CMPv2 server", 3);
+
+        // When
+        ResponseEntity<ErrorResponseModel> response = certificationExceptionAdvice.handle(exception);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many concurrent requests to CMPv2 server, retry after 3 s",
+            response.getBody().getErrorMessage());
+    }
+
 }
@@ -0,0 +1,67 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.api.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+class VirtualThreadsConfigTest {
+
+    private static final boolean VIRTUAL_THREADS_SUPPORTED = Runtime.version().feature() >= 21;
+
+    @Test
+    void shouldCreateVirtualThreadExecutorOnlyWhenSupportedByRuntime() {
+        // When
+        Optional<ExecutorService> executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor();
+
+        // Then
+        assertThat(executor.isPresent()).isEqualTo(VIRTUAL_THREADS_SUPPORTED);
+        executor.ifPresent(ExecutorService::shutdown);
+    }
+
+    @Test
+    void shouldCustomizeTomcatOnlyWhenVirtualThreadsAreSupported() {
+        // Given
+        VirtualThreadsConfig config = new VirtualThreadsConfig();
+        TomcatServletWebServerFactory factory = mock(TomcatServletWebServerFactory.class);
+
+        // When
+        config.virtualThreadsTomcatCustomizer().customize(factory);
+
+        // Then
+        if (VIRTUAL_THREADS_SUPPORTED) {
+            verify(factory).addProtocolHandlerCustomizers(any(TomcatProtocolHandlerCustomizer.class));
+        } else {
+            verify(factory, never()).addProtocolHandlerCustomizers(any(TomcatProtocolHandlerCustomizer.class));
+        }
+        config.shutdown();
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+class CertificatePemCacheTest {
+
+    private static final String CA_NAME = "TEST";
+
+    private static CertificateAuthority certificateAuthority;
+    private static X509Certificate leafCertificate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CertificatePemCache cache;
+
+    @BeforeAll
+    static void setUpCertificates() throws Exception {
+        certificateAuthority = new CertificateAuthority("Pem Cache");
+        KeyPair keyPair = CertificateAuthority.generateKeyPair(2048);
+        leafCertificate = certificateAuthority.issue(new X500Name("CN=onap.org"), keyPair.getPublic(), null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CertificatePemCache(meterRegistry);
+    }
+
+    @Test
+    void shouldEncodeCertificateToPem() {
+        // When
+        SerializedString pem = CertificatePemCache.encode(leafCertificate);
+
+        // Then
+        assertThat(pem.getValue())
+            .startsWith("-----BEGIN CERTIFICATE-----\n")
+            .endsWith("-----END CERTIFICATE-----\n");
+    }
+
+    @Test
+    void shouldEncodeCaCertificateOnceForCa() {
+        // When
+        SerializedString first = cache.getCaCertificatePem(CA_NAME, certificateAuthority.getRootCertificate());
+        SerializedString second = cache.getCaCertificatePem(CA_NAME, certificateAuthority.getRootCertificate());
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getValue())
+            .isEqualTo(CertificatePemCache.encode(certificateAuthority.getRootCertificate()).getValue());
+        assertThat(meterRegistry.get("certservice.pem.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.pem.cache.misses").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCertificatesOfEachCaSeparately() {
+        // When
+        cache.getCaCertificatePem(CA_NAME, certificateAuthority.getRootCertificate());
+        cache.getCaCertificatePem("OTHER", certificateAuthority.getRootCertificate());
+
+        // Then
+        assertThat(cache.size(CA_NAME)).isEqualTo(1);
+        assertThat(cache.size("OTHER")).isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.pem.cache.misses").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedCertificateOfCaWhenFull() {
+        // Given
+        CertificatePemCache smallCache = new CertificatePemCache(1, new SimpleMeterRegistry());
+        SerializedString rootPem = smallCache.getCaCertificatePem(CA_NAME, certificateAuthority.getRootCertificate());
+
+        // When
+        smallCache.getCaCertificatePem(CA_NAME, certificateAuthority.getIssuingCertificate());
+
+        // Then
+        assertThat(smallCache.size(CA_NAME)).isEqualTo(1);
+        assertThat(smallCache.getCaCertificatePem(CA_NAME, certificateAuthority.getRootCertificate()))
+            .isNotSameAs(rootPem);
+    }
+}
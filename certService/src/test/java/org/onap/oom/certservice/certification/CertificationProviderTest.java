@@ -27,6 +27,7 @@ import static org.mockito.Mockito.when;
 import static org.onap.oom.certservice.certification.TestData.TEST_CMPv2_KEYSTORE;
 import static org.onap.oom.certservice.certification.TestData.TEST_CMPv2_TRUSTSTORE;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
@@ -39,6 +40,8 @@ import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.apache.commons.io.IOUtils;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
@@ -50,11 +53,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.model.BatchCertificationItemResponseModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
-import org.onap.oom.certservice.cmpv2client.api.CmpClient;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
 
 @ExtendWith(MockitoExtension.class)
@@ -70,11 +77,12 @@ class CertificationProviderTest {
     @Mock
     private Cmpv2Server testServer;
     @Mock
-    private CmpClient cmpClient;
+    private AsyncCmpClient cmpClient;
     @Mock
     private OldCertificateModel oldCertificateModel;
 
     private CertificationProvider certificationProvider;
+    private SimpleMeterRegistry meterRegistry;
 
     private static final String EXPECTED_BEGIN_OF_CERTIFICATE = "-----BEGIN CERTIFICATE-----\n";
     private static final String EXPECTED_END_OF_CERTIFICATE = "-----END CERTIFICATE-----\n";
@@ -85,7 +93,9 @@ class CertificationProviderTest {
 
     @BeforeEach
     public void init() {
-        certificationProvider = new CertificationProvider(cmpClient);
+        meterRegistry = new SimpleMeterRegistry();
+        certificationProvider = new CertificationProvider(cmpClient, new IssuanceMetrics(meterRegistry),
+            new CertificatePemCache(meterRegistry));
     }
 
     @Test
@@ -93,10 +103,10 @@ class CertificationProviderTest {
             throws CertificateException, NoSuchProviderException, IOException, CmpClientException {
         // When
         when(
-                cmpClient.executeInitializationRequest(any(CsrModel.class), any(Cmpv2Server.class))
-        ).thenReturn(createCorrectClientResponse());
+                cmpClient.executeInitializationRequestAsync(any(CsrModel.class), any(Cmpv2Server.class))
+        ).thenReturn(CompletableFuture.completedFuture(createCorrectClientResponse()));
 
-        CertificationResponseModel certificationModel = certificationProvider.executeInitializationRequest(csrModel, server);
+        CertificationResponseModel certificationModel = certificationProvider.executeInitializationRequest(csrModel, server).join();
 
         // Then
         InputStream certificate = getClass().getClassLoader().getResourceAsStream("certificateModelChain.first");
@@ -120,17 +130,18 @@ class CertificationProviderTest {
         String expectedErrorMessage = "connecting to CMP client failed";
 
         when(
-                cmpClient.executeInitializationRequest(any(CsrModel.class), any(Cmpv2Server.class))
-        ).thenThrow(new CmpClientException(expectedErrorMessage));
+                cmpClient.executeInitializationRequestAsync(any(CsrModel.class), any(Cmpv2Server.class))
+        ).thenReturn(CompletableFuture.failedFuture(new CmpClientException(expectedErrorMessage)));
 
         // When
         Exception exception = assertThrows(
-                CmpClientException.class, () ->
-                        certificationProvider.executeInitializationRequest(testCsrModel, testServer)
+                CompletionException.class, () ->
+                        certificationProvider.executeInitializationRequest(testCsrModel, testServer).join()
         );
 
         // Then
-        assertThat(exception.getMessage()).isEqualTo(expectedErrorMessage);
+        assertThat(exception.getCause()).isInstanceOf(CmpClientException.class);
+        assertThat(exception.getCause().getMessage()).isEqualTo(expectedErrorMessage);
     }
 
     @Test
@@ -139,11 +150,11 @@ class CertificationProviderTest {
 
         // When
         when(
-            cmpClient.executeKeyUpdateRequest(any(CsrModel.class), any(Cmpv2Server.class), any(OldCertificateModel.class))
-        ).thenReturn(getCmpv2CertificationModel());
+            cmpClient.executeKeyUpdateRequestAsync(any(CsrModel.class), any(Cmpv2Server.class), any(OldCertificateModel.class))
+        ).thenReturn(CompletableFuture.completedFuture(getCmpv2CertificationModel()));
 
         CertificationResponseModel certificationModel = certificationProvider
-            .executeKeyUpdateRequest(csrModel, server, oldCertificateModel);
+            .executeKeyUpdateRequest(csrModel, server, oldCertificateModel).join();
         List<String> certificateChain = certificationModel.getCertificateChain();
         List<String> trustedCertificates = certificationModel.getTrustedCertificates();
 
@@ -156,16 +167,33 @@ class CertificationProviderTest {
         assertThat(trustedCertificates.get(0)).endsWith(EXPECTED_END_OF_CERTIFICATE);
     }
 
+    @Test
+    void shouldRecordPemConversionOfKeyUpdateResponse() throws IOException, CertificateException {
+        // Given
+        when(server.getCaName()).thenReturn("TEST");
+        when(
+            cmpClient.executeKeyUpdateRequestAsync(any(CsrModel.class), any(Cmpv2Server.class), any(OldCertificateModel.class))
+        ).thenReturn(CompletableFuture.completedFuture(getCmpv2CertificationModel()));
+
+        // When
+        certificationProvider.executeKeyUpdateRequest(csrModel, server, oldCertificateModel).join();
+
+        // Then
+        assertThat(meterRegistry.get("certservice.issuance.stage")
+            .tags("stage", "pem", "caName", "TEST", "requestType", "kur", "outcome", "success")
+            .timer().count()).isEqualTo(1);
+    }
+
     @Test
     void shouldCorrectConvertToCertificationModelForCertificationRequest()
         throws IOException, CertificateException, CmpClientException {
 
         when(
-            cmpClient.executeInitializationRequest(any(CsrModel.class), any(Cmpv2Server.class))
-        ).thenReturn(getCmpv2CertificationModel());
+            cmpClient.executeInitializationRequestAsync(any(CsrModel.class), any(Cmpv2Server.class))
+        ).thenReturn(CompletableFuture.completedFuture(getCmpv2CertificationModel()));
 
         CertificationResponseModel certificationModel = certificationProvider
-            .executeInitializationRequest(csrModel, server);
+            .executeInitializationRequest(csrModel, server).join();
         List<String> certificateChain = certificationModel.getCertificateChain();
         List<String> trustedCertificates = certificationModel.getTrustedCertificates();
 
@@ -185,20 +213,44 @@ class CertificationProviderTest {
         String expectedErrorMessage = "Exception occurred while send request to CMPv2 Server";
 
         when(
-            cmpClient.executeKeyUpdateRequest(any(CsrModel.class), any(Cmpv2Server.class), any(OldCertificateModel.class))
-        ).thenThrow(new CmpClientException(expectedErrorMessage));
+            cmpClient.executeKeyUpdateRequestAsync(any(CsrModel.class), any(Cmpv2Server.class), any(OldCertificateModel.class))
+        ).thenReturn(CompletableFuture.failedFuture(new CmpClientException(expectedErrorMessage)));
 
         // When
         Exception exception = assertThrows(
-            CmpClientException.class, () ->
-                certificationProvider.executeKeyUpdateRequest(testCsrModel, testServer, oldCertificateModel)
+            CompletionException.class, () ->
+                certificationProvider.executeKeyUpdateRequest(testCsrModel, testServer, oldCertificateModel).join()
         );
 
         // Then
-        assertThat(exception.getMessage()).isEqualTo(expectedErrorMessage);
+        assertThat(exception.getCause()).isInstanceOf(CmpClientException.class);
+        assertThat(exception.getCause().getMessage()).isEqualTo(expectedErrorMessage);
     }
 
 
+    @Test
+    void shouldConvertEachBatchResultKeepingFailedItemsForSignCsrBatch()
+            throws CertificateException, NoSuchProviderException, IOException {
+        // Given
+        List<CsrModel> csrModels = List.of(csrModel, testCsrModel);
+        when(cmpClient.executeInitializationBatchRequestAsync(csrModels, server))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
+                        Cmpv2BatchCertificationResult.success(createCorrectClientResponse()),
+                        Cmpv2BatchCertificationResult.failure(new CmpServerException("rejected")))));
+
+        // When
+        List<BatchCertificationItemResponseModel> results =
+                certificationProvider.executeInitializationBatchRequest(csrModels, server).join();
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getErrorMessage()).isNull();
+        assertThat(results.get(0).getCertificateChain().get(0)).startsWith(EXPECTED_BEGIN_OF_CERTIFICATE);
+        assertThat(results.get(0).getTrustedCertificates()).hasSize(EXPECTED_SIZE_ONE);
+        assertThat(results.get(1).getErrorMessage()).isEqualTo("CMPv2 server returned following error: rejected");
+        assertThat(results.get(1).getCertificateChain()).isNull();
+    }
+
     private Cmpv2CertificationModel createCorrectClientResponse()
             throws CertificateException, NoSuchProviderException {
         InputStream certificateChain = getClass().getClassLoader().getResourceAsStream("certificateChain.first");
@@ -0,0 +1,331 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.security.PrivateKey;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.certification.model.CertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+
+class CertificationRequestDeduplicatorTest {
+
+    private static final String CA_NAME = "TEST";
+    private static final String DEDUPLICATED_METRIC = "certservice.issuance.deduplicated";
+    private static final long RESULT_TTL_MS = 5000;
+    private static final CertificationResponseModel RESPONSE =
+        new CertificationResponseModel(List.of("certificate"), List.of("root"));
+
+    private AtomicLong nanoTime;
+    private SimpleMeterRegistry meterRegistry;
+    private IssuanceMetrics issuanceMetrics;
+    private AtomicInteger caCalls;
+    private CompletableFuture<CertificationResponseModel> caResponse;
+
+    @BeforeEach
+    void setUp() {
+        nanoTime = new AtomicLong();
+        meterRegistry = new SimpleMeterRegistry();
+        issuanceMetrics = new IssuanceMetrics(meterRegistry);
+        caCalls = new AtomicInteger();
+        caResponse = new CompletableFuture<>();
+    }
+
+    @Test
+    void shouldJoinIdenticalRequestInFlight() throws Exception {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+        CsrModel csrModel = mockCsrModel("csr");
+
+        // When
+        CompletableFuture<CertificationResponseModel> first =
+            deduplicator.execute(CA_NAME, RequestType.IR, csrModel, null, callCa());
+        CompletableFuture<CertificationResponseModel> second =
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+        caResponse.complete(RESPONSE);
+
+        // Then
+        assertThat(caCalls).hasValue(1);
+        assertThat(first.get()).isSameAs(RESPONSE);
+        assertThat(second.get()).isSameAs(RESPONSE);
+        assertThat(deduplicator.getInFlightCount()).isZero();
+        assertThat(meterRegistry.get(DEDUPLICATED_METRIC)
+            .tags("caName", CA_NAME, "requestType", "ir", "source", "in_flight")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotJoinRequestsDifferingInCaNameRequestTypeOrCsr() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.CR, mockCsrModel("csr"), null, callCa());
+        deduplicator.execute("OTHER", RequestType.CR, mockCsrModel("csr"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.KUR, mockCsrModel("csr"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.CR, mockCsrModel("other csr"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(4);
+        assertThat(deduplicator.getInFlightCount()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldNotJoinRequestsDifferingInPrivateKey() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr", "private key"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr", "other private key"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(2);
+        assertThat(deduplicator.getInFlightCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldJoinUpdateRequestWithSameOldCertificateAndOldPrivateKey() throws Exception {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+        CompletableFuture<CertificationResponseModel> first = deduplicator.execute(CA_NAME, RequestType.KUR,
+            mockCsrModel("csr"), mockOldCertificateModel("old certificate", "old private key"), callCa());
+
+        // When
+        CompletableFuture<CertificationResponseModel> second = deduplicator.execute(CA_NAME, RequestType.KUR,
+            mockCsrModel("csr"), mockOldCertificateModel("old certificate", "old private key"), callCa());
+        caResponse.complete(RESPONSE);
+
+        // Then
+        assertThat(caCalls).hasValue(1);
+        assertThat(first.get()).isSameAs(RESPONSE);
+        assertThat(second.get()).isSameAs(RESPONSE);
+    }
+
+    @Test
+    void shouldNotJoinUpdateRequestsDifferingInOldCertificateOrOldPrivateKey() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.KUR, mockCsrModel("csr"),
+            mockOldCertificateModel("old certificate", "old private key"), callCa());
+        deduplicator.execute(CA_NAME, RequestType.KUR, mockCsrModel("csr"),
+            mockOldCertificateModel("other old certificate", "old private key"), callCa());
+        deduplicator.execute(CA_NAME, RequestType.KUR, mockCsrModel("csr"),
+            mockOldCertificateModel("old certificate", "other old private key"), callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(3);
+        assertThat(deduplicator.getInFlightCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotMistakeBoundariesOfKeyParts() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr", "key"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csrk", "ey"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldCompleteJoinedRequestsWithFailureAndNotCacheIt() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(RESULT_TTL_MS);
+        CompletableFuture<CertificationResponseModel> first =
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+        CompletableFuture<CertificationResponseModel> second =
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+
+        // When
+        caResponse.completeExceptionally(new CmpClientException("CA unavailable"));
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+
+        // Then
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(first::get)
+            .withCauseInstanceOf(CmpClientException.class);
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(second::get)
+            .withCauseInstanceOf(CmpClientException.class);
+        assertThat(caCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotLetCallerCancelRequestJoinedByOthers() throws Exception {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+        CompletableFuture<CertificationResponseModel> first =
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+        CompletableFuture<CertificationResponseModel> second =
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+
+        // When
+        first.cancel(true);
+        caResponse.complete(RESPONSE);
+
+        // Then
+        assertThat(second.get()).isSameAs(RESPONSE);
+    }
+
+    @Test
+    void shouldAnswerWithCachedResultUntilItExpires() throws Exception {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(RESULT_TTL_MS);
+        caResponse.complete(RESPONSE);
+        deduplicator.execute(CA_NAME, RequestType.CR, mockCsrModel("csr"), null, callCa());
+
+        // When
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(RESULT_TTL_MS - 1));
+        CompletableFuture<CertificationResponseModel> cached =
+            deduplicator.execute(CA_NAME, RequestType.CR, mockCsrModel("csr"), null, callCa());
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        deduplicator.execute(CA_NAME, RequestType.CR, mockCsrModel("csr"), null, callCa());
+
+        // Then
+        assertThat(cached.get()).isSameAs(RESPONSE);
+        assertThat(caCalls).hasValue(2);
+        assertThat(meterRegistry.get(DEDUPLICATED_METRIC)
+            .tags("caName", CA_NAME, "requestType", "cr", "source", "cache")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedResultWhenCacheIsFull() {
+        // Given
+        CertificationRequestDeduplicator deduplicator =
+            new CertificationRequestDeduplicator(true, RESULT_TTL_MS, 1, issuanceMetrics, nanoTime::get);
+        caResponse.complete(RESPONSE);
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("first csr"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("second csr"), null, callCa());
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("second csr"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("first csr"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(3);
+    }
+
+    @Test
+    void shouldRemoveRequestWhichFailedToStart() {
+        // Given
+        CertificationRequestDeduplicator deduplicator = createDeduplicator(0);
+
+        // When
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+            deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, () -> {
+                throw new IllegalStateException("not started");
+            }));
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldCallCaForEveryRequestWhenDisabled() {
+        // Given
+        CertificationRequestDeduplicator deduplicator =
+            new CertificationRequestDeduplicator(false, RESULT_TTL_MS, 10, issuanceMetrics, nanoTime::get);
+
+        // When
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+        deduplicator.execute(CA_NAME, RequestType.IR, mockCsrModel("csr"), null, callCa());
+
+        // Then
+        assertThat(caCalls).hasValue(2);
+        assertThat(meterRegistry.find(DEDUPLICATED_METRIC).counter()).isNull();
+    }
+
+    private CertificationRequestDeduplicator createDeduplicator(long resultTtlMs) {
+        return new CertificationRequestDeduplicator(true, resultTtlMs, 10, issuanceMetrics, nanoTime::get);
+    }
+
+    private Supplier<CompletableFuture<CertificationResponseModel>> callCa() {
+        return () -> {
+            caCalls.incrementAndGet();
+            return caResponse;
+        };
+    }
+
+    private static CsrModel mockCsrModel(String encodedCsr) {
+        return mockCsrModel(encodedCsr, "private key");
+    }
+
+    private static CsrModel mockCsrModel(String encodedCsr, String encodedPrivateKey) {
+        PKCS10CertificationRequest csr = mock(PKCS10CertificationRequest.class);
+        try {
+            when(csr.getEncoded()).thenReturn(encodedCsr.getBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        PrivateKey privateKey = mockPrivateKey(encodedPrivateKey);
+        CsrModel csrModel = mock(CsrModel.class);
+        when(csrModel.getCsr()).thenReturn(csr);
+        when(csrModel.getPrivateKey()).thenReturn(privateKey);
+        return csrModel;
+    }
+
+    private static OldCertificateModel mockOldCertificateModel(String encodedCertificate,
+        String encodedPrivateKey) {
+        Certificate certificate = mock(Certificate.class);
+        try {
+            when(certificate.getEncoded()).thenReturn(encodedCertificate.getBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        PrivateKey privateKey = mockPrivateKey(encodedPrivateKey);
+        OldCertificateModel oldCertificateModel = mock(OldCertificateModel.class);
+        when(oldCertificateModel.getOldCertificate()).thenReturn(certificate);
+        when(oldCertificateModel.getOldPrivateKey()).thenReturn(privateKey);
+        return oldCertificateModel;
+    }
+
+    private static PrivateKey mockPrivateKey(String encodedPrivateKey) {
+        PrivateKey privateKey = mock(PrivateKey.class);
+        when(privateKey.getEncoded()).thenReturn(encodedPrivateKey.getBytes());
+        return privateKey;
+    }
+}
@@ -25,7 +25,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,9 +40,13 @@ import static org.onap.oom.certservice.certification.TestData.TEST_PK;
 import static org.onap.oom.certservice.certification.TestData.TEST_WRONG_CSR;
 import static org.onap.oom.certservice.certification.TestData.TEST_WRONG_PEM;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -55,17 +61,26 @@ import org.onap.oom.certservice.certification.exception.CertificateDecryptionExc
 import org.onap.oom.certservice.certification.exception.Cmpv2ServerNotFoundException;
 import org.onap.oom.certservice.certification.exception.CsrDecryptionException;
 import org.onap.oom.certservice.certification.exception.DecryptionException;
+import org.onap.oom.certservice.certification.exception.InvalidBatchRequestException;
+import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.model.BatchCertificationItemResponseModel;
+import org.onap.oom.certservice.certification.model.BatchCertificationResponseModel;
+import org.onap.oom.certservice.certification.model.CertificateRequestModel;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel;
 import org.onap.oom.certservice.certification.model.CertificateUpdateModel.CertificateUpdateModelBuilder;
+import org.onap.oom.certservice.certification.model.CertificationRequestItemModel;
 import org.onap.oom.certservice.certification.model.CertificationResponseModel;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 
 @ExtendWith(MockitoExtension.class)
 class CertificationResponseModelFactoryTest {
 
     private static final String TEST_CA_NAME = "TestCA";
+    private static final int TEST_MAX_BATCH_SIZE = 3;
     private static final String ENCODED_CSR = getEncodedString(TEST_CSR);
     private static final String ENCODED_PK = getEncodedString(TEST_PK);
     private static final String ENCODED_WRONG_CSR = getEncodedString(TEST_WRONG_CSR);
@@ -83,7 +98,15 @@ class CertificationResponseModelFactoryTest {
         .setCaName(TEST_CA_NAME)
         .build();
 
+    private static final byte[] TEST_DER_CSR = {0x30, 0x01, 0x01};
+    private static final byte[] TEST_DER_PK = {0x30, 0x01, 0x02};
+    private static final byte[] TEST_DER_OLD_CERT = {0x30, 0x01, 0x03};
+    private static final byte[] TEST_DER_OLD_PK = {0x30, 0x01, 0x04};
+
+    private static final String REQUEST_METRIC = "certservice.issuance.request";
+
     private CertificationResponseModelFactory certificationResponseModelFactory;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Mock
     private Cmpv2ServerProvider cmpv2ServerProvider;
@@ -104,9 +127,11 @@ class CertificationResponseModelFactoryTest {
 
     @BeforeEach
     void setUp() {
+        IssuanceMetrics issuanceMetrics = new IssuanceMetrics(meterRegistry);
         certificationResponseModelFactory =
             new CertificationResponseModelFactory(csrModelFactory, cmpv2ServerProvider, certificationProvider,
-                oldCertificateModelFactory, updateRequestTypeDetector);
+                new CertificationRequestDeduplicator(false, 0, 0, issuanceMetrics), oldCertificateModelFactory,
+                updateRequestTypeDetector, issuanceMetrics, IssuanceTracing.NOOP, TEST_MAX_BATCH_SIZE);
     }
 
     @Test
@@ -121,7 +146,7 @@ class CertificationResponseModelFactoryTest {
         // When
         CertificationResponseModel certificationModel =
             certificationResponseModelFactory
-                .provideCertificationModelFromInitialRequest(ENCODED_CSR, ENCODED_PK, TEST_CA_NAME);
+                .provideCertificationModelFromInitialRequest(ENCODED_CSR, ENCODED_PK, TEST_CA_NAME).join();
 
         // Then
         assertEquals(2, certificationModel.getCertificateChain().size());
@@ -153,6 +178,11 @@ class CertificationResponseModelFactoryTest {
 
         // Then
         assertTrue(exception.getMessage().contains(expectedMessage));
+        assertThat(meterRegistry.get(REQUEST_METRIC)
+            .tags("caName", TEST_CA_NAME, "requestType", "ir", "outcome", "failure", "error", "CsrDecryptionException")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.issuance.stage").tags("stage", "decode", "outcome", "failure")
+            .timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -187,19 +217,23 @@ class CertificationResponseModelFactoryTest {
         Cmpv2Server testServer = mockCmpv2ProviderServerSelection();
         when(
             certificationProvider.executeInitializationRequest(csrModel, testServer)
-        ).thenThrow(
-            new CmpClientException(expectedMessage)
+        ).thenReturn(
+            CompletableFuture.failedFuture(new CmpClientException(expectedMessage))
         );
 
         // When
         Exception exception = assertThrows(
-            CmpClientException.class, () ->
+            CompletionException.class, () ->
                 certificationResponseModelFactory
-                    .provideCertificationModelFromInitialRequest(ENCODED_CSR, ENCODED_PK, TEST_CA_NAME)
+                    .provideCertificationModelFromInitialRequest(ENCODED_CSR, ENCODED_PK, TEST_CA_NAME).join()
         );
 
         // Then
-        assertTrue(exception.getMessage().contains(expectedMessage));
+        assertThat(exception.getCause()).isInstanceOf(CmpClientException.class);
+        assertTrue(exception.getCause().getMessage().contains(expectedMessage));
+        assertThat(meterRegistry.get(REQUEST_METRIC)
+            .tags("requestType", "ir", "outcome", "failure", "error", "CmpClientException")
+            .timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -215,7 +249,7 @@ class CertificationResponseModelFactoryTest {
 
         // When
         CertificationResponseModel certificationModel = certificationResponseModelFactory
-            .provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL);
+            .provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL).join();
 
         // Then
         assertEquals(2, certificationModel.getCertificateChain().size());
@@ -225,6 +259,11 @@ class CertificationResponseModelFactoryTest {
 
         verify(certificationProvider, times(1))
             .executeKeyUpdateRequest(csrModel, testServer, testOldCertificateModel);
+        assertThat(meterRegistry.get(REQUEST_METRIC)
+            .tags("caName", TEST_CA_NAME, "requestType", "kur", "outcome", "success", "error", "none")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.issuance.stage").tags("stage", "decode", "requestType", "kur")
+            .timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -239,17 +278,19 @@ class CertificationResponseModelFactoryTest {
 
         when(oldCertificateModelFactory.createCertificateModel(any(), any())).thenReturn(testOldCertificateModel);
         when(certificationProvider.executeKeyUpdateRequest(csrModel, testServer, testOldCertificateModel))
-            .thenThrow(new CmpClientException(expectedMessage));
+            .thenReturn(CompletableFuture.failedFuture(new CmpClientException(expectedMessage)));
         when(updateRequestTypeDetector.isKur(any(), any())).thenReturn(true);
 
         // When
         Exception exception = assertThrows(
-            CmpClientException.class, () ->
+            CompletionException.class, () ->
                 certificationResponseModelFactory.provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL)
+                    .join()
         );
 
         // Then
-        assertTrue(exception.getMessage().contains(expectedMessage));
+        assertThat(exception.getCause()).isInstanceOf(CmpClientException.class);
+        assertTrue(exception.getCause().getMessage().contains(expectedMessage));
     }
 
     @Test
@@ -263,7 +304,7 @@ class CertificationResponseModelFactoryTest {
         // When
         when(updateRequestTypeDetector.isKur(any(), any())).thenReturn(false);
         CertificationResponseModel certificationModel = certificationResponseModelFactory
-            .provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL);
+            .provideCertificationModelFromUpdateRequest(TEST_CERTIFICATE_UPDATE_MODEL).join();
         // Then
         assertEquals(2, certificationModel.getCertificateChain().size());
         assertThat(certificationModel.getCertificateChain()).contains(INTERMEDIATE_CERT, ENTITY_CERT);
@@ -287,28 +328,132 @@ class CertificationResponseModelFactoryTest {
         );
     }
 
-    private void mockCertificateProviderCertificateUpdate(CsrModel csrModel, Cmpv2Server testServer)
-        throws CmpClientException {
+    @Test
+    void shouldCreateCertificationModelOfCsrAndKeyGivenInDerForm()
+        throws CmpClientException, DecryptionException {
+        // Given
+        CsrModel csrModel = getCsrModel();
+        when(csrModelFactory.createCsrModelFromDer(TEST_DER_CSR, TEST_DER_PK)).thenReturn(csrModel);
+        Cmpv2Server testServer = mockCmpv2ProviderServerSelection();
+        mockCertificateProviderCertificateSigning(csrModel, testServer);
+
+        // When
+        CertificationResponseModel certificationModel = certificationResponseModelFactory
+            .provideCertificationModelFromInitialRequest(new CertificateRequestModel(TEST_DER_CSR, TEST_DER_PK),
+                TEST_CA_NAME).join();
+
+        // Then
+        assertThat(certificationModel.getCertificateChain()).containsExactly(INTERMEDIATE_CERT, ENTITY_CERT);
+        assertThat(meterRegistry.get(REQUEST_METRIC)
+            .tags("caName", TEST_CA_NAME, "requestType", "ir", "outcome", "success")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPerformKurOfCertificateGivenInDerForm()
+        throws CmpClientException, DecryptionException {
+        // Given
+        CsrModel csrModel = getCsrModel();
+        when(csrModelFactory.createCsrModelFromDer(TEST_DER_CSR, TEST_DER_PK)).thenReturn(csrModel);
+        when(oldCertificateModelFactory.createCertificateModelFromDer(TEST_DER_OLD_CERT, TEST_DER_OLD_PK))
+            .thenReturn(testOldCertificateModel);
+        when(updateRequestTypeDetector.isKur(any(), any())).thenReturn(true);
+        Cmpv2Server testServer = mockCmpv2ProviderServerSelection();
+        mockCertificateProviderCertificateUpdate(csrModel, testServer);
+
+        // When
+        CertificationResponseModel certificationModel = certificationResponseModelFactory
+            .provideCertificationModelFromUpdateRequest(
+                new CertificateRequestModel(TEST_DER_CSR, TEST_DER_PK, TEST_DER_OLD_CERT, TEST_DER_OLD_PK),
+                TEST_CA_NAME).join();
+
+        // Then
+        assertThat(certificationModel.getCertificateChain()).containsExactly(INTERMEDIATE_CERT, ENTITY_CERT);
+        verify(certificationProvider).executeKeyUpdateRequest(csrModel, testServer, testOldCertificateModel);
+    }
+
+    private void mockCertificateProviderCertificateUpdate(CsrModel csrModel, Cmpv2Server testServer) {
         CertificationResponseModel expectedCertificationModel = getCertificationModel();
         when(
             certificationProvider.executeKeyUpdateRequest(csrModel, testServer, testOldCertificateModel)
-        ).thenReturn(expectedCertificationModel);
+        ).thenReturn(CompletableFuture.completedFuture(expectedCertificationModel));
     }
 
-    private void mockCertificateProviderCertificationRequest(CsrModel csrModel, Cmpv2Server testServer)
-        throws CmpClientException {
+    private void mockCertificateProviderCertificationRequest(CsrModel csrModel, Cmpv2Server testServer) {
         CertificationResponseModel expectedCertificationModel = getCertificationModel();
         when(
             certificationProvider.executeCertificationRequest(csrModel, testServer)
-        ).thenReturn(expectedCertificationModel);
+        ).thenReturn(CompletableFuture.completedFuture(expectedCertificationModel));
+    }
+
+    @Test
+    void shouldReturnResultForEachBatchItemKeepingDecodingFailuresInPlace() throws DecryptionException {
+        // Given
+        CsrModel csrModel = getCsrModel();
+        Cmpv2Server testServer = mockCmpv2ProviderServerSelection();
+        when(csrModelFactory.createCsrModel(any(), any()))
+            .thenReturn(csrModel)
+            .thenThrow(new KeyDecryptionException("Incorrect Key, decryption failed"))
+            .thenReturn(csrModel);
+        when(certificationProvider.executeInitializationBatchRequest(List.of(csrModel, csrModel), testServer))
+            .thenReturn(CompletableFuture.completedFuture(List.of(
+                BatchCertificationItemResponseModel.success(getCertificationModel()),
+                BatchCertificationItemResponseModel.failure("Rejected by CA"))));
+
+        // When
+        BatchCertificationResponseModel batchResponse = certificationResponseModelFactory
+            .provideCertificationModelsFromBatchRequest(getBatchRequestItems(3), TEST_CA_NAME).join();
+
+        // Then
+        List<BatchCertificationItemResponseModel> results = batchResponse.getResults();
+        assertEquals(3, results.size());
+        assertThat(results.get(0).getCertificateChain()).contains(INTERMEDIATE_CERT, ENTITY_CERT);
+        assertEquals("Wrong key (PK) format", results.get(1).getErrorMessage());
+        assertEquals("Rejected by CA", results.get(2).getErrorMessage());
+    }
+
+    @Test
+    void shouldNotCallCaWhenNoBatchItemCouldBeDecoded() throws DecryptionException {
+        // Given
+        mockCmpv2ProviderServerSelection();
+        when(csrModelFactory.createCsrModel(any(), any()))
+            .thenThrow(new CsrDecryptionException("Incorrect CSR, decryption failed"));
+
+        // When
+        BatchCertificationResponseModel batchResponse = certificationResponseModelFactory
+            .provideCertificationModelsFromBatchRequest(getBatchRequestItems(2), TEST_CA_NAME).join();
+
+        // Then
+        assertThat(batchResponse.getResults())
+            .extracting(BatchCertificationItemResponseModel::getErrorMessage)
+            .containsExactly("Wrong certificate signing request (CSR) format",
+                "Wrong certificate signing request (CSR) format");
+        verify(certificationProvider, never()).executeInitializationBatchRequest(anyList(), any());
+    }
+
+    @Test
+    void shouldThrowInvalidBatchRequestExceptionWhenBatchIsEmptyOrTooLarge() {
+        // When
+        Exception emptyBatchException = assertThrows(InvalidBatchRequestException.class,
+            () -> certificationResponseModelFactory.provideCertificationModelsFromBatchRequest(List.of(), TEST_CA_NAME));
+        Exception tooLargeBatchException = assertThrows(InvalidBatchRequestException.class,
+            () -> certificationResponseModelFactory.provideCertificationModelsFromBatchRequest(
+                getBatchRequestItems(TEST_MAX_BATCH_SIZE + 1), TEST_CA_NAME));
+
+        // Then
+        assertEquals("Batch request must contain from 1 to 3 certificate requests", emptyBatchException.getMessage());
+        assertEquals(emptyBatchException.getMessage(), tooLargeBatchException.getMessage());
+    }
+
+    private List<CertificationRequestItemModel> getBatchRequestItems(int count) {
+        return Collections.nCopies(count, new CertificationRequestItemModel(ENCODED_CSR, ENCODED_PK));
     }
 
-    private void mockCertificateProviderCertificateSigning(CsrModel csrModel, Cmpv2Server testServer)
-        throws CmpClientException {
+    private void mockCertificateProviderCertificateSigning(CsrModel csrModel, Cmpv2Server testServer) {
         CertificationResponseModel expectedCertificationModel = getCertificationModel();
         when(
             certificationProvider.executeInitializationRequest(csrModel, testServer)
-        ).thenReturn(expectedCertificationModel);
+        ).thenReturn(CompletableFuture.completedFuture(expectedCertificationModel));
     }
 
     private Cmpv2Server mockCmpv2ProviderServerSelection() {
@@ -0,0 +1,56 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2020 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CmpConnectionPoolMetricsTest {
+
+    @Mock
+    private PoolingNHttpClientConnectionManager connectionManager;
+
+    @Test
+    void shouldExposeConnectionPoolStatisticsAsGauges() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(connectionManager.getTotalStats()).thenReturn(new PoolStats(3, 1, 2, 200));
+
+        // When
+        new CmpConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        // Then
+        assertThat(registry.get("certservice.cmp.http.pool.leased").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("certservice.cmp.http.pool.pending").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("certservice.cmp.http.pool.available").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("certservice.cmp.http.pool.max").gauge().value()).isEqualTo(200);
+    }
+
+}
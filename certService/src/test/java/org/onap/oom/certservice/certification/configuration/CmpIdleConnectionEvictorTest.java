@@ -0,0 +1,106 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CmpIdleConnectionEvictorTest {
+
+    private static final long MAX_IDLE_TIME_MS = 100;
+    private static final long TIMEOUT_MS = 5000;
+
+    private HttpServer server;
+    private String url;
+    private PoolingNHttpClientConnectionManager connectionManager;
+    private CmpIdleConnectionEvictor evictor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 2);
+            exchange.getResponseBody().write(new byte[]{0x30, 0x00});
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/";
+        connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+        evictor = new CmpIdleConnectionEvictor(connectionManager, Executors.newSingleThreadScheduledExecutor(),
+            MAX_IDLE_TIME_MS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        evictor.shutdown();
+        connectionManager.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldCloseIdleConnectionsOfPool() throws Exception {
+        // Given
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .build();
+        httpAsyncClient.start();
+        httpAsyncClient.execute(new HttpGet(url), null).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        awaitAvailable(() -> connectionManager.getTotalStats().getAvailable(), 1);
+
+        // When
+        evictor.start();
+
+        // Then
+        awaitAvailable(() -> connectionManager.getTotalStats().getAvailable(), 0);
+        httpAsyncClient.close();
+    }
+
+    @Test
+    void shouldRejectNonPositiveMaximumIdleTime() {
+        // Then
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+            new CmpIdleConnectionEvictor(connectionManager, Executors.newSingleThreadScheduledExecutor(), 0));
+    }
+
+    private static void awaitAvailable(IntSupplier availableConnections, int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (availableConnections.getAsInt() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(availableConnections.getAsInt()).isEqualTo(expected);
+    }
+}
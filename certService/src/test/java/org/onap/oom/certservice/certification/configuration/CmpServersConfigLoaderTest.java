@@ -73,6 +73,21 @@ class CmpServersConfigLoaderTest {
             .hasSize(2);
         verifyThatCmpServerEquals(cmpServers.get(0), EXPECTED_FIRST_CMP_SERVER);
         verifyThatCmpServerEquals(cmpServers.get(1), EXPECTED_SECOND_CMP_SERVER);
+        assertThat(cmpServers.get(0).isBatchingEnabled()).isFalse();
+        assertThat(cmpServers.get(1).isBatchingEnabled()).isTrue();
+        assertThat(cmpServers.get(1).getBatching().getMaxSize()).isEqualTo(32);
+        assertThat(cmpServers.get(1).getBatching().getWindowMs()).isEqualTo(15);
+        assertThat(cmpServers.get(0).isCircuitBreakerEnabled()).isTrue();
+        assertThat(cmpServers.get(0).getCircuitBreaker().getFailureRateThreshold()).isEqualTo(60);
+        assertThat(cmpServers.get(0).getCircuitBreaker().getOpenStateMs()).isEqualTo(5000);
+        assertThat(cmpServers.get(0).getCircuitBreaker().getHalfOpenCalls()).isEqualTo(3);
+        assertThat(cmpServers.get(1).isCircuitBreakerEnabled()).isFalse();
+        assertThat(cmpServers.get(0).isHedgingEnabled()).isFalse();
+        assertThat(cmpServers.get(1).isHedgingEnabled()).isTrue();
+        assertThat(cmpServers.get(1).getHedging().getAlternateUrl())
+            .isEqualTo("http://127.0.0.2/ejbca/publicweb/cmp/cmpRA");
+        assertThat(cmpServers.get(1).getHedging().getLatencyPercentile()).isEqualTo(90);
+        assertThat(cmpServers.get(1).getHedging().getMinDelayMs()).isEqualTo(100);
     }
 
     @Test
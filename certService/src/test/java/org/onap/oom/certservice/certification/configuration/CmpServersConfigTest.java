@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.startsWith;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 
 import org.bouncycastle.asn1.x500.X500Name;
@@ -48,10 +49,12 @@ class CmpServersConfigTest {
     private CmpServersConfigLoader cmpServersConfigLoader;
 
     private CmpServersConfig cmpServersConfig;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        cmpServersConfig = new CmpServersConfig(APP_CONFIG_PATH, cmpServersConfigLoader);
+        meterRegistry = new SimpleMeterRegistry();
+        cmpServersConfig = new CmpServersConfig(APP_CONFIG_PATH, cmpServersConfigLoader, meterRegistry);
     }
 
     @Test
@@ -91,6 +94,48 @@ class CmpServersConfigTest {
         assertThat(receivedCmpServers).containsAll(SAMPLE_CMP_SERVERS);
     }
 
+    @Test
+    void shouldReturnEmptySnapshotBeforeConfigurationIsLoaded() {
+        // When
+        CmpServersSnapshot snapshot = this.cmpServersConfig.getSnapshot();
+
+        // Then
+        assertThat(snapshot).isSameAs(CmpServersSnapshot.EMPTY);
+    }
+
+    @Test
+    void shouldPublishNewSnapshotAfterReload() throws CmpServersConfigLoadingException {
+        // Given
+        Mockito.when(cmpServersConfigLoader.load(any())).thenReturn(SAMPLE_CMP_SERVERS);
+        this.cmpServersConfig.init();      // Manual PostConstruct call
+        CmpServersSnapshot initialSnapshot = this.cmpServersConfig.getSnapshot();
+
+        // When
+        this.cmpServersConfig.reloadConfiguration();
+        CmpServersSnapshot reloadedSnapshot = this.cmpServersConfig.getSnapshot();
+
+        // Then
+        assertThat(reloadedSnapshot).isNotSameAs(initialSnapshot);
+        assertThat(reloadedSnapshot.getServers()).containsExactlyElementsOf(SAMPLE_CMP_SERVERS);
+        assertThat(initialSnapshot.getServers()).containsExactlyElementsOf(SAMPLE_CMP_SERVERS);
+    }
+
+    @Test
+    void shouldKeepPreviousSnapshotWhenReloadingFails() throws CmpServersConfigLoadingException {
+        // Given
+        Mockito.when(cmpServersConfigLoader.load(any()))
+                .thenReturn(SAMPLE_CMP_SERVERS)
+                .thenThrow(new CmpServersConfigLoadingException(ERROR_MESSAGE));
+        this.cmpServersConfig.init();      // Manual PostConstruct call
+        CmpServersSnapshot initialSnapshot = this.cmpServersConfig.getSnapshot();
+
+        // When
+        assertThrows(CmpServersConfigLoadingException.class, () -> cmpServersConfig.reloadConfiguration());
+
+        // Then
+        assertThat(this.cmpServersConfig.getSnapshot()).isSameAs(initialSnapshot);
+    }
+
     @Test
     void shouldRethrowExceptionWhenReloaded() throws CmpServersConfigLoadingException {
         // Given
@@ -208,6 +253,42 @@ class CmpServersConfigTest {
         assertThat(cmpServersConfig.isReady()).isFalse();
     }
 
+    @Test
+    void shouldStayReadyWhenReloadFailsAfterSuccessfulLoading() throws CmpServersConfigLoadingException {
+        // Given
+        Mockito.when(cmpServersConfigLoader.load(any()))
+                .thenReturn(SAMPLE_CMP_SERVERS)
+                .thenThrow(new CmpServersConfigLoadingException(ERROR_MESSAGE));
+        this.cmpServersConfig.init();      // Manual PostConstruct call
+
+        // When
+        assertThrows(CmpServersConfigLoadingException.class, () -> cmpServersConfig.reloadConfiguration());
+
+        // Then
+        assertThat(cmpServersConfig.isReady()).isTrue();
+        assertThat(cmpServersConfig.getCmpServers()).containsExactlyElementsOf(SAMPLE_CMP_SERVERS);
+    }
+
+    @Test
+    void shouldRecordReloadTimeAndResult() throws CmpServersConfigLoadingException {
+        // Given
+        Mockito.when(cmpServersConfigLoader.load(any()))
+                .thenReturn(SAMPLE_CMP_SERVERS)
+                .thenThrow(new CmpServersConfigLoadingException(ERROR_MESSAGE));
+
+        // When
+        this.cmpServersConfig.reloadConfiguration();
+        assertThrows(CmpServersConfigLoadingException.class, () -> cmpServersConfig.reloadConfiguration());
+
+        // Then
+        assertThat(meterRegistry.get("certservice.config.reload").tag("result", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.config.reload").tag("result", "failure").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.config.cmp.servers").gauge().value())
+                .isEqualTo(SAMPLE_CMP_SERVERS.size());
+    }
+
     private static List<Cmpv2Server> generateTestConfiguration() {
         Cmpv2Server testServer1 = new Cmpv2Server();
         testServer1.setCaName("TEST_CA1");
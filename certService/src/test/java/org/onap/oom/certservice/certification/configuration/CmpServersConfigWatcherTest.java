@@ -0,0 +1,169 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CmpServersConfigWatcherTest {
+
+    private static final String CONFIG_FILE_NAME = "cmpServers.json";
+    private static final long DEBOUNCE_MS = 50;
+    private static final long TIMEOUT_MS = 10000;
+
+    @TempDir
+    Path configDirectory;
+
+    @Mock
+    private CmpServersConfig cmpServersConfig;
+
+    private Path configFile;
+    private CmpServersConfigWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        configFile = configDirectory.resolve(CONFIG_FILE_NAME);
+        Files.writeString(configFile, "{\"cmpv2Servers\": []}");
+        when(cmpServersConfig.getConfigFilePath()).thenReturn(configFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void shouldNotReloadWhenFileIsUnchanged() throws CmpServersConfigLoadingException {
+        // Given
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, false, DEBOUNCE_MS);
+
+        // When
+        boolean firstCheck = watcher.reloadIfChanged();
+        boolean secondCheck = watcher.reloadIfChanged();
+
+        // Then
+        assertThat(firstCheck).isTrue();
+        assertThat(secondCheck).isFalse();
+        verify(cmpServersConfig, Mockito.times(1)).reloadConfiguration();
+    }
+
+    @Test
+    void shouldReloadWhenFileIsModified() throws Exception {
+        // Given
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, false, DEBOUNCE_MS);
+        watcher.reloadIfChanged();
+
+        // When
+        Files.writeString(configFile, "{\"cmpv2Servers\": [ ]}");
+        Files.setLastModifiedTime(configFile, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        boolean reloaded = watcher.reloadIfChanged();
+
+        // Then
+        assertThat(reloaded).isTrue();
+        verify(cmpServersConfig, Mockito.times(2)).reloadConfiguration();
+    }
+
+    @Test
+    void shouldReloadWhenSymlinkPointsToNewFile() throws Exception {
+        // Given
+        Path firstVersion = Files.createDirectory(configDirectory.resolve("..2021_01"));
+        Path secondVersion = Files.createDirectory(configDirectory.resolve("..2021_02"));
+        Files.writeString(firstVersion.resolve(CONFIG_FILE_NAME), "{}");
+        Files.writeString(secondVersion.resolve(CONFIG_FILE_NAME), "{}");
+        Path dataLink = Files.createSymbolicLink(configDirectory.resolve("..data"), firstVersion.getFileName());
+        Path linkedConfigFile = configDirectory.resolve("linked").resolve(CONFIG_FILE_NAME);
+        Files.createDirectory(linkedConfigFile.getParent());
+        Files.createSymbolicLink(linkedConfigFile, dataLink.resolve(CONFIG_FILE_NAME));
+        when(cmpServersConfig.getConfigFilePath()).thenReturn(linkedConfigFile);
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, false, DEBOUNCE_MS);
+        watcher.reloadIfChanged();
+
+        // When
+        Files.delete(dataLink);
+        Files.createSymbolicLink(dataLink, secondVersion.getFileName());
+        boolean reloaded = watcher.reloadIfChanged();
+
+        // Then
+        assertThat(reloaded).isTrue();
+        verify(cmpServersConfig, Mockito.times(2)).reloadConfiguration();
+    }
+
+    @Test
+    void shouldKeepConfigurationWhenFileIsDeleted() throws Exception {
+        // Given
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, false, DEBOUNCE_MS);
+        Files.delete(configFile);
+
+        // When
+        boolean reloaded = watcher.reloadIfChanged();
+
+        // Then
+        assertThat(reloaded).isFalse();
+        verify(cmpServersConfig, never()).reloadConfiguration();
+    }
+
+    @Test
+    void shouldNotFailWhenReloadIsRejected() throws Exception {
+        // Given
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, false, DEBOUNCE_MS);
+        Mockito.doThrow(new CmpServersConfigLoadingException("invalid")).when(cmpServersConfig).reloadConfiguration();
+
+        // When
+        boolean reloaded = watcher.reloadIfChanged();
+
+        // Then
+        assertThat(reloaded).isTrue();
+    }
+
+    @Test
+    void shouldReloadConfigurationWhenWatchedFileChanges() throws Exception {
+        // Given
+        watcher = new CmpServersConfigWatcher(cmpServersConfig, true, DEBOUNCE_MS);
+        watcher.start();
+
+        // When
+        Files.writeString(configFile, "{\"cmpv2Servers\": [ ]}");
+        Files.setLastModifiedTime(configFile, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+
+        // Then
+        verify(cmpServersConfig, timeout(TIMEOUT_MS)).reloadConfiguration();
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+
+class CmpServersSnapshotTest {
+
+    @Test
+    void shouldFindServerByCaName() {
+        // Given
+        Cmpv2Server firstServer = createTestServer("CA1", "CN=issuer1");
+        Cmpv2Server secondServer = createTestServer("CA2", "CN=issuer2");
+        CmpServersSnapshot snapshot = CmpServersSnapshot.of(List.of(firstServer, secondServer));
+
+        // When
+        // Then
+        assertThat(snapshot.findServer("CA1")).containsSame(firstServer);
+        assertThat(snapshot.findServer("CA2")).containsSame(secondServer);
+        assertThat(snapshot.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnEmptyOptionalForUnknownOrNullCaName() {
+        // Given
+        CmpServersSnapshot snapshot = CmpServersSnapshot.of(List.of(createTestServer("CA1", "CN=issuer1")));
+
+        // When
+        // Then
+        assertThat(snapshot.findServer("UNKNOWN")).isEmpty();
+        assertThat(snapshot.findServer(null)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnFirstServerWhenCaNameIsDuplicated() {
+        // Given
+        Cmpv2Server firstServer = createTestServer("CA1", "CN=issuer1");
+        Cmpv2Server duplicatedServer = createTestServer("CA1", "CN=issuer2");
+        CmpServersSnapshot snapshot = CmpServersSnapshot.of(List.of(firstServer, duplicatedServer));
+
+        // When
+        // Then
+        assertThat(snapshot.findServer("CA1")).containsSame(firstServer);
+        assertThat(snapshot.getServers()).containsExactly(firstServer, duplicatedServer);
+    }
+
+    @Test
+    void shouldNotBeAffectedByChangesOfSourceList() {
+        // Given
+        Cmpv2Server server = createTestServer("CA1", "CN=issuer1");
+        List<Cmpv2Server> source = new ArrayList<>(List.of(server));
+        CmpServersSnapshot snapshot = CmpServersSnapshot.of(source);
+
+        // When
+        source.clear();
+
+        // Then
+        assertThat(snapshot.getServers()).containsExactly(server);
+        assertThat(snapshot.findServer("CA1")).containsSame(server);
+    }
+
+    @Test
+    void shouldExposeUnmodifiableServerList() {
+        // Given
+        CmpServersSnapshot snapshot = CmpServersSnapshot.of(List.of(createTestServer("CA1", "CN=issuer1")));
+        List<Cmpv2Server> servers = snapshot.getServers();
+        Cmpv2Server server = createTestServer("CA2", "CN=issuer2");
+
+        // When
+        // Then
+        assertThrows(UnsupportedOperationException.class, () -> servers.add(server));
+    }
+
+    @Test
+    void shouldHaveNoServersInEmptySnapshot() {
+        // Then
+        assertThat(CmpServersSnapshot.EMPTY.getServers()).isEmpty();
+        assertThat(CmpServersSnapshot.EMPTY.findServer("CA1")).isEmpty();
+    }
+
+    private static Cmpv2Server createTestServer(String caName, String issuerDn) {
+        Cmpv2Server server = new Cmpv2Server();
+        server.setCaName(caName);
+        server.setIssuerDN(new X500Name(issuerDn));
+        server.setUrl("http://test.ca.server");
+        return server;
+    }
+
+}
@@ -57,7 +57,7 @@ class Cmpv2ServerProviderTest {
     void shouldReturnOptionalWithServerWhenServerWithGivenCaNameIsPresentInConfig() {
         // Given
         Cmpv2Server testServer = createTestServer();
-        when(cmpServersConfig.getCmpServers()).thenReturn(Collections.singletonList(testServer));
+        when(cmpServersConfig.getSnapshot()).thenReturn(CmpServersSnapshot.of(Collections.singletonList(testServer)));
 
         // When
         Cmpv2Server receivedServer = cmpv2ServerProvider
@@ -71,7 +71,7 @@ class Cmpv2ServerProviderTest {
     void shouldReturnEmptyOptionalWhenServerWithGivenCaNameIsNotPresentInConfig() {
         // Given
         String expectedMessage = "No server found for given CA name";
-        when(cmpServersConfig.getCmpServers()).thenReturn(Collections.emptyList());
+        when(cmpServersConfig.getSnapshot()).thenReturn(CmpServersSnapshot.EMPTY);
 
         // When
         Exception exception = assertThrows(
@@ -0,0 +1,62 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+
+class PasswordBasedMacCacheMetricsTest {
+
+    private static final String SHA1_OID = "1.3.14.3.2.26";
+    private static final String HMAC_SHA1_OID = "1.3.6.1.5.5.8.1.2";
+
+    @BeforeAll
+    static void setUpProvider() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    void shouldExposeCacheHitsAndMissesAsCounters() throws GeneralSecurityException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordBasedMacCache cache = new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES);
+        for (int i = 0; i < 3; i++) {
+            cache.computeMac("mypassword", new byte[]{1, 2, 3}, 10, SHA1_OID, HMAC_SHA1_OID, new byte[]{4, 5});
+        }
+
+        // When
+        new PasswordBasedMacCacheMetrics(cache, "verification").bindTo(registry);
+
+        // Then
+        assertThat(registry.get("certservice.cmp.pbm.cache.hits").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("certservice.cmp.pbm.cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("certservice.cmp.pbm.cache.hits").functionCounter().getId().getTag("usage"))
+            .isEqualTo("verification");
+    }
+
+}
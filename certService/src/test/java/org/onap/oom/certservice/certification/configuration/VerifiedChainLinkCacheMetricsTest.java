@@ -0,0 +1,54 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.cert.X509Certificate;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.cmpv2client.impl.VerifiedChainLinkCache;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+class VerifiedChainLinkCacheMetricsTest {
+
+    @Test
+    void shouldExposeCacheHitsAndMissesAsCounters() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CertificateAuthority certificateAuthority = new CertificateAuthority("Metrics");
+        X509Certificate rootCertificate = certificateAuthority.getRootCertificate();
+        X509Certificate issuingCertificate = certificateAuthority.getIssuingCertificate();
+        VerifiedChainLinkCache cache = new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
+        cache.isVerified(issuingCertificate, rootCertificate, null);
+        cache.markVerified(issuingCertificate, rootCertificate);
+        cache.isVerified(issuingCertificate, rootCertificate, null);
+        cache.isVerified(issuingCertificate, rootCertificate, null);
+
+        // When
+        new VerifiedChainLinkCacheMetrics(cache).bindTo(registry);
+
+        // Then
+        assertThat(registry.get("certservice.cmp.chain.cache.hits").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("certservice.cmp.chain.cache.misses").functionCounter().count()).isEqualTo(1);
+    }
+
+}
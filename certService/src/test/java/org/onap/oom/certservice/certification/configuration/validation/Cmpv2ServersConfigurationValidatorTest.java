@@ -27,6 +27,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.onap.oom.certservice.CertServiceApplication;
 import org.onap.oom.certservice.certification.configuration.model.Authentication;
+import org.onap.oom.certservice.certification.configuration.model.CircuitBreaker;
+import org.onap.oom.certservice.certification.configuration.model.Hedging;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -175,6 +177,40 @@ class Cmpv2ServersConfigurationValidatorTest {
         assertExceptionIsThrown();
     }
 
+    @Test
+    void shouldThrowExceptionWhenCircuitBreakerThresholdIsOutOfRange() {
+        // Given
+        CircuitBreaker circuitBreaker = new CircuitBreaker();
+        circuitBreaker.setFailureRateThreshold(101);
+        server.setCircuitBreaker(circuitBreaker);
+
+        // Then
+        assertExceptionIsThrown();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenHedgingAlternateUrlIsMissing() {
+        // Given
+        Hedging hedging = new Hedging();
+        hedging.setEnabled(true);
+        server.setHedging(hedging);
+
+        // Then
+        assertExceptionIsThrown();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenHedgingLatencyPercentileIsOutOfRange() {
+        // Given
+        Hedging hedging = new Hedging();
+        hedging.setAlternateUrl("http://127.0.0.2:8080/ejbca/publicweb/cmp/cmp");
+        hedging.setLatencyPercentile(100);
+        server.setHedging(hedging);
+
+        // Then
+        assertExceptionIsThrown();
+    }
+
     @Test
     void shouldNotThrowExceptionWhenServerConfigurationIsValid() {
         // Then
@@ -138,4 +138,37 @@ class CsrModelFactoryTest {
         // then
         assertTrue(actualMessage.contains(expectedMessage));
     }
+
+    @Test
+    void shouldCreateCsrModelOfCsrAndKeyGivenInDerForm() throws DecryptionException {
+        // given
+        PemObjectFactory pemObjectFactory = new PemObjectFactory();
+        byte[] csr = pemObjectFactory.createPemObject(TEST_CSR).orElseThrow().getContent();
+        byte[] privateKey = pemObjectFactory.createPemObject(TEST_PK).orElseThrow().getContent();
+
+        // when
+        CsrModel decryptedCsr = csrModelFactory.createCsrModelFromDer(csr, privateKey);
+
+        // then
+        assertTrue(decryptedCsr.toString()
+            .contains(TestData.EXPECTED_CERT_SUBJECT));
+        assertTrue(decryptedCsr.toString()
+            .contains(TestData.EXPECTED_CERT_SANS));
+    }
+
+    @Test
+    void shouldThrowCsrDecryptionExceptionWhenCsrInDerFormIsIncorrect() {
+        // given
+        byte[] privateKey = new PemObjectFactory().createPemObject(TEST_PK).orElseThrow().getContent();
+        byte[] wrongCsr = TEST_WRONG_CSR.getBytes();
+
+        // when
+        Exception exception = assertThrows(
+            CsrDecryptionException.class, () -> csrModelFactory.createCsrModelFromDer(wrongCsr, privateKey)
+        );
+
+        // then
+        assertTrue(exception.getMessage().contains("Incorrect CSR, decryption failed"));
+    }
+
 }
@@ -199,4 +199,39 @@ class OldCertificateModelFactoryTest {
         assertThatThrownBy(() -> factory.createCertificateModel(base64EncodedCertificate, ENCODED_PRIVATE_KEY))
             .isInstanceOf(CertificateDecryptionException.class);
     }
+
+    @Test
+    void shouldCorrectlyParseX509CertificateGivenInDerForm()
+        throws CertificateDecryptionException {
+        //given
+        byte[] encodedCertificate = toDer(ENCODED_CERTIFICATE_STRING);
+        byte[] encodedPrivateKey = toDer(ENCODED_PRIVATE_KEY);
+        //when
+        final OldCertificateModel certificateModel =
+            factory.createCertificateModelFromDer(encodedCertificate, encodedPrivateKey);
+        //then
+        assertThat(certificateModel.getOldCertificate()).isNotNull();
+        assertThat(certificateModel.getSubjectData()).isEqualTo(new X500Name(SUBJECT));
+        assertThat(certificateModel.getSans()).containsExactly(GENERAL_NAME);
+        assertThat(certificateModel.getOldPrivateKey()).isNotNull();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCertificateInDerFormIsIncorrect() {
+        //given
+        byte[] encodedPrivateKey = toDer(ENCODED_PRIVATE_KEY);
+        //when, then
+        assertThatThrownBy(() -> factory.createCertificateModelFromDer(new byte[]{0x30, 0x03}, encodedPrivateKey))
+            .isInstanceOf(CertificateDecryptionException.class)
+            .hasMessage("Cannot convert certificate");
+        assertThatThrownBy(() -> factory.createCertificateModelFromDer(null, encodedPrivateKey))
+            .isInstanceOf(CertificateDecryptionException.class);
+    }
+
+    private static byte[] toDer(String base64EncodedPem) {
+        return new StringBase64(base64EncodedPem).asString()
+            .flatMap(new PemObjectFactory()::createPemObject)
+            .orElseThrow()
+            .getContent();
+    }
 }
@@ -26,6 +26,7 @@ import org.onap.oom.certservice.certification.exception.KeyDecryptionException;
 
 import java.security.PrivateKey;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -86,4 +87,27 @@ class StringBase64ToPrivateKeyConverterTest {
         assertTrue(actualMessage.contains(expectedMessage));
     }
 
+    @Test
+    void shouldConvertPrivateKeyGivenInDerForm() throws KeyDecryptionException {
+        // Given
+        StringBase64ToPrivateKeyConverter stringBase64ToPrivateKeyConverter = new StringBase64ToPrivateKeyConverter();
+        byte[] encodedPK = new PemObjectFactory().createPemObject(TEST_PK).orElseThrow().getContent();
+        // When
+        PrivateKey privateKey = stringBase64ToPrivateKeyConverter.convert(encodedPK);
+        // Then
+        assertEquals(RSA, privateKey.getAlgorithm());
+        assertArrayEquals(encodedPK, privateKey.getEncoded());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPrivateKeyInDerFormIsEmpty() {
+        // Given
+        StringBase64ToPrivateKeyConverter stringBase64ToPrivateKeyConverter = new StringBase64ToPrivateKeyConverter();
+        // When
+        Exception exception = assertThrows(
+                KeyDecryptionException.class, () -> stringBase64ToPrivateKeyConverter.convert(new byte[0]));
+        // Then
+        assertEquals("Incorrect Key, decryption failed", exception.getMessage());
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.crypto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.Signature;
+import java.util.concurrent.CompletableFuture;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class JcaEnginesTest {
+
+    private static final String SHA256_WITH_RSA = PKCSObjectIdentifiers.sha256WithRSAEncryption.getId();
+
+    @BeforeAll
+    static void setUpProvider() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    void shouldReuseEnginesWithinThread() throws Exception {
+        // Then
+        assertThat(JcaEngines.getX509CertificateFactory()).isSameAs(JcaEngines.getX509CertificateFactory());
+        assertThat(JcaEngines.getRsaKeyFactory()).isSameAs(JcaEngines.getRsaKeyFactory());
+        assertThat(JcaEngines.getPkixCertPathValidator()).isSameAs(JcaEngines.getPkixCertPathValidator());
+        assertThat(JcaEngines.getSignature(SHA256_WITH_RSA)).isSameAs(JcaEngines.getSignature(SHA256_WITH_RSA));
+    }
+
+    @Test
+    void shouldUseBouncyCastleProviderForCertificatesAndSignatures() throws Exception {
+        // Then
+        assertThat(JcaEngines.getX509CertificateFactory().getProvider().getName())
+            .isEqualTo(BouncyCastleProvider.PROVIDER_NAME);
+        assertThat(JcaEngines.getPkixCertPathValidator().getProvider().getName())
+            .isEqualTo(BouncyCastleProvider.PROVIDER_NAME);
+        assertThat(JcaEngines.getSignature(SHA256_WITH_RSA).getProvider().getName())
+            .isEqualTo(BouncyCastleProvider.PROVIDER_NAME);
+    }
+
+    @Test
+    void shouldGiveEachThreadItsOwnEngines() throws Exception {
+        // Given
+        Signature signature = JcaEngines.getSignature(SHA256_WITH_RSA);
+
+        // When
+        Signature otherThreadSignature = CompletableFuture.supplyAsync(() -> {
+            try {
+                return JcaEngines.getSignature(SHA256_WITH_RSA);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+
+        // Then
+        assertThat(otherThreadSignature).isNotSameAs(signature);
+    }
+
+    @Test
+    void shouldProduceValidSignatureAfterInterruptedUse() throws Exception {
+        // Given
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        byte[] data = "protected part".getBytes();
+        Signature interrupted = JcaEngines.getSignature(SHA256_WITH_RSA);
+        interrupted.initSign(keyPair.getPrivate());
+        interrupted.update("never signed".getBytes());
+
+        // When
+        Signature signer = JcaEngines.getSignature(SHA256_WITH_RSA);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        byte[] signatureBytes = signer.sign();
+
+        // Then
+        Signature verifier = JcaEngines.getSignature(SHA256_WITH_RSA);
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(data);
+        assertThat(verifier.verify(signatureBytes)).isTrue();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+
+class IssuanceMetricsTest {
+
+    private static final String CA_NAME = "TEST";
+    private static final String STAGE_METRIC = "certservice.issuance.stage";
+    private static final String REQUEST_METRIC = "certservice.issuance.request";
+
+    private MockClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private IssuanceMetrics issuanceMetrics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MockClock();
+        meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        issuanceMetrics = new IssuanceMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldRecordDurationOfSuccessfulStage() {
+        // When
+        String result = issuanceMetrics.timeStage(IssuanceStage.BUILD, CA_NAME, RequestType.IR, () -> {
+            clock.add(30, TimeUnit.MILLISECONDS);
+            return "message";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("message");
+        Timer timer = meterRegistry.get(STAGE_METRIC)
+            .tags("stage", "build", "caName", CA_NAME, "requestType", "ir", "outcome", "success")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30);
+    }
+
+    @Test
+    void shouldRecordFailedStageAndRethrowItsException() {
+        // When
+        assertThatExceptionOfType(CmpClientException.class).isThrownBy(() ->
+            issuanceMetrics.timeStage(IssuanceStage.PROTECT, CA_NAME, RequestType.KUR, () -> {
+                throw new CmpClientException("protection failed");
+            }));
+
+        // Then
+        assertThat(meterRegistry.get(STAGE_METRIC)
+            .tags("stage", "protect", "requestType", "kur", "outcome", "failure")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagRequestWithCauseOfCompletionException() {
+        // Given
+        long startTime = issuanceMetrics.start();
+        clock.add(2, TimeUnit.SECONDS);
+
+        // When
+        issuanceMetrics.recordRequest(CA_NAME, RequestType.CR, startTime,
+            new CompletionException(new CmpClientException("CA unavailable")));
+
+        // Then
+        Timer timer = meterRegistry.get(REQUEST_METRIC)
+            .tags("caName", CA_NAME, "requestType", "cr", "outcome", "failure", "error", "CmpClientException")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTagUnknownCaNameAndRequestTypeAsUnknown() {
+        // When
+        issuanceMetrics.recordRequest(null, null, issuanceMetrics.start(), null);
+
+        // Then
+        assertThat(meterRegistry.get(REQUEST_METRIC)
+            .tags("caName", "unknown", "requestType", "unknown", "outcome", "success", "error", "none")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountDeduplicatedRequestsBySource() {
+        // When
+        issuanceMetrics.recordDeduplicatedRequest(CA_NAME, RequestType.IR, false);
+        issuanceMetrics.recordDeduplicatedRequest(CA_NAME, RequestType.IR, false);
+        issuanceMetrics.recordDeduplicatedRequest(CA_NAME, RequestType.IR, true);
+
+        // Then
+        assertThat(meterRegistry.get("certservice.issuance.deduplicated")
+            .tags("caName", CA_NAME, "requestType", "ir", "source", "in_flight")
+            .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("certservice.issuance.deduplicated")
+            .tags("source", "cache")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMapPkiBodyTypesToRequestTypes() {
+        // Then
+        assertThat(RequestType.fromPkiBodyType(PKIBody.TYPE_INIT_REQ)).isEqualTo(RequestType.IR);
+        assertThat(RequestType.fromPkiBodyType(PKIBody.TYPE_CERT_REQ)).isEqualTo(RequestType.CR);
+        assertThat(RequestType.fromPkiBodyType(PKIBody.TYPE_KEY_UPDATE_REQ)).isEqualTo(RequestType.KUR);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> RequestType.fromPkiBodyType(PKIBody.TYPE_CONFIRM));
+    }
+}
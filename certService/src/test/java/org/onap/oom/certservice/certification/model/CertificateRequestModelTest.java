@@ -0,0 +1,58 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class CertificateRequestModelTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldDecodeBase64FieldsOfJsonToDerBytes() throws Exception {
+        // Given
+        String json = "{\"csr\":\"MAEC\",\"pk\":\"MAED\",\"oldCert\":\"MAEE\",\"oldPk\":\"MAEF\"}";
+
+        // When
+        CertificateRequestModel model = objectMapper.readValue(json, CertificateRequestModel.class);
+
+        // Then
+        assertThat(model.getCsr()).containsExactly(0x30, 0x01, 0x02);
+        assertThat(model.getPrivateKey()).containsExactly(0x30, 0x01, 0x03);
+        assertThat(model.getOldCertificate()).containsExactly(0x30, 0x01, 0x04);
+        assertThat(model.getOldPrivateKey()).containsExactly(0x30, 0x01, 0x05);
+    }
+
+    @Test
+    void shouldLeaveOldCertificateAndKeyEmptyWhenNotGiven() throws Exception {
+        // When
+        CertificateRequestModel model = objectMapper.readValue("{\"csr\":\"MAEC\",\"pk\":\"MAED\"}",
+            CertificateRequestModel.class);
+
+        // Then
+        assertThat(model.getCsr()).containsExactly(0x30, 0x01, 0x02);
+        assertThat(model.getOldCertificate()).isNull();
+        assertThat(model.getOldPrivateKey()).isNull();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CertificationResponseModelTest {
+
+    private static final String LEAF_PEM = "-----BEGIN CERTIFICATE-----\nleaf\n-----END CERTIFICATE-----\n";
+    private static final String ROOT_PEM = "-----BEGIN CERTIFICATE-----\nroot\n-----END CERTIFICATE-----\n";
+    private static final String EXPECTED_JSON = "{\"certificateChain\":"
+        + "[\"-----BEGIN CERTIFICATE-----\\nleaf\\n-----END CERTIFICATE-----\\n\"],"
+        + "\"trustedCertificates\":"
+        + "[\"-----BEGIN CERTIFICATE-----\\nroot\\n-----END CERTIFICATE-----\\n\"]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldSerializeCertificatesAsJsonArraysOfPemStrings() throws Exception {
+        // Given
+        CertificationResponseModel model = new CertificationResponseModel(List.of(LEAF_PEM), List.of(ROOT_PEM));
+
+        // When
+        String json = objectMapper.writeValueAsString(model);
+
+        // Then
+        assertThat(json).isEqualTo(EXPECTED_JSON);
+    }
+
+    @Test
+    void shouldSerializeEncodedCertificatesTheSameWayAsStrings() throws Exception {
+        // Given
+        SerializedString sharedRootPem = new SerializedString(ROOT_PEM);
+        CertificationResponseModel first = CertificationResponseModel.fromEncoded(
+            List.of(new SerializedString(LEAF_PEM)), List.of(sharedRootPem));
+        CertificationResponseModel second = CertificationResponseModel.fromEncoded(
+            List.of(new SerializedString(LEAF_PEM)), List.of(sharedRootPem));
+
+        // When
+        String firstJson = objectMapper.writeValueAsString(first);
+        String secondJson = objectMapper.writeValueAsString(second);
+
+        // Then
+        assertThat(firstJson).isEqualTo(EXPECTED_JSON);
+        assertThat(secondJson).isEqualTo(EXPECTED_JSON);
+        assertThat(second.getCertificateChain()).containsExactly(LEAF_PEM);
+        assertThat(second.getTrustedCertificates()).containsExactly(ROOT_PEM);
+    }
+}
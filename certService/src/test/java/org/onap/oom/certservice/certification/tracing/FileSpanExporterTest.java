@@ -0,0 +1,74 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSpanExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldAppendFinishedSpansAsJsonLines() throws IOException {
+        // Given
+        Path spanFile = tempDir.resolve("log/spans.json");
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(spanFile)))
+            .build();
+        Tracer tracer = tracerProvider.get("test");
+
+        // When
+        Span parent = tracer.spanBuilder("GET").setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("CMPv2 IR").setAttribute(IssuanceTracing.CA_NAME, "TEST").startSpan().end();
+        }
+        parent.end();
+        tracerProvider.close();
+
+        // Then
+        List<String> lines = Files.readAllLines(spanFile);
+        assertThat(lines).hasSize(2);
+        JsonObject child = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        JsonObject server = JsonParser.parseString(lines.get(1)).getAsJsonObject();
+        assertThat(child.get("name").getAsString()).isEqualTo("CMPv2 IR");
+        assertThat(child.get("traceId").getAsString()).isEqualTo(parent.getSpanContext().getTraceId());
+        assertThat(child.get("parentSpanId").getAsString()).isEqualTo(parent.getSpanContext().getSpanId());
+        assertThat(child.getAsJsonObject("attributes").get("certservice.ca_name").getAsString()).isEqualTo("TEST");
+        assertThat(server.get("kind").getAsString()).isEqualTo("SERVER");
+        assertThat(server.has("parentSpanId")).isFalse();
+    }
+}
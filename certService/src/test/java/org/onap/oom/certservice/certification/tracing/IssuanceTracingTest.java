@@ -0,0 +1,162 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.certification.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.metrics.RequestType;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+
+class IssuanceTracingTest {
+
+    private static final String CA_NAME = "TEST";
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final TextMapGetter<Map<String, String>> MAP_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier.get(key);
+        }
+    };
+
+    private InMemorySpanExporter spanExporter;
+    private IssuanceTracing issuanceTracing;
+
+    @BeforeEach
+    void setUp() {
+        spanExporter = InMemorySpanExporter.create();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+            .build();
+        issuanceTracing = new IssuanceTracing(OpenTelemetrySdk.builder()
+            .setTracerProvider(tracerProvider)
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build());
+    }
+
+    @Test
+    void shouldContinueTraceSentByCaller() {
+        // When
+        Span span = issuanceTracing.startServerSpan("GET", Map.of("traceparent", TRACEPARENT), MAP_GETTER);
+        span.end();
+
+        // Then
+        SpanData spanData = getOnlyFinishedSpan();
+        assertThat(spanData.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(spanData.getParentSpanId()).isEqualTo("00f067aa0ba902b7");
+        assertThat(spanData.getKind()).isEqualTo(SpanKind.SERVER);
+    }
+
+    @Test
+    void shouldStartChildSpanTaggedWithCaNameAndRequestType() {
+        // Given
+        Span parent = issuanceTracing.startServerSpan("GET", Map.of(), MAP_GETTER);
+
+        // When
+        try (Scope ignored = parent.makeCurrent()) {
+            issuanceTracing.startSpan("CMPv2 IR", SpanKind.INTERNAL, CA_NAME, RequestType.IR).end();
+        }
+
+        // Then
+        SpanData spanData = getOnlyFinishedSpan();
+        assertThat(spanData.getParentSpanId()).isEqualTo(parent.getSpanContext().getSpanId());
+        assertThat(spanData.getAttributes().get(IssuanceTracing.CA_NAME)).isEqualTo(CA_NAME);
+        assertThat(spanData.getAttributes().get(IssuanceTracing.REQUEST_TYPE)).isEqualTo("IR");
+    }
+
+    @Test
+    void shouldInjectCurrentTraceContext() {
+        // Given
+        Span span = issuanceTracing.startServerSpan("GET", Map.of("traceparent", TRACEPARENT), MAP_GETTER);
+        Map<String, String> headers = new HashMap<>();
+
+        // When
+        try (Scope ignored = span.makeCurrent()) {
+            issuanceTracing.inject(headers, Map::put);
+        }
+
+        // Then
+        assertThat(headers.get("traceparent"))
+            .isEqualTo("00-" + TRACE_ID + "-" + span.getSpanContext().getSpanId() + "-01");
+    }
+
+    @Test
+    void shouldLinkSpanOfSharedWorkToAllTraces() {
+        // Given
+        Span first = issuanceTracing.startServerSpan("GET", Map.of(), MAP_GETTER);
+        Span second = issuanceTracing.startServerSpan("GET", Map.of(), MAP_GETTER);
+
+        // When
+        issuanceTracing.startLinkedSpan("CMPv2 batch", CA_NAME,
+            List.of(first.getSpanContext(), second.getSpanContext(), SpanContext.getInvalid())).end();
+
+        // Then
+        SpanData spanData = getOnlyFinishedSpan();
+        assertThat(spanData.getParentSpanContext().isValid()).isFalse();
+        assertThat(spanData.getLinks()).extracting(link -> link.getSpanContext())
+            .containsExactly(first.getSpanContext(), second.getSpanContext());
+    }
+
+    @Test
+    void shouldMarkSpanEndedWithErrorAsFailed() {
+        // Given
+        Span span = issuanceTracing.startSpan("CMPv2 IR", SpanKind.INTERNAL, CA_NAME, RequestType.IR);
+
+        // When
+        IssuanceTracing.end(span, new CompletionException(new CmpClientException("CA unavailable")));
+
+        // Then
+        SpanData spanData = getOnlyFinishedSpan();
+        assertThat(spanData.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+        assertThat(spanData.getStatus().getDescription()).isEqualTo("CmpClientException");
+        assertThat(spanData.getEvents()).extracting(event -> event.getName()).containsExactly("exception");
+    }
+
+    private SpanData getOnlyFinishedSpan() {
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertThat(spans).hasSize(1);
+        return spans.get(0);
+    }
+}
@@ -23,18 +23,17 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.onap.oom.certservice.cmpv2client.ClientTestData.createOldCertificateModelWithPrivateKeyInPkcs1;
 import static org.onap.oom.certservice.cmpv2client.ClientTestData.createOldCertificateModelWithPrivateKeyInPkcs8;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.ConnectException;
 import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
@@ -50,13 +49,26 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Base64;
 import java.util.Base64.Decoder;
+import java.util.ArrayList;
 import java.util.Date;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 import org.apache.commons.io.IOUtils;
-import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.util.EntityUtils;
 import org.bouncycastle.asn1.ASN1GeneralizedTime;
 import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.DERBitString;
@@ -84,12 +96,20 @@ import org.mockito.Mock;
 import org.onap.oom.certservice.certification.configuration.model.Authentication;
 import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
 import org.onap.oom.certservice.certification.exception.CertificateDecryptionException;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
 import org.onap.oom.certservice.certification.model.CsrModel;
 import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerUnavailableException;
 import org.onap.oom.certservice.cmpv2client.impl.CmpClientImpl;
+import org.onap.oom.certservice.cmpv2client.impl.CmpRetryPolicy;
+import org.onap.oom.certservice.cmpv2client.impl.VerifiedChainLinkCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+import org.onap.oom.certservice.cmpv2client.validation.CmpCertificationValidator;
 
 class Cmpv2ClientTest {
 
@@ -99,23 +119,19 @@ class Cmpv2ClientTest {
 
     private CsrModel csrModel;
     private Cmpv2Server server;
-    private Date notBefore;
-    private Date notAfter;
     private X500Name dn;
 
 
     @Mock
-    CloseableHttpClient httpClient;
+    CloseableHttpAsyncClient httpAsyncClient;
 
     @Mock
-    CloseableHttpResponse httpResponse;
-
-    @Mock
-    HttpEntity httpEntity;
+    HttpResponse asyncHttpResponse;
 
     private static KeyPair keyPair;
 
     private static final Decoder BASE64_DECODER = Base64.getDecoder();
+    private static final int MAX_RESPONSE_SIZE = 1024 * 1024;
 
     @BeforeEach
     void setUp()
@@ -150,72 +166,55 @@ class Cmpv2ClientTest {
     }
 
     @Test
-    void shouldReturnCorrectCmpCertificateForCorrectKeyUpdateResponse() throws CmpClientException, IOException, CertificateDecryptionException {
+    void shouldReturnCorrectCmpCertificateForCorrectKeyUpdateResponse() throws CertificateDecryptionException {
 
         // given
         setCsrModelAndServerTestDefaultValues();
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-
         mockCorrectKeyUpdateResponse();
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        CmpClientImpl cmpClient = createCmpClient();
 
         // when
-        Cmpv2CertificationModel cmpClientResult =
-            cmpClient.executeKeyUpdateRequest(csrModel, server, ClientTestData.createCorrectOldCertificateModel());
+        Cmpv2CertificationModel cmpClientResult = cmpClient
+            .executeKeyUpdateRequestAsync(csrModel, server, ClientTestData.createCorrectOldCertificateModel())
+            .join();
 
         // then
         assertNotNull(cmpClientResult);
         assertThat(cmpClientResult.getCertificateChain()).isNotEmpty();
-        assertThat(cmpClientResult.getCertificateChain()).isNotEmpty();
 
     }
 
     @Test
-    void shouldReturnCorrectCmpCertificateForCorrectCertificationRequest() throws CmpClientException, IOException {
+    void shouldReturnCorrectCmpCertificateForCorrectCertificationRequest() {
 
         // given
         setCsrModelAndServerTestDefaultValues();
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-
-        doAnswer(
-            invocation -> {
-                OutputStream os = invocation.getArgument(0);
-                os.write(BASE64_DECODER.decode(ClientTestData.CR_CORRECT_SERVER_RESPONSE_ENCODED.getBytes()));
-                return null;
-            })
-            .when(httpEntity)
-            .writeTo(any(OutputStream.class));
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        mockAsyncResponse(BASE64_DECODER.decode(ClientTestData.CR_CORRECT_SERVER_RESPONSE_ENCODED.getBytes()));
+        CmpClientImpl cmpClient = createCmpClient();
 
         // when
         Cmpv2CertificationModel cmpClientResult =
-            cmpClient.executeCertificationRequest(csrModel, server);
+            cmpClient.executeCertificationRequestAsync(csrModel, server).join();
 
         // then
         assertNotNull(cmpClientResult);
         assertThat(cmpClientResult.getCertificateChain()).isNotEmpty();
-        assertThat(cmpClientResult.getCertificateChain()).isNotEmpty();
 
     }
 
     @ParameterizedTest
     @MethodSource("getTestUpdateModelWithSupportedPrivateKeys")
-    void shouldNotThrowExceptionForPrivateKeyInExpectedFormat(OldCertificateModel oldCertificateModel)
-        throws IOException {
+    void shouldNotThrowExceptionForPrivateKeyInExpectedFormat(OldCertificateModel oldCertificateModel) {
 
         // given
         setCsrModelAndServerTestDefaultValues();
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-
         mockCorrectKeyUpdateResponse();
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        CmpClientImpl cmpClient = createCmpClient();
 
         // when // then
         assertDoesNotThrow(() -> cmpClient
-            .executeKeyUpdateRequest(csrModel, server, oldCertificateModel)
+            .executeKeyUpdateRequestAsync(csrModel, server, oldCertificateModel)
+            .join()
         );
 
     }
@@ -224,9 +223,9 @@ class Cmpv2ClientTest {
     void shouldThrowCmpClientExceptionWhenCannotParseOldPrivateKey() {
         setCsrModelAndServerTestDefaultValues();
 
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        CmpClientImpl cmpClient = createCmpClient();
         assertThatExceptionOfType(CertificateDecryptionException.class)
-            .isThrownBy(() -> cmpClient.executeKeyUpdateRequest(csrModel, server, ClientTestData.createOldCertificateModelWithWrongPrivateKey()))
+            .isThrownBy(() -> cmpClient.executeKeyUpdateRequestAsync(csrModel, server, ClientTestData.createOldCertificateModelWithWrongPrivateKey()))
             .withMessageContaining("Cannot convert certificate or key");
 
     }
@@ -236,11 +235,11 @@ class Cmpv2ClientTest {
     void shouldThrowCmpClientExceptionWhenCannotParseOldCertificate() {
         setCsrModelAndServerTestDefaultValues();
 
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        CmpClientImpl cmpClient = createCmpClient();
 
         // When // Then
         assertThatExceptionOfType(CertificateDecryptionException.class)
-            .isThrownBy(() -> cmpClient.executeKeyUpdateRequest(csrModel, server, ClientTestData.createOldCertificateModelWithWrongCert()))
+            .isThrownBy(() -> cmpClient.executeKeyUpdateRequestAsync(csrModel, server, ClientTestData.createOldCertificateModelWithWrongCert()))
             .withMessageContaining("Incorrect certificate, decryption failed");
     }
 
@@ -249,205 +248,328 @@ class Cmpv2ClientTest {
     void shouldReturnValidPkiMessageWhenCreateCertificateRequestMessageMethodCalledWithValidCsr()
             throws Exception {
         // given
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
         setCsrModelAndServerValues(
                 "mypassword",
                 "senderKID",
-                "http://127.0.0.1/ejbca/publicweb/cmp/cmp",
-                beforeDate,
-                afterDate);
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
+                "http://127.0.0.1/ejbca/publicweb/cmp/cmp");
 
         try (final InputStream is =
-                     this.getClass().getResourceAsStream("/ReturnedSuccessPKIMessageWithValidCertificateFile");
-             BufferedInputStream bis = new BufferedInputStream(is)) {
-
-            byte[] ba = IOUtils.toByteArray(bis);
-            doAnswer(
-                    invocation -> {
-                        OutputStream os = (ByteArrayOutputStream) invocation.getArguments()[0];
-                        os.write(ba);
-                        return null;
-                    })
-                    .when(httpEntity)
-                    .writeTo(any(OutputStream.class));
+                     this.getClass().getResourceAsStream("/ReturnedSuccessPKIMessageWithValidCertificateFile")) {
+            mockAsyncResponse(IOUtils.toByteArray(is));
         }
-        CmpClientImpl cmpClient = spy(new CmpClientImpl(httpClient));
+        CmpClientImpl cmpClient = createCmpClient();
         // when
         Cmpv2CertificationModel cmpClientResult =
-                cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter);
+                cmpClient.executeInitializationRequestAsync(csrModel, server).join();
         // then
         assertNotNull(cmpClientResult);
     }
 
     @Test
     void
-    shouldThrowCmpClientExceptionWhenCreateCertificateRequestMessageMethodCalledWithWrongProtectedBytesInResponse()
+    shouldCompleteExceptionallyWithCmpClientExceptionWhenCreateCertificateRequestMessageMethodCalledWithWrongProtectedBytesInResponse()
             throws Exception {
         // given
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
         setCsrModelAndServerValues(
                 "password",
                 "senderKID",
-                "http://127.0.0.1/ejbca/publicweb/cmp/cmp",
-                beforeDate,
-                afterDate);
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
+                "http://127.0.0.1/ejbca/publicweb/cmp/cmp");
 
         try (final InputStream is =
-                     this.getClass().getResourceAsStream("/ReturnedSuccessPKIMessageWithCertificateFile");
-             BufferedInputStream bis = new BufferedInputStream(is)) {
-
-            byte[] ba = IOUtils.toByteArray(bis);
-            doAnswer(
-                    invocation -> {
-                        OutputStream os = (ByteArrayOutputStream) invocation.getArguments()[0];
-                        os.write(ba);
-                        return null;
-                    })
-                    .when(httpEntity)
-                    .writeTo(any(OutputStream.class));
+                     this.getClass().getResourceAsStream("/ReturnedSuccessPKIMessageWithCertificateFile")) {
+            mockAsyncResponse(IOUtils.toByteArray(is));
         }
-        CmpClientImpl cmpClient = spy(new CmpClientImpl(httpClient));
+        CmpClientImpl cmpClient = createCmpClient();
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeInitializationRequestAsync(csrModel, server);
+
         // then
-        Assertions.assertThrows(
-                CmpClientException.class,
-                () -> cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter));
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpClientException.class);
     }
 
     @Test
-    void shouldThrowCmpClientExceptionWithPkiErrorExceptionWhenCmpClientCalledWithBadPassword()
-            throws Exception {
+    void shouldCompleteExceptionallyWhenResponseNotContainProtectionAlgorithmField() throws IOException {
+
+        setCsrModelAndServerValues(
+            "password",
+            "senderKID",
+            "http://127.0.0.1/ejbca/publicweb/cmp/cmp");
+        mockAsyncResponse(preparePkiMessageWithoutProtectionAlgorithm().getEncoded());
+
+        CmpClientImpl cmpClient = createCmpClient();
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+            cmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpClientException.class)
+            .withMessageContaining("CMP response does not contain Protection Algorithm field");
+
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenValidatingCsrWithInvalidDates()
+            throws ParseException {
         // given
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
+        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
+        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
         setCsrModelAndServerValues(
                 "password",
                 "senderKID",
-                "http://127.0.0.1/ejbca/publicweb/cmp/cmp",
-                beforeDate,
-                afterDate);
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
+                "http://127.0.0.1/ejbca/publicweb/cmp/cmp");
+        CmpCertificationValidator validator =
+            new CmpCertificationValidator(new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES));
+        // then
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> validator.validate(csrModel, server, beforeDate, afterDate));
+    }
 
+    @Test
+    void shouldCompleteExceptionallyWithCmpServerExceptionWhenAsyncRequestCalledWithBadPassword()
+            throws IOException {
+        // given
+        setCsrModelAndServerTestDefaultValues();
         try (final InputStream is =
-                     this.getClass().getResourceAsStream("/ReturnedFailurePKIMessageBadPassword");
-             BufferedInputStream bis = new BufferedInputStream(is)) {
-
-            byte[] ba = IOUtils.toByteArray(bis);
-            doAnswer(
-                    invocation -> {
-                        OutputStream os = (ByteArrayOutputStream) invocation.getArguments()[0];
-                        os.write(ba);
-                        return null;
-                    })
-                    .when(httpEntity)
-                    .writeTo(any(OutputStream.class));
+                     this.getClass().getResourceAsStream("/ReturnedFailurePKIMessageBadPassword")) {
+            mockAsyncResponse(IOUtils.toByteArray(is));
         }
-        CmpClientImpl cmpClient = spy(new CmpClientImpl(httpClient));
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeInitializationRequestAsync(csrModel, server);
 
         // then
-        Assertions.assertThrows(
-                CmpServerException.class,
-                () -> cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter));
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpServerException.class);
     }
 
+    @Test
+    void shouldCompleteExceptionallyWithCmpClientExceptionWhenAsyncRequestFails() {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        doAnswer(
+                invocation -> {
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(2);
+                    callback.failed(new IOException("Connection refused"));
+                    return null;
+                })
+                .when(httpAsyncClient)
+                .execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any());
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeCertificationRequestAsync(csrModel, server);
+
+        // then
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpClientException.class);
+    }
 
     @Test
-    void shouldThrowExceptionWhenResponseNotContainProtectionAlgorithmField()
-        throws IOException, ParseException {
+    void shouldRetryAsyncRequestWithNewTransactionIdWhenConnectionIsRefused() throws IOException {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        final byte[] responseBytes;
+        try (final InputStream is =
+                     this.getClass().getResourceAsStream("/ReturnedFailurePKIMessageBadPassword")) {
+            responseBytes = IOUtils.toByteArray(is);
+        }
+        when(asyncHttpResponse.getStatusLine()).thenReturn(createStatusLine(HttpStatus.SC_OK));
+        when(asyncHttpResponse.getEntity()).thenReturn(new ByteArrayEntity(responseBytes));
+        List<PKIMessage> sentMessages = new ArrayList<>();
+        doAnswer(
+                invocation -> {
+                    HttpEntityEnclosingRequest request = generateRequest(invocation.getArgument(0));
+                    sentMessages.add(PKIMessage.getInstance(EntityUtils.toByteArray(request.getEntity())));
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(2);
+                    if (sentMessages.size() == 1) {
+                        callback.failed(new ConnectException("Connection refused"));
+                    } else {
+                        callback.completed(asyncHttpResponse);
+                    }
+                    return null;
+                })
+                .when(httpAsyncClient)
+                .execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any());
+        CmpClientImpl cmpClient = createCmpClient(new CmpRetryPolicy(3, 1, 1, 10000));
 
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
-        setCsrModelAndServerValues(
-            "password",
-            "senderKID",
-            "http://127.0.0.1/ejbca/publicweb/cmp/cmp",
-            beforeDate,
-            afterDate);
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // then
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpServerException.class);
+        assertThat(sentMessages).hasSize(2);
+        assertThat(sentMessages.get(1).getHeader().getTransactionID())
+                .isNotEqualTo(sentMessages.get(0).getHeader().getTransactionID());
+        assertThat(sentMessages.get(1).getHeader().getSenderNonce())
+                .isNotEqualTo(sentMessages.get(0).getHeader().getSenderNonce());
+    }
 
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
+    @Test
+    void shouldCompleteExceptionallyWithCmpServerUnavailableExceptionWhenCaRespondsWithServiceUnavailable() {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        when(asyncHttpResponse.getStatusLine()).thenReturn(createStatusLine(HttpStatus.SC_SERVICE_UNAVAILABLE));
+        doAnswer(
+                invocation -> {
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(2);
+                    callback.completed(asyncHttpResponse);
+                    return null;
+                })
+                .when(httpAsyncClient)
+                .execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any());
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // then
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpServerUnavailableException.class);
+    }
+
+    @Test
+    void shouldReturnFailedFutureInsteadOfThrowingWhenAsyncRequestCalledWithInvalidServer() {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        server.setUrl(null);
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<Cmpv2CertificationModel> result =
+                cmpClient.executeInitializationRequestAsync(csrModel, server);
 
-        try (
-            BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(
-                preparePkiMessageWithoutProtectionAlgorithm().getEncoded()
-            ))) {
+        // then
+        assertThat(result).isCompletedExceptionally();
+    }
 
-            byte[] ba = IOUtils.toByteArray(bis);
-            doAnswer(
+    @Test
+    void shouldSendSingleMessageWithCertReqMsgForEachCsrWhenBatchRequestCalled() {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        List<CsrModel> csrModels = List.of(csrModel, csrModel, csrModel);
+        PKIMessage[] sentMessage = new PKIMessage[1];
+        doAnswer(
                 invocation -> {
-                    OutputStream os = invocation.getArgument(0);
-                    os.write(ba);
+                    HttpEntityEnclosingRequest request = generateRequest(invocation.getArgument(0));
+                    sentMessage[0] = PKIMessage.getInstance(EntityUtils.toByteArray(request.getEntity()));
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(2);
+                    callback.failed(new IOException("Connection refused"));
                     return null;
                 })
-                .when(httpEntity)
-                .writeTo(any(OutputStream.class));
-        }
+                .when(httpAsyncClient)
+                .execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any());
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
 
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        // when
+        CompletableFuture<List<Cmpv2BatchCertificationResult>> result =
+                cmpClient.executeInitializationBatchRequestAsync(csrModels, server);
 
-        assertThatExceptionOfType(CmpClientException.class)
-            .isThrownBy(() -> cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter))
-            .withMessageContaining("CMP response does not contain Protection Algorithm field");
+        // then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(sentMessage[0].getBody().getType()).isEqualTo(PKIBody.TYPE_INIT_REQ);
+        CertReqMsg[] certReqMsgs = ((CertReqMessages) sentMessage[0].getBody().getContent()).toCertReqMsgArray();
+        assertThat(certReqMsgs).hasSize(3);
+        assertThat(Stream.of(certReqMsgs).map(msg -> msg.getCertReq().getCertReqId().getValue()).distinct())
+                .hasSize(3);
+    }
+
+    @Test
+    void shouldCompleteBatchExceptionallyWhenServerRejectsWholeMessage() throws IOException {
+        // given
+        setCsrModelAndServerTestDefaultValues();
+        try (final InputStream is =
+                     this.getClass().getResourceAsStream("/ReturnedFailurePKIMessageBadPassword")) {
+            mockAsyncResponse(IOUtils.toByteArray(is));
+        }
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<List<Cmpv2BatchCertificationResult>> result =
+                cmpClient.executeInitializationBatchRequestAsync(List.of(csrModel, csrModel), server);
 
+        // then
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(CmpServerException.class);
     }
 
     @Test
-    void shouldThrowIllegalArgumentExceptionWhencreateCertificateCalledWithInvalidCsr()
-            throws ParseException {
+    void shouldReturnFailuresWithoutSendingWhenAllCsrsOfBatchRequestAreInvalid() {
         // given
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        setCsrModelAndServerValues(
-                "password",
-                "senderKID",
-                "http://127.0.0.1/ejbca/publicweb/cmp/cmp",
-                beforeDate,
-                afterDate);
-        CmpClientImpl cmpClient = new CmpClientImpl(httpClient);
+        setCsrModelAndServerTestDefaultValues();
+        CsrModel invalidCsrModel = new CsrModel(null, null, keyPair.getPrivate(), keyPair.getPublic(), new GeneralName[0]);
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        List<Cmpv2BatchCertificationResult> results = cmpClient
+                .executeInitializationBatchRequestAsync(List.of(invalidCsrModel, invalidCsrModel), server).join();
+
         // then
-        Assertions.assertThrows(
-                IllegalArgumentException.class,
-                () -> cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter));
+        assertThat(results).hasSize(2).noneMatch(Cmpv2BatchCertificationResult::isSuccessful);
+        verifyNoInteractions(httpAsyncClient);
     }
 
     @Test
-    void shouldThrowIoExceptionWhenCreateCertificateCalledWithNoServerAvailable()
-            throws IOException, ParseException {
+    void shouldReturnFailedFutureWhenBatchRequestIsEmpty() {
         // given
-        Date beforeDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2019/11/11 12:00:00");
-        Date afterDate = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse("2020/11/11 12:00:00");
-        setCsrModelAndServerValues(
-                "myPassword",
-                "sender",
-                "http://127.0.0.1/ejbca/publicweb/cmp/cmpTest",
-                beforeDate,
-                afterDate);
-        when(httpClient.execute(any())).thenThrow(IOException.class);
-        CmpClientImpl cmpClient = spy(new CmpClientImpl(httpClient));
+        setCsrModelAndServerTestDefaultValues();
+        CmpClientImpl cmpClient = createCmpClient(CmpRetryPolicy.NO_RETRY);
+
+        // when
+        CompletableFuture<List<Cmpv2BatchCertificationResult>> result =
+                cmpClient.executeInitializationBatchRequestAsync(List.of(), server);
+
         // then
-        Assertions.assertThrows(
-                CmpClientException.class,
-                () -> cmpClient.executeInitializationRequest(csrModel, server, notBefore, notAfter));
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(result::join)
+                .withCauseInstanceOf(IllegalArgumentException.class);
     }
 
-    private void mockCorrectKeyUpdateResponse() throws IOException {
+    private void mockAsyncResponse(byte[] responseBytes) {
+        when(asyncHttpResponse.getStatusLine()).thenReturn(createStatusLine(HttpStatus.SC_OK));
+        when(asyncHttpResponse.getEntity()).thenReturn(new ByteArrayEntity(responseBytes));
         doAnswer(
-            invocation -> {
-                OutputStream os = invocation.getArgument(0);
-                os.write(BASE64_DECODER.decode(ClientTestData.KUR_CORRECT_SERVER_RESPONSE_ENCODED.getBytes()));
-                return null;
-            })
-            .when(httpEntity)
-            .writeTo(any(OutputStream.class));
+                invocation -> {
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(2);
+                    callback.completed(asyncHttpResponse);
+                    return null;
+                })
+                .when(httpAsyncClient)
+                .execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any());
     }
 
-    private void setCsrModelAndServerValues(String iak, String rv, String externalCaUrl, Date notBefore, Date notAfter) {
+    private static HttpEntityEnclosingRequest generateRequest(HttpAsyncRequestProducer requestProducer)
+            throws IOException, HttpException {
+        return (HttpEntityEnclosingRequest) requestProducer.generateRequest();
+    }
+
+    private static BasicStatusLine createStatusLine(int statusCode) {
+        return new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null);
+    }
+
+    private void mockCorrectKeyUpdateResponse() {
+        mockAsyncResponse(BASE64_DECODER.decode(ClientTestData.KUR_CORRECT_SERVER_RESPONSE_ENCODED.getBytes()));
+    }
+
+    private void setCsrModelAndServerValues(String iak, String rv, String externalCaUrl) {
         csrModel = new CsrModel(null, dn, keyPair.getPrivate(), keyPair.getPublic(), new GeneralName[0]);
 
         Authentication authentication = new Authentication();
@@ -457,8 +579,6 @@ class Cmpv2ClientTest {
         server.setAuthentication(authentication);
         server.setUrl(externalCaUrl);
         server.setIssuerDN(dn);
-        this.notBefore = notBefore;
-        this.notAfter = notAfter;
     }
 
     private void setCsrModelAndServerTestDefaultValues() {
@@ -509,4 +629,15 @@ class Cmpv2ClientTest {
         );
     }
 
+    private CmpClientImpl createCmpClient() {
+        return createCmpClient(CmpRetryPolicy.NO_RETRY);
+    }
+
+    private CmpClientImpl createCmpClient(CmpRetryPolicy retryPolicy) {
+        return new CmpClientImpl(httpAsyncClient, Runnable::run, retryPolicy,
+            new IssuanceMetrics(new SimpleMeterRegistry()), IssuanceTracing.NOOP, MAX_RESPONSE_SIZE,
+            new CmpCertificationValidator(new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES)),
+            new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES),
+            new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES));
+    }
 }
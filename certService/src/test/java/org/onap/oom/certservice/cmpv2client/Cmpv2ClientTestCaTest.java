@@ -0,0 +1,221 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.configuration.model.Authentication;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.model.OldCertificateModel;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.impl.CmpClientImpl;
+import org.onap.oom.certservice.cmpv2client.impl.CmpRetryPolicy;
+import org.onap.oom.certservice.cmpv2client.impl.VerifiedChainLinkCache;
+import org.onap.oom.certservice.cmpv2client.impl.protections.PasswordBasedMacCache;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+import org.onap.oom.certservice.cmpv2client.validation.CmpCertificationValidator;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+import org.onap.oom.certservice.testca.Cmpv2Responder;
+import org.onap.oom.certservice.testca.Cmpv2TestServer;
+import org.onap.oom.certservice.testca.ResponderSettings;
+import org.onap.oom.certservice.testca.ResponseProtection;
+
+/**
+ * Exchanges CMPv2 messages of {@link CmpClientImpl} with the test CA over HTTP, so that requests are checked by a
+ * CMPv2 server and responses are checked by the client, instead of comparing them with recorded messages.
+ */
+class Cmpv2ClientTestCaTest {
+
+    private static final String CA_NAME = "TestCA";
+    private static final String IAK = "mypassword";
+    private static final int MAX_RESPONSE_SIZE = 1024 * 1024;
+    private static final X500Name SUBJECT = new X500Name("CN=test.onap.org,OU=ONAP,O=Linux-Foundation,C=US");
+
+    private static CertificateAuthority certificateAuthority;
+    private static KeyPair keyPair;
+    private static CsrModel csrModel;
+
+    private final CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.createDefault();
+    private final CmpClientImpl cmpClient = new CmpClientImpl(httpAsyncClient, Runnable::run,
+        CmpRetryPolicy.NO_RETRY, new IssuanceMetrics(new SimpleMeterRegistry()), IssuanceTracing.NOOP,
+        MAX_RESPONSE_SIZE,
+        new CmpCertificationValidator(new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES)),
+        new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES),
+        new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES));
+    private Cmpv2TestServer testCa;
+
+    @BeforeAll
+    static void setUpCertificateAuthority() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        certificateAuthority = new CertificateAuthority("Test");
+        keyPair = CertificateAuthority.generateKeyPair(2048);
+        csrModel = new CsrModel.CsrModelBuilder(new JcaPKCS10CertificationRequestBuilder(SUBJECT, keyPair.getPublic())
+            .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())), keyPair.getPrivate())
+            .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        httpAsyncClient.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        testCa.close();
+        httpAsyncClient.close();
+    }
+
+    @Test
+    void shouldReturnCertificateChainAndRootCaForInitializationRequest() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults());
+
+        // When
+        Cmpv2CertificationModel result = cmpClient.executeInitializationRequestAsync(csrModel, server).join();
+
+        // Then
+        assertThat(result.getCertificateChain()).hasSize(2);
+        X509Certificate leafCertificate = result.getCertificateChain().get(0);
+        assertThat(leafCertificate.getPublicKey()).isEqualTo(keyPair.getPublic());
+        assertThat(result.getCertificateChain().get(1)).isEqualTo(certificateAuthority.getIssuingCertificate());
+        assertThat(result.getTrustedCertificates()).containsExactly(certificateAuthority.getRootCertificate());
+    }
+
+    @Test
+    void shouldReturnCertificateForKeyUpdateRequestSignedWithOldKey() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults());
+        KeyPair oldKeyPair = CertificateAuthority.generateKeyPair(2048);
+        X509Certificate oldCertificate = certificateAuthority.issue(SUBJECT, oldKeyPair.getPublic(), null);
+        OldCertificateModel oldCertificateModel = new OldCertificateModel(
+            Certificate.getInstance(oldCertificate.getEncoded()), SUBJECT, new GeneralName[0],
+            oldKeyPair.getPrivate());
+
+        // When
+        Cmpv2CertificationModel result = cmpClient.executeKeyUpdateRequestAsync(csrModel, server, oldCertificateModel).join();
+
+        // Then
+        assertThat(result.getCertificateChain().get(0).getPublicKey()).isEqualTo(keyPair.getPublic());
+    }
+
+    @Test
+    void shouldAcceptResponseSignedByCa() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults().withProtection(ResponseProtection.SIGNATURE));
+
+        // When
+        Cmpv2CertificationModel result = cmpClient.executeCertificationRequestAsync(csrModel, server).join();
+
+        // Then
+        assertThat(result.getCertificateChain()).hasSize(2);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithCmpServerExceptionWhenCaRejectsRequest() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults().withRejectionRate(1));
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(() -> cmpClient.executeInitializationRequestAsync(csrModel, server).join())
+            .withCauseInstanceOf(CmpServerException.class);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithCmpServerExceptionWhenCaAnswersWithErrorMessage() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults().withErrorMessageRate(1));
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(() -> cmpClient.executeInitializationRequestAsync(csrModel, server).join())
+            .withCauseInstanceOf(CmpServerException.class);
+    }
+
+    @Test
+    void shouldReturnResultsOfValidRequestsAndFailuresOfInvalidOnesForBatchRequest() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults());
+        CsrModel invalidCsrModel = new CsrModel(null, SUBJECT, null, keyPair.getPublic(), new GeneralName[0]);
+
+        // When
+        List<Cmpv2BatchCertificationResult> results = cmpClient
+            .executeInitializationBatchRequestAsync(List.of(csrModel, invalidCsrModel, csrModel), server).join();
+
+        // Then
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isSuccessful()).isTrue();
+        assertThat(results.get(1).getFailureCause()).containsInstanceOf(NullPointerException.class);
+        assertThat(results.get(2).isSuccessful()).isTrue();
+    }
+
+    @Test
+    void shouldAcceptBatchResponseSignedByCa() throws Exception {
+        // Given
+        Cmpv2Server server = startTestCa(ResponderSettings.defaults().withProtection(ResponseProtection.SIGNATURE));
+
+        // When
+        List<Cmpv2BatchCertificationResult> results = cmpClient
+            .executeInitializationBatchRequestAsync(List.of(csrModel, csrModel), server).join();
+
+        // Then
+        assertThat(results).allMatch(Cmpv2BatchCertificationResult::isSuccessful);
+    }
+
+    private Cmpv2Server startTestCa(ResponderSettings settings) throws Exception {
+        testCa = new Cmpv2TestServer(new Cmpv2Responder(certificateAuthority, settings.withIak(IAK)));
+        testCa.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Authentication authentication = new Authentication();
+        authentication.setIak(IAK);
+        authentication.setRv(IAK);
+        Cmpv2Server server = new Cmpv2Server();
+        server.setCaName(CA_NAME);
+        server.setUrl(testCa.getUrl());
+        server.setIssuerDN(certificateAuthority.getIssuingDn());
+        server.setAuthentication(authentication);
+        return server;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MAX_WAIT_MS = 100;
+    private static final long BASE_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private ScheduledFuture<Object> timeoutTask;
+
+    private final AtomicLong clock = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        clock.set(1);
+    }
+
+    @Test
+    void shouldAdmitRequestsUpToLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 1, 10, 0);
+
+        // When
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> first = limiter.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> second = limiter.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> third = limiter.acquire();
+
+        // Then
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(third::join)
+            .withCauseInstanceOf(CmpRequestRejectedException.class);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSuggestRetryAfterAtLeastOneSecond() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 1, 10, 0);
+        limiter.acquire();
+
+        // When
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> rejected = limiter.acquire();
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(rejected::join)
+            .satisfies(exception -> assertThat(
+                ((CmpRequestRejectedException) exception.getCause()).getRetryAfterSeconds()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldAdmitQueuedRequestWhenPermitIsReleased() {
+        // Given
+        mockScheduler();
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 1, 10, 1);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire().join();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire();
+        assertThat(queued).isNotDone();
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        // When
+        permit.onIgnored();
+
+        // Then
+        assertThat(queued).isCompleted();
+        assertThat(limiter.getQueued()).isZero();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        verify(timeoutTask).cancel(false);
+    }
+
+    @Test
+    void shouldRejectQueuedRequestWhenMaxWaitTimeElapses() {
+        // Given
+        ArgumentCaptor<Runnable> timeoutCaptor = mockScheduler();
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 1, 10, 1);
+        limiter.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire();
+
+        // When
+        timeoutCaptor.getValue().run();
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(queued::join)
+            .withCauseInstanceOf(CmpRequestRejectedException.class);
+        assertThat(limiter.getQueued()).isZero();
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreRepeatedRelease() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 1, 10, 0);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire().join();
+        limiter.acquire();
+
+        // When
+        permit.onIgnored();
+        permit.onIgnored();
+
+        // Then
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDecreaseLimitWhenRequestIsDropped() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 1, 20, 0);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire().join();
+
+        // When
+        permit.onDropped();
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldNotDecreaseLimitBelowMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 2, 20, 0);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().join().onDropped();
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIncreaseLimitWhileLatencyIsStableAndLimitIsUsed() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(4, 1, 20, 0);
+
+        // When
+        for (int round = 0; round < 20; round++) {
+            completeAll(acquireAll(limiter, limiter.getLimit()), BASE_RTT_NANOS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(4).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void shouldNotIncreaseLimitWhenLimitIsNotUsed() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 1, 20, 0);
+
+        // When
+        for (int round = 0; round < 20; round++) {
+            completeAll(acquireAll(limiter, 1), BASE_RTT_NANOS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldDecreaseLimitWhenLatencyGrows() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 1, 20, 0);
+        for (int round = 0; round < 5; round++) {
+            completeAll(acquireAll(limiter, limiter.getLimit()), BASE_RTT_NANOS);
+        }
+        int limitBeforeSlowdown = limiter.getLimit();
+
+        // When
+        completeAll(acquireAll(limiter, limiter.getLimit()), BASE_RTT_NANOS * 10);
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(limitBeforeSlowdown);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new AdaptiveConcurrencyLimiter.Settings(30, 1, 20, 0, MAX_WAIT_MS));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new AdaptiveConcurrencyLimiter.Settings(1, 0, 20, 0, MAX_WAIT_MS));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new AdaptiveConcurrencyLimiter.Settings(1, 1, 20, -1, MAX_WAIT_MS));
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize) {
+        return new AdaptiveConcurrencyLimiter(
+            new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxLimit, queueSize, MAX_WAIT_MS),
+            scheduler, clock::get);
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> acquireAll(AdaptiveConcurrencyLimiter limiter, int count) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire().join());
+        }
+        return permits;
+    }
+
+    private void completeAll(List<AdaptiveConcurrencyLimiter.Permit> permits, long rttNanos) {
+        clock.addAndGet(rttNanos);
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+    }
+
+    private ArgumentCaptor<Runnable> mockScheduler() {
+        ArgumentCaptor<Runnable> timeoutCaptor = ArgumentCaptor.forClass(Runnable.class);
+        when(scheduler.schedule(timeoutCaptor.capture(), eq(MAX_WAIT_MS), any())).thenAnswer(invocation -> timeoutTask);
+        return timeoutCaptor;
+    }
+}
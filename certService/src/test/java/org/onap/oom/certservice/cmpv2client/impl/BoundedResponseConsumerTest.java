@@ -0,0 +1,126 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+
+class BoundedResponseConsumerTest {
+
+    private static final int MAX_RESPONSE_SIZE = 20 * 1024;
+
+    private final IOControl ioControl = mock(IOControl.class);
+    private final BoundedResponseConsumer consumer = new BoundedResponseConsumer(MAX_RESPONSE_SIZE);
+
+    @Test
+    void shouldCollectResponseContentOfMaximumSize() throws Exception {
+        // Given
+        byte[] content = createContent(MAX_RESPONSE_SIZE);
+        consumer.responseReceived(createResponse(-1));
+
+        // When
+        consumer.consumeContent(new ByteArrayDecoder(content), ioControl);
+        consumer.responseCompleted(new BasicHttpContext());
+
+        // Then
+        assertThat(consumer.getException()).isNull();
+        assertThat(EntityUtils.toByteArray(consumer.getResult().getEntity())).isEqualTo(content);
+    }
+
+    @Test
+    void shouldRejectResponseDeclaredLargerThanMaximumSize() {
+        // When // Then
+        assertThatExceptionOfType(ContentTooLongException.class)
+            .isThrownBy(() -> consumer.responseReceived(createResponse(MAX_RESPONSE_SIZE + 1)))
+            .withMessageContaining("more than maximum of " + MAX_RESPONSE_SIZE + " bytes");
+    }
+
+    @Test
+    void shouldStopReceivingResponseWhenContentExceedsMaximumSize() throws Exception {
+        // Given
+        ByteArrayDecoder decoder = new ByteArrayDecoder(createContent(3 * MAX_RESPONSE_SIZE));
+        consumer.responseReceived(createResponse(-1));
+
+        // When // Then
+        assertThatExceptionOfType(ContentTooLongException.class)
+            .isThrownBy(() -> consumer.consumeContent(decoder, ioControl))
+            .withMessageContaining("larger than maximum of " + MAX_RESPONSE_SIZE + " bytes");
+        assertThat(decoder.position).isLessThanOrEqualTo(MAX_RESPONSE_SIZE + 8 * 1024);
+    }
+
+    private static HttpResponse createResponse(long contentLength) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContentLength(contentLength);
+        response.setEntity(entity);
+        return response;
+    }
+
+    private static byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        Arrays.fill(content, (byte) 0x30);
+        return content;
+    }
+
+    /**
+     * Decoder handing over the whole content at once, as if it all arrived in a single read from the socket.
+     */
+    private static final class ByteArrayDecoder implements ContentDecoder {
+
+        private final byte[] content;
+        private int position;
+
+        private ByteArrayDecoder(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            if (position == content.length) {
+                return -1;
+            }
+            int length = Math.min(destination.remaining(), content.length - position);
+            destination.put(content, position, length);
+            position += length;
+            return length;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return position == content.length;
+        }
+    }
+}
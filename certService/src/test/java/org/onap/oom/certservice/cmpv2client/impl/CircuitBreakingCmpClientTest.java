@@ -0,0 +1,184 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.onap.oom.certservice.certification.configuration.model.CircuitBreaker;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingCmpClientTest {
+
+    private static final String TEST_CA_NAME = "TestCA";
+    private static final int MINIMUM_CALLS = 2;
+
+    @Mock
+    private AsyncCmpClient delegate;
+    @Mock
+    private CsrModel csrModel;
+    @Mock
+    private Cmpv2CertificationModel certificationModel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakingCmpClient circuitBreakingCmpClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakingCmpClient = new CircuitBreakingCmpClient(delegate, meterRegistry);
+    }
+
+    @Test
+    void shouldPassRequestToDelegateWhenCircuitBreakerIsDisabled() {
+        // Given
+        Cmpv2Server server = createServer(false);
+        CompletableFuture<Cmpv2CertificationModel> expectedResult = CompletableFuture.completedFuture(certificationModel);
+        when(delegate.executeInitializationRequestAsync(csrModel, server)).thenReturn(expectedResult);
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            circuitBreakingCmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // Then
+        assertThat(result).isSameAs(expectedResult);
+        assertThat(meterRegistry.find("certservice.cmp.circuit.state").gauge()).isNull();
+    }
+
+    @Test
+    void shouldRejectRequestsWithoutSendingThemWhenCaDoesNotRespond() {
+        // Given
+        Cmpv2Server server = createServer(true);
+        when(delegate.executeCertificationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(connectionFailure()));
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            circuitBreakingCmpClient.executeCertificationRequestAsync(csrModel, server);
+        }
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            circuitBreakingCmpClient.executeCertificationRequestAsync(csrModel, server);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpRequestRejectedException.class)
+            .satisfies(exception -> assertThat(
+                ((CmpRequestRejectedException) exception.getCause()).getRetryAfterSeconds()).isEqualTo(60));
+        verify(delegate, times(MINIMUM_CALLS)).executeCertificationRequestAsync(csrModel, server);
+        assertThat(meterRegistry.get("certservice.cmp.circuit.state").tag("caName", TEST_CA_NAME).gauge().value())
+            .isEqualTo(CmpCircuitBreaker.State.OPEN.ordinal());
+        assertThat(meterRegistry.get("certservice.cmp.circuit.transitions").tag("state", "open").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.cmp.circuit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStayClosedWhenCaRespondsWithError() {
+        // Given
+        Cmpv2Server server = createServer(true);
+        when(delegate.executeInitializationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(new CmpServerException("Rejected")));
+
+        // When
+        for (int i = 0; i < MINIMUM_CALLS * 2; i++) {
+            circuitBreakingCmpClient.executeInitializationRequestAsync(csrModel, server);
+        }
+
+        // Then
+        assertThat(circuitBreakingCmpClient.getCircuitBreaker(server).getState())
+            .isEqualTo(CmpCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldNotCountRequestsRejectedLocally() {
+        // Given
+        Cmpv2Server server = createServer(true);
+        when(delegate.executeInitializationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(new CmpRequestRejectedException("Too many requests", 1)));
+
+        // When
+        for (int i = 0; i < MINIMUM_CALLS * 2; i++) {
+            circuitBreakingCmpClient.executeInitializationRequestAsync(csrModel, server);
+        }
+
+        // Then
+        assertThat(circuitBreakingCmpClient.getCircuitBreaker(server).getState())
+            .isEqualTo(CmpCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldStartWithClosedCircuitWhenConfigurationIsReloaded() {
+        // Given
+        Cmpv2Server server = createServer(true);
+        when(delegate.executeCertificationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(connectionFailure()));
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            circuitBreakingCmpClient.executeCertificationRequestAsync(csrModel, server);
+        }
+        Cmpv2Server reloadedServer = createServer(true);
+
+        // When
+        CmpCircuitBreaker circuitBreaker = circuitBreakingCmpClient.getCircuitBreaker(reloadedServer);
+
+        // Then
+        assertThat(circuitBreakingCmpClient.getCircuitBreaker(server).getState())
+            .isEqualTo(CmpCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getState()).isEqualTo(CmpCircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("certservice.cmp.circuit.state").gauge().value())
+            .isEqualTo(CmpCircuitBreaker.State.CLOSED.ordinal());
+    }
+
+    private static CmpClientException connectionFailure() {
+        return new CmpClientException("IOException error while trying to connect CA", new IOException("refused"));
+    }
+
+    private static Cmpv2Server createServer(boolean circuitBreakerEnabled) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker();
+        circuitBreaker.setEnabled(circuitBreakerEnabled);
+        circuitBreaker.setMinimumCalls(MINIMUM_CALLS);
+        circuitBreaker.setSlidingWindowSize(MINIMUM_CALLS);
+        circuitBreaker.setOpenStateMs(60000);
+        Cmpv2Server server = new Cmpv2Server();
+        server.setCaName(TEST_CA_NAME);
+        server.setCircuitBreaker(circuitBreaker);
+        return server;
+    }
+}
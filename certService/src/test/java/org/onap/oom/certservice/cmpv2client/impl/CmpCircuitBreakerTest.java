@@ -0,0 +1,175 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.certification.configuration.model.CircuitBreaker;
+import org.onap.oom.certservice.cmpv2client.impl.CmpCircuitBreaker.State;
+
+class CmpCircuitBreakerTest {
+
+    private static final long FAST_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(2000);
+    private static final long OPEN_STATE_MS = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> transitions = new ArrayList<>();
+    private CmpCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreaker settings = new CircuitBreaker();
+        settings.setEnabled(true);
+        settings.setFailureRateThreshold(50);
+        settings.setSlowCallRateThreshold(50);
+        settings.setSlowCallDurationMs(1000);
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setOpenStateMs(OPEN_STATE_MS);
+        settings.setHalfOpenCalls(2);
+        circuitBreaker = new CmpCircuitBreaker(settings,
+            (previousState, newState) -> transitions.add(previousState + "->" + newState), clock::get);
+    }
+
+    @Test
+    void shouldStayClosedBeforeMinimumNumberOfCalls() {
+        // When
+        recordCalls(3, FAST_CALL_NANOS, true);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldOpenWhenFailureRateReachesThreshold() {
+        // When
+        recordCalls(2, FAST_CALL_NANOS, false);
+        recordCalls(2, FAST_CALL_NANOS, true);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.getRemainingOpenMillis()).isEqualTo(OPEN_STATE_MS);
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    void shouldOpenWhenSlowCallRateReachesThreshold() {
+        // When
+        recordCalls(2, FAST_CALL_NANOS, false);
+        recordCalls(2, SLOW_CALL_NANOS, false);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void shouldForgetCallsOutsideSlidingWindow() {
+        // When
+        recordCalls(1, FAST_CALL_NANOS, true);
+        recordCalls(3, FAST_CALL_NANOS, false);
+        recordCalls(1, FAST_CALL_NANOS, true);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldLetLimitedNumberOfProbesThroughAfterOpenPeriod() {
+        // Given
+        openCircuit();
+
+        // When
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_STATE_MS));
+
+        // Then
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuitBreaker.getRemainingOpenMillis()).isZero();
+    }
+
+    @Test
+    void shouldCloseWhenAllProbesSucceed() {
+        // Given
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_STATE_MS));
+
+        // When
+        recordCalls(2, FAST_CALL_NANOS, false);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    void shouldOpenAgainWhenProbeFails() {
+        // Given
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_STATE_MS));
+
+        // When
+        recordCalls(1, FAST_CALL_NANOS, true);
+
+        // Then
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+    }
+
+    @Test
+    void shouldReturnProbePermitWhenCallIsIgnored() {
+        // Given
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_STATE_MS));
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        // When
+        circuitBreaker.onIgnored();
+
+        // Then
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    private void openCircuit() {
+        recordCalls(4, FAST_CALL_NANOS, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void recordCalls(int count, long durationNanos, boolean failed) {
+        for (int i = 0; i < count; i++) {
+            if (circuitBreaker.tryAcquirePermission()) {
+                circuitBreaker.onResult(durationNanos, failed);
+            }
+        }
+    }
+}
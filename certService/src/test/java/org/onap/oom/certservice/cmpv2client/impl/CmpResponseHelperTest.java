@@ -23,16 +23,19 @@ package org.onap.oom.certservice.cmpv2client.impl;
 import org.bouncycastle.asn1.cmp.CMPCertificate;
 import org.bouncycastle.asn1.cmp.CertRepMessage;
 import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.util.io.pem.PemObject;
 import org.bouncycastle.util.io.pem.PemReader;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.testca.CertificateAuthority;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
 import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.security.KeyPair;
 import java.security.NoSuchProviderException;
 import java.security.Security;
 import java.security.cert.Certificate;
@@ -181,6 +184,8 @@ class CmpResponseHelperTest {
             + "m/wB+2VPIYcsPMtIhHC4tgoSaiCqjXYptaOh4b8ye8CPBUCpX/AYYkN0Ow==\n"
             + "-----END CERTIFICATE-----";
 
+    private final VerifiedChainLinkCache verifiedLinks =
+        new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
 
     @BeforeAll
     static void setUpSecurity() {
@@ -202,7 +207,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityCertificate(certs, TEST_1LAYER_ENTITY_CERT);
@@ -224,7 +229,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityCertificate(certs, TEST_1LAYER_ENTITY_CERT);
@@ -248,7 +253,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityCertificate(certs, TEST_1LAYER_ENTITY_CERT);
@@ -274,7 +279,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityCertificate(certs, TEST_1LAYER_ENTITY_CERT);
@@ -300,7 +305,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -326,7 +331,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -353,7 +358,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -377,7 +382,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityCertificate(certs, TEST_1LAYER_ENTITY_CERT);
@@ -399,7 +404,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -426,7 +431,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -455,7 +460,7 @@ class CmpResponseHelperTest {
 
         //  when
         Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                respPkiMessage, certRepMessage, leafCertificate);
+                respPkiMessage, certRepMessage, leafCertificate, verifiedLinks);
 
         // then
         assertThatChainContainsEntityAndIntermediateCertificate(certs, TEST_2LAYER_ENTITY_CERT, TEST_2LAYER_INTERMEDIATE_CERT);
@@ -483,7 +488,7 @@ class CmpResponseHelperTest {
         Exception exception = assertThrows(
                 CmpClientException.class,
                 () -> CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                        respPkiMessage, certRepMessage, leafCertificate
+                        respPkiMessage, certRepMessage, leafCertificate, verifiedLinks
                 )
         );
 
@@ -507,7 +512,7 @@ class CmpResponseHelperTest {
         Exception exception = assertThrows(
                 CmpClientException.class,
                 () -> CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                        respPkiMessage, certRepMessage, leafCertificate
+                        respPkiMessage, certRepMessage, leafCertificate, verifiedLinks
                 )
         );
 
@@ -534,7 +539,7 @@ class CmpResponseHelperTest {
         Exception exception = assertThrows(
                 CmpClientException.class,
                 () -> CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
-                        respPkiMessage, certRepMessage, leafCertificate
+                        respPkiMessage, certRepMessage, leafCertificate, verifiedLinks
                 )
         );
 
@@ -544,6 +549,33 @@ class CmpResponseHelperTest {
         assertThat(actualMessage).isEqualTo(EXPECTED_ERROR_MESSAGE);
     }
 
+    @Test
+    void verifiesLinkBetweenCaCertificatesOnlyOnceForResponsesOfTheSameCa() throws Exception {
+        //  given
+        CertificateAuthority certificateAuthority = new CertificateAuthority("Chain Cache");
+        PKIMessage respPkiMessage = mockExtraCerts(new CMPCertificate[]{
+            mockCmpCertificate(certificateAuthority.getIssuingCertificate().getEncoded())});
+        CertRepMessage certRepMessage = mockCaPubs(new CMPCertificate[]{
+            mockCmpCertificate(certificateAuthority.getRootCertificate().getEncoded())});
+        KeyPair keyPair = CertificateAuthority.generateKeyPair(2048);
+        X509Certificate firstLeafCertificate = parseWithBouncyCastle(
+            certificateAuthority.issue(new X500Name("CN=first.onap.org"), keyPair.getPublic(), null));
+        X509Certificate secondLeafCertificate = parseWithBouncyCastle(
+            certificateAuthority.issue(new X500Name("CN=second.onap.org"), keyPair.getPublic(), null));
+
+        //  when
+        CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(respPkiMessage, certRepMessage, firstLeafCertificate,
+                verifiedLinks);
+        Cmpv2CertificationModel certs = CmpResponseHelper.verifyAndReturnCertChainAndTrustSTore(
+                respPkiMessage, certRepMessage, secondLeafCertificate, verifiedLinks);
+
+        // then
+        assertThat(certs.getCertificateChain()).extracting(Certificate::getEncoded).containsExactly(
+            secondLeafCertificate.getEncoded(), certificateAuthority.getIssuingCertificate().getEncoded());
+        assertThat(verifiedLinks.getMissCount()).isEqualTo(1);
+        assertThat(verifiedLinks.getHitCount()).isEqualTo(1);
+    }
+
 
     private void assertThatRootCaAndTrustedCaAreInSecondList(
             Cmpv2CertificationModel certs, CMPCertificate... rootAndTrustedCerts
@@ -578,6 +610,12 @@ class CmpResponseHelperTest {
                 );
     }
 
+    private X509Certificate parseWithBouncyCastle(X509Certificate certificate)
+            throws CertificateException, NoSuchProviderException {
+        return (X509Certificate) CertificateFactory.getInstance("X.509", "BC").generateCertificate(
+                new ByteArrayInputStream(certificate.getEncoded()));
+    }
+
     private PKIMessage mockExtraCerts(CMPCertificate[] cmpCertificates) {
         PKIMessage respPkiMessage = mock(PKIMessage.class);
         when(respPkiMessage.getExtraCerts()).thenReturn(cmpCertificates);
@@ -0,0 +1,109 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+
+class CmpResponseReaderTest {
+
+    private static final String TEST_CA_NAME = "TestCA";
+    private static final PKIMessage MESSAGE = new PKIMessage(
+        new PKIHeader(PKIHeader.CMP_2000, new GeneralName(new X500Name("CN=sender")),
+            new GeneralName(new X500Name("CN=recipient"))),
+        new PKIBody(PKIBody.TYPE_CONFIRM, DERNull.INSTANCE));
+
+    @Test
+    void shouldReadPkiMessageFromResponseWithoutContentLength() throws Exception {
+        // Given
+        byte[] encoded = MESSAGE.getEncoded(ASN1Encoding.DER);
+        CmpResponseReader reader = new CmpResponseReader(encoded.length);
+
+        // When
+        PKIMessage response = reader.read(new InputStreamEntity(new ByteArrayInputStream(encoded)), TEST_CA_NAME);
+
+        // Then
+        assertThat(response).isEqualTo(MESSAGE);
+    }
+
+    @Test
+    void shouldRejectResponseDeclaredLargerThanMaximumSize() throws IOException {
+        // Given
+        byte[] encoded = MESSAGE.getEncoded(ASN1Encoding.DER);
+        CmpResponseReader reader = new CmpResponseReader(encoded.length - 1);
+
+        // When // Then
+        assertThatExceptionOfType(CmpClientException.class)
+            .isThrownBy(() -> reader.read(new ByteArrayEntity(encoded), TEST_CA_NAME))
+            .withMessageContaining("more than maximum of " + (encoded.length - 1) + " bytes");
+    }
+
+    @Test
+    void shouldRejectResponseLargerThanMaximumSizeWhenContentLengthIsUnknown() throws IOException {
+        // Given
+        byte[] encoded = MESSAGE.getEncoded(ASN1Encoding.DER);
+        CmpResponseReader reader = new CmpResponseReader(encoded.length - 1);
+
+        // When // Then
+        assertThatExceptionOfType(CmpClientException.class)
+            .isThrownBy(() -> reader.read(new InputStreamEntity(new ByteArrayInputStream(encoded)), TEST_CA_NAME))
+            .withCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldRejectResponseWithDataAfterPkiMessage() throws IOException {
+        // Given
+        byte[] encoded = MESSAGE.getEncoded(ASN1Encoding.DER);
+        byte[] withTrailingData = Arrays.copyOf(encoded, encoded.length + 1);
+        CmpResponseReader reader = new CmpResponseReader(withTrailingData.length);
+
+        // When // Then
+        assertThatExceptionOfType(CmpClientException.class)
+            .isThrownBy(() -> reader.read(new ByteArrayEntity(withTrailingData), TEST_CA_NAME))
+            .withMessageContaining("is not a single ASN.1 structure");
+    }
+
+    @Test
+    void shouldRejectResponseWhichIsNotPkiMessage() throws IOException {
+        // Given
+        CmpResponseReader reader = new CmpResponseReader(CmpResponseReader.DEFAULT_MAX_RESPONSE_SIZE);
+
+        // When // Then
+        assertThatExceptionOfType(CmpClientException.class)
+            .isThrownBy(() -> reader.read(new ByteArrayEntity(DERNull.INSTANCE.getEncoded()), TEST_CA_NAME))
+            .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.jupiter.api.Test;
+
+class CmpRetryPolicyTest {
+
+    @Test
+    void shouldDoubleBackoffWithEveryFailedAttempt() {
+        // Given
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(5, 100, 10000, 10000, () -> 1.0);
+
+        // When, Then
+        assertThat(retryPolicy.getBackoffMillis(1)).isEqualTo(100);
+        assertThat(retryPolicy.getBackoffMillis(2)).isEqualTo(200);
+        assertThat(retryPolicy.getBackoffMillis(3)).isEqualTo(400);
+    }
+
+    @Test
+    void shouldNotExceedMaximumBackoff() {
+        // Given
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(50, 100, 1000, 10000, () -> 1.0);
+
+        // When, Then
+        assertThat(retryPolicy.getBackoffMillis(5)).isEqualTo(1000);
+        assertThat(retryPolicy.getBackoffMillis(50)).isEqualTo(1000);
+    }
+
+    @Test
+    void shouldKeepAtLeastHalfOfBackoffWhenJittered() {
+        // Given
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(5, 100, 10000, 10000, () -> 0.0);
+
+        // When, Then
+        assertThat(retryPolicy.getBackoffMillis(1)).isEqualTo(50);
+        assertThat(retryPolicy.getBackoffMillis(2)).isEqualTo(100);
+    }
+
+    @Test
+    void shouldDrawBackoffWithinBounds() {
+        // Given
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(5, 100, 10000, 10000);
+
+        // When
+        long backoffMs = retryPolicy.getBackoffMillis(3);
+
+        // Then
+        assertThat(backoffMs).isBetween(200L, 400L);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenNumberOfAttemptsIsNotPositive() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new CmpRetryPolicy(0, 100, 1000, 10000));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenInitialBackoffExceedsMaximum() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new CmpRetryPolicy(3, 1000, 100, 10000));
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.configuration.model.Hedging;
+import org.onap.oom.certservice.certification.metrics.IssuanceMetrics;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerUnavailableException;
+
+@ExtendWith(MockitoExtension.class)
+class CmpTransportTest {
+
+    private static final String TEST_CA_NAME = "TestCA";
+    private static final String PRIMARY_URL = "http://127.0.0.1/ejbca/publicweb/cmp/cmp";
+    private static final String ALTERNATE_URL = "http://127.0.0.2/ejbca/publicweb/cmp/cmp";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long DEADLINE_MS = 1000;
+    private static final int WARM_UP_REQUESTS = 10;
+
+    @Mock
+    private Cmpv2AsyncHttpClient httpClient;
+    @Mock
+    private CreateCertRequest certRequest;
+    @Mock
+    private PKIMessage firstMessage;
+    @Mock
+    private PKIMessage secondMessage;
+    @Mock
+    private PKIMessage primaryResponse;
+    @Mock
+    private PKIMessage alternateResponse;
+
+    private final AtomicLong clock = new AtomicLong();
+    private Cmpv2Server server;
+    private CmpTransport cmpTransport;
+
+    @BeforeEach
+    void setUp() throws CmpClientException {
+        server = new Cmpv2Server();
+        server.setCaName(TEST_CA_NAME);
+        server.setUrl(PRIMARY_URL);
+        when(certRequest.generateCertReq()).thenReturn(firstMessage, secondMessage);
+        CmpRetryPolicy retryPolicy = new CmpRetryPolicy(MAX_ATTEMPTS, 1, 1, DEADLINE_MS);
+        cmpTransport = new CmpTransport(httpClient, Runnable::run, retryPolicy,
+            new IssuanceMetrics(new SimpleMeterRegistry()), clock::get);
+    }
+
+    @Test
+    void shouldSendNewlyGeneratedMessageWhenConnectionIsRefused() throws CmpClientException {
+        // Given
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.failedFuture(connectionFailure(new ConnectException("refused"))));
+        when(httpClient.postRequest(secondMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(primaryResponse));
+
+        // When
+        PKIMessage response = cmpTransport.send(server, certRequest).join();
+
+        // Then
+        assertThat(response).isSameAs(primaryResponse);
+        verify(certRequest, times(2)).generateCertReq();
+    }
+
+    @Test
+    void shouldFailWithLastErrorWhenAllAttemptsFail() throws CmpClientException {
+        // Given
+        when(httpClient.postRequest(any(), eq(PRIMARY_URL), eq(TEST_CA_NAME)))
+            .thenReturn(CompletableFuture.failedFuture(new CmpServerUnavailableException("Unavailable", 503)));
+
+        // When
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpServerUnavailableException.class);
+        verify(certRequest, times(MAX_ATTEMPTS)).generateCertReq();
+    }
+
+    @Test
+    void shouldNotRetryWhenCaMayHaveReceivedRequest() throws CmpClientException {
+        // Given
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.failedFuture(connectionFailure(new SocketTimeoutException("Read timed out"))));
+
+        // When
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpClientException.class);
+        verify(certRequest, times(1)).generateCertReq();
+    }
+
+    @Test
+    void shouldNotRetryAfterDeadline() throws CmpClientException {
+        // Given
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME)).thenAnswer(invocation -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(DEADLINE_MS));
+            return CompletableFuture.failedFuture(connectionFailure(new ConnectException("refused")));
+        });
+
+        // When
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpClientException.class);
+        verify(certRequest, times(1)).generateCertReq();
+    }
+
+    @Test
+    void shouldUseResponseFromAlternateUrlWhenCaIsSlowerThanUsual() throws CmpClientException {
+        // Given
+        server.setHedging(createHedging());
+        when(certRequest.generateCertReq()).thenReturn(firstMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(primaryResponse));
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            cmpTransport.send(server, certRequest).join();
+        }
+        when(certRequest.generateCertReq()).thenReturn(firstMessage, secondMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME)).thenReturn(new CompletableFuture<>());
+        when(httpClient.postRequest(secondMessage, ALTERNATE_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(alternateResponse));
+
+        // When
+        PKIMessage response = cmpTransport.send(server, certRequest).join();
+
+        // Then
+        assertThat(response).isSameAs(alternateResponse);
+    }
+
+    @Test
+    void shouldCancelPrimaryRequestWhenHedgedRequestSucceeds() throws CmpClientException {
+        // Given
+        server.setHedging(createHedging());
+        when(certRequest.generateCertReq()).thenReturn(firstMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(primaryResponse));
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            cmpTransport.send(server, certRequest).join();
+        }
+        CompletableFuture<PKIMessage> primaryExchange = new CompletableFuture<>();
+        CompletableFuture<PKIMessage> alternateExchange = new CompletableFuture<>();
+        when(certRequest.generateCertReq()).thenReturn(firstMessage, secondMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME)).thenReturn(primaryExchange);
+        when(httpClient.postRequest(secondMessage, ALTERNATE_URL, TEST_CA_NAME)).thenReturn(alternateExchange);
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+        verify(httpClient, timeout(1000)).postRequest(secondMessage, ALTERNATE_URL, TEST_CA_NAME);
+
+        // When
+        alternateExchange.complete(alternateResponse);
+
+        // Then
+        assertThat(result.join()).isSameAs(alternateResponse);
+        assertThat(primaryExchange).isCancelled();
+    }
+
+    @Test
+    void shouldCancelHedgedRequestWhenPrimaryRequestSucceeds() throws CmpClientException {
+        // Given
+        server.setHedging(createHedging());
+        when(certRequest.generateCertReq()).thenReturn(firstMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME))
+            .thenReturn(CompletableFuture.completedFuture(primaryResponse));
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            cmpTransport.send(server, certRequest).join();
+        }
+        CompletableFuture<PKIMessage> primaryExchange = new CompletableFuture<>();
+        CompletableFuture<PKIMessage> alternateExchange = new CompletableFuture<>();
+        when(certRequest.generateCertReq()).thenReturn(firstMessage, secondMessage);
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME)).thenReturn(primaryExchange);
+        when(httpClient.postRequest(secondMessage, ALTERNATE_URL, TEST_CA_NAME)).thenReturn(alternateExchange);
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+        verify(httpClient, timeout(1000)).postRequest(secondMessage, ALTERNATE_URL, TEST_CA_NAME);
+
+        // When
+        primaryExchange.complete(primaryResponse);
+
+        // Then
+        assertThat(result.join()).isSameAs(primaryResponse);
+        assertThat(alternateExchange).isCancelled();
+    }
+
+    @Test
+    void shouldNotHedgeBeforeLatencyOfCaIsKnown() {
+        // Given
+        server.setHedging(createHedging());
+        when(httpClient.postRequest(firstMessage, PRIMARY_URL, TEST_CA_NAME)).thenReturn(new CompletableFuture<>());
+
+        // When
+        CompletableFuture<PKIMessage> result = cmpTransport.send(server, certRequest);
+
+        // Then
+        verify(httpClient, after(100).never()).postRequest(any(), eq(ALTERNATE_URL), any());
+        assertThat(result).isNotDone();
+    }
+
+    private static CmpClientException connectionFailure(Exception cause) {
+        return new CmpClientException("IOException error while trying to connect CA", cause);
+    }
+
+    private static Hedging createHedging() {
+        Hedging hedging = new Hedging();
+        hedging.setEnabled(true);
+        hedging.setAlternateUrl(ALTERNATE_URL);
+        hedging.setMinDelayMs(1);
+        return hedging;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.onap.oom.certservice.certification.configuration.model.Batching;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.certification.tracing.IssuanceTracing;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingCmpClientTest {
+
+    private static final String TEST_CA_NAME = "TestCA";
+    private static final long TEST_WINDOW_MS = 10;
+
+    @Mock
+    private AsyncCmpClient delegate;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private ScheduledFuture<Object> flushTask;
+    @Mock
+    private CsrModel firstCsrModel;
+    @Mock
+    private CsrModel secondCsrModel;
+    @Mock
+    private Cmpv2CertificationModel certificationModel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingCmpClient coalescingCmpClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescingCmpClient = new CoalescingCmpClient(delegate, scheduler, meterRegistry, IssuanceTracing.NOOP);
+    }
+
+    @Test
+    void shouldPassRequestToDelegateWhenBatchingIsDisabled() {
+        // Given
+        Cmpv2Server server = createServer(false, 2);
+        CompletableFuture<Cmpv2CertificationModel> expectedResult = CompletableFuture.completedFuture(certificationModel);
+        when(delegate.executeInitializationRequestAsync(firstCsrModel, server)).thenReturn(expectedResult);
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            coalescingCmpClient.executeInitializationRequestAsync(firstCsrModel, server);
+
+        // Then
+        assertThat(result).isSameAs(expectedResult);
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void shouldSendSingleBatchAndFanOutResultsWhenMaxSizeIsReached() {
+        // Given
+        Cmpv2Server server = createServer(true, 2);
+        mockScheduler();
+        CmpServerException rejection = new CmpServerException("Rejected");
+        when(delegate.executeInitializationBatchRequestAsync(List.of(firstCsrModel, secondCsrModel), server))
+            .thenReturn(CompletableFuture.completedFuture(List.of(
+                Cmpv2BatchCertificationResult.success(certificationModel),
+                Cmpv2BatchCertificationResult.failure(rejection))));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> firstResult =
+            coalescingCmpClient.executeInitializationRequestAsync(firstCsrModel, server);
+        CompletableFuture<Cmpv2CertificationModel> secondResult =
+            coalescingCmpClient.executeInitializationRequestAsync(secondCsrModel, server);
+
+        // Then
+        assertThat(firstResult.join()).isSameAs(certificationModel);
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(secondResult::join)
+            .withCause(rejection);
+        verify(flushTask).cancel(false);
+        verify(delegate, never()).executeInitializationRequestAsync(any(), any());
+        assertThat(meterRegistry.get("certservice.cmp.batching.size").tag("caName", TEST_CA_NAME)
+            .summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("certservice.cmp.batching.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSendSingleRequestWithoutBatchWhenWindowElapses() {
+        // Given
+        Cmpv2Server server = createServer(true, 2);
+        ArgumentCaptor<Runnable> flush = mockScheduler();
+        when(delegate.executeInitializationRequestAsync(firstCsrModel, server))
+            .thenReturn(CompletableFuture.completedFuture(certificationModel));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            coalescingCmpClient.executeInitializationRequestAsync(firstCsrModel, server);
+        assertThat(result).isNotDone();
+        flush.getValue().run();
+
+        // Then
+        assertThat(result.join()).isSameAs(certificationModel);
+        verify(scheduler).schedule(any(Runnable.class), eq(TEST_WINDOW_MS), eq(TimeUnit.MILLISECONDS));
+        verify(delegate, never()).executeInitializationBatchRequestAsync(anyList(), any());
+    }
+
+    @Test
+    void shouldFailAllCoalescedRequestsWhenWholeBatchFails() {
+        // Given
+        Cmpv2Server server = createServer(true, 2);
+        mockScheduler();
+        CmpClientException failure = new CmpClientException("Connection refused");
+        when(delegate.executeInitializationBatchRequestAsync(List.of(firstCsrModel, secondCsrModel), server))
+            .thenReturn(CompletableFuture.failedFuture(new CompletionException(failure)));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> firstResult =
+            coalescingCmpClient.executeInitializationRequestAsync(firstCsrModel, server);
+        CompletableFuture<Cmpv2CertificationModel> secondResult =
+            coalescingCmpClient.executeInitializationRequestAsync(secondCsrModel, server);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(firstResult::join).withCause(failure);
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(secondResult::join).withCause(failure);
+    }
+
+    @Test
+    void shouldSendPendingBatchOnShutdown() {
+        // Given
+        Cmpv2Server server = createServer(true, 2);
+        mockScheduler();
+        when(delegate.executeInitializationRequestAsync(firstCsrModel, server))
+            .thenReturn(CompletableFuture.completedFuture(certificationModel));
+        CompletableFuture<Cmpv2CertificationModel> result =
+            coalescingCmpClient.executeInitializationRequestAsync(firstCsrModel, server);
+
+        // When
+        coalescingCmpClient.shutdown();
+
+        // Then
+        assertThat(result.join()).isSameAs(certificationModel);
+        verify(scheduler).shutdown();
+    }
+
+    private ArgumentCaptor<Runnable> mockScheduler() {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        when(scheduler.schedule(flush.capture(), anyLong(), any())).thenAnswer(invocation -> flushTask);
+        return flush;
+    }
+
+    private Cmpv2Server createServer(boolean batchingEnabled, int maxSize) {
+        Batching batching = new Batching();
+        batching.setEnabled(batchingEnabled);
+        batching.setMaxSize(maxSize);
+        batching.setWindowMs(TEST_WINDOW_MS);
+        Cmpv2Server server = new Cmpv2Server();
+        server.setCaName(TEST_CA_NAME);
+        server.setBatching(batching);
+        return server;
+    }
+}
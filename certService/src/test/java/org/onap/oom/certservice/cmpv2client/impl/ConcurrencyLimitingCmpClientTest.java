@@ -0,0 +1,197 @@
+/*
+ * ============LICENSE_START=======================================================
+ * oom-certservice-api
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.onap.oom.certservice.certification.configuration.model.Cmpv2Server;
+import org.onap.oom.certservice.certification.model.CsrModel;
+import org.onap.oom.certservice.cmpv2client.api.AsyncCmpClient;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpRequestRejectedException;
+import org.onap.oom.certservice.cmpv2client.exceptions.CmpServerException;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2BatchCertificationResult;
+import org.onap.oom.certservice.cmpv2client.model.Cmpv2CertificationModel;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingCmpClientTest {
+
+    private static final String TEST_CA_NAME = "TestCA";
+    private static final int TEST_LIMIT = 10;
+
+    @Mock
+    private AsyncCmpClient delegate;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private CsrModel csrModel;
+    @Mock
+    private Cmpv2CertificationModel certificationModel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitingCmpClient limitingCmpClient;
+    private Cmpv2Server server;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        server = new Cmpv2Server();
+        server.setCaName(TEST_CA_NAME);
+    }
+
+    @Test
+    void shouldPassRequestToDelegateAndReleasePermitWhenCompleted() {
+        // Given
+        createClient(TEST_LIMIT);
+        CompletableFuture<Cmpv2CertificationModel> response = new CompletableFuture<>();
+        when(delegate.executeInitializationRequestAsync(csrModel, server)).thenReturn(response);
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, server);
+        int inFlightBeforeResponse = limitingCmpClient.getLimiter(TEST_CA_NAME).getInFlight();
+        response.complete(certificationModel);
+
+        // Then
+        assertThat(result.join()).isSameAs(certificationModel);
+        assertThat(inFlightBeforeResponse).isEqualTo(1);
+        assertThat(limitingCmpClient.getLimiter(TEST_CA_NAME).getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldRejectRequestWithoutSendingItWhenLimitIsReached() {
+        // Given
+        createClient(1);
+        when(delegate.executeCertificationRequestAsync(csrModel, server)).thenReturn(new CompletableFuture<>());
+        limitingCmpClient.executeCertificationRequestAsync(csrModel, server);
+
+        // When
+        CompletableFuture<List<Cmpv2BatchCertificationResult>> result =
+            limitingCmpClient.executeInitializationBatchRequestAsync(List.of(csrModel), server);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCauseInstanceOf(CmpRequestRejectedException.class);
+        verify(delegate, never()).executeInitializationBatchRequestAsync(any(), any());
+        assertThat(meterRegistry.get("certservice.cmp.limit.rejected").tag("caName", TEST_CA_NAME)
+            .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDecreaseLimitWhenConnectionToCaFails() {
+        // Given
+        createClient(TEST_LIMIT);
+        CmpClientException connectionFailure =
+            new CmpClientException("IOException error while trying to connect CA", new IOException("refused"));
+        when(delegate.executeInitializationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(connectionFailure));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // Then
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCause(connectionFailure);
+        assertThat(limitingCmpClient.getLimiter(TEST_CA_NAME).getLimit()).isLessThan(TEST_LIMIT);
+    }
+
+    @Test
+    void shouldNotDecreaseLimitWhenCaRespondsWithError() {
+        // Given
+        createClient(TEST_LIMIT);
+        when(delegate.executeInitializationRequestAsync(csrModel, server))
+            .thenReturn(CompletableFuture.failedFuture(new CmpServerException("Rejected")));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(limitingCmpClient.getLimiter(TEST_CA_NAME).getLimit()).isEqualTo(TEST_LIMIT);
+        assertThat(limitingCmpClient.getLimiter(TEST_CA_NAME).getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldReleasePermitWhenDelegateThrows() {
+        // Given
+        createClient(TEST_LIMIT);
+        when(delegate.executeInitializationRequestAsync(csrModel, server))
+            .thenThrow(new IllegalStateException("Unexpected"));
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> result =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, server);
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(limitingCmpClient.getLimiter(TEST_CA_NAME).getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldUseSeparateLimitersAndMetricsPerCa() {
+        // Given
+        createClient(1);
+        Cmpv2Server otherServer = new Cmpv2Server();
+        otherServer.setCaName("OtherCA");
+        when(delegate.executeInitializationRequestAsync(any(), any())).thenReturn(new CompletableFuture<>());
+
+        // When
+        CompletableFuture<Cmpv2CertificationModel> first =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, server);
+        CompletableFuture<Cmpv2CertificationModel> second =
+            limitingCmpClient.executeInitializationRequestAsync(csrModel, otherServer);
+
+        // Then
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        assertThat(meterRegistry.get("certservice.cmp.limit.inflight").tag("caName", TEST_CA_NAME).gauge().value())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.cmp.limit.inflight").tag("caName", "OtherCA").gauge().value())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("certservice.cmp.limit.limit").tag("caName", TEST_CA_NAME).gauge().value())
+            .isEqualTo(1);
+    }
+
+    private void createClient(int limit) {
+        limitingCmpClient = new ConcurrencyLimitingCmpClient(delegate, scheduler,
+            new AdaptiveConcurrencyLimiter.Settings(limit, 1, TEST_LIMIT, 0, 100), meterRegistry);
+    }
+}
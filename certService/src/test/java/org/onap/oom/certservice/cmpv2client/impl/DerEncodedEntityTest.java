@@ -0,0 +1,99 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.util.EntityUtils;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.junit.jupiter.api.Test;
+
+class DerEncodedEntityTest {
+
+    private static final PKIMessage MESSAGE = new PKIMessage(
+        new PKIHeader(PKIHeader.CMP_2000, new GeneralName(new X500Name("CN=sender")),
+            new GeneralName(new X500Name("CN=recipient"))),
+        new PKIBody(PKIBody.TYPE_CONFIRM, DERNull.INSTANCE));
+
+    @Test
+    void shouldWriteDerEncodingWithItsLengthAsContentLength() throws IOException {
+        // Given
+        byte[] expected = MESSAGE.getEncoded(ASN1Encoding.DER);
+        DerEncodedEntity entity = new DerEncodedEntity(MESSAGE);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        entity.writeTo(outputStream);
+
+        // Then
+        assertThat(outputStream.toByteArray()).isEqualTo(expected);
+        assertThat(entity.getContentLength()).isEqualTo(expected.length);
+        assertThat(entity.getContentType().getValue()).isEqualTo("application/pkixcmp");
+        assertThat(EntityUtils.toByteArray(entity)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldProduceSameContentForAsyncClientAgainAfterClose() throws IOException {
+        // Given
+        DerEncodedEntity entity = new DerEncodedEntity(MESSAGE);
+        ByteArrayOutputStream firstContent = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondContent = new ByteArrayOutputStream();
+
+        // When
+        entity.produceContent(createEncoder(firstContent), mock(IOControl.class));
+        entity.close();
+        ContentEncoder secondEncoder = createEncoder(secondContent);
+        entity.produceContent(secondEncoder, mock(IOControl.class));
+
+        // Then
+        assertThat(firstContent.toByteArray()).isEqualTo(MESSAGE.getEncoded(ASN1Encoding.DER));
+        assertThat(secondContent.toByteArray()).isEqualTo(firstContent.toByteArray());
+        verify(secondEncoder, times(1)).complete();
+    }
+
+    private static ContentEncoder createEncoder(ByteArrayOutputStream content) throws IOException {
+        ContentEncoder encoder = mock(ContentEncoder.class);
+        when(encoder.write(any())).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            content.write(bytes);
+            return bytes.length;
+        });
+        return encoder;
+    }
+}
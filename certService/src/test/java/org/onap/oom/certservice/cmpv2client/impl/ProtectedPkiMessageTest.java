@@ -0,0 +1,83 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.stream.Stream;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIHeaderBuilder;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+class ProtectedPkiMessageTest {
+
+    private static final PKIBody BODY = new PKIBody(PKIBody.TYPE_CONFIRM, DERNull.INSTANCE);
+
+    static Stream<Arguments> messages() throws Exception {
+        CMPCertificate certificate = CMPCertificate.getInstance(
+            new CertificateAuthority("ProtectedPkiMessageTest").getRootCertificate().getEncoded());
+        return Stream.of(
+            Arguments.of(createHeader(8), null, null),
+            Arguments.of(createHeader(8), new DERBitString(new byte[32]), null),
+            Arguments.of(createHeader(300), new DERBitString(new byte[256]), null),
+            Arguments.of(createHeader(8), new DERBitString(new byte[256]), new CMPCertificate[]{certificate}));
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void shouldEncodeSameDerAsPkiMessageWithSameContent(PKIHeader header, DERBitString protection,
+        CMPCertificate[] extraCerts) throws Exception {
+        // Given
+        byte[] expected = new PKIMessage(header, BODY, protection, extraCerts).getEncoded(ASN1Encoding.DER);
+        ProtectedPkiMessage message = new ProtectedPkiMessage(header, BODY, protection, extraCerts,
+            CmpUtil.generateProtectedBytes(header, BODY));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        message.encodeTo(outputStream, ASN1Encoding.DER);
+
+        // Then
+        assertThat(outputStream.toByteArray()).isEqualTo(expected);
+        assertThat(message.getEncoded(ASN1Encoding.DER)).isEqualTo(expected);
+        assertThat(message.getEncodedLength()).isEqualTo(expected.length);
+        assertThat(message.getEncoded()).isEqualTo(expected);
+    }
+
+    private static PKIHeader createHeader(int senderKidLength) {
+        return new PKIHeaderBuilder(PKIHeader.CMP_2000, new GeneralName(new X500Name("CN=sender")),
+            new GeneralName(new X500Name("CN=recipient")))
+            .setSenderKID(new DEROctetString(new byte[senderKidLength]))
+            .build();
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.onap.oom.certservice.testca.CertificateAuthority;
+
+class VerifiedChainLinkCacheTest {
+
+    private static X509Certificate rootCertificate;
+    private static X509Certificate issuingCertificate;
+    private static X509Certificate leafCertificate;
+
+    @BeforeAll
+    static void setUpCertificates() throws Exception {
+        CertificateAuthority certificateAuthority = new CertificateAuthority("Chain");
+        KeyPair keyPair = CertificateAuthority.generateKeyPair(2048);
+        rootCertificate = certificateAuthority.getRootCertificate();
+        issuingCertificate = certificateAuthority.getIssuingCertificate();
+        leafCertificate = certificateAuthority.issue(new X500Name("CN=onap.org"), keyPair.getPublic(), null);
+    }
+
+    @Test
+    void shouldReportLinkAsVerifiedOnlyAfterItWasMarked() {
+        // Given
+        VerifiedChainLinkCache cache = new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
+
+        // When
+        boolean verifiedBeforeMarking = cache.isVerified(issuingCertificate, rootCertificate, null);
+        cache.markVerified(issuingCertificate, rootCertificate);
+        boolean verifiedAfterMarking = cache.isVerified(issuingCertificate, rootCertificate, null);
+
+        // Then
+        assertThat(verifiedBeforeMarking).isFalse();
+        assertThat(verifiedAfterMarking).isTrue();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReportLinkWithOtherIssuerAsVerified() {
+        // Given
+        VerifiedChainLinkCache cache = new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
+
+        // When
+        cache.markVerified(leafCertificate, issuingCertificate);
+
+        // Then
+        assertThat(cache.isVerified(leafCertificate, rootCertificate, null)).isFalse();
+        assertThat(cache.isVerified(issuingCertificate, leafCertificate, null)).isFalse();
+    }
+
+    @Test
+    void shouldNotReportLinkAsVerifiedOutsideValidityOfItsCertificates() {
+        // Given
+        VerifiedChainLinkCache cache = new VerifiedChainLinkCache(VerifiedChainLinkCache.DEFAULT_MAX_ENTRIES);
+        cache.markVerified(leafCertificate, issuingCertificate);
+        Date afterLeafExpiry = new Date(leafCertificate.getNotAfter().getTime() + TimeUnit.SECONDS.toMillis(1));
+        Date beforeLeafIssuance = new Date(leafCertificate.getNotBefore().getTime() - TimeUnit.SECONDS.toMillis(1));
+
+        // Then
+        assertThat(cache.isVerified(leafCertificate, issuingCertificate, leafCertificate.getNotAfter())).isTrue();
+        assertThat(cache.isVerified(leafCertificate, issuingCertificate, afterLeafExpiry)).isFalse();
+        assertThat(cache.isVerified(leafCertificate, issuingCertificate, beforeLeafIssuance)).isFalse();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedLinkWhenFull() {
+        // Given
+        VerifiedChainLinkCache cache = new VerifiedChainLinkCache(1);
+
+        // When
+        cache.markVerified(issuingCertificate, rootCertificate);
+        cache.markVerified(leafCertificate, issuingCertificate);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.isVerified(issuingCertificate, rootCertificate, null)).isFalse();
+        assertThat(cache.isVerified(leafCertificate, issuingCertificate, null)).isTrue();
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ * ============LICENSE_START=======================================================
+ *  Copyright (C) 2021 Nokia.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.cmpv2client.impl.protections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Security;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PasswordBasedMacCacheTest {
+
+    private static final String SHA1_OID = "1.3.14.3.2.26";
+    private static final String HMAC_SHA1_OID = "1.3.6.1.5.5.8.1.2";
+    private static final String PASSWORD = "mypassword";
+    private static final byte[] SALT = "salt".getBytes(StandardCharsets.UTF_8);
+    private static final int ITERATIONS = 1000;
+    private static final byte[] PROTECTED_BYTES = "protected part of PKIMessage".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeAll
+    static void setUpProvider() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @Test
+    void shouldComputeSameMacAsDerivingBaseKeyForEachMessage() throws GeneralSecurityException {
+        // Given
+        PasswordBasedMacCache cache = new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES);
+        byte[] expectedMac = computeMacWithoutCache(PASSWORD, PROTECTED_BYTES);
+
+        // When
+        byte[] firstMac = cache.computeMac(PASSWORD, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID, PROTECTED_BYTES);
+        byte[] secondMac = cache.computeMac(PASSWORD, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID, PROTECTED_BYTES);
+
+        // Then
+        assertThat(firstMac).isEqualTo(expectedMac);
+        assertThat(secondMac).isEqualTo(expectedMac);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUseSeparateKeyForEachPassword() throws GeneralSecurityException {
+        // Given
+        PasswordBasedMacCache cache = new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES);
+
+        // When
+        byte[] firstMac = cache.computeMac(PASSWORD, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID, PROTECTED_BYTES);
+        byte[] otherMac = cache.computeMac("otherpassword", SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID,
+            PROTECTED_BYTES);
+
+        // Then
+        assertThat(otherMac).isEqualTo(computeMacWithoutCache("otherpassword", PROTECTED_BYTES));
+        assertThat(otherMac).isNotEqualTo(firstMac);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedKeysWhenCacheIsFull() throws GeneralSecurityException {
+        // Given
+        PasswordBasedMacCache cache = new PasswordBasedMacCache(2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            cache.computeMac(PASSWORD + i, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID, PROTECTED_BYTES);
+        }
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldVerifyMacAndCountCacheHitsAndMisses() throws GeneralSecurityException {
+        // Given
+        PasswordBasedMacCache cache = new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES);
+        byte[] expectedMac = computeMacWithoutCache(PASSWORD, PROTECTED_BYTES);
+
+        // When
+        boolean validMacVerified = cache.verifyMac(PASSWORD, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID,
+            PROTECTED_BYTES, expectedMac);
+        boolean wrongPasswordVerified = cache.verifyMac("wrongpassword", SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID,
+            PROTECTED_BYTES, expectedMac);
+        boolean validMacVerifiedAgain = cache.verifyMac(PASSWORD, SALT, ITERATIONS, SHA1_OID, HMAC_SHA1_OID,
+            PROTECTED_BYTES, expectedMac);
+
+        // Then
+        assertThat(validMacVerified).isTrue();
+        assertThat(wrongPasswordVerified).isFalse();
+        assertThat(validMacVerifiedAgain).isTrue();
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    private static byte[] computeMacWithoutCache(String password, byte[] bytes) throws GeneralSecurityException {
+        byte[] raSecret = password.getBytes();
+        byte[] baseKey = new byte[raSecret.length + SALT.length];
+        System.arraycopy(raSecret, 0, baseKey, 0, raSecret.length);
+        System.arraycopy(SALT, 0, baseKey, raSecret.length, SALT.length);
+        MessageDigest digest = MessageDigest.getInstance(SHA1_OID, BouncyCastleProvider.PROVIDER_NAME);
+        for (int i = 0; i < ITERATIONS; i++) {
+            baseKey = digest.digest(baseKey);
+        }
+        Mac mac = Mac.getInstance(HMAC_SHA1_OID, BouncyCastleProvider.PROVIDER_NAME);
+        mac.init(new SecretKeySpec(baseKey, HMAC_SHA1_OID));
+        return mac.doFinal(bytes);
+    }
+}
@@ -38,6 +38,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.onap.oom.certservice.cmpv2client.exceptions.CmpClientException;
+import org.onap.oom.certservice.cmpv2client.impl.CmpUtil;
 
 import java.security.Security;
 
@@ -56,6 +57,8 @@ class PasswordBasedProtectionTest {
     private static final int MAX_ITERATION_COUNT = 2000;
     private static final int SALT_LENGTH = 16;
 
+    private final PasswordBasedMacCache macCache = new PasswordBasedMacCache(PasswordBasedMacCache.DEFAULT_MAX_ENTRIES);
+
     @BeforeAll
     static void setUp() {
         Security.addProvider(new BouncyCastleProvider());
@@ -69,7 +72,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldReturnPasswordBasedMacAlgorithmWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -79,7 +82,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldSetPasswordBasedParametersWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -89,7 +92,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldSetSha1ForOwfWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -100,7 +103,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldSetHMacSha1ForMacWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -111,7 +114,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldSetSaltWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -124,7 +127,7 @@ class PasswordBasedProtectionTest {
     @Test
     void shouldSetIterationCountWhenGetAlgorithmMethodCalled() {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(null);
+        PasswordBasedProtection protection = new PasswordBasedProtection(null, macCache);
         //When
         AlgorithmIdentifier algorithmIdentifier = protection.getAlgorithmIdentifier();
         //Then
@@ -140,7 +143,7 @@ class PasswordBasedProtectionTest {
     void shouldReturnProtectionByPasswordWhenGenerateProtectionMethodCalled(String initAuthPassword)
             throws CmpClientException, CMPException {
         //Given
-        PasswordBasedProtection protection = new PasswordBasedProtection(initAuthPassword);
+        PasswordBasedProtection protection = new PasswordBasedProtection(initAuthPassword, macCache);
         PKIHeader pkiHeader = getTestPkiHeader(protection.getAlgorithmIdentifier());
         PKIBody pkiBody = PkiTestUtils.getTestPkiBody(SHA_1_ALGORITHM);
         //When
@@ -151,4 +154,18 @@ class PasswordBasedProtectionTest {
         assertTrue(protectedPkiMessage.verify(pkMacBuilder, initAuthPassword.toCharArray()));
     }
 
+    @Test
+    void shouldReturnProtectionOfAlreadyEncodedHeaderAndBody() throws CmpClientException, CMPException {
+        //Given
+        PasswordBasedProtection protection = new PasswordBasedProtection("test", macCache);
+        PKIHeader pkiHeader = getTestPkiHeader(protection.getAlgorithmIdentifier());
+        PKIBody pkiBody = PkiTestUtils.getTestPkiBody(SHA_1_ALGORITHM);
+        byte[] protectedBytes = CmpUtil.generateProtectedBytes(pkiHeader, pkiBody);
+        //When
+        DERBitString messageProtection = protection.generatePkiMessageProtection(protectedBytes);
+        //Then
+        ProtectedPKIMessage protectedPkiMessage = getProtectedPkiMessage(pkiHeader, pkiBody, messageProtection);
+        PKMACBuilder pkMacBuilder = new PKMACBuilder(new JcePKMACValuesCalculator());
+        assertTrue(protectedPkiMessage.verify(pkMacBuilder, "test".toCharArray()));
+    }
 }
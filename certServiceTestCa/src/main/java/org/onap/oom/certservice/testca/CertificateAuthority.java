@@ -0,0 +1,131 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.cert.CertIOException;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * Two level PKI of the test CA: a self-signed root CA and an issuing CA signing end entity certificates. Keys and
+ * certificates are generated when the CA is created, so tests never depend on certificates which may expire.
+ */
+public final class CertificateAuthority {
+
+    public static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    private static final int CA_KEY_SIZE = 2048;
+    private static final Duration CA_VALIDITY = Duration.ofDays(3650);
+    private static final Duration VALIDITY = Duration.ofDays(365);
+    private static final Duration BACKDATING = Duration.ofHours(1);
+
+    private final AtomicLong serialNumber = new AtomicLong(System.currentTimeMillis());
+    private final X500Name issuingDn;
+    private final X509Certificate rootCertificate;
+    private final KeyPair issuingKeyPair;
+    private final X509Certificate issuingCertificate;
+
+    /**
+     * Creates CA named "CN=&lt;name&gt; Root CA" and "CN=&lt;name&gt; Issuing CA", both with O=Linux-Foundation,C=US.
+     */
+    public CertificateAuthority(String name) throws GeneralSecurityException, OperatorCreationException,
+        CertIOException {
+        final X500Name rootDn = new X500Name("CN=" + name + " Root CA,O=Linux-Foundation,C=US");
+        issuingDn = new X500Name("CN=" + name + " Issuing CA,O=Linux-Foundation,C=US");
+        final KeyPair rootKeyPair = generateKeyPair(CA_KEY_SIZE);
+        issuingKeyPair = generateKeyPair(CA_KEY_SIZE);
+        rootCertificate = sign(rootDn, rootDn, rootKeyPair.getPublic(), rootKeyPair.getPrivate(), null, true,
+            CA_VALIDITY);
+        issuingCertificate = sign(rootDn, issuingDn, issuingKeyPair.getPublic(), rootKeyPair.getPrivate(), null,
+            true, CA_VALIDITY);
+    }
+
+    /**
+     * Generates RSA key pair of given size.
+     */
+    public static KeyPair generateKeyPair(int keySize) throws GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(keySize);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    public X500Name getIssuingDn() {
+        return issuingDn;
+    }
+
+    public X509Certificate getRootCertificate() {
+        return rootCertificate;
+    }
+
+    public X509Certificate getIssuingCertificate() {
+        return issuingCertificate;
+    }
+
+    /**
+     * Issues end entity certificate signed by the issuing CA, with the given extensions, e.g. the ones requested
+     * in a CMPv2 certificate template. Basic constraints of the extensions are ignored.
+     */
+    public X509Certificate issue(X500Name subject, PublicKey publicKey, Extensions extensions)
+        throws GeneralSecurityException, OperatorCreationException, CertIOException {
+        return sign(issuingDn, subject, publicKey, issuingKeyPair.getPrivate(), extensions, false, VALIDITY);
+    }
+
+    PrivateKey getIssuingPrivateKey() {
+        return issuingKeyPair.getPrivate();
+    }
+
+    private X509Certificate sign(X500Name issuer, X500Name subject, PublicKey publicKey, PrivateKey signingKey,
+        Extensions extensions, boolean ca, Duration validity)
+        throws GeneralSecurityException, OperatorCreationException, CertIOException {
+        final Instant now = Instant.now();
+        final JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer,
+            BigInteger.valueOf(serialNumber.incrementAndGet()), Date.from(now.minus(BACKDATING)),
+            Date.from(now.plus(validity)), subject, publicKey);
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        if (extensions != null) {
+            for (ASN1ObjectIdentifier oid : extensions.getExtensionOIDs()) {
+                if (!Extension.basicConstraints.equals(oid)) {
+                    builder.addExtension(extensions.getExtension(oid));
+                }
+            }
+        }
+        return new JcaX509CertificateConverter()
+            .getCertificate(builder.build(new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(signingKey)));
+    }
+}
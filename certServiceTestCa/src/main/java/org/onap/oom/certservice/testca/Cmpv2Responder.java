@@ -0,0 +1,240 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.security.cert.CertificateException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.CMPObjectIdentifiers;
+import org.bouncycastle.asn1.cmp.CertOrEncCert;
+import org.bouncycastle.asn1.cmp.CertRepMessage;
+import org.bouncycastle.asn1.cmp.CertResponse;
+import org.bouncycastle.asn1.cmp.CertifiedKeyPair;
+import org.bouncycastle.asn1.cmp.ErrorMsgContent;
+import org.bouncycastle.asn1.cmp.InfoTypeAndValue;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIConfirmContent;
+import org.bouncycastle.asn1.cmp.PKIFailureInfo;
+import org.bouncycastle.asn1.cmp.PKIFreeText;
+import org.bouncycastle.asn1.cmp.PKIHeader;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.cmp.PKIStatus;
+import org.bouncycastle.asn1.cmp.PKIStatusInfo;
+import org.bouncycastle.asn1.crmf.CertReqMessages;
+import org.bouncycastle.asn1.crmf.CertReqMsg;
+import org.bouncycastle.asn1.crmf.CertTemplate;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.cmp.CMPException;
+import org.bouncycastle.cert.cmp.GeneralPKIMessage;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessage;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessageBuilder;
+import org.bouncycastle.cert.crmf.CRMFException;
+import org.bouncycastle.cert.crmf.PKMACBuilder;
+import org.bouncycastle.cert.crmf.jcajce.JcePKMACValuesCalculator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+
+/**
+ * CMPv2 responder of the test CA, answering requests without any transport. Initialization, certification and
+ * key update requests are answered with initialization, certification and key update responses carrying
+ * certificates issued by {@link CertificateAuthority}, the issuing and root CA in extraCerts and the root CA in
+ * caPubs, like responses of EJBCA. Certificate confirmations are answered with PKI confirmation and any other
+ * request with error message reporting {@code badRequest}.
+ *
+ * <p>Responder is thread safe.
+ */
+public final class Cmpv2Responder {
+
+    private static final int NONCE_LENGTH = 16;
+    private static final Map<Integer, Integer> RESPONSE_TYPES = Map.of(
+        PKIBody.TYPE_INIT_REQ, PKIBody.TYPE_INIT_REP,
+        PKIBody.TYPE_CERT_REQ, PKIBody.TYPE_CERT_REP,
+        PKIBody.TYPE_KEY_UPDATE_REQ, PKIBody.TYPE_KEY_UPDATE_REP);
+
+    private final CertificateAuthority certificateAuthority;
+    private final ResponderSettings settings;
+    private final Provider provider = new BouncyCastleProvider();
+    private final GeneralName sender;
+    private final CMPCertificate[] caPubs;
+    private final X509CertificateHolder[] extraCerts;
+
+    public Cmpv2Responder(CertificateAuthority certificateAuthority, ResponderSettings settings)
+        throws GeneralSecurityException, IOException {
+        this.certificateAuthority = certificateAuthority;
+        this.settings = settings;
+        this.sender = new GeneralName(certificateAuthority.getIssuingDn());
+        this.caPubs = new CMPCertificate[]{
+            CMPCertificate.getInstance(certificateAuthority.getRootCertificate().getEncoded())};
+        this.extraCerts = new X509CertificateHolder[]{
+            new X509CertificateHolder(certificateAuthority.getIssuingCertificate().getEncoded()),
+            new X509CertificateHolder(certificateAuthority.getRootCertificate().getEncoded())};
+    }
+
+    public ResponderSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Answers DER encoded request.
+     *
+     * @return DER encoded response
+     * @throws IllegalArgumentException when the request is not a PKIMessage
+     * @throws CMPException             when the response could not be created
+     */
+    public byte[] respond(byte[] request) throws CMPException {
+        try {
+            return respond(PKIMessage.getInstance(request)).getEncoded();
+        } catch (IOException e) {
+            throw new CMPException("Could not encode CMPv2 response", e);
+        }
+    }
+
+    /**
+     * Answers request.
+     *
+     * @throws CMPException when the response could not be created
+     */
+    public PKIMessage respond(PKIMessage request) throws CMPException {
+        final Random random = ThreadLocalRandom.current();
+        final int requestType = request.getBody().getType();
+        if (settings.isVerifyRequests() && !hasValidProtection(request)) {
+            return createErrorMessage(request, PKIFailureInfo.badMessageCheck,
+                "Protection of the request could not be verified");
+        }
+        if (random.nextDouble() < settings.getErrorMessageRate()) {
+            return createErrorMessage(request, PKIFailureInfo.systemUnavail, "Test CA is not available");
+        }
+        if (requestType == PKIBody.TYPE_CERT_CONFIRM) {
+            return createResponse(request, new PKIBody(PKIBody.TYPE_CONFIRM, new PKIConfirmContent()));
+        }
+        final Integer responseType = RESPONSE_TYPES.get(requestType);
+        if (responseType == null) {
+            return createErrorMessage(request, PKIFailureInfo.badRequest,
+                "Unsupported request type " + requestType);
+        }
+        final CertReqMsg[] certReqMsgs =
+            CertReqMessages.getInstance(request.getBody().getContent()).toCertReqMsgArray();
+        final CertResponse[] certResponses = new CertResponse[certReqMsgs.length];
+        for (int i = 0; i < certReqMsgs.length; i++) {
+            certResponses[i] = createCertResponse(certReqMsgs[i], random);
+        }
+        return createResponse(request, new PKIBody(responseType, new CertRepMessage(caPubs, certResponses)));
+    }
+
+    private CertResponse createCertResponse(CertReqMsg certReqMsg, Random random) throws CMPException {
+        final CertTemplate template = certReqMsg.getCertReq().getCertTemplate();
+        if (random.nextDouble() < settings.getRejectionRate()) {
+            return createCertResponse(certReqMsg,
+                createStatusInfo(PKIStatus.rejection, PKIFailureInfo.badRequest, "Request rejected by test CA"));
+        }
+        if (random.nextDouble() < settings.getWaitingRate()) {
+            return createCertResponse(certReqMsg,
+                new PKIStatusInfo(PKIStatus.waiting, new PKIFreeText("Request waits for approval")));
+        }
+        if (template.getSubject() == null || template.getPublicKey() == null) {
+            return createCertResponse(certReqMsg, createStatusInfo(PKIStatus.rejection,
+                PKIFailureInfo.badCertTemplate, "Subject and public key are required"));
+        }
+        try {
+            final CMPCertificate certificate = CMPCertificate.getInstance(certificateAuthority.issue(
+                template.getSubject(), new JcaPEMKeyConverter().setProvider(provider)
+                    .getPublicKey(template.getPublicKey()), template.getExtensions()).getEncoded());
+            return new CertResponse(certReqMsg.getCertReq().getCertReqId(), new PKIStatusInfo(PKIStatus.granted),
+                new CertifiedKeyPair(new CertOrEncCert(certificate)), null);
+        } catch (GeneralSecurityException | OperatorCreationException | IOException e) {
+            throw new CMPException("Could not issue certificate", e);
+        }
+    }
+
+    private static CertResponse createCertResponse(CertReqMsg certReqMsg, PKIStatusInfo statusInfo) {
+        return new CertResponse(certReqMsg.getCertReq().getCertReqId(), statusInfo);
+    }
+
+    private PKIMessage createErrorMessage(PKIMessage request, int failureInfo, String text) throws CMPException {
+        return createResponse(request, new PKIBody(PKIBody.TYPE_ERROR,
+            new ErrorMsgContent(createStatusInfo(PKIStatus.rejection, failureInfo, text))));
+    }
+
+    private static PKIStatusInfo createStatusInfo(PKIStatus status, int failureInfo, String text) {
+        return new PKIStatusInfo(status, new PKIFreeText(text), new PKIFailureInfo(failureInfo));
+    }
+
+    private PKIMessage createResponse(PKIMessage request, PKIBody body) throws CMPException {
+        final PKIHeader requestHeader = request.getHeader();
+        final byte[] senderNonce = new byte[NONCE_LENGTH];
+        ThreadLocalRandom.current().nextBytes(senderNonce);
+        final ProtectedPKIMessageBuilder builder = new ProtectedPKIMessageBuilder(sender, requestHeader.getSender())
+            .setMessageTime(new Date())
+            .setSenderNonce(senderNonce)
+            .addGeneralInfo(new InfoTypeAndValue(CMPObjectIdentifiers.it_implicitConfirm))
+            .setBody(body);
+        if (requestHeader.getTransactionID() != null) {
+            builder.setTransactionID(requestHeader.getTransactionID().getOctets());
+        }
+        if (requestHeader.getSenderNonce() != null) {
+            builder.setRecipNonce(requestHeader.getSenderNonce().getOctets());
+        }
+        for (X509CertificateHolder extraCert : extraCerts) {
+            builder.addCMPCertificate(extraCert);
+        }
+        try {
+            if (settings.getProtection() == ResponseProtection.SIGNATURE) {
+                return builder.build(new JcaContentSignerBuilder(CertificateAuthority.SIGNATURE_ALGORITHM)
+                    .setProvider(provider).build(certificateAuthority.getIssuingPrivateKey())).toASN1Structure();
+            }
+            return builder.build(createPkMacBuilder().build(settings.getIak().toCharArray())).toASN1Structure();
+        } catch (OperatorCreationException | CRMFException e) {
+            throw new CMPException("Could not protect CMPv2 response", e);
+        }
+    }
+
+    private boolean hasValidProtection(PKIMessage request) {
+        if (request.getHeader().getProtectionAlg() == null || request.getProtection() == null) {
+            return false;
+        }
+        try {
+            final ProtectedPKIMessage protectedMessage = new ProtectedPKIMessage(new GeneralPKIMessage(request));
+            if (protectedMessage.hasPasswordBasedMacProtection()) {
+                return protectedMessage.verify(createPkMacBuilder(), settings.getIak().toCharArray());
+            }
+            // signed requests, e.g. key update requests, carry certificate of the signer in extraCerts
+            final X509CertificateHolder[] certificates = protectedMessage.getCertificates();
+            return certificates.length > 0 && protectedMessage.verify(
+                new JcaContentVerifierProviderBuilder().setProvider(provider).build(certificates[0]));
+        } catch (CMPException | OperatorCreationException | CertificateException e) {
+            return false;
+        }
+    }
+
+    private PKMACBuilder createPkMacBuilder() {
+        return new PKMACBuilder(new JcePKMACValuesCalculator().setProvider(provider));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.cert.cmp.CMPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP transport of {@link Cmpv2Responder} (RFC 6712), accepting POST requests of content type
+ * {@code application/pkixcmp} on any path, so URLs of other CAs, e.g. EJBCA's /ejbca/publicweb/cmp/&lt;alias&gt;,
+ * can be kept. Every response is delayed according to {@link ResponderSettings#getLatency()} and a share of
+ * requests fails with HTTP 500.
+ */
+public final class Cmpv2TestServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Cmpv2TestServer.class);
+    private static final String CONTENT_TYPE = "application/pkixcmp";
+    private static final String DEFAULT_PATH = "/cmp";
+
+    private final Cmpv2Responder responder;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong injectedErrorCount = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public Cmpv2TestServer(Cmpv2Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Starts listening on given address, port 0 picks a free port.
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        // delays are simulated by sleeping, so every request needs its own thread
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "test-ca");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        LOGGER.info("CMPv2 test server listening on {}", server.getAddress());
+    }
+
+    /**
+     * Returns URL of the server, with /cmp path.
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+            + DEFAULT_PATH;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns number of HTTP requests received, including the failed ones.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Returns number of requests failed with HTTP 500 on purpose.
+     */
+    public long getInjectedErrorCount() {
+        return injectedErrorCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] request;
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                request = requestBody.readAllBytes();
+            }
+            final ResponderSettings settings = responder.getSettings();
+            final Random random = ThreadLocalRandom.current();
+            sleep(settings.getLatency().sampleMillis(random));
+            if (random.nextDouble() < settings.getHttpErrorRate()) {
+                injectedErrorCount.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            final byte[] response;
+            try {
+                response = responder.respond(request);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Request is not a CMPv2 message", e);
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            } catch (CMPException e) {
+                LOGGER.error("Could not answer CMPv2 request", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
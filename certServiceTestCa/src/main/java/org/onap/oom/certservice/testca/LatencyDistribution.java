@@ -0,0 +1,113 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.util.Random;
+
+/**
+ * Distribution of test CA response delays. Parsed from {@code none}, {@code fixed:<ms>},
+ * {@code uniform:<min ms>-<max ms>} or {@code lognormal:<median ms>,<p99 ms>}, the last one resembling a real
+ * CA: most responses close to the median with a long tail.
+ */
+public abstract class LatencyDistribution {
+
+    private static final double P99_STANDARD_SCORE = 2.326;
+
+    private final String specification;
+
+    private LatencyDistribution(String specification) {
+        this.specification = specification;
+    }
+
+    /**
+     * Parses distribution from its specification.
+     *
+     * @throws IllegalArgumentException when the specification is invalid
+     */
+    public static LatencyDistribution parse(String specification) {
+        final String[] typeAndValues = specification.split(":", 2);
+        try {
+            switch (typeAndValues[0]) {
+                case "none":
+                    return fixed(specification, 0);
+                case "fixed":
+                    return fixed(specification, Long.parseLong(typeAndValues[1]));
+                case "uniform":
+                    return uniform(specification, typeAndValues[1].split("-"));
+                case "lognormal":
+                    return logNormal(specification, typeAndValues[1].split(","));
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + specification, e);
+        }
+        throw new IllegalArgumentException("Unknown latency distribution: " + specification);
+    }
+
+    /**
+     * Returns next delay in milliseconds.
+     */
+    public abstract long sampleMillis(Random random);
+
+    @Override
+    public String toString() {
+        return specification;
+    }
+
+    private static LatencyDistribution fixed(String specification, long millis) {
+        return new LatencyDistribution(specification) {
+            @Override
+            public long sampleMillis(Random random) {
+                return millis;
+            }
+        };
+    }
+
+    private static LatencyDistribution uniform(String specification, String[] bounds) {
+        final long min = Long.parseLong(bounds[0]);
+        final long max = Long.parseLong(bounds[1]);
+        if (max < min) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + specification);
+        }
+        return new LatencyDistribution(specification) {
+            @Override
+            public long sampleMillis(Random random) {
+                return min + (long) (random.nextDouble() * (max - min + 1));
+            }
+        };
+    }
+
+    private static LatencyDistribution logNormal(String specification, String[] percentiles) {
+        final double median = Double.parseDouble(percentiles[0]);
+        final double p99 = Double.parseDouble(percentiles[1]);
+        if (median <= 0 || p99 < median) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + specification);
+        }
+        final double sigma = Math.log(p99 / median) / P99_STANDARD_SCORE;
+        return new LatencyDistribution(specification) {
+            @Override
+            public long sampleMillis(Random random) {
+                return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+            }
+        };
+    }
+}
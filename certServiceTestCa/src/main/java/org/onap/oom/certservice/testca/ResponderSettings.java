@@ -0,0 +1,171 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+/**
+ * Behaviour of the test CA. Every setting has a default giving a well behaved CA: no delay, no failures and
+ * password based protection with "mypassword" as in the EJBCA container used by docker-compose. Settings are
+ * immutable, each {@code with...} method returns a modified copy.
+ *
+ * <p>Failure rates are probabilities from 0 to 1 drawn independently for every request, in order: HTTP 500,
+ * CMPv2 error message, rejection of the certificate request and {@code waiting} status.
+ */
+public final class ResponderSettings {
+
+    public static final String DEFAULT_IAK = "mypassword";
+
+    private final String iak;
+    private final ResponseProtection protection;
+    private final boolean verifyRequests;
+    private final LatencyDistribution latency;
+    private final double httpErrorRate;
+    private final double errorMessageRate;
+    private final double rejectionRate;
+    private final double waitingRate;
+
+    private ResponderSettings(String iak, ResponseProtection protection, boolean verifyRequests,
+        LatencyDistribution latency, double httpErrorRate, double errorMessageRate, double rejectionRate,
+        double waitingRate) {
+        this.iak = iak;
+        this.protection = protection;
+        this.verifyRequests = verifyRequests;
+        this.latency = latency;
+        this.httpErrorRate = checkRate(httpErrorRate);
+        this.errorMessageRate = checkRate(errorMessageRate);
+        this.rejectionRate = checkRate(rejectionRate);
+        this.waitingRate = checkRate(waitingRate);
+    }
+
+    public static ResponderSettings defaults() {
+        return new ResponderSettings(DEFAULT_IAK, ResponseProtection.PASSWORD_BASED_MAC, true,
+            LatencyDistribution.parse("none"), 0, 0, 0, 0);
+    }
+
+    /**
+     * Sets initial authentication key verifying password based protection of requests and protecting responses.
+     */
+    public ResponderSettings withIak(String iak) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    public ResponderSettings withProtection(ResponseProtection protection) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets whether protection of requests is verified, requests failing verification are answered with
+     * {@code badMessageCheck} error message.
+     */
+    public ResponderSettings withRequestVerification(boolean verifyRequests) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets delay of every HTTP response, applied by {@link Cmpv2TestServer} only.
+     */
+    public ResponderSettings withLatency(LatencyDistribution latency) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets share of requests answered with HTTP 500 without a CMPv2 message, applied by {@link Cmpv2TestServer}
+     * only.
+     */
+    public ResponderSettings withHttpErrorRate(double httpErrorRate) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets share of requests answered with CMPv2 error message reporting {@code systemUnavail}.
+     */
+    public ResponderSettings withErrorMessageRate(double errorMessageRate) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets share of certificate requests answered with {@code rejection} status and {@code badRequest} failure.
+     */
+    public ResponderSettings withRejectionRate(double rejectionRate) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    /**
+     * Sets share of certificate requests answered with {@code waiting} status and no certificate, as a CA
+     * which issues certificates only after approval does.
+     */
+    public ResponderSettings withWaitingRate(double waitingRate) {
+        return new ResponderSettings(iak, protection, verifyRequests, latency, httpErrorRate, errorMessageRate,
+            rejectionRate, waitingRate);
+    }
+
+    public String getIak() {
+        return iak;
+    }
+
+    public ResponseProtection getProtection() {
+        return protection;
+    }
+
+    public boolean isVerifyRequests() {
+        return verifyRequests;
+    }
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    public double getHttpErrorRate() {
+        return httpErrorRate;
+    }
+
+    public double getErrorMessageRate() {
+        return errorMessageRate;
+    }
+
+    public double getRejectionRate() {
+        return rejectionRate;
+    }
+
+    public double getWaitingRate() {
+        return waitingRate;
+    }
+
+    @Override
+    public String toString() {
+        return "protection=" + protection + ", verifyRequests=" + verifyRequests + ", latency=" + latency
+            + ", httpErrorRate=" + httpErrorRate + ", errorMessageRate=" + errorMessageRate
+            + ", rejectionRate=" + rejectionRate + ", waitingRate=" + waitingRate;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.util.Locale;
+
+/**
+ * Protection of CMPv2 responses: password based MAC with the initial authentication key, as used by EJBCA in RA
+ * mode, or signature of the issuing CA.
+ */
+public enum ResponseProtection {
+    PASSWORD_BASED_MAC("pbm"), SIGNATURE("signature");
+
+    private final String name;
+
+    ResponseProtection(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns protection of given name, {@code pbm} or {@code signature}.
+     *
+     * @throws IllegalArgumentException when there is no such protection
+     */
+    public static ResponseProtection fromName(String name) {
+        for (ResponseProtection protection : values()) {
+            if (protection.name.equals(name.toLowerCase(Locale.ROOT))) {
+                return protection;
+            }
+        }
+        throw new IllegalArgumentException("Unknown response protection: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CountDownLatch;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the test CA as a standalone HTTP server until the process is terminated, configured with environment
+ * variables described in {@link TestCaConfiguration}.
+ */
+public final class TestCaApplication {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestCaApplication.class);
+
+    private TestCaApplication() {
+    }
+
+    public static void main(String[] args) throws GeneralSecurityException, OperatorCreationException,
+        IOException, InterruptedException {
+        final TestCaConfiguration configuration = TestCaConfiguration.fromEnvironment(System.getenv());
+        final CertificateAuthority certificateAuthority = new CertificateAuthority(configuration.getName());
+        final Cmpv2TestServer server =
+            new Cmpv2TestServer(new Cmpv2Responder(certificateAuthority, configuration.getSettings()));
+        final CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }));
+        if (configuration.getRootCertificateFile().isPresent()) {
+            writeRootCertificate(certificateAuthority, Path.of(configuration.getRootCertificateFile().get()));
+        }
+        server.start(new InetSocketAddress(configuration.getPort()));
+        LOGGER.info("Test CA issuer DN: {}, settings: {}", certificateAuthority.getIssuingDn(),
+            configuration.getSettings());
+        stopped.await();
+    }
+
+    private static void writeRootCertificate(CertificateAuthority certificateAuthority, Path file)
+        throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII);
+            JcaPEMWriter pemWriter = new JcaPEMWriter(writer)) {
+            pemWriter.writeObject(certificateAuthority.getRootCertificate());
+        }
+        LOGGER.info("Root CA certificate written to {}", file);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Configuration of the standalone test CA read from environment variables. All variables are optional:
+ * <ul>
+ *     <li>TEST_CA_PORT - HTTP port, 8080 by default</li>
+ *     <li>TEST_CA_NAME - name used in DNs of the CA certificates, "Test" by default</li>
+ *     <li>TEST_CA_IAK - initial authentication key, "mypassword" by default</li>
+ *     <li>TEST_CA_PROTECTION - protection of responses, pbm (default) or signature</li>
+ *     <li>TEST_CA_VERIFY_REQUESTS - whether protection of requests is verified, true by default</li>
+ *     <li>TEST_CA_LATENCY - delay of responses, e.g. fixed:100 or lognormal:50,400, none by default</li>
+ *     <li>TEST_CA_HTTP_ERROR_RATE, TEST_CA_ERROR_MESSAGE_RATE, TEST_CA_REJECTION_RATE, TEST_CA_WAITING_RATE -
+ *     shares of failed requests, 0 by default</li>
+ *     <li>TEST_CA_ROOT_CERTIFICATE_FILE - file the root CA certificate is written to in PEM format</li>
+ * </ul>
+ */
+final class TestCaConfiguration {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_NAME = "Test";
+
+    private final int port;
+    private final String name;
+    private final ResponderSettings settings;
+    private final String rootCertificateFile;
+
+    private TestCaConfiguration(int port, String name, ResponderSettings settings, String rootCertificateFile) {
+        this.port = port;
+        this.name = name;
+        this.settings = settings;
+        this.rootCertificateFile = rootCertificateFile;
+    }
+
+    /**
+     * Reads configuration from environment variables.
+     *
+     * @throws IllegalArgumentException when value of any variable is invalid
+     */
+    static TestCaConfiguration fromEnvironment(Map<String, String> environment) {
+        final Optional<String> port = get(environment, "TEST_CA_PORT");
+        try {
+            final ResponderSettings settings = ResponderSettings.defaults()
+                .withIak(get(environment, "TEST_CA_IAK").orElse(ResponderSettings.DEFAULT_IAK))
+                .withProtection(get(environment, "TEST_CA_PROTECTION")
+                    .map(ResponseProtection::fromName).orElse(ResponseProtection.PASSWORD_BASED_MAC))
+                .withRequestVerification(get(environment, "TEST_CA_VERIFY_REQUESTS")
+                    .map(Boolean::parseBoolean).orElse(true))
+                .withLatency(LatencyDistribution.parse(get(environment, "TEST_CA_LATENCY").orElse("none")))
+                .withHttpErrorRate(getRate(environment, "TEST_CA_HTTP_ERROR_RATE"))
+                .withErrorMessageRate(getRate(environment, "TEST_CA_ERROR_MESSAGE_RATE"))
+                .withRejectionRate(getRate(environment, "TEST_CA_REJECTION_RATE"))
+                .withWaitingRate(getRate(environment, "TEST_CA_WAITING_RATE"));
+            return new TestCaConfiguration(port.map(Integer::parseInt).orElse(DEFAULT_PORT),
+                get(environment, "TEST_CA_NAME").orElse(DEFAULT_NAME), settings,
+                get(environment, "TEST_CA_ROOT_CERTIFICATE_FILE").orElse(null));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in test CA configuration: " + e.getMessage(), e);
+        }
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    ResponderSettings getSettings() {
+        return settings;
+    }
+
+    Optional<String> getRootCertificateFile() {
+        return Optional.ofNullable(rootCertificateFile);
+    }
+
+    private static double getRate(Map<String, String> environment, String variable) {
+        return get(environment, variable).map(Double::parseDouble).orElse(0.0);
+    }
+
+    private static Optional<String> get(Map<String, String> environment, String variable) {
+        return Optional.ofNullable(environment.get(variable)).map(String::trim).filter(value -> !value.isEmpty());
+    }
+}
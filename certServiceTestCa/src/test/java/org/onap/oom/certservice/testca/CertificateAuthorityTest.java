@@ -0,0 +1,78 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CertificateAuthorityTest {
+
+    private static CertificateAuthority certificateAuthority;
+
+    @BeforeAll
+    static void setUpCertificateAuthority() throws Exception {
+        certificateAuthority = new CertificateAuthority("Test");
+    }
+
+    @Test
+    void shouldCreateIssuingCaSignedBySelfSignedRoot() throws Exception {
+        // Given
+        X509Certificate root = certificateAuthority.getRootCertificate();
+        X509Certificate issuing = certificateAuthority.getIssuingCertificate();
+
+        // Then
+        root.verify(root.getPublicKey());
+        issuing.verify(root.getPublicKey());
+        assertThat(issuing.getBasicConstraints()).isGreaterThanOrEqualTo(0);
+        assertThat(X500Name.getInstance(issuing.getSubjectX500Principal().getEncoded()))
+            .isEqualTo(certificateAuthority.getIssuingDn());
+    }
+
+    @Test
+    void shouldIssueEndEntityCertificateWithRequestedExtensionsExceptBasicConstraints() throws Exception {
+        // Given
+        KeyPair keyPair = CertificateAuthority.generateKeyPair(2048);
+        X500Name subject = new X500Name("CN=test.onap.org");
+        Extensions extensions = new Extensions(new Extension[]{
+            new Extension(Extension.subjectAlternativeName, false,
+                new GeneralNames(new GeneralName(GeneralName.dNSName, "test.onap.org")).getEncoded()),
+            new Extension(Extension.basicConstraints, true, new BasicConstraints(true).getEncoded())});
+
+        // When
+        X509Certificate certificate = certificateAuthority.issue(subject, keyPair.getPublic(), extensions);
+
+        // Then
+        certificate.verify(certificateAuthority.getIssuingCertificate().getPublicKey());
+        assertThat(certificate.getBasicConstraints()).isEqualTo(-1);
+        assertThat(certificate.getSubjectAlternativeNames()).hasSize(1);
+        assertThat(certificate.getPublicKey()).isEqualTo(keyPair.getPublic());
+    }
+}
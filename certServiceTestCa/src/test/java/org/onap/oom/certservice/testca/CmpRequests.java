@@ -0,0 +1,98 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.cmp.CertConfirmContent;
+import org.bouncycastle.asn1.cmp.CertStatus;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.crmf.CertReqMessages;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessageBuilder;
+import org.bouncycastle.cert.crmf.CertificateRequestMessageBuilder;
+import org.bouncycastle.cert.crmf.PKMACBuilder;
+import org.bouncycastle.cert.crmf.jcajce.JcePKMACValuesCalculator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * Builds CMPv2 requests like the ones sent by certService.
+ */
+final class CmpRequests {
+
+    static final X500Name SUBJECT = new X500Name("CN=test.onap.org,O=Linux-Foundation,C=US");
+    static final byte[] TRANSACTION_ID = {1, 2, 3, 4};
+    static final byte[] SENDER_NONCE = {5, 6, 7, 8};
+
+    private static final GeneralName SENDER = new GeneralName(SUBJECT);
+    private static final GeneralName RECIPIENT = new GeneralName(new X500Name("CN=Test Issuing CA"));
+
+    private CmpRequests() {
+    }
+
+    static PKIMessage createPasswordProtectedRequest(int type, KeyPair keyPair, String iak) throws Exception {
+        return createBuilder(new PKIBody(type, createCertReqMessages(keyPair)))
+            .build(new PKMACBuilder(new JcePKMACValuesCalculator().setProvider(new BouncyCastleProvider()))
+                .build(iak.toCharArray()))
+            .toASN1Structure();
+    }
+
+    static PKIMessage createSignedKeyUpdateRequest(KeyPair keyPair, X509Certificate oldCertificate,
+        PrivateKey oldPrivateKey) throws Exception {
+        return createBuilder(new PKIBody(PKIBody.TYPE_KEY_UPDATE_REQ, createCertReqMessages(keyPair)))
+            .addCMPCertificate(new X509CertificateHolder(oldCertificate.getEncoded()))
+            .build(new JcaContentSignerBuilder(CertificateAuthority.SIGNATURE_ALGORITHM).build(oldPrivateKey))
+            .toASN1Structure();
+    }
+
+    static PKIMessage createCertificateConfirmation(String iak) throws Exception {
+        final CertConfirmContent content = CertConfirmContent.getInstance(
+            new DERSequence(new CertStatus(new byte[20], BigInteger.ONE)));
+        return createBuilder(new PKIBody(PKIBody.TYPE_CERT_CONFIRM, content))
+            .build(new PKMACBuilder(new JcePKMACValuesCalculator().setProvider(new BouncyCastleProvider()))
+                .build(iak.toCharArray()))
+            .toASN1Structure();
+    }
+
+    private static ProtectedPKIMessageBuilder createBuilder(PKIBody body) {
+        return new ProtectedPKIMessageBuilder(SENDER, RECIPIENT)
+            .setTransactionID(TRANSACTION_ID)
+            .setSenderNonce(SENDER_NONCE)
+            .setBody(body);
+    }
+
+    private static CertReqMessages createCertReqMessages(KeyPair keyPair) throws Exception {
+        final CertificateRequestMessageBuilder builder = new CertificateRequestMessageBuilder(BigInteger.ONE)
+            .setSubject(SUBJECT)
+            .setPublicKey(SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()))
+            .setProofOfPossessionSigningKeySigner(
+                new JcaContentSignerBuilder(CertificateAuthority.SIGNATURE_ALGORITHM).build(keyPair.getPrivate()));
+        return new CertReqMessages(builder.build().toASN1Structure());
+    }
+}
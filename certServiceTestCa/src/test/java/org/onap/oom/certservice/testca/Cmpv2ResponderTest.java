@@ -0,0 +1,233 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.onap.oom.certservice.testca.CmpRequests.SENDER_NONCE;
+import static org.onap.oom.certservice.testca.CmpRequests.SUBJECT;
+import static org.onap.oom.certservice.testca.CmpRequests.TRANSACTION_ID;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.cmp.CertRepMessage;
+import org.bouncycastle.asn1.cmp.CertResponse;
+import org.bouncycastle.asn1.cmp.ErrorMsgContent;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIFailureInfo;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.bouncycastle.asn1.cmp.PKIStatus;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.cmp.GeneralPKIMessage;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessage;
+import org.bouncycastle.cert.crmf.PKMACBuilder;
+import org.bouncycastle.cert.crmf.jcajce.JcePKMACValuesCalculator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class Cmpv2ResponderTest {
+
+    private static final String IAK = "mypassword";
+
+    private static CertificateAuthority certificateAuthority;
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void setUpCertificateAuthority() throws Exception {
+        certificateAuthority = new CertificateAuthority("Test");
+        keyPair = CertificateAuthority.generateKeyPair(2048);
+    }
+
+    @Test
+    void shouldIssueCertificateWithChainForInitializationRequest() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority, ResponderSettings.defaults());
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, IAK);
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_INIT_REP);
+        assertThat(response.getHeader().getTransactionID().getOctets()).isEqualTo(TRANSACTION_ID);
+        assertThat(response.getHeader().getRecipNonce().getOctets()).isEqualTo(SENDER_NONCE);
+        assertThat(new ProtectedPKIMessage(new GeneralPKIMessage(response)).verify(createPkMacBuilder(),
+            IAK.toCharArray())).isTrue();
+        CertRepMessage certRepMessage = (CertRepMessage) response.getBody().getContent();
+        CertResponse certResponse = certRepMessage.getResponse()[0];
+        assertThat(certResponse.getStatus().getStatus().intValue()).isEqualTo(PKIStatus.GRANTED);
+        X509CertificateHolder certificate = new X509CertificateHolder(
+            certResponse.getCertifiedKeyPair().getCertOrEncCert().getCertificate().getEncoded());
+        assertThat(certificate.getSubject()).isEqualTo(SUBJECT);
+        assertThat(certificate.isSignatureValid(new JcaContentVerifierProviderBuilder()
+            .build(certificateAuthority.getIssuingCertificate()))).isTrue();
+        assertThat(response.getExtraCerts()).hasSize(2);
+        assertThat(certRepMessage.getCaPubs()[0].getEncoded())
+            .isEqualTo(certificateAuthority.getRootCertificate().getEncoded());
+    }
+
+    @Test
+    void shouldSignResponseWithIssuingCaKeyWhenSignatureProtectionIsSet() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority,
+            ResponderSettings.defaults().withProtection(ResponseProtection.SIGNATURE));
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_CERT_REQ, keyPair, IAK);
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_CERT_REP);
+        ProtectedPKIMessage protectedResponse = new ProtectedPKIMessage(new GeneralPKIMessage(response));
+        assertThat(protectedResponse.hasPasswordBasedMacProtection()).isFalse();
+        assertThat(protectedResponse.verify(new JcaContentVerifierProviderBuilder()
+            .build(certificateAuthority.getIssuingCertificate()))).isTrue();
+    }
+
+    @Test
+    void shouldAnswerKeyUpdateRequestSignedWithOldKey() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority, ResponderSettings.defaults());
+        KeyPair oldKeyPair = CertificateAuthority.generateKeyPair(2048);
+        X509Certificate oldCertificate = certificateAuthority.issue(SUBJECT, oldKeyPair.getPublic(), null);
+        PKIMessage request = CmpRequests.createSignedKeyUpdateRequest(keyPair, oldCertificate,
+            oldKeyPair.getPrivate());
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_KEY_UPDATE_REP);
+        assertThat(getStatus(response)).isEqualTo(PKIStatus.GRANTED);
+    }
+
+    @Test
+    void shouldAnswerWithBadMessageCheckWhenRequestIsProtectedWithOtherIak() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority, ResponderSettings.defaults());
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, "other");
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_ERROR);
+        ErrorMsgContent error = (ErrorMsgContent) response.getBody().getContent();
+        assertThat(error.getPKIStatusInfo().getFailInfo().intValue()).isEqualTo(PKIFailureInfo.badMessageCheck);
+    }
+
+    @Test
+    void shouldIssueCertificateForRequestWithOtherIakWhenVerificationIsDisabled() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority,
+            ResponderSettings.defaults().withRequestVerification(false));
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, "other");
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(getStatus(response)).isEqualTo(PKIStatus.GRANTED);
+    }
+
+    @Test
+    void shouldAnswerWithErrorMessageWhenErrorMessageRateIsOne() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority,
+            ResponderSettings.defaults().withErrorMessageRate(1));
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, IAK);
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_ERROR);
+        ErrorMsgContent error = (ErrorMsgContent) response.getBody().getContent();
+        assertThat(error.getPKIStatusInfo().getFailInfo().intValue()).isEqualTo(PKIFailureInfo.systemUnavail);
+        assertThat(error.getPKIStatusInfo().getStatusString().getStringAt(0).getString()).isNotEmpty();
+    }
+
+    @Test
+    void shouldRejectCertificateRequestWhenRejectionRateIsOne() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority,
+            ResponderSettings.defaults().withRejectionRate(1));
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, IAK);
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        CertResponse certResponse = ((CertRepMessage) response.getBody().getContent()).getResponse()[0];
+        assertThat(certResponse.getStatus().getStatus().intValue()).isEqualTo(PKIStatus.REJECTION);
+        assertThat(certResponse.getStatus().getFailInfo().intValue()).isEqualTo(PKIFailureInfo.badRequest);
+        assertThat(certResponse.getCertifiedKeyPair()).isNull();
+    }
+
+    @Test
+    void shouldAnswerWithWaitingStatusWhenWaitingRateIsOne() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority,
+            ResponderSettings.defaults().withWaitingRate(1));
+        PKIMessage request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ, keyPair, IAK);
+
+        // When
+        PKIMessage response = responder.respond(request);
+
+        // Then
+        CertResponse certResponse = ((CertRepMessage) response.getBody().getContent()).getResponse()[0];
+        assertThat(certResponse.getStatus().getStatus().intValue()).isEqualTo(PKIStatus.WAITING);
+        assertThat(certResponse.getCertifiedKeyPair()).isNull();
+    }
+
+    @Test
+    void shouldConfirmCertificateConfirmation() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority, ResponderSettings.defaults());
+
+        // When
+        PKIMessage response = responder.respond(CmpRequests.createCertificateConfirmation(IAK));
+
+        // Then
+        assertThat(response.getBody().getType()).isEqualTo(PKIBody.TYPE_CONFIRM);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenRequestIsNotPkiMessage() throws Exception {
+        // Given
+        Cmpv2Responder responder = new Cmpv2Responder(certificateAuthority, ResponderSettings.defaults());
+
+        // Then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> responder.respond(new byte[]{0x30, 0x03, 0x02, 0x01, 0x01}));
+    }
+
+    private static int getStatus(PKIMessage response) {
+        return ((CertRepMessage) response.getBody().getContent()).getResponse()[0].getStatus().getStatus()
+            .intValue();
+    }
+
+    private static PKMACBuilder createPkMacBuilder() {
+        return new PKMACBuilder(new JcePKMACValuesCalculator().setProvider(new BouncyCastleProvider()));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpResponse;
+import org.bouncycastle.asn1.cmp.PKIBody;
+import org.bouncycastle.asn1.cmp.PKIMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class Cmpv2TestServerTest {
+
+    private static final String IAK = "mypassword";
+
+    private static CertificateAuthority certificateAuthority;
+    private static byte[] request;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Cmpv2TestServer server;
+
+    @BeforeAll
+    static void setUpCertificateAuthority() throws Exception {
+        certificateAuthority = new CertificateAuthority("Test");
+        request = CmpRequests.createPasswordProtectedRequest(PKIBody.TYPE_INIT_REQ,
+            CertificateAuthority.generateKeyPair(2048), IAK).getEncoded();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldAnswerCmpRequestPostedOnAnyPath() throws Exception {
+        // Given
+        startServer(ResponderSettings.defaults());
+
+        // When
+        HttpResponse<byte[]> response =
+            post("/ejbca/publicweb/cmp/cmpRA", HttpRequest.BodyPublishers.ofByteArray(request));
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/pkixcmp");
+        assertThat(PKIMessage.getInstance(response.body()).getBody().getType()).isEqualTo(PKIBody.TYPE_INIT_REP);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailWithHttpErrorWhenHttpErrorRateIsOne() throws Exception {
+        // Given
+        startServer(ResponderSettings.defaults().withHttpErrorRate(1));
+
+        // When
+        HttpResponse<byte[]> response = post("/cmp", HttpRequest.BodyPublishers.ofByteArray(request));
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(500);
+        assertThat(server.getInjectedErrorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDelayResponseByConfiguredLatency() throws Exception {
+        // Given
+        startServer(ResponderSettings.defaults().withLatency(LatencyDistribution.parse("fixed:200")));
+        long startTime = System.nanoTime();
+
+        // When
+        HttpResponse<byte[]> response = post("/cmp", HttpRequest.BodyPublishers.ofByteArray(request));
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(System.nanoTime() - startTime).isGreaterThanOrEqualTo(200_000_000L);
+    }
+
+    @Test
+    void shouldAnswerWithBadRequestWhenBodyIsNotCmpMessage() throws Exception {
+        // Given
+        startServer(ResponderSettings.defaults());
+
+        // When
+        HttpResponse<byte[]> response = post("/cmp", HttpRequest.BodyPublishers.ofByteArray(new byte[]{1, 2, 3}));
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldAcceptOnlyPostRequests() throws Exception {
+        // Given
+        startServer(ResponderSettings.defaults());
+
+        // When
+        HttpResponse<byte[]> response = httpClient.send(
+            HttpRequest.newBuilder(URI.create(server.getUrl())).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(405);
+    }
+
+    private void startServer(ResponderSettings settings) throws Exception {
+        server = new Cmpv2TestServer(new Cmpv2Responder(certificateAuthority, settings));
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    private HttpResponse<byte[]> post(String path, BodyPublisher body) throws Exception {
+        URI uri = URI.create("http://localhost:" + server.getPort() + path);
+        return httpClient.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/pkixcmp")
+                .POST(body)
+                .build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
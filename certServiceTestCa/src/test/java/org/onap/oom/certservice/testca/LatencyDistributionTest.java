@@ -0,0 +1,78 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LatencyDistributionTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void shouldSampleFixedDelay() {
+        // Given
+        LatencyDistribution latency = LatencyDistribution.parse("fixed:25");
+
+        // Then
+        assertThat(latency.sampleMillis(random)).isEqualTo(25);
+        assertThat(latency).hasToString("fixed:25");
+    }
+
+    @Test
+    void shouldSampleUniformDelayWithinBounds() {
+        // Given
+        LatencyDistribution latency = LatencyDistribution.parse("uniform:10-20");
+
+        // When
+        LongStream samples = LongStream.range(0, 1000).map(i -> latency.sampleMillis(random));
+
+        // Then
+        assertThat(samples).allMatch(sample -> sample >= 10 && sample <= 20);
+    }
+
+    @Test
+    void shouldSampleLogNormalDelayAroundMedian() {
+        // Given
+        LatencyDistribution latency = LatencyDistribution.parse("lognormal:50,400");
+
+        // When
+        long[] samples = LongStream.range(0, 10_000).map(i -> latency.sampleMillis(random)).sorted().toArray();
+
+        // Then
+        assertThat(samples[5_000]).isBetween(45L, 55L);
+        assertThat(samples[9_900]).isBetween(300L, 500L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fixed", "uniform:20-10", "lognormal:50", "lognormal:400,50", "normal:50"})
+    void shouldThrowExceptionWhenSpecificationIsInvalid(String specification) {
+        // Then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> LatencyDistribution.parse(specification));
+    }
+}
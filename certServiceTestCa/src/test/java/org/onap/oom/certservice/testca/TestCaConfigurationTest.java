@@ -0,0 +1,96 @@
+/*
+ * ============LICENSE_START=======================================================
+ * Cert Service
+ * ================================================================================
+ * Copyright (C) 2021 Nokia. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.oom.certservice.testca;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TestCaConfigurationTest {
+
+    @Test
+    void shouldUseDefaultsWhenNoVariableIsSet() {
+        // When
+        TestCaConfiguration configuration = TestCaConfiguration.fromEnvironment(Map.of());
+
+        // Then
+        assertThat(configuration.getPort()).isEqualTo(8080);
+        assertThat(configuration.getName()).isEqualTo("Test");
+        assertThat(configuration.getRootCertificateFile()).isEmpty();
+        ResponderSettings settings = configuration.getSettings();
+        assertThat(settings.getIak()).isEqualTo("mypassword");
+        assertThat(settings.getProtection()).isEqualTo(ResponseProtection.PASSWORD_BASED_MAC);
+        assertThat(settings.isVerifyRequests()).isTrue();
+        assertThat(settings.getLatency()).hasToString("none");
+        assertThat(settings.getHttpErrorRate()).isZero();
+        assertThat(settings.getWaitingRate()).isZero();
+    }
+
+    @Test
+    void shouldReadAllVariables() {
+        // Given
+        Map<String, String> environment = Map.ofEntries(
+            Map.entry("TEST_CA_PORT", "9090"),
+            Map.entry("TEST_CA_NAME", "Perf"),
+            Map.entry("TEST_CA_IAK", "secret"),
+            Map.entry("TEST_CA_PROTECTION", "SIGNATURE"),
+            Map.entry("TEST_CA_VERIFY_REQUESTS", "false"),
+            Map.entry("TEST_CA_LATENCY", "uniform:10-20"),
+            Map.entry("TEST_CA_HTTP_ERROR_RATE", "0.1"),
+            Map.entry("TEST_CA_ERROR_MESSAGE_RATE", "0.2"),
+            Map.entry("TEST_CA_REJECTION_RATE", "0.3"),
+            Map.entry("TEST_CA_WAITING_RATE", "0.4"),
+            Map.entry("TEST_CA_ROOT_CERTIFICATE_FILE", "/tmp/root.pem"));
+
+        // When
+        TestCaConfiguration configuration = TestCaConfiguration.fromEnvironment(environment);
+
+        // Then
+        assertThat(configuration.getPort()).isEqualTo(9090);
+        assertThat(configuration.getName()).isEqualTo("Perf");
+        assertThat(configuration.getRootCertificateFile()).hasValue("/tmp/root.pem");
+        ResponderSettings settings = configuration.getSettings();
+        assertThat(settings.getIak()).isEqualTo("secret");
+        assertThat(settings.getProtection()).isEqualTo(ResponseProtection.SIGNATURE);
+        assertThat(settings.isVerifyRequests()).isFalse();
+        assertThat(settings.getLatency()).hasToString("uniform:10-20");
+        assertThat(settings.getHttpErrorRate()).isEqualTo(0.1);
+        assertThat(settings.getErrorMessageRate()).isEqualTo(0.2);
+        assertThat(settings.getRejectionRate()).isEqualTo(0.3);
+        assertThat(settings.getWaitingRate()).isEqualTo(0.4);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenRateIsOutOfRange() {
+        // Then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> TestCaConfiguration.fromEnvironment(Map.of("TEST_CA_REJECTION_RATE", "1.5")));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPortIsNotNumber() {
+        // Then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> TestCaConfiguration.fromEnvironment(Map.of("TEST_CA_PORT", "http")));
+    }
+}